@@ -0,0 +1,19 @@
+import java.time.LocalDate;
+
+/**
+ * ผู้รับแจ้งเมื่อวันที่ของบ้านกลับมาว่าง (ยกเลิกการจอง เปลี่ยนวันที่ ปล่อย hold หรือ hold หมดเวลา)
+ * ใช้แทนการวนอ่านรายการจองเพื่อหาวันที่ว่างใหม่ (เช่น Waitlist)
+ */
+public interface AvailabilityListener {
+
+    /**
+     * แจ้งว่าช่วงวันที่นี้ของบ้านไม่ถูกจองแล้ว (วันที่ติดกันอาจว่างอยู่ก่อนแล้วด้วย)
+     * ถูกเรียกขณะ BookingSystem ถือ lock ของบ้านหลังนั้น จึงต้องคืนเร็ว ไม่รอ
+     * และไม่เรียกกลับเข้า BookingSystem (ส่งงานต่อให้ thread อื่นแทน)
+     *
+     * @param house บ้านที่มีวันว่างใหม่
+     * @param checkIn วันแรกที่ว่าง
+     * @param checkOut วันสุดท้ายที่ว่าง (นับรวม)
+     */
+    void datesReleased(House house, LocalDate checkIn, LocalDate checkOut);
+}
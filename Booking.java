@@ -1,35 +1,51 @@
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * คลาสสำหรับจัดการการจองบ้านพัก
  * เก็บข้อมูลการจองแต่ละรายการ รวมถึงข้อมูลบ้าน ลูกค้า วันที่ และราคา
+ *
+ * Booking ที่ได้จาก BookingStore.view() เป็น flyweight: ไม่มีข้อมูลในตัวเอง อ่านค่าจากแถวของที่เก็บ
+ * การจองเดียวกันจึงอาจมีหลาย object การเปรียบเทียบ (equals/hashCode) ใช้หมายเลขการจอง
  */
 public class Booking {
-    // ตัวนับสำหรับสร้างหมายเลขการจองอัตโนมัติ (Auto-increment)
-    private static int bookingCounter = 1;
+    // ตัวนับสำหรับสร้างหมายเลขการจองอัตโนมัติ (Auto-increment แบบ lock-free)
+    private static final AtomicInteger bookingCounter = new AtomicInteger(1);
     
-    // หมายเลขการจองที่ไม่ซ้ำกัน
-    private int bookingId;
+    // ข้อมูลของการจองที่เก็บข้อมูลในตัวเอง (null = flyweight ที่อ่านค่าจาก store)
+    private final Fields fields;
     
-    // ข้อมูลบ้านที่ถูกจอง
-    private House house;
+    // ที่เก็บและแถวที่ flyweight อ่านค่า (null = การจองที่เก็บข้อมูลในตัวเอง)
+    private final BookingStore store;
+    private final int row;
     
-    // ข้อมูลลูกค้าที่ทำการจอง
-    private Customer customer;
-    
-    // วันที่เข้าพัก
-    private LocalDate checkInDate;
-    
-    // วันที่คืนบ้าน
-    private LocalDate checkOutDate;
-    
-    // ราคารวมทั้งหมด (คำนวณจากจำนวนวัน x ราคาต่อวัน)
-    private double totalPrice;
-    
-    // สถานะการชำระเงิน: true = ชำระแล้ว, false = ยังไม่ชำระ
-    private boolean isPaid;
+    /**
+     * ข้อมูลของการจองที่ยังไม่ถูกเก็บลง BookingStore (เช่น hold ที่รอชำระเงิน)
+     * แยกเป็น object ต่างหาก flyweight ซึ่งมีจำนวนมากจึงไม่ต้องมีช่องของค่าเหล่านี้
+     */
+    private static final class Fields {
+        // หมายเลขการจองที่ไม่ซ้ำกัน
+        int bookingId;
+        
+        // ข้อมูลบ้านที่ถูกจอง
+        House house;
+        
+        // ข้อมูลลูกค้าที่ทำการจอง
+        Customer customer;
+        
+        // วันที่เข้าพัก
+        LocalDate checkInDate;
+        
+        // วันที่คืนบ้าน
+        LocalDate checkOutDate;
+        
+        // ราคารวมทั้งหมด (คำนวณจากจำนวนวัน x ราคาต่อวัน)
+        double totalPrice;
+        
+        // สถานะการชำระเงิน: true = ชำระแล้ว, false = ยังไม่ชำระ
+        volatile boolean isPaid;
+    }
     
     /**
      * Constructor สำหรับสร้างการจอง
@@ -41,28 +57,118 @@ public class Booking {
      * @param checkOutDate วันที่คืนบ้าน
      */
     public Booking(House house, Customer customer, LocalDate checkInDate, LocalDate checkOutDate) {
-        // สร้างหมายเลขการจองแบบ Auto-increment
-        this.bookingId = bookingCounter++;
+        this.fields = new Fields();
+        this.store = null;
+        this.row = -1;
         
-        this.house = house;
-        this.customer = customer;
-        this.checkInDate = checkInDate;
-        this.checkOutDate = checkOutDate;
+        // สร้างหมายเลขการจองแบบ Auto-increment (ไม่ซ้ำแม้เรียกพร้อมกันหลาย thread)
+        fields.bookingId = bookingCounter.getAndIncrement();
+        
+        fields.house = house;
+        fields.customer = customer;
+        fields.checkInDate = checkInDate;
+        fields.checkOutDate = checkOutDate;
         
         // เริ่มต้นยังไม่ได้ชำระเงิน
-        this.isPaid = false;
+        fields.isPaid = false;
         
         // คำนวณราคารวมอัตโนมัติ
         calculateTotalPrice();
     }
     
     /**
-     * คำนวณราคารวมโดยอัตโนมัติ
+     * Constructor สำหรับสร้างการจองที่มีหมายเลขอยู่แล้ว (เช่น อ่านกลับจาก journal)
+     * ตัวนับหมายเลขการจองจะถูกเลื่อนให้เกินหมายเลขนี้ เพื่อไม่ให้การจองใหม่ได้หมายเลขซ้ำ
+     * 
+     * @param bookingId หมายเลขการจองเดิม
+     * @param house บ้านที่ถูกจอง
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     */
+    Booking(int bookingId, House house, Customer customer, LocalDate checkInDate, LocalDate checkOutDate) {
+        this.fields = new Fields();
+        this.store = null;
+        this.row = -1;
+        
+        fields.bookingId = bookingId;
+        advanceCounterTo(bookingId + 1);
+        
+        fields.house = house;
+        fields.customer = customer;
+        fields.checkInDate = checkInDate;
+        fields.checkOutDate = checkOutDate;
+        fields.isPaid = false;
+        
+        calculateTotalPrice();
+    }
+    
+    /**
+     * Constructor สำหรับสร้างการจองใหม่ที่คิดราคาไว้แล้ว (เช่น จาก PricingEngine)
+     * 
+     * @param house บ้านที่ต้องการจอง
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     * @param totalPrice ราคารวม (บาท)
+     */
+    Booking(House house, Customer customer, LocalDate checkInDate, LocalDate checkOutDate, double totalPrice) {
+        this(house, customer, checkInDate, checkOutDate);
+        fields.totalPrice = totalPrice;
+    }
+    
+    /**
+     * Constructor สำหรับสร้างการจองที่มีหมายเลขและราคาอยู่แล้ว (เช่น อ่านกลับจาก journal หรือ snapshot)
+     * ราคาเดิมถูกใช้ตามที่บันทึกไว้ ไม่คิดใหม่ตามอัตราปัจจุบัน
+     * 
+     * @param bookingId หมายเลขการจองเดิม
+     * @param house บ้านที่ถูกจอง
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     * @param totalPrice ราคารวมที่บันทึกไว้ (บาท)
+     */
+    Booking(int bookingId, House house, Customer customer, LocalDate checkInDate, LocalDate checkOutDate, 
+            double totalPrice) {
+        this(bookingId, house, customer, checkInDate, checkOutDate);
+        fields.totalPrice = totalPrice;
+    }
+    
+    /**
+     * Constructor ของ flyweight ที่อ่านค่าจากแถวของ BookingStore (ใช้ BookingStore.view())
+     * 
+     * @param store ที่เก็บการจอง
+     * @param row หมายเลขแถว
+     */
+    Booking(BookingStore store, int row) {
+        this.fields = null;
+        this.store = store;
+        this.row = row;
+    }
+    
+    /**
+     * ดึงหมายเลขการจองที่จะใช้กับการจองถัดไป
+     * @return หมายเลขการจองถัดไป
+     */
+    static int peekNextId() {
+        return bookingCounter.get();
+    }
+    
+    /**
+     * เลื่อนตัวนับหมายเลขการจองให้ไม่น้อยกว่า nextId (ไม่เลื่อนถอยหลัง)
+     * @param nextId หมายเลขการจองถัดไปอย่างน้อย
+     */
+    static void advanceCounterTo(int nextId) {
+        bookingCounter.accumulateAndGet(nextId, Math::max);
+    }
+    
+    /**
+     * คำนวณราคารวมโดยอัตโนมัติ (ราคาปกติ ไม่รวมอัตราพิเศษ ดู PricingEngine)
      * สูตร: จำนวนวันที่เข้าพัก x ราคาต่อวัน
      */
     private void calculateTotalPrice() {
         // คำนวณจำนวนวันระหว่างวันเข้าพักและวันคืนบ้าน
-        long numberOfDays = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+        long numberOfDays = ChronoUnit.DAYS.between(fields.checkInDate, fields.checkOutDate);
         
         // ถ้าน้อยกว่าหรือเท่ากับ 0 ให้นับเป็น 1 วัน
         if (numberOfDays <= 0) {
@@ -70,7 +176,7 @@ public class Booking {
         }
         
         // คำนวณราคารวม = จำนวนวัน x ราคาต่อวัน
-        this.totalPrice = house.getPricePerDay() * numberOfDays;
+        fields.totalPrice = fields.house.getPricePerDay() * numberOfDays;
     }
     
     // === Getters - เมธอดสำหรับดึงข้อมูล ===
@@ -80,7 +186,7 @@ public class Booking {
      * @return หมายเลขการจอง (ไม่ซ้ำกัน)
      */
     public int getBookingId() {
-        return bookingId;
+        return store != null ? store.bookingId(row) : fields.bookingId;
     }
     
     /**
@@ -88,7 +194,7 @@ public class Booking {
      * @return object ของ House
      */
     public House getHouse() {
-        return house;
+        return store != null ? store.house(row) : fields.house;
     }
     
     /**
@@ -96,7 +202,7 @@ public class Booking {
      * @return object ของ Customer
      */
     public Customer getCustomer() {
-        return customer;
+        return store != null ? store.customer(row) : fields.customer;
     }
     
     /**
@@ -104,7 +210,7 @@ public class Booking {
      * @return วันที่เข้าพัก
      */
     public LocalDate getCheckInDate() {
-        return checkInDate;
+        return store != null ? store.checkIn(row) : fields.checkInDate;
     }
     
     /**
@@ -112,7 +218,7 @@ public class Booking {
      * @return วันที่คืนบ้าน
      */
     public LocalDate getCheckOutDate() {
-        return checkOutDate;
+        return store != null ? store.checkOut(row) : fields.checkOutDate;
     }
     
     /**
@@ -120,7 +226,7 @@ public class Booking {
      * @return ราคารวม (บาท)
      */
     public double getTotalPrice() {
-        return totalPrice;
+        return store != null ? store.totalPrice(row) : fields.totalPrice;
     }
     
     /**
@@ -128,7 +234,7 @@ public class Booking {
      * @return true ถ้าชำระแล้ว, false ถ้ายังไม่ชำระ
      */
     public boolean isPaid() {
-        return isPaid;
+        return store != null ? store.isPaid(row) : fields.isPaid;
     }
     
     /**
@@ -136,7 +242,11 @@ public class Booking {
      * @param paid true = ชำระแล้ว, false = ยังไม่ชำระ
      */
     public void setPaid(boolean paid) {
-        isPaid = paid;
+        if (store != null) {
+            store.setPaid(row, paid);
+        } else {
+            fields.isPaid = paid;
+        }
     }
     
     /**
@@ -144,8 +254,12 @@ public class Booking {
      * @return จำนวนวัน (อย่างน้อย 1 วัน)
      */
     public long getNumberOfDays() {
+        if (store != null) {
+            return store.numberOfDays(row);
+        }
+        
         // คำนวณจำนวนวันระหว่าง checkInDate และ checkOutDate
-        long days = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+        long days = ChronoUnit.DAYS.between(fields.checkInDate, fields.checkOutDate);
         
         // ถ้าน้อยกว่าหรือเท่ากับ 0 ให้ return 1
         return days <= 0 ? 1 : days;
@@ -156,34 +270,45 @@ public class Booking {
      * พิมพ์ข้อมูลการจองทั้งหมดในรูปแบบที่มีกรอบและอ่านง่าย
      */
     public void displayBookingDetails() {
-        // กำหนดรูปแบบวันที่เป็น dd/MM/yyyy (เช่น 15/12/2025)
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
         // แสดงหัวเรื่อง
         System.out.println("\n╔══════════════════════════════════════════════════════╗");
         System.out.println("║         รายละเอียดการจองบ้านพัก                    ║");
         System.out.println("╚══════════════════════════════════════════════════════╝");
         
         // แสดงข้อมูลการจอง
-        System.out.println("หมายเลขการจอง: " + bookingId );
-        System.out.println("บ้านหมายเลข: " + house.getHouseNumber());
-        System.out.println("วันที่เข้าพัก: " + checkInDate.format(formatter));
-        System.out.println("วันที่คืนบ้าน: " + checkOutDate.format(formatter));
+        System.out.println("หมายเลขการจอง: " + getBookingId() );
+        System.out.println("บ้านหมายเลข: " + getHouse().getHouseNumber());
+        System.out.println("วันที่เข้าพัก: " + DateCodec.format(getCheckInDate()));
+        System.out.println("วันที่คืนบ้าน: " + DateCodec.format(getCheckOutDate()));
         System.out.println("จำนวนวัน: " + getNumberOfDays() + " วัน");
-        System.out.println("ราคาต่อวัน: " + String.format("%.2f", house.getPricePerDay()) + " บาท");
+        System.out.println("ราคาต่อวัน: " + String.format("%.2f", getHouse().getPricePerDay()) + " บาท");
         
         // เส้นแบ่ง
         System.out.println("──────────────────────────────────────────────────────");
-        System.out.println("ราคารวม: " + String.format("%.2f", totalPrice) + " บาท");
+        System.out.println("ราคารวม: " + String.format("%.2f", getTotalPrice()) + " บาท");
         System.out.println("──────────────────────────────────────────────────────");
         System.out.println();
         
         // แสดงข้อมูลลูกค้า
-        customer.displayInfo();
+        getCustomer().displayInfo();
         System.out.println();
         
         // แสดงสถานะการชำระเงิน
-        System.out.println("สถานะการชำระเงิน: " + (isPaid ? "ชำระแล้ว ✓" : "ยังไม่ได้ชำระ"));
+        System.out.println("สถานะการชำระเงิน: " + (isPaid() ? "ชำระแล้ว ✓" : "ยังไม่ได้ชำระ"));
         System.out.println("══════════════════════════════════════════════════════\n");
     }
+    
+    /**
+     * การจองสองรายการเท่ากันถ้ามีหมายเลขการจองเดียวกัน
+     * (flyweight หลายตัวของแถวเดียวกัน และการจองที่ถูกเก็บลง BookingStore ถือเป็นการจองเดียวกัน)
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Booking && ((Booking) other).getBookingId() == getBookingId();
+    }
+    
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(getBookingId());
+    }
 }
@@ -0,0 +1,366 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * คลาสเก็บยอดสรุปของการจองที่ยืนยันแล้ว (รายได้ จำนวนคืนที่มีผู้เข้าพัก อัตราการเข้าพัก
+ * ระยะพักเฉลี่ย และราคาเฉลี่ยต่อคืน) รวมทั้งระบบ รายเดือน และรายบ้านรายเดือน
+ *
+ * ยอดถูกปรับทุกครั้งที่ยืนยัน ยกเลิก หรือเปลี่ยนวันที่การจอง (เรียกจาก BookingSystem)
+ * การอ่านยอดจึงเป็น O(1) ไม่ต้องไล่การจองทั้งหมด
+ *
+ * รายได้เก็บเป็นสตางค์ (long) ให้การบวกและลบแม่นยำ ยอดที่สร้างใหม่จากประวัติจึงเท่ากันทุกหลัก
+ * การจองที่คาบหลายเดือนแบ่งรายได้ตามจำนวนคืนในแต่ละเดือน
+ * (คืนของวันที่ d คือคืนที่เข้าพักวันที่ d และออกวันถัดไป)
+ */
+public class BookingAnalytics {
+    // ทะเบียนบ้าน (ใช้จำนวนบ้านคิดอัตราการเข้าพักรวม)
+    private final HouseRegistry houses;
+
+    // ยอดรวมทั้งระบบ
+    private final Totals total = new Totals();
+
+    // ยอดรายเดือนของทุกบ้าน (key = ลำดับเดือน ดู monthIndex)
+    private final Map<Integer, Totals> months = new ConcurrentHashMap<>();
+
+    // ยอดรายบ้านรายเดือน (key = หมายเลขบ้านกับลำดับเดือน ดู cellKey)
+    private final Map<Long, Totals> houseMonths = new ConcurrentHashMap<>();
+
+    // snapshot ที่ยอดของการจองในนั้นยังไม่ถูกรวม (null = รวมแล้ว หรือไม่มี)
+    // ยอดเป็นผลบวก ลำดับการบวกจึงไม่มีผล การจองใน snapshot ที่ถูกยกเลิกหรือเปลี่ยนไปก่อนรวม
+    // ถูกลบออกไปแล้วตอนยกเลิก/เปลี่ยน แล้วรวมฉบับเดิมจาก snapshot ภายหลังได้ยอดที่ถูกต้อง
+    private volatile BookingSnapshot pending;
+
+    /**
+     * ยอดสรุปหนึ่งชุด (จำนวนการจอง จำนวนคืน และรายได้เป็นสตางค์)
+     */
+    private static final class Totals {
+        final LongAdder bookings = new LongAdder();
+        final LongAdder nights = new LongAdder();
+        final LongAdder satang = new LongAdder();
+
+        void add(long bookingCount, long nightCount, long satangAmount) {
+            bookings.add(bookingCount);
+            nights.add(nightCount);
+            satang.add(satangAmount);
+        }
+    }
+
+    /**
+     * Constructor - สร้างยอดสรุปเปล่า
+     *
+     * @param houses ทะเบียนบ้านของระบบ
+     */
+    public BookingAnalytics(HouseRegistry houses) {
+        this.houses = houses;
+    }
+
+    /**
+     * สร้างยอดสรุปใหม่จากการจองทั้งหมด (ใช้ตรวจสอบยอดที่ปรับทีละรายการ)
+     *
+     * @param houses ทะเบียนบ้านของระบบ
+     * @param bookings การจองที่ยืนยันแล้วทั้งหมด
+     * @return ยอดสรุปของการจองเหล่านั้น
+     */
+    public static BookingAnalytics rebuild(HouseRegistry houses, List<Booking> bookings) {
+        BookingAnalytics analytics = new BookingAnalytics(houses);
+        for (Booking booking : bookings) {
+            analytics.apply(booking, 1);
+        }
+        return analytics;
+    }
+
+    // === ปรับยอด (เรียกจาก BookingSystem ขณะถือ lock ของรายการจอง) ===
+
+    /**
+     * กำหนด snapshot ที่การจองในนั้นจะถูกรวมเข้ายอดเมื่ออ่านยอดครั้งแรก
+     * (ไม่อ่าน snapshot ทั้งไฟล์ตอนเปิดระบบ)
+     */
+    void attach(BookingSnapshot snapshot) {
+        pending = snapshot;
+    }
+
+    void bookingAdded(Booking booking) {
+        apply(booking, 1);
+    }
+
+    void bookingRemoved(Booking booking) {
+        apply(booking, -1);
+    }
+
+    /**
+     * บวก (sign = 1) หรือลบ (sign = -1) ยอดของการจองหนึ่งรายการ
+     * การแบ่งรายได้ตามเดือนคำนวณเหมือนกันทุกครั้ง การลบจึงหักออกเท่ากับที่เคยบวกพอดี
+     */
+    private void apply(Booking booking, int sign) {
+        int houseNumber = booking.getHouse().getHouseNumber();
+        long nights = booking.getNumberOfDays();
+        long satang = Math.round(booking.getTotalPrice() * 100);
+        total.add(sign, sign * nights, sign * satang);
+
+        // แบ่งรายได้ตามสัดส่วนคืน (ปัดเศษแบบสะสม ผลรวมทุกเดือนเท่ากับรายได้ทั้งหมดพอดี)
+        LocalDate night = booking.getCheckInDate();
+        long counted = 0;
+        long allocated = 0;
+        boolean first = true;
+        while (counted < nights) {
+            YearMonth month = YearMonth.from(night);
+            long inMonth = Math.min(nights - counted, month.lengthOfMonth() - night.getDayOfMonth() + 1);
+            counted += inMonth;
+            long share = satang * counted / nights - allocated;
+            allocated += share;
+
+            // การจองนับในเดือนที่เข้าพัก (เดือนอื่นนับเฉพาะคืนและรายได้)
+            long count = first ? sign : 0;
+            int index = monthIndex(month);
+            months.computeIfAbsent(index, key -> new Totals())
+                  .add(count, sign * inMonth, sign * share);
+            houseMonths.computeIfAbsent(cellKey(houseNumber, index), key -> new Totals())
+                       .add(count, sign * inMonth, sign * share);
+
+            night = night.plusDays(inMonth);
+            first = false;
+        }
+    }
+
+    /**
+     * รวมการจองใน snapshot เข้ายอด (ครั้งเดียว ก่อนอ่านยอดครั้งแรก)
+     */
+    private void mergePending() {
+        if (pending == null) {
+            return;
+        }
+        synchronized (this) {
+            BookingSnapshot base = pending;
+            if (base != null) {
+                for (int i = 0; i < base.getBookingCount(); i++) {
+                    apply(base.readBooking(i), 1);
+                }
+                pending = null;
+            }
+        }
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static long cellKey(int houseNumber, int monthIndex) {
+        return ((long) houseNumber << 32) | (monthIndex & 0xFFFFFFFFL);
+    }
+
+    private static double toBaht(long satang) {
+        return satang / 100.0;
+    }
+
+    // === อ่านยอดรวมทั้งระบบ ===
+
+    /**
+     * @return จำนวนการจองที่ยืนยันแล้ว
+     */
+    public long getBookingCount() {
+        mergePending();
+        return total.bookings.sum();
+    }
+
+    /**
+     * @return จำนวนคืนที่มีผู้เข้าพักรวมทุกบ้าน
+     */
+    public long getOccupiedNights() {
+        mergePending();
+        return total.nights.sum();
+    }
+
+    /**
+     * @return รายได้รวมของการจองที่ยืนยันแล้ว (บาท)
+     */
+    public double getRevenue() {
+        mergePending();
+        return toBaht(total.satang.sum());
+    }
+
+    /**
+     * @return จำนวนคืนเฉลี่ยต่อการจอง (0 ถ้ายังไม่มีการจอง)
+     */
+    public double getAverageStayLength() {
+        long count = getBookingCount();
+        return count == 0 ? 0 : (double) total.nights.sum() / count;
+    }
+
+    /**
+     * @return รายได้เฉลี่ยต่อคืนที่มีผู้เข้าพัก (บาท, 0 ถ้ายังไม่มีการจอง)
+     */
+    public double getAverageDailyRate() {
+        long nights = getOccupiedNights();
+        return nights == 0 ? 0 : toBaht(total.satang.sum()) / nights;
+    }
+
+    // === อ่านยอดรายเดือน (ทุกบ้าน) ===
+
+    /**
+     * @param month เดือนที่ต้องการ
+     * @return รายได้ของคืนในเดือนนั้น (บาท)
+     */
+    public double getRevenue(YearMonth month) {
+        Totals totals = monthTotals(month);
+        return totals == null ? 0 : toBaht(totals.satang.sum());
+    }
+
+    /**
+     * @param month เดือนที่ต้องการ
+     * @return จำนวนคืนที่มีผู้เข้าพักในเดือนนั้นรวมทุกบ้าน
+     */
+    public long getOccupiedNights(YearMonth month) {
+        Totals totals = monthTotals(month);
+        return totals == null ? 0 : totals.nights.sum();
+    }
+
+    /**
+     * @param month เดือนที่ต้องการ
+     * @return สัดส่วนคืนที่มีผู้เข้าพักต่อคืนทั้งหมดของทุกบ้านในเดือนนั้น (0 ถึง 1)
+     */
+    public double getOccupancyRate(YearMonth month) {
+        int houseCount = houses.size();
+        if (houseCount == 0) {
+            return 0;
+        }
+        return (double) getOccupiedNights(month) / ((long) houseCount * month.lengthOfMonth());
+    }
+
+    // === อ่านยอดรายบ้านรายเดือน ===
+
+    /**
+     * @param houseNumber หมายเลขบ้าน
+     * @param month เดือนที่ต้องการ
+     * @return รายได้ของบ้านนั้นจากคืนในเดือนนั้น (บาท)
+     */
+    public double getRevenue(int houseNumber, YearMonth month) {
+        Totals totals = houseMonthTotals(houseNumber, month);
+        return totals == null ? 0 : toBaht(totals.satang.sum());
+    }
+
+    /**
+     * @param houseNumber หมายเลขบ้าน
+     * @param month เดือนที่ต้องการ
+     * @return จำนวนคืนที่บ้านนั้นมีผู้เข้าพักในเดือนนั้น
+     */
+    public long getOccupiedNights(int houseNumber, YearMonth month) {
+        Totals totals = houseMonthTotals(houseNumber, month);
+        return totals == null ? 0 : totals.nights.sum();
+    }
+
+    /**
+     * @param houseNumber หมายเลขบ้าน
+     * @param month เดือนที่ต้องการ
+     * @return สัดส่วนคืนที่บ้านนั้นมีผู้เข้าพักในเดือนนั้น (0 ถึง 1)
+     */
+    public double getOccupancyRate(int houseNumber, YearMonth month) {
+        return (double) getOccupiedNights(houseNumber, month) / month.lengthOfMonth();
+    }
+
+    private Totals monthTotals(YearMonth month) {
+        mergePending();
+        return months.get(monthIndex(month));
+    }
+
+    private Totals houseMonthTotals(int houseNumber, YearMonth month) {
+        mergePending();
+        return houseMonths.get(cellKey(houseNumber, monthIndex(month)));
+    }
+
+    // === ตรวจสอบ ===
+
+    /**
+     * สำเนายอดปัจจุบัน (ผู้เรียกต้องกันไม่ให้ยอดเปลี่ยนระหว่างคัดลอก)
+     */
+    BookingAnalytics copy() {
+        mergePending();
+        BookingAnalytics copy = new BookingAnalytics(houses);
+        copy.total.add(total.bookings.sum(), total.nights.sum(), total.satang.sum());
+        months.forEach((key, totals) -> copy.months.put(key, copyOf(totals)));
+        houseMonths.forEach((key, totals) -> copy.houseMonths.put(key, copyOf(totals)));
+        return copy;
+    }
+
+    private static Totals copyOf(Totals totals) {
+        Totals copy = new Totals();
+        copy.add(totals.bookings.sum(), totals.nights.sum(), totals.satang.sum());
+        return copy;
+    }
+
+    /**
+     * เทียบยอดนี้กับยอดที่คาดไว้ (เช่น ยอดที่สร้างใหม่จากประวัติด้วย rebuild)
+     * ยอดที่เป็นศูนย์ทั้งหมดถือว่าเท่ากับไม่มียอด
+     *
+     * @param expected ยอดที่ถูกต้อง
+     * @return รายการยอดที่ไม่ตรงกัน (ว่าง = ตรงกันทั้งหมด)
+     */
+    public List<String> differences(BookingAnalytics expected) {
+        mergePending();
+        expected.mergePending();
+        List<String> differences = new ArrayList<>();
+        compare("ทั้งระบบ", total, expected.total, differences);
+
+        Map<Integer, Totals> allMonths = new TreeMap<>(months);
+        expected.months.forEach(allMonths::putIfAbsent);
+        for (Integer index : allMonths.keySet()) {
+            compare("เดือน " + monthOf(index), months.get(index),
+                    expected.months.get(index), differences);
+        }
+
+        Map<Long, Totals> allCells = new TreeMap<>(houseMonths);
+        expected.houseMonths.forEach(allCells::putIfAbsent);
+        for (Long key : allCells.keySet()) {
+            compare("บ้าน " + (int) (key >> 32) + " เดือน " + monthOf((int) (long) key),
+                    houseMonths.get(key), expected.houseMonths.get(key), differences);
+        }
+        return differences;
+    }
+
+    private static void compare(String label, Totals actual, Totals expected, List<String> differences) {
+        long[] a = sums(actual);
+        long[] e = sums(expected);
+        if (a[0] != e[0] || a[1] != e[1] || a[2] != e[2]) {
+            differences.add(label + ": การจอง " + a[0] + "/" + e[0] +
+                            ", คืน " + a[1] + "/" + e[1] +
+                            ", สตางค์ " + a[2] + "/" + e[2]);
+        }
+    }
+
+    private static long[] sums(Totals totals) {
+        if (totals == null) {
+            return new long[3];
+        }
+        return new long[] { totals.bookings.sum(), totals.nights.sum(), totals.satang.sum() };
+    }
+
+    private static YearMonth monthOf(int index) {
+        return YearMonth.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1);
+    }
+
+    /**
+     * @return ยอดรวมทั้งระบบและยอดรายเดือนเป็นข้อความ
+     */
+    public String dump() {
+        StringBuilder text = new StringBuilder("=== ยอดสรุปการจอง ===\n");
+        text.append(String.format("bookings: %d%n", getBookingCount()));
+        text.append(String.format("occupiedNights: %d%n", getOccupiedNights()));
+        text.append(String.format("revenue: %.2f%n", getRevenue()));
+        text.append(String.format("averageStayLength: %.2f%n", getAverageStayLength()));
+        text.append(String.format("averageDailyRate: %.2f%n", getAverageDailyRate()));
+        for (Integer index : new TreeMap<>(months).keySet()) {
+            YearMonth month = monthOf(index);
+            if (getOccupiedNights(month) > 0) {
+                text.append(String.format("%s: nights=%d revenue=%.2f occupancy=%.1f%%%n", month,
+                                          getOccupiedNights(month), getRevenue(month),
+                                          getOccupancyRate(month) * 100));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,577 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * คลาสนำเข้าและส่งออกบ้าน ลูกค้า และการจองเป็นไฟล์ CSV (ใช้ตอนรับที่พักใหม่ที่มีการจองเดิมอยู่แล้ว)
+ *
+ * รูปแบบไฟล์: หนึ่งรายการต่อบรรทัด ขึ้นต้นด้วยชนิดของรายการ บรรทัดว่างและบรรทัดที่ขึ้นต้นด้วย # จะถูกข้าม
+ * ช่องที่มี , หรือ " ให้ครอบด้วย " (และเขียน " ในช่องเป็น "")
+ * <pre>
+ * house,11,2500.00                                      หมายเลขบ้าน,ราคาต่อวัน
+ * customer,0812345678,somchai@example.com,สมชาย ใจดี    เบอร์โทร,อีเมล,ชื่อ-นามสกุล
+ * booking,1024,11,0812345678,20/12/2026,23/12/2026,7500.00
+ *     หมายเลขการจองเดิม,หมายเลขบ้าน,เบอร์โทรหรืออีเมลของลูกค้า,วันเข้าพัก,วันคืนบ้าน,ราคารวม
+ * </pre>
+ * ลูกค้าต้องอยู่ก่อนการจองของตัวเองในไฟล์ (หรือมีอยู่ในระบบแล้ว) ราคารวมเว้นว่างได้ (คิดตามอัตราปัจจุบัน)
+ * การจองที่นำเข้าได้หมายเลขการจองใหม่ หมายเลขเดิมในไฟล์ใช้อ้างอิงเท่านั้น
+ * บ้านที่มีอยู่แล้วจะถูกข้าม (ใช้ราคาใน catalog) บ้านใหม่ถูกเพิ่มเข้าระบบ
+ *
+ * การนำเข้าอ่านไฟล์ทีละชุด แยกช่องและตรวจสอบค่าของแต่ละชุดแบบขนาน (parallel stream)
+ * ระหว่างที่ชุดก่อนหน้าถูกเพิ่มเข้าระบบตามลำดับในไฟล์ ใช้หน่วยความจำคงที่ไม่ว่าไฟล์ใหญ่แค่ไหน
+ * วันที่และจำนวนเงินถูกแปลงจากช่วงของบรรทัดโดยตรง (DateCodec) ไม่ต้องตัดเป็น String ก่อน
+ * รายการที่ไม่ถูกต้องหรือวันที่ทับซ้อนจะถูกข้ามและรายงานพร้อมหมายเลขบรรทัด
+ */
+public class BookingCsv {
+    // จำนวนบรรทัดต่อชุดที่ตรวจสอบแบบขนาน
+    private static final int BATCH_LINES = 8192;
+
+    // จำนวนข้อความผิดพลาดสูงสุดที่เก็บไว้ในรายงาน
+    private static final int MAX_ERRORS = 100;
+
+    // จำนวนช่องสูงสุดของหนึ่งรายการ
+    private static final int MAX_FIELDS = 7;
+
+    // ชนิดของรายการ
+    private static final int HOUSE = 1;
+    private static final int CUSTOMER = 2;
+    private static final int BOOKING = 3;
+
+    // ระบบที่นำเข้าและส่งออก
+    private final BookingSystem bookingSystem;
+
+    /**
+     * ผลการนำเข้า
+     */
+    public static final class Report {
+        private int housesAdded;
+        private int customers;
+        private int bookingsImported;
+        private int rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        /**
+         * จำนวนบ้านใหม่ที่ถูกเพิ่ม (ต้องบันทึก catalog ด้วย BookingSystem.saveCatalog)
+         * @return จำนวนบ้าน
+         */
+        public int getHousesAdded() {
+            return housesAdded;
+        }
+
+        /**
+         * จำนวนรายการลูกค้าที่นำเข้า (ลูกค้าที่มีอยู่แล้วถูกรวมกับของเดิม)
+         * @return จำนวนรายการลูกค้า
+         */
+        public int getCustomers() {
+            return customers;
+        }
+
+        /**
+         * จำนวนการจองที่นำเข้า
+         * @return จำนวนการจอง
+         */
+        public int getBookingsImported() {
+            return bookingsImported;
+        }
+
+        /**
+         * จำนวนรายการที่ถูกข้ามเพราะไม่ถูกต้องหรือวันที่ทับซ้อน
+         * @return จำนวนรายการ
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * ข้อความของรายการที่ถูกข้าม (เก็บไว้ไม่เกิน MAX_ERRORS ข้อความแรก)
+         * @return List ของข้อความ "บรรทัด n: เหตุผล"
+         */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        private void reject(int lineNumber, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("บรรทัด " + lineNumber + ": " + reason);
+            }
+        }
+    }
+
+    /**
+     * รายการหนึ่งบรรทัดที่ตรวจสอบรูปแบบแล้ว (ยังไม่ได้ตรวจกับข้อมูลในระบบ)
+     */
+    private static final class Row {
+        int lineNumber;
+        int kind;
+        String error;
+        int houseNumber;
+        long priceSatang = -1; // -1 = ไม่ระบุราคา
+        String phone;
+        String email;
+        String fullName;
+        String customerKey;
+        long checkInDay;
+        long checkOutDay;
+    }
+
+    /**
+     * Constructor สำหรับสร้างตัวนำเข้า/ส่งออกของระบบ
+     *
+     * @param bookingSystem ระบบที่นำเข้าและส่งออก
+     */
+    public BookingCsv(BookingSystem bookingSystem) {
+        this.bookingSystem = bookingSystem;
+    }
+
+    /**
+     * นำเข้ารายการจากไฟล์ CSV เข้าระบบ (รอจนการจองที่นำเข้าถูกบันทึกลง journal แล้ว ถ้าเปิดไว้)
+     *
+     * @param csvFile ไฟล์ที่ต้องการนำเข้า
+     * @return ผลการนำเข้า
+     * @throws IOException ถ้าอ่านไฟล์หรือบันทึก journal ไม่ได้
+     */
+    public Report importFrom(Path csvFile) throws IOException {
+        Report report = new Report();
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            CompletableFuture<Row[]> pending = null;
+            boolean done = false;
+            while (!done) {
+                // อ่านชุดถัดไป
+                String[] lines = new String[BATCH_LINES];
+                int[] lineNumbers = new int[BATCH_LINES];
+                int count = 0;
+                String line;
+                while (count < BATCH_LINES && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (isBlankOrComment(line)) {
+                        continue;
+                    }
+                    lines[count] = line;
+                    lineNumbers[count] = lineNumber;
+                    count++;
+                }
+                done = count < BATCH_LINES;
+
+                // ตรวจสอบชุดนี้แบบขนาน ระหว่างที่เพิ่มชุดก่อนหน้าเข้าระบบ
+                int size = count;
+                CompletableFuture<Row[]> parsed = 
+                    CompletableFuture.supplyAsync(() -> parseBatch(lines, lineNumbers, size));
+                if (pending != null) {
+                    apply(pending.join(), report);
+                }
+                pending = parsed;
+            }
+            apply(pending.join(), report);
+        }
+        bookingSystem.syncJournal();
+        return report;
+    }
+
+    /**
+     * ส่งออกบ้าน ลูกค้า และการจองที่ยืนยันแล้วทั้งหมดเป็นไฟล์ CSV (รูปแบบเดียวกับที่นำเข้าได้)
+     *
+     * @param csvFile ไฟล์ปลายทาง (เขียนทับแบบ atomic)
+     * @return จำนวนการจองที่ส่งออก
+     * @throws IOException ถ้าเขียนไฟล์ไม่ได้
+     */
+    public int exportTo(Path csvFile) throws IOException {
+        List<House> houses = bookingSystem.getHouses();
+        List<Booking> bookings = bookingSystem.getBookings();
+        StringBuilder row = new StringBuilder(128);
+        char[] chars = new char[256];
+
+        Path temp = csvFile.resolveSibling(csvFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# house,หมายเลขบ้าน,ราคาต่อวัน");
+            writer.newLine();
+            writer.write("# customer,เบอร์โทร,อีเมล,ชื่อ-นามสกุล");
+            writer.newLine();
+            writer.write("# booking,หมายเลขการจอง,หมายเลขบ้าน,เบอร์โทรหรืออีเมล,วันเข้าพัก,วันคืนบ้าน,ราคารวม");
+            writer.newLine();
+
+            for (House house : houses) {
+                row.setLength(0);
+                row.append("house,").append(house.getHouseNumber()).append(',');
+                appendSatang(row, Math.round(house.getPricePerDay() * 100));
+                chars = writeRow(writer, row, chars);
+            }
+
+            // ลูกค้าแต่ละคนครั้งเดียว ก่อนการจองทั้งหมด
+            Set<String> written = new HashSet<>();
+            for (Booking booking : bookings) {
+                Customer customer = booking.getCustomer();
+                String key = customerKey(customer.getPhoneNumber(), customer.getEmail());
+                if (key != null && written.add(key)) {
+                    row.setLength(0);
+                    row.append("customer,");
+                    appendField(row, customer.getPhoneNumber()).append(',');
+                    appendField(row, customer.getEmail()).append(',');
+                    appendField(row, customer.getFullName());
+                    chars = writeRow(writer, row, chars);
+                }
+            }
+
+            for (Booking booking : bookings) {
+                Customer customer = booking.getCustomer();
+                row.setLength(0);
+                row.append("booking,").append(booking.getBookingId())
+                   .append(',').append(booking.getHouse().getHouseNumber()).append(',');
+                appendField(row, customerKey(customer.getPhoneNumber(), customer.getEmail())).append(',');
+                DateCodec.appendTo(row, booking.getCheckInDate().toEpochDay()).append(',');
+                DateCodec.appendTo(row, booking.getCheckOutDate().toEpochDay()).append(',');
+                appendSatang(row, Math.round(booking.getTotalPrice() * 100));
+                chars = writeRow(writer, row, chars);
+            }
+        }
+        Files.move(temp, csvFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return bookings.size();
+    }
+
+    // === นำเข้า ===
+
+    /**
+     * ตรวจสอบรูปแบบของทุกบรรทัดในชุดแบบขนาน (ไม่แตะข้อมูลในระบบ)
+     */
+    private static Row[] parseBatch(String[] lines, int[] lineNumbers, int count) {
+        Row[] rows = new Row[count];
+        IntStream.range(0, count).parallel().forEach(i -> rows[i] = parse(lines[i], lineNumbers[i]));
+        return rows;
+    }
+
+    /**
+     * แยกช่องและแปลงค่าของหนึ่งบรรทัด
+     */
+    private static Row parse(String line, int lineNumber) {
+        Row row = new Row();
+        row.lineNumber = lineNumber;
+
+        int[] bounds = new int[MAX_FIELDS * 2];
+        int fields = split(line, bounds);
+        if (fields < 0) {
+            row.error = "รูปแบบ CSV ไม่ถูกต้อง";
+            return row;
+        }
+
+        try {
+            if (matches(line, bounds, 0, "house") && fields == 3) {
+                row.kind = HOUSE;
+                row.houseNumber = Integer.parseInt(line, bounds[2], bounds[3], 10);
+                row.priceSatang = parseSatang(line, bounds[4], bounds[5]);
+                if (row.houseNumber <= 0 || row.priceSatang < 0) {
+                    row.error = "หมายเลขบ้านหรือราคาไม่ถูกต้อง";
+                }
+            } else if (matches(line, bounds, 0, "customer") && fields == 4) {
+                row.kind = CUSTOMER;
+                row.phone = field(line, bounds, 1);
+                row.email = field(line, bounds, 2);
+                row.fullName = field(line, bounds, 3);
+                if (row.fullName.isEmpty() || customerKey(row.phone, row.email) == null) {
+                    row.error = "ลูกค้าต้องมีชื่อ และเบอร์โทรหรืออีเมล";
+                }
+            } else if (matches(line, bounds, 0, "booking") && fields == 7) {
+                row.kind = BOOKING;
+                row.houseNumber = Integer.parseInt(line, bounds[4], bounds[5], 10);
+                row.customerKey = field(line, bounds, 3);
+                row.checkInDay = DateCodec.parseEpochDay(line, bounds[8], bounds[9]);
+                row.checkOutDay = DateCodec.parseEpochDay(line, bounds[10], bounds[11]);
+                if (bounds[12] < bounds[13]) {
+                    row.priceSatang = parseSatang(line, bounds[12], bounds[13]);
+                    if (row.priceSatang < 0) {
+                        row.error = "ราคาไม่ถูกต้อง";
+                    }
+                }
+                if (row.checkOutDay <= row.checkInDay) {
+                    row.error = "วันคืนบ้านต้องอยู่หลังวันเข้าพัก";
+                }
+            } else {
+                row.error = "ชนิดรายการหรือจำนวนช่องไม่ถูกต้อง";
+            }
+        } catch (NumberFormatException e) {
+            row.error = "ตัวเลขไม่ถูกต้อง";
+        } catch (DateTimeParseException e) {
+            row.error = e.getMessage();
+        }
+        return row;
+    }
+
+    /**
+     * เพิ่มรายการของชุดเข้าระบบตามลำดับในไฟล์
+     * บ้านที่อยู่ติดกันถูกเพิ่มเข้าทะเบียนเป็นชุดเดียว (ก่อนรายการถัดไปที่ไม่ใช่บ้าน ลำดับจึงเหมือนเพิ่มทีละหลัง)
+     */
+    private void apply(Row[] rows, Report report) {
+        Map<Integer, House> newHouses = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (row.error != null) {
+                report.reject(row.lineNumber, row.error);
+                continue;
+            }
+            if (row.kind != HOUSE) {
+                addHouses(newHouses, report);
+            }
+            switch (row.kind) {
+                case HOUSE:
+                    if (bookingSystem.findHouseByNumber(row.houseNumber) == null) {
+                        newHouses.putIfAbsent(row.houseNumber, new House(row.houseNumber, row.priceSatang / 100.0));
+                    }
+                    break;
+                case CUSTOMER:
+                    bookingSystem.findOrCreateCustomer(row.fullName, row.phone, row.email);
+                    report.customers++;
+                    break;
+                default:
+                    applyBooking(row, report);
+                    break;
+            }
+        }
+        addHouses(newHouses, report);
+    }
+
+    /**
+     * เพิ่มบ้านที่สะสมไว้เข้าทะเบียนครั้งเดียว แล้วล้างชุด
+     */
+    private void addHouses(Map<Integer, House> newHouses, Report report) {
+        if (newHouses.isEmpty()) {
+            return;
+        }
+        bookingSystem.addHouses(newHouses.values());
+        report.housesAdded += newHouses.size();
+        newHouses.clear();
+    }
+
+    /**
+     * เพิ่มการจองหนึ่งรายการ (ตรวจบ้าน ลูกค้า และวันที่ทับซ้อน)
+     */
+    private void applyBooking(Row row, Report report) {
+        House house = bookingSystem.findHouseByNumber(row.houseNumber);
+        if (house == null) {
+            report.reject(row.lineNumber, "ไม่พบบ้านหมายเลข " + row.houseNumber);
+            return;
+        }
+        Customer customer = bookingSystem.findCustomer(row.customerKey);
+        if (customer == null) {
+            report.reject(row.lineNumber, "ไม่พบลูกค้า " + row.customerKey);
+            return;
+        }
+
+        LocalDate checkIn = LocalDate.ofEpochDay(row.checkInDay);
+        LocalDate checkOut = LocalDate.ofEpochDay(row.checkOutDay);
+        double price = row.priceSatang >= 0 ? row.priceSatang / 100.0
+                                            : bookingSystem.quote(house, checkIn, checkOut);
+        if (bookingSystem.importBooking(new Booking(house, customer, checkIn, checkOut, price))) {
+            report.bookingsImported++;
+        } else {
+            report.reject(row.lineNumber, "บ้านหมายเลข " + row.houseNumber + " ถูกจองในช่วงวันที่นี้แล้ว");
+        }
+    }
+
+    /**
+     * แยกช่องของบรรทัด เก็บตำแหน่งเริ่มและสิ้นสุดของแต่ละช่องใน bounds (ตัดช่องว่างหัวท้ายแล้ว)
+     * ช่องที่ครอบด้วย " เก็บตำแหน่งรวมเครื่องหมาย " ไว้ (ดู field())
+     *
+     * @return จำนวนช่อง, หรือ -1 ถ้ามีช่องเกิน MAX_FIELDS หรือเครื่องหมาย " ไม่ครบคู่
+     */
+    private static int split(String line, int[] bounds) {
+        int fields = 0;
+        int position = 0;
+        int length = line.length();
+        while (true) {
+            if (fields == MAX_FIELDS) {
+                return -1;
+            }
+            while (position < length && line.charAt(position) == ' ') {
+                position++;
+            }
+            int start = position;
+            if (position < length && line.charAt(position) == '"') {
+                position++;
+                while (true) {
+                    if (position >= length) {
+                        return -1;
+                    }
+                    if (line.charAt(position) == '"') {
+                        if (position + 1 < length && line.charAt(position + 1) == '"') {
+                            position += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    position++;
+                }
+                position++;
+            } else {
+                while (position < length && line.charAt(position) != ',') {
+                    position++;
+                }
+            }
+            int end = position;
+            while (end > start && line.charAt(end - 1) == ' ') {
+                end--;
+            }
+            while (position < length && line.charAt(position) == ' ') {
+                position++;
+            }
+            bounds[fields * 2] = start;
+            bounds[fields * 2 + 1] = end;
+            fields++;
+
+            if (position >= length) {
+                return fields;
+            }
+            if (line.charAt(position) != ',') {
+                return -1;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * ค่าของช่องเป็น String (เอาเครื่องหมาย " ที่ครอบออก)
+     */
+    private static String field(String line, int[] bounds, int index) {
+        int start = bounds[index * 2];
+        int end = bounds[index * 2 + 1];
+        if (end - start >= 2 && line.charAt(start) == '"') {
+            return line.substring(start + 1, end - 1).replace("\"\"", "\"");
+        }
+        return line.substring(start, end);
+    }
+
+    /**
+     * ตรวจสอบว่าช่องมีค่าตรงกับคำนี้ (ไม่สร้าง String)
+     */
+    private static boolean matches(String line, int[] bounds, int index, String word) {
+        int start = bounds[index * 2];
+        int end = bounds[index * 2 + 1];
+        return end - start == word.length() && line.regionMatches(true, start, word, 0, word.length());
+    }
+
+    /**
+     * แปลงจำนวนเงิน (บาท ทศนิยมไม่เกิน 2 ตำแหน่ง) เป็นสตางค์
+     *
+     * @return จำนวนสตางค์, หรือ -1 ถ้ารูปแบบไม่ถูกต้อง
+     */
+    private static long parseSatang(CharSequence text, int start, int end) {
+        long baht = 0;
+        int position = start;
+        int digits = 0;
+        while (position < end && Character.isDigit(text.charAt(position)) && digits < 15) {
+            baht = baht * 10 + (text.charAt(position) - '0');
+            position++;
+            digits++;
+        }
+        long satang = 0;
+        if (position < end && text.charAt(position) == '.') {
+            position++;
+            for (int place = 0; place < 2; place++) {
+                satang *= 10;
+                if (position < end && Character.isDigit(text.charAt(position))) {
+                    satang += text.charAt(position) - '0';
+                    position++;
+                }
+            }
+        }
+        if (digits == 0 || position != end) {
+            return -1;
+        }
+        return baht * 100 + satang;
+    }
+
+    /**
+     * บรรทัดว่างหรือบรรทัดความเห็น
+     */
+    private static boolean isBlankOrComment(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != ' ' && c != '\t') {
+                return c == '#';
+            }
+        }
+        return true;
+    }
+
+    /**
+     * key ที่ใช้อ้างถึงลูกค้าในไฟล์: เบอร์โทร ถ้าไม่มีใช้อีเมล
+     *
+     * @return key, หรือ null ถ้าไม่มีทั้งสองอย่าง
+     */
+    private static String customerKey(String phoneNumber, String email) {
+        if (CustomerDirectory.normalizePhone(phoneNumber) != null) {
+            return phoneNumber.trim();
+        }
+        return CustomerDirectory.normalizeEmail(email);
+    }
+
+    // === ส่งออก ===
+
+    /**
+     * ต่อท้ายจำนวนเงิน (สตางค์) เป็นบาททศนิยม 2 ตำแหน่ง
+     */
+    private static StringBuilder appendSatang(StringBuilder out, long satang) {
+        long cents = satang % 100;
+        out.append(satang / 100).append('.');
+        if (cents < 10) {
+            out.append('0');
+        }
+        return out.append(cents);
+    }
+
+    /**
+     * ต่อท้ายค่าของช่อง (ครอบด้วย " ถ้ามี , หรือ " และเปลี่ยนการขึ้นบรรทัดเป็นช่องว่าง)
+     */
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || (!value.isEmpty() && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' '));
+        if (quote) {
+            out.append('"');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append("\"\"");
+            } else if (c == '\n' || c == '\r') {
+                out.append(' ');
+            } else {
+                out.append(c);
+            }
+        }
+        if (quote) {
+            out.append('"');
+        }
+        return out;
+    }
+
+    /**
+     * เขียนหนึ่งบรรทัดผ่าน char[] ที่ใช้ซ้ำ (ไม่สร้าง String ต่อบรรทัด)
+     *
+     * @return char[] ที่ใช้ (array ใหม่ถ้าบรรทัดยาวกว่าเดิม)
+     */
+    private static char[] writeRow(BufferedWriter writer, StringBuilder row, char[] chars) throws IOException {
+        if (chars.length < row.length()) {
+            chars = new char[row.length() * 2];
+        }
+        row.getChars(0, row.length(), chars, 0);
+        writer.write(chars, 0, row.length());
+        writer.newLine();
+        return chars;
+    }
+}
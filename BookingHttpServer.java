@@ -0,0 +1,604 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+
+/**
+ * เซิร์ฟเวอร์ HTTP ของระบบจองบ้านพัก (ใช้แทน GUI เมื่อรันแบบไม่มีหน้าจอ)
+ * ใช้ HttpServer ที่มากับ JDK และ virtual thread หนึ่งตัวต่อหนึ่งคำขอ
+ * คำขอที่รอผล (เช่น รอบันทึกการชำระเงินลง journal) จึงไม่กิน platform thread
+ *
+ * endpoint (ผลลัพธ์เป็น JSON ทั้งหมด, ข้อมูลที่ส่งมาเป็น query string หรือ form urlencoded):
+ * <pre>
+ * GET  /houses                                   รายการบ้านทั้งหมด
+ * GET  /houses/available?checkIn=&checkOut=      บ้านที่ว่าง เรียงตามราคา (maxPricePerDay ไม่บังคับ)
+ * GET  /houses/earliest?from=&nights=            ช่วงว่างที่เร็วที่สุดของบ้านใดก็ได้ (house = เฉพาะบ้านหลังนี้)
+ * POST /bookings                                 สร้างการจองและกันวันไว้ (house, name, phone, email, checkIn, checkOut)
+ * POST /bookings/{id}/payment                    ชำระเงินของการจองที่กันวันไว้ (amount)
+ * GET  /bookings/{id}                            การจองหนึ่งรายการ (ยืนยันแล้วหรือรอชำระเงิน)
+ * GET  /bookings                                 การจองที่ยืนยันแล้ว (customer, house, from, to, offset, limit)
+ * </pre>
+ * วันที่รับได้ทั้งรูปแบบ dd/MM/yyyy และ yyyy-MM-dd และส่งกลับเป็น yyyy-MM-dd
+ */
+public class BookingHttpServer implements AutoCloseable {
+    // พอร์ตเริ่มต้นเมื่อไม่ได้ระบุใน command line
+    public static final int DEFAULT_PORT = 8080;
+
+    // จำนวนการเชื่อมต่อที่รอรับได้ในคิวของ socket
+    private static final int BACKLOG = 1024;
+
+    // จำนวนการจองต่อหน้าเริ่มต้นและสูงสุดของ GET /bookings
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    // ความละเอียดของตัวจับเวลาที่ลบการจองที่หมดเวลากันวันออกจาก pending
+    private static final long PENDING_TICK_MILLIS = 1000;
+
+    // ระยะเวลาที่รอให้คำขอที่ค้างอยู่ทำเสร็จตอนปิดเซิร์ฟเวอร์ (วินาที)
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    // ระยะห่างของการเขียน snapshot อัตโนมัติ (นาที) เท่ากับของ SimpleBookingGUI
+    private static final long CHECKPOINT_INTERVAL_MINUTES = 10;
+
+    // ระบบจองที่ให้บริการ
+    private final BookingSystem bookingSystem;
+
+    // เซิร์ฟเวอร์ HTTP ของ JDK
+    private final HttpServer server;
+
+    // executor ที่สร้าง virtual thread ใหม่ต่อคำขอ
+    private final ExecutorService executor;
+
+    // การจองที่กันวันไว้แล้วแต่ยังไม่ชำระเงิน (ค้นจากหมายเลขการจองตอนชำระเงิน)
+    private final Map<Integer, Booking> pending = new ConcurrentHashMap<>();
+
+    // ลบการจองออกจาก pending เมื่อหมดเวลากันวัน
+    private final TimingWheel<Booking> pendingExpiry;
+
+    /**
+     * คำขอที่ทำไม่ได้เพราะข้อมูลที่ส่งมา (ตอบกลับด้วย status code ที่กำหนด เช่น 400 หรือ 405)
+     */
+    private static final class RequestException extends Exception {
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Constructor - สร้างเซิร์ฟเวอร์ (ยังไม่รับคำขอจนกว่าจะเรียก start)
+     *
+     * @param bookingSystem ระบบจองที่ให้บริการ
+     * @param address ที่อยู่และพอร์ต (พอร์ต 0 = ให้ระบบเลือกพอร์ตว่าง ดูได้จาก getPort)
+     * @throws IOException ถ้าเปิดพอร์ตไม่ได้
+     */
+    public BookingHttpServer(BookingSystem bookingSystem, InetSocketAddress address) throws IOException {
+        this.bookingSystem = bookingSystem;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.pendingExpiry = new TimingWheel<>(PENDING_TICK_MILLIS, "http-pending-expiry", expired -> {
+            for (Booking booking : expired) {
+                pending.remove(booking.getBookingId(), booking);
+            }
+        });
+        server.setExecutor(executor);
+        server.createContext("/houses", this::handleHouses);
+        server.createContext("/bookings", this::handleBookings);
+    }
+
+    /**
+     * เริ่มรับคำขอ
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return พอร์ตที่เปิดอยู่จริง
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * หยุดรับคำขอใหม่ รอคำขอที่ค้างอยู่สักครู่ แล้วหยุด thread ทั้งหมด
+     * (ไม่ปิด BookingSystem ผู้สร้างต้องปิดเอง)
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+        pendingExpiry.close();
+    }
+
+    // === /houses ===
+
+    private void handleHouses(HttpExchange exchange) throws IOException {
+        respond(exchange, () -> {
+            String path = exchange.getRequestURI().getPath();
+            requireMethod(exchange, "GET");
+            if (path.equals("/houses") || path.equals("/houses/")) {
+                StringBuilder json = new StringBuilder("[");
+                for (House house : bookingSystem.getHouses()) {
+                    if (json.length() > 1) {
+                        json.append(',');
+                    }
+                    json.append("{\"houseNumber\":").append(house.getHouseNumber())
+                        .append(",\"pricePerDay\":").append(number(house.getPricePerDay()))
+                        .append(",\"open\":").append(house.isAvailable()).append('}');
+                }
+                return new Response(200, json.append(']').toString());
+            }
+            if (path.equals("/houses/available")) {
+                Map<String, String> params = parameters(exchange);
+                LocalDate checkIn = date(params, "checkIn", true);
+                LocalDate checkOut = date(params, "checkOut", true);
+                requireStay(checkIn, checkOut);
+                double maxPricePerDay = params.containsKey("maxPricePerDay")
+                    ? decimal(params, "maxPricePerDay") : Double.MAX_VALUE;
+
+                StringBuilder json = new StringBuilder("[");
+                for (BookingSystem.HouseQuote quote
+                        : bookingSystem.searchAvailableQuotes(checkIn, checkOut, maxPricePerDay)) {
+                    if (json.length() > 1) {
+                        json.append(',');
+                    }
+                    json.append("{\"houseNumber\":").append(quote.getHouse().getHouseNumber())
+                        .append(",\"pricePerDay\":").append(number(quote.getHouse().getPricePerDay()))
+                        .append(",\"totalPrice\":").append(number(quote.getTotalPrice())).append('}');
+                }
+                return new Response(200, json.append(']').toString());
+            }
+            if (path.equals("/houses/earliest")) {
+                return earliestSlot(parameters(exchange));
+            }
+            return Response.error(404, "ไม่พบ " + path);
+        });
+    }
+
+    /**
+     * GET /houses/earliest: ช่วงวันที่ว่างที่เร็วที่สุดตั้งแต่ from สำหรับการพัก nights คืน
+     */
+    private Response earliestSlot(Map<String, String> params) throws RequestException {
+        LocalDate from = date(params, "from", true);
+        int nights = integer(required(params, "nights"), "nights");
+        if (nights < 1) {
+            throw new RequestException(400, "nights ต้องอย่างน้อย 1");
+        }
+
+        BookingSystem.AvailableSlot slot;
+        if (params.containsKey("house")) {
+            int houseNumber = integer(params.get("house"), "house");
+            House house = bookingSystem.findHouseByNumber(houseNumber);
+            if (house == null) {
+                return Response.error(404, "ไม่พบบ้านหมายเลข " + houseNumber);
+            }
+            slot = bookingSystem.findEarliestSlot(house, from, nights);
+        } else {
+            slot = bookingSystem.findEarliestSlot(from, nights);
+        }
+        if (slot == null) {
+            return Response.error(404, "ไม่มีบ้านที่เปิดให้เช่า");
+        }
+        return new Response(200, "{\"houseNumber\":" + slot.getHouse().getHouseNumber() +
+            ",\"checkIn\":\"" + slot.getCheckIn() + "\",\"checkOut\":\"" + slot.getCheckOut() +
+            "\",\"nights\":" + nights +
+            ",\"totalPrice\":" + number(bookingSystem.quote(slot.getHouse(), slot.getCheckIn(), slot.getCheckOut())) +
+            "}");
+    }
+
+    // === /bookings ===
+
+    private void handleBookings(HttpExchange exchange) throws IOException {
+        respond(exchange, () -> {
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            // segments[0] เป็นสตริงว่าง segments[1] = "bookings"
+            if (segments.length < 2 || !segments[1].equals("bookings")) {
+                return Response.error(404, "ไม่พบ " + exchange.getRequestURI().getPath());
+            }
+            if (segments.length == 2) {
+                if (exchange.getRequestMethod().equals("POST")) {
+                    return createBooking(parameters(exchange));
+                }
+                requireMethod(exchange, "GET");
+                return listBookings(parameters(exchange));
+            }
+
+            int bookingId = integer(segments[2], "หมายเลขการจอง");
+            if (segments.length == 3) {
+                requireMethod(exchange, "GET");
+                return getBooking(bookingId);
+            }
+            if (segments.length == 4 && segments[3].equals("payment")) {
+                requireMethod(exchange, "POST");
+                return pay(bookingId, parameters(exchange));
+            }
+            return Response.error(404, "ไม่พบ " + exchange.getRequestURI().getPath());
+        });
+    }
+
+    /**
+     * POST /bookings: สร้างการจองและกันวันไว้ให้ชำระเงินภายในเวลา holdMillis
+     */
+    private Response createBooking(Map<String, String> params) throws RequestException {
+        int houseNumber = integer(required(params, "house"), "house");
+        String name = required(params, "name");
+        String phone = required(params, "phone");
+        String email = required(params, "email");
+        LocalDate checkIn = date(params, "checkIn", true);
+        LocalDate checkOut = date(params, "checkOut", true);
+        requireStay(checkIn, checkOut);
+
+        House house = bookingSystem.findHouseByNumber(houseNumber);
+        if (house == null) {
+            return Response.error(404, "ไม่พบบ้านหมายเลข " + houseNumber);
+        }
+        Customer customer = bookingSystem.findOrCreateCustomer(name, phone, email);
+        Booking booking = bookingSystem.createBooking(house, customer, checkIn, checkOut);
+        if (booking == null) {
+            return Response.error(409, "บ้านหมายเลข " + houseNumber + " ไม่ว่างในช่วงเวลาที่เลือก");
+        }
+
+        pending.put(booking.getBookingId(), booking);
+        pendingExpiry.schedule(booking, bookingSystem.getHoldMillis());
+        return new Response(201, bookingJson(booking)
+            .insert(1, "\"holdMillis\":" + bookingSystem.getHoldMillis() + ",").toString());
+    }
+
+    /**
+     * POST /bookings/{id}/payment: ชำระเงินแล้วรอจนยืนยันและบันทึกลง journal
+     */
+    private Response pay(int bookingId, Map<String, String> params) throws RequestException {
+        double amount = decimal(params, "amount");
+        // เอาออกจาก pending ก่อนส่งไป gateway คำขอชำระเงินซ้ำที่มาพร้อมกันจึงไม่ถึง gateway
+        Booking booking = pending.remove(bookingId);
+        if (booking == null) {
+            return bookingSystem.findBookingById(bookingId) != null
+                ? Response.error(409, "การจองหมายเลข " + bookingId + " ชำระเงินแล้ว")
+                : Response.error(404, "ไม่พบการจองที่รอชำระเงินหมายเลข " + bookingId
+                                      + " (อาจหมดเวลากันวันแล้ว หรือกำลังชำระเงินอยู่)");
+        }
+
+        // รอผลใน virtual thread ของคำขอนี้ได้เลย ไม่ขวาง thread อื่น
+        PaymentStatus status = bookingSystem.processPaymentAsync(booking, amount).join();
+        if (status == PaymentStatus.DECLINED || status == PaymentStatus.FAILED) {
+            // คืนเข้า pending ให้ลองชำระใหม่ได้ ถ้าหมดเวลากันวันระหว่างชำระ ตัวจับเวลาที่ตั้งใหม่จะลบออกภายหลัง
+            if (pending.putIfAbsent(bookingId, booking) == null) {
+                pendingExpiry.schedule(booking, bookingSystem.getHoldMillis());
+            }
+        }
+
+        String json = "{\"bookingId\":" + bookingId + ",\"status\":\"" + status + "\"}";
+        switch (status) {
+            case CONFIRMED:
+                return new Response(200, json);
+            case DECLINED:
+                return new Response(402, json);
+            case UNAVAILABLE:
+                return new Response(409, json);
+            default:
+                return new Response(503, json);
+        }
+    }
+
+    /**
+     * GET /bookings/{id}: การจองที่ยืนยันแล้ว หรือที่ยังรอชำระเงิน
+     */
+    private Response getBooking(int bookingId) {
+        Booking booking = bookingSystem.findBookingById(bookingId);
+        if (booking == null) {
+            booking = pending.get(bookingId);
+        }
+        if (booking == null) {
+            return Response.error(404, "ไม่พบการจองหมายเลข " + bookingId);
+        }
+        return new Response(200, bookingJson(booking).toString());
+    }
+
+    /**
+     * GET /bookings: การจองที่ยืนยันแล้ว เรียงตามหมายเลขการจอง แบ่งหน้าด้วย offset/limit
+     */
+    private Response listBookings(Map<String, String> params) throws RequestException {
+        Integer houseNumber = params.containsKey("house") ? integer(params.get("house"), "house") : null;
+        int offset = params.containsKey("offset") ? integer(params.get("offset"), "offset") : 0;
+        int limit = params.containsKey("limit") ? integer(params.get("limit"), "limit") : DEFAULT_LIMIT;
+        if (offset < 0 || limit < 1 || limit > MAX_LIMIT) {
+            throw new RequestException(400, "offset ต้องไม่ติดลบ และ limit ต้องอยู่ระหว่าง 1 ถึง " + MAX_LIMIT);
+        }
+
+        List<Booking> found = bookingSystem.findBookings(params.get("customer"), houseNumber,
+                                                         date(params, "from", false), date(params, "to", false));
+        found.sort(Comparator.comparingInt(Booking::getBookingId));
+
+        StringBuilder json = new StringBuilder("{\"total\":").append(found.size())
+            .append(",\"offset\":").append(offset).append(",\"bookings\":[");
+        int end = (int) Math.min(found.size(), (long) offset + limit);
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                json.append(',');
+            }
+            json.append(bookingJson(found.get(i)));
+        }
+        return new Response(200, json.append("]}").toString());
+    }
+
+    // === JSON ===
+
+    /**
+     * การจองหนึ่งรายการเป็น JSON object
+     */
+    private static StringBuilder bookingJson(Booking booking) {
+        Customer customer = booking.getCustomer();
+        StringBuilder json = new StringBuilder("{\"bookingId\":").append(booking.getBookingId())
+            .append(",\"houseNumber\":").append(booking.getHouse().getHouseNumber())
+            .append(",\"customer\":{\"name\":").append(string(customer.getFullName()))
+            .append(",\"phone\":").append(string(customer.getPhoneNumber()))
+            .append(",\"email\":").append(string(customer.getEmail())).append('}')
+            .append(",\"checkIn\":\"").append(booking.getCheckInDate())
+            .append("\",\"checkOut\":\"").append(booking.getCheckOutDate())
+            .append("\",\"nights\":").append(booking.getNumberOfDays())
+            .append(",\"totalPrice\":").append(number(booking.getTotalPrice()))
+            .append(",\"paid\":").append(booking.isPaid());
+        return json.append('}');
+    }
+
+    /**
+     * String เป็น JSON string (escape อักขระพิเศษ ตัวอักษรไทยส่งเป็น UTF-8 ตรง ๆ)
+     */
+    private static String string(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * จำนวนเงินเป็นตัวเลข JSON (ทศนิยม 2 ตำแหน่ง ไม่ขึ้นกับ locale)
+     */
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    // === คำขอและคำตอบ ===
+
+    /**
+     * ผลของคำขอ: status code และเนื้อหา JSON
+     */
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + string(message) + "}");
+        }
+    }
+
+    /**
+     * ตัวจัดการคำขอที่อาจปฏิเสธข้อมูลที่ส่งมา
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Response handle() throws RequestException;
+    }
+
+    /**
+     * ทำคำขอแล้วส่งผลเป็น JSON (ข้อมูลที่ส่งมาไม่ถูกต้อง = 400/405, ข้อผิดพลาดอื่น = 500)
+     */
+    private static void respond(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle();
+        } catch (RequestException e) {
+            response = Response.error(e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            response = Response.error(500, "เกิดข้อผิดพลาดภายในระบบ");
+            ConsoleLog.info("คำขอ %s %s ผิดพลาด: %s", exchange.getRequestMethod(),
+                            exchange.getRequestURI().getPath(), e);
+        }
+
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws RequestException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new RequestException(405, "ใช้ method " + method + " เท่านั้น");
+        }
+    }
+
+    /**
+     * อ่านพารามิเตอร์จาก query string และ body แบบ form urlencoded (ค่าใน body ทับ query)
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) throws RequestException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if (exchange.getRequestMethod().equals("POST")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            } catch (IOException e) {
+                throw new RequestException(400, "อ่านข้อมูลคำขอไม่สำเร็จ");
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8).trim());
+            }
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) throws RequestException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new RequestException(400, "ต้องระบุ " + name);
+        }
+        return value;
+    }
+
+    private static int integer(String value, String name) throws RequestException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " ต้องเป็นตัวเลขจำนวนเต็ม");
+        }
+    }
+
+    private static double decimal(Map<String, String> params, String name) throws RequestException {
+        try {
+            return Double.parseDouble(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " ต้องเป็นตัวเลข");
+        }
+    }
+
+    /**
+     * อ่านวันที่ (dd/MM/yyyy หรือ yyyy-MM-dd)
+     *
+     * @return วันที่ หรือ null ถ้าไม่บังคับและไม่ได้ระบุ
+     */
+    private static LocalDate date(Map<String, String> params, String name, boolean required)
+            throws RequestException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            if (required) {
+                throw new RequestException(400, "ต้องระบุ " + name);
+            }
+            return null;
+        }
+        try {
+            return value.indexOf('/') >= 0 ? BookingSystem.parseDate(value) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RequestException(400, name + " ต้องเป็นวันที่รูปแบบ dd/MM/yyyy หรือ yyyy-MM-dd");
+        }
+    }
+
+    private static void requireStay(LocalDate checkIn, LocalDate checkOut) throws RequestException {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new RequestException(400, "checkOut ต้องอยู่หลัง checkIn");
+        }
+    }
+
+    /**
+     * ฟังก์ชัน main - รันระบบจองเป็นเซิร์ฟเวอร์ HTTP (ไม่มี GUI)
+     * โหลด catalog อัตราราคา snapshot และ journal เหมือน SimpleBookingGUI
+     *
+     * @param args พอร์ต (ไม่บังคับ ค่าเริ่มต้น 8080)
+     * @throws IOException ถ้าโหลดไฟล์หรือเปิดพอร์ตไม่ได้
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        BookingSystem bookingSystem = new BookingSystem();
+        Path ratesFile = Paths.get(BookingSystem.DEFAULT_RATES);
+        if (Files.exists(ratesFile)) {
+            bookingSystem.loadRates(ratesFile);
+        }
+        Path snapshotFile = Paths.get(BookingSystem.DEFAULT_SNAPSHOT);
+        bookingSystem.openJournal(Paths.get(BookingSystem.DEFAULT_JOURNAL), snapshotFile);
+
+        try {
+            bookingSystem.getMetrics().registerMBeans("http");
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+
+        // เขียน snapshot เป็นระยะ เหมือน SimpleBookingGUI
+        ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                bookingSystem.checkpoint(snapshotFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, CHECKPOINT_INTERVAL_MINUTES, CHECKPOINT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+
+        BookingHttpServer server = new BookingHttpServer(bookingSystem, new InetSocketAddress(port));
+        server.start();
+        System.out.println("ระบบจองบ้านพักรับคำขอ HTTP ที่พอร์ต " + server.getPort());
+
+        // หยุดรับคำขอ เขียน snapshot และปิด journal เมื่อปิดโปรแกรม (Ctrl+C)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            checkpointer.shutdownNow();
+            System.out.print(bookingSystem.getMetrics().dump());
+            try {
+                bookingSystem.checkpoint(snapshotFile);
+                bookingSystem.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+    }
+}
@@ -0,0 +1,504 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * คลาสบันทึกการจองลงไฟล์แบบต่อท้ายอย่างเดียว (Write-Ahead Journal)
+ * ทุกการจองที่ชำระเงินแล้วจะถูกเขียนลงดิสก์ก่อนที่ processPayment จะตอบ true
+ * การยกเลิกและการเปลี่ยนวันที่ของการจองก็ถูกบันทึกเป็น record ต่อท้ายเช่นกัน
+ * และเมื่อเปิดโปรแกรมใหม่จะอ่านไฟล์นี้เพื่อสร้างรายการจองกลับคืน (replay)
+ *
+ * การเขียนใช้ group commit: thread ผู้เขียนหนึ่งตัวรวบรวมทุก record ที่รอคิวอยู่
+ * เขียนลงไฟล์พร้อมกันแล้วเรียก fsync ครั้งเดียว จึงไม่ต้อง fsync ทีละการจอง
+ *
+ * รูปแบบไฟล์: หัวไฟล์ [MAGIC (int)][VERSION (int)][journal ID (long)] ตามด้วย record
+ * รูปแบบ record: [ความยาว payload (int)][CRC32 ของ payload (int)][payload]
+ * การจองแบบกลุ่มอยู่ใน record เดียว replay จึงได้ทั้งกลุ่มหรือไม่ได้เลย
+ * record ท้ายไฟล์ที่เขียนไม่ครบหรือ CRC ไม่ตรง (เช่น ไฟดับกลางคัน) จะถูกตัดทิ้งตอน replay
+ *
+ * journal ID สุ่มขึ้นตอนสร้างไฟล์ ใช้ให้ snapshot อ้างถึงตำแหน่งในไฟล์นี้ได้ถูกไฟล์
+ * (ดู BookingSnapshot) เมื่อไฟล์ถูกลบแล้วสร้างใหม่ ID จะเปลี่ยนและต้อง replay ตั้งแต่ต้น
+ */
+public class BookingJournal implements AutoCloseable {
+    // ตัวระบุไฟล์ journal ("HJNL") และเวอร์ชันของรูปแบบไฟล์
+    private static final int FILE_MAGIC = 0x484A4E4C;
+    private static final int FILE_VERSION = 1;
+
+    // ขนาดหัวไฟล์ (MAGIC + VERSION + journal ID)
+    private static final int FILE_HEADER_BYTES = 16;
+
+    // ชนิดของ record: การจองที่ชำระเงินและยืนยันแล้ว, การยกเลิก, การเปลี่ยนวันที่
+    // และการจองแบบกลุ่มที่ยืนยันพร้อมกัน (หลายการจองใน record เดียว)
+    private static final byte BOOKING_CONFIRMED = 1;
+    private static final byte BOOKING_CANCELLED = 2;
+    private static final byte BOOKING_CHANGED = 3;
+    private static final byte GROUP_CONFIRMED = 4;
+
+    // ขนาดหัว record (ความยาว + CRC32)
+    private static final int HEADER_BYTES = 8;
+
+    // จำนวน record สูงสุดต่อการ fsync หนึ่งครั้ง
+    private static final int MAX_BATCH = 1024;
+
+    // record พิเศษที่บอก thread ผู้เขียนให้หยุดหลังเขียนชุดปัจจุบันเสร็จ
+    // (ไม่ใช้ interrupt เพราะจะทำให้ FileChannel ถูกปิดกลางการเขียน)
+    private static final PendingWrite SHUTDOWN = new PendingWrite(null);
+
+    // ไฟล์ journal
+    private final FileChannel channel;
+
+    // ID ของไฟล์ journal นี้
+    private final long journalId;
+
+    // ตำแหน่งท้ายของ record ที่ fsync ลงดิสก์แล้ว
+    private volatile long durablePosition;
+
+    // คิวของ record ที่รอเขียนลงดิสก์
+    private final BlockingQueue<PendingWrite> queue;
+
+    // thread ผู้เขียนที่ทำ group commit
+    private final Thread writer;
+
+    // true เมื่อสั่งปิด journal แล้ว
+    private volatile boolean closed;
+
+    // ข้อผิดพลาดจากการเขียนครั้งก่อน ถ้ามีแล้วจะไม่เขียนต่อ
+    // เพราะ record ที่เขียนไม่ครบจะทำให้ replay หยุดก่อนถึง record ถัดไป
+    private volatile IOException failure;
+
+    /**
+     * ผู้รับ record ที่อ่านได้ตอน replay ตามลำดับที่บันทึก
+     */
+    public interface Replayer {
+        /**
+         * การจองที่ชำระเงินและยืนยันแล้ว
+         * @param booking การจอง (ตั้งเป็นชำระเงินแล้ว)
+         */
+        void confirmed(Booking booking);
+
+        /**
+         * การจองถูกยกเลิก
+         * @param bookingId หมายเลขการจองที่ถูกยกเลิก
+         */
+        void cancelled(int bookingId);
+
+        /**
+         * การจองถูกเปลี่ยนวันที่ (หมายเลขการจองเดิม วันที่และราคาใหม่)
+         * @param booking การจองหลังเปลี่ยน (ตั้งเป็นชำระเงินแล้ว)
+         */
+        void changed(Booking booking);
+    }
+
+    /**
+     * record ที่เข้ารหัสแล้วและรอเขียน พร้อม future ที่จะเสร็จเมื่อ fsync แล้ว
+     */
+    private static class PendingWrite {
+        final ByteBuffer data;
+        final CompletableFuture<Void> durable;
+
+        PendingWrite(ByteBuffer data) {
+            this.data = data;
+            this.durable = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * เปิดไฟล์ journal (สร้างใหม่ถ้ายังไม่มี) และ replay การจองทั้งหมดที่เคยบันทึกไว้
+     *
+     * @param file ไฟล์ journal
+     * @param houses ทะเบียนบ้าน ใช้หาบ้านจากหมายเลขใน record
+     * @param replayed รับ record แต่ละรายการที่อ่านได้ ตามลำดับที่บันทึก
+     * @throws IOException ถ้าเปิดหรืออ่านไฟล์ไม่ได้
+     */
+    public BookingJournal(Path file, HouseRegistry houses, Replayer replayed) throws IOException {
+        this(file, 0, 0, houses, replayed);
+    }
+
+    /**
+     * เปิดไฟล์ journal และ replay เฉพาะ record ตั้งแต่ตำแหน่งที่ snapshot บันทึกไว้
+     * ถ้าไฟล์ไม่ใช่ journal เดียวกับที่ snapshot อ้างถึง จะ replay ตั้งแต่ต้นไฟล์
+     *
+     * @param file ไฟล์ journal
+     * @param expectedJournalId journal ID ที่ snapshot อ้างถึง
+     * @param startPosition ตำแหน่งใน journal ที่ snapshot ครอบคลุมถึงแล้ว
+     * @param houses ทะเบียนบ้าน ใช้หาบ้านจากหมายเลขใน record
+     * @param replayed รับ record แต่ละรายการที่อ่านได้ ตามลำดับที่บันทึก
+     * @throws IOException ถ้าเปิดหรืออ่านไฟล์ไม่ได้ หรือไม่ใช่ไฟล์ journal
+     */
+    public BookingJournal(Path file, long expectedJournalId, long startPosition,
+                          HouseRegistry houses, Replayer replayed) throws IOException {
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.journalId = readOrCreateHeader(file);
+
+            // ใช้ตำแหน่งจาก snapshot ได้เฉพาะเมื่อเป็นไฟล์เดียวกันและยังอยู่ในไฟล์
+            long from = FILE_HEADER_BYTES;
+            if (journalId == expectedJournalId
+                    && startPosition >= FILE_HEADER_BYTES && startPosition <= channel.size()) {
+                from = startPosition;
+            }
+            long validEnd = replay(from, houses, replayed);
+
+            // ตัด record ท้ายไฟล์ที่เสียทิ้ง แล้วเขียนต่อจากตำแหน่งสุดท้ายที่ถูกต้อง
+            channel.truncate(validEnd);
+            channel.position(validEnd);
+            this.durablePosition = validEnd;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.queue = new LinkedBlockingQueue<>();
+        this.writer = new Thread(this::writeLoop, "booking-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * อ่านหัวไฟล์ หรือเขียนหัวไฟล์พร้อม journal ID ใหม่ถ้าเป็นไฟล์ว่าง
+     *
+     * @return journal ID ของไฟล์
+     */
+    private long readOrCreateHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        if (channel.size() == 0) {
+            long newId = ThreadLocalRandom.current().nextLong();
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putLong(newId).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+            return newId;
+        }
+
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < FILE_HEADER_BYTES
+                || header.getInt() != FILE_MAGIC || header.getInt() != FILE_VERSION) {
+            throw new IOException(file + " ไม่ใช่ไฟล์ journal ของระบบจองบ้านพัก");
+        }
+        return header.getLong();
+    }
+
+    /**
+     * ดึง ID ของไฟล์ journal นี้
+     * @return journal ID
+     */
+    public long getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * ดึงตำแหน่งท้ายของ record ที่ fsync ลงดิสก์แล้ว
+     * ทุกการจองก่อนตำแหน่งนี้ถูกยืนยันในหน่วยความจำแล้วเสมอ
+     * @return ตำแหน่งในไฟล์ (byte)
+     */
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * อ่าน record ทั้งหมดตั้งแต่ตำแหน่งที่กำหนดจนจบไฟล์
+     *
+     * @return ตำแหน่งท้ายของ record สุดท้ายที่ถูกต้อง
+     */
+    private long replay(long from, HouseRegistry houses, Replayer replayed) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = from;
+        long size = channel.size();
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+
+            // record ไม่ครบ = เขียนค้างไว้ตอนโปรแกรมหยุด
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (checksum(payload.array()) != crc) {
+                break; // ข้อมูลเสีย
+            }
+
+            dispatch(payload.array(), houses, replayed);
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * บันทึกการจองที่ชำระเงินแล้ว
+     * เมธอดนี้ไม่รอดิสก์ ผู้เรียกต้องรอ future ก่อนถือว่าการจองถูกบันทึกถาวร
+     *
+     * @param booking การจองที่ยืนยันแล้ว (บันทึกราคารวมของการจอง ไม่ใช่จำนวนเงินที่ gateway อนุมัติ)
+     * @return future ที่เสร็จเมื่อ record ถูก fsync ลงดิสก์แล้ว
+     */
+    public CompletableFuture<Void> append(Booking booking) {
+        return enqueue(encode(BOOKING_CONFIRMED, booking));
+    }
+
+    /**
+     * บันทึกการจองแบบกลุ่มที่ชำระเงินแล้วเป็น record เดียว (ไม่รอดิสก์ เหมือน append)
+     * ถ้าโปรแกรมหยุดกลางการเขียน record ทั้งกลุ่มถูกตัดทิ้งตอน replay ไม่มีการจองที่ได้แค่บางหลัง
+     *
+     * @param bookings การจองของกลุ่มที่ยืนยันแล้ว
+     * @return future ที่เสร็จเมื่อ record ถูก fsync ลงดิสก์แล้ว
+     */
+    public CompletableFuture<Void> appendGroup(List<Booking> bookings) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 * bookings.size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(GROUP_CONFIRMED);
+            out.writeInt(bookings.size());
+            for (Booking booking : bookings) {
+                writeBooking(out, booking);
+            }
+            out.flush();
+            return enqueue(frame(bytes.toByteArray()));
+        } catch (IOException e) {
+            // เขียนลง ByteArrayOutputStream ไม่มีทางเกิด IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * บันทึกการยกเลิกการจอง (ไม่รอดิสก์ เหมือน append)
+     *
+     * @param bookingId หมายเลขการจองที่ถูกยกเลิก
+     * @return future ที่เสร็จเมื่อ record ถูก fsync ลงดิสก์แล้ว
+     */
+    public CompletableFuture<Void> appendCancel(int bookingId) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + 5);
+        byte[] payload = ByteBuffer.allocate(5).put(BOOKING_CANCELLED).putInt(bookingId).array();
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        return enqueue(record);
+    }
+
+    /**
+     * บันทึกการเปลี่ยนวันที่ของการจอง (ไม่รอดิสก์ เหมือน append)
+     * record เก็บการจองหลังเปลี่ยนทั้งรายการ replay จึงไม่ต้องคิดราคาใหม่
+     *
+     * @param booking การจองหลังเปลี่ยน (หมายเลขการจองเดิม)
+     * @return future ที่เสร็จเมื่อ record ถูก fsync ลงดิสก์แล้ว
+     */
+    public CompletableFuture<Void> appendChange(Booking booking) {
+        return enqueue(encode(BOOKING_CHANGED, booking));
+    }
+
+    /**
+     * ส่ง record ที่เข้ารหัสแล้วเข้าคิวของ thread ผู้เขียน
+     */
+    private CompletableFuture<Void> enqueue(ByteBuffer record) {
+        PendingWrite write = new PendingWrite(record);
+        if (closed || failure != null) {
+            write.durable.completeExceptionally(
+                failure != null ? failure : new IOException("journal ถูกปิดแล้ว"));
+            return write.durable;
+        }
+        queue.add(write);
+        return write.durable;
+    }
+
+    /**
+     * รอให้ทุก record ที่ส่งเข้าคิวก่อนหน้านี้ถูกบันทึกลงดิสก์
+     * (ส่ง record ว่างเข้าคิว ซึ่งเสร็จหลัง record ก่อนหน้าเพราะเขียนตามลำดับ)
+     *
+     * @return future ที่เสร็จเมื่อ record ก่อนหน้าทั้งหมดถูก fsync แล้ว
+     *         หรือเสร็จแบบ exception ถ้าการเขียนล้มเหลว
+     */
+    public CompletableFuture<Void> sync() {
+        return enqueue(ByteBuffer.allocate(0));
+    }
+
+    /**
+     * วนลูปของ thread ผู้เขียน: รวบรวม record ที่รอคิว เขียนพร้อมกัน แล้ว fsync ครั้งเดียว
+     */
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            stopping = batch.remove(SHUTDOWN);
+
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                for (PendingWrite write : batch) {
+                    while (write.data.hasRemaining()) {
+                        channel.write(write.data);
+                    }
+                }
+                channel.force(false); // fsync ครั้งเดียวต่อทั้งชุด
+                durablePosition = channel.position();
+                for (PendingWrite write : batch) {
+                    write.durable.complete(null);
+                }
+            } catch (IOException e) {
+                failure = e;
+                for (PendingWrite write : batch) {
+                    write.durable.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+
+        // record ที่เข้าคิวมาหลังสั่งปิด จะไม่ถูกเขียน
+        for (PendingWrite write : queue) {
+            write.durable.completeExceptionally(new IOException("journal ถูกปิดแล้ว"));
+        }
+    }
+
+    /**
+     * ปิด journal: เขียน record ที่ค้างในคิวให้หมดแล้วปิดไฟล์
+     *
+     * @throws IOException ถ้าปิดไฟล์ไม่ได้
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(SHUTDOWN);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * เข้ารหัสการจองเป็น record พร้อมหัว (ความยาว + CRC32)
+     */
+    private static ByteBuffer encode(byte type, Booking booking) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writeBooking(out, booking);
+            out.flush();
+            return frame(bytes.toByteArray());
+        } catch (IOException e) {
+            // เขียนลง ByteArrayOutputStream ไม่มีทางเกิด IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * เขียนข้อมูลของการจองหนึ่งรายการ (รูปแบบที่ decode อ่านกลับ)
+     * เก็บราคารวมของการจอง replay จึงได้ราคาเดียวกับก่อนปิดโปรแกรม ไม่ว่า gateway อนุมัติจำนวนเงินเท่าใด
+     */
+    private static void writeBooking(DataOutputStream out, Booking booking) throws IOException {
+        out.writeInt(booking.getBookingId());
+        out.writeInt(booking.getHouse().getHouseNumber());
+        out.writeLong(booking.getCheckInDate().toEpochDay());
+        out.writeLong(booking.getCheckOutDate().toEpochDay());
+        out.writeDouble(booking.getTotalPrice());
+        out.writeUTF(booking.getCustomer().getFullName());
+        out.writeUTF(booking.getCustomer().getPhoneNumber());
+        out.writeUTF(booking.getCustomer().getEmail());
+    }
+
+    /**
+     * ใส่หัว record (ความยาว + CRC32) หน้า payload
+     */
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt(checksum(payload));
+        record.put(payload);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * ถอดรหัส record แล้วส่งให้ผู้รับตามชนิดของ record
+     */
+    private static void dispatch(byte[] payload, HouseRegistry houses, Replayer replayed) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case BOOKING_CONFIRMED:
+                replayed.confirmed(decode(in, houses));
+                break;
+            case BOOKING_CANCELLED:
+                replayed.cancelled(in.readInt());
+                break;
+            case BOOKING_CHANGED:
+                replayed.changed(decode(in, houses));
+                break;
+            case GROUP_CONFIRMED:
+                // ถอดรหัสทั้งกลุ่มก่อน ถ้าบ้านหลังใดไม่อยู่ใน catalog จะไม่มีการจองของกลุ่มถูกส่งต่อเลย
+                int count = in.readInt();
+                List<Booking> group = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    group.add(decode(in, houses));
+                }
+                for (Booking booking : group) {
+                    replayed.confirmed(booking);
+                }
+                break;
+            default:
+                throw new IOException("ชนิด record ไม่รู้จัก: " + type);
+        }
+    }
+
+    /**
+     * ถอดรหัสส่วนที่เหลือของ record การจอง (ต่อจากชนิด) กลับเป็นการจองที่ชำระเงินแล้ว
+     */
+    private static Booking decode(DataInputStream in, HouseRegistry houses) throws IOException {
+        int bookingId = in.readInt();
+        int houseNumber = in.readInt();
+        LocalDate checkIn = LocalDate.ofEpochDay(in.readLong());
+        LocalDate checkOut = LocalDate.ofEpochDay(in.readLong());
+        double totalPrice = in.readDouble();
+        Customer customer = new Customer(in.readUTF(), in.readUTF(), in.readUTF());
+
+        House house = houses.find(houseNumber);
+        if (house == null) {
+            throw new IOException("ไม่พบบ้านหมายเลข " + houseNumber + " ใน catalog");
+        }
+
+        // ใช้ราคาตอนจอง ไม่คิดใหม่ตามอัตราปัจจุบัน
+        Booking booking = new Booking(bookingId, house, customer, checkIn, checkOut, totalPrice);
+        booking.setPaid(true);
+        return booking;
+    }
+
+    /**
+     * คำนวณ CRC32 ของ payload
+     */
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,605 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+/**
+ * คลาสรายการจองที่ต่อท้ายจาก snapshot
+ * การจองส่วนแรกมาจาก BookingSnapshot และถูกถอดรหัสเมื่อถูกอ่านครั้งแรกเท่านั้น
+ * การจองที่ยืนยันหลังเปิดระบบจะต่อท้ายในหน่วยความจำตามปกติ
+ *
+ * ข้อมูลถูกเก็บใน BookingStore (array ของ primitive) ไม่ใช่ Booking object ทีละรายการ
+ * get() คืน flyweight ตัวใหม่ทุกครั้ง ซึ่งเท่ากับ (equals) การจองเดิมที่มีหมายเลขเดียวกัน
+ * ประวัติการจองจำนวนมากจึงใช้หน่วยความจำน้อยและไม่เพิ่มภาระของ GC
+ *
+ * มีดัชนีจากหมายเลขการจองไปยังช่องในรายการ (hash table ของ int ขนาดตามจำนวนการจองในรายการ
+ * ไม่ใช่ตามหมายเลขสูงสุด เพราะหมายเลขมาจากตัวนับเดียวของทั้งโปรแกรม ใช้ร่วมกันทุก shard และ hold ที่หมดเวลา)
+ * findById() remove() และ replace() จึงเป็น O(1) และรายการหนึ่งมีหมายเลขการจองซ้ำกันไม่ได้
+ * การลบทิ้งช่องว่างไว้ (tombstone) แล้วบีบรายการครั้งเดียวเมื่อมีการอ่านตามลำดับครั้งถัดไป
+ * ซึ่งเป็นงาน O(n) อยู่แล้ว (เช่น คัดลอกทั้งรายการ)
+ * การเปลี่ยนการจอง (replace) เพิ่มแถวใหม่ใน store แล้วชี้ช่องเดิมไปที่แถวใหม่
+ * แถวเดิมไม่ถูกแก้ไข flyweight ที่มีอยู่จึงยังอ่านค่าเดิมได้
+ *
+ * readView() คืนรายการแบบอ่านอย่างเดียว ณ เวลาที่เรียก (MVCC) โดยไม่คัดลอกรายการ:
+ * ช่องของรายการถูกแบ่งเป็นหน้า (page) ขนาดคงที่ view ใช้หน้าร่วมกับรายการ
+ * และการแก้ไขหลังจากนั้นคัดลอกเฉพาะหน้าที่ถูกแก้ก่อนเขียน (copy-on-write)
+ * แถวใน store ถูกเพิ่มต่อท้ายเท่านั้น view จึงอ่านได้จากทุก thread โดยไม่ต้อง lock
+ * และไม่เห็นการจองที่เพิ่ม ลบ หรือเปลี่ยนหลังจากสร้าง view
+ *
+ * ไม่ได้ synchronized ในตัวเอง (BookingSystem ครอบด้วย Collections.synchronizedList)
+ */
+public class BookingList extends AbstractList<Booking> implements RandomAccess {
+    // ค่าใน snapshotRows: ยังไม่ได้ถอดรหัส
+    private static final int NOT_DECODED = -1;
+
+    // ค่าในช่อง: ช่องของการจองที่ถูกลบแล้ว / ค่าจาก ids: ไม่มีการจองหมายเลขนี้ในรายการ
+    private static final int REMOVED = Integer.MIN_VALUE;
+
+    // จำนวนช่องต่อหน้า (ต้องเป็นกำลังของ 2)
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // จำนวนแถวที่ตายแล้วขั้นต่ำก่อนย้ายไปที่เก็บใหม่ (ไม่คัดลอกทั้งที่เก็บเพื่อคืนแถวไม่กี่แถว)
+    private static final int MIN_DEAD_ROWS = 4096;
+
+    // ทะเบียนบ้านของระบบ (ใช้สร้างที่เก็บใหม่)
+    private final HouseRegistry houses;
+
+    // ที่เก็บข้อมูลการจองทั้งหมด (เปลี่ยนเป็นที่เก็บใหม่ใน reclaimRows)
+    private BookingStore store;
+
+    // จำนวนแถวใน store ที่ช่องของรายการยังชี้อยู่ (แถวที่เหลือเป็นของการจองที่ถูกยกเลิกหรือถูกเปลี่ยนแล้ว)
+    private int liveRows;
+
+    // snapshot ที่เป็นส่วนแรกของรายการ (null = ไม่มี)
+    private BookingSnapshot snapshot;
+
+    // แถวใน store ของการจองจาก snapshot ตามลำดับใน snapshot (NOT_DECODED = ยังไม่ได้ถอดรหัส)
+    private int[] snapshotRows;
+
+    // ช่องของรายการตามลำดับ แบ่งเป็นหน้า: ค่า >= 0 คือแถวใน store, REMOVED คือช่องที่ถูกลบ
+    // ค่าติดลบอื่นคือการจองจาก snapshot ลำดับ -(ค่า + 1) ที่ยังไม่ได้ถอดรหัส
+    private int[][] pages;
+
+    // รุ่นของ view ตอนที่หน้าถูกสร้างหรือคัดลอก (ถ้าไม่เท่ากับ viewEpoch แสดงว่าหน้านี้ใช้ร่วมกับ view)
+    private int[] pageEpochs;
+
+    // เพิ่มขึ้นทุกครั้งที่สร้าง view ใหม่
+    private int viewEpoch;
+
+    // จำนวนครั้งที่เนื้อหาของรายการเปลี่ยน (เพิ่ม ลบ หรือเปลี่ยนการจอง)
+    private long version;
+
+    // view ล่าสุด (ใช้ซ้ำได้ถ้ารายการยังไม่เปลี่ยน)
+    private ReadView lastView;
+
+    // จำนวนช่องที่ใช้ไปและจำนวนการจองจริง (ต่างกันเท่าจำนวนช่องที่ถูกลบ)
+    private int used;
+    private int size;
+
+    // ช่องของการจองแต่ละหมายเลข (REMOVED = ไม่มีในรายการ)
+    private IdIndex ids;
+
+    /**
+     * Constructor สำหรับสร้างรายการว่าง
+     *
+     * @param houses ทะเบียนบ้านของระบบ (ใช้แปลงหมายเลขบ้านกลับเป็น House)
+     */
+    public BookingList(HouseRegistry houses) {
+        this.houses = houses;
+        this.store = new BookingStore(houses);
+        this.snapshotRows = new int[0];
+        this.pages = new int[0][];
+        this.pageEpochs = new int[0];
+        this.ids = new IdIndex(16);
+    }
+
+    /**
+     * ใช้ snapshot เป็นส่วนแรกของรายการ (ต้องเรียกตอนรายการยังว่าง)
+     * อ่านเฉพาะคอลัมน์หมายเลขการจองเพื่อสร้างดัชนี ไม่ถอดรหัสการจอง
+     *
+     * @param snapshot snapshot ที่เปิดแล้ว
+     * @throws IllegalStateException ถ้ารายการไม่ว่าง
+     */
+    public void attach(BookingSnapshot snapshot) {
+        if (used > 0) {
+            throw new IllegalStateException("ต้องโหลด snapshot ก่อนมีการจองในระบบ");
+        }
+        int count = snapshot.getBookingCount();
+        this.snapshot = snapshot;
+        this.snapshotRows = new int[count];
+        Arrays.fill(snapshotRows, NOT_DECODED);
+        this.ids = new IdIndex(count);
+        for (int i = 0; i < count; i++) {
+            setSlot(i, -(i + 1));
+            indexId(snapshot.bookingIdAt(i), i);
+        }
+        this.used = count;
+        this.size = count;
+        version++;
+        modCount++;
+    }
+
+    /**
+     * ดึงการจองลำดับที่ index (ถอดรหัสจาก snapshot เข้า store ถ้ายังไม่เคยอ่าน)
+     * ถ้ามีช่องที่ถูกลบค้างอยู่ จะบีบรายการก่อน (ครั้งเดียวจนกว่าจะมีการลบครั้งถัดไป)
+     *
+     * @return flyweight ของการจอง
+     */
+    @Override
+    public Booking get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " เกินขนาดรายการ " + size);
+        }
+        compact();
+        return store.view(rowAt(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * ค้นหาการจองจากหมายเลข (O(1))
+     *
+     * @param bookingId หมายเลขการจอง
+     * @return flyweight ของการจอง, หรือ null ถ้าไม่มีในรายการ
+     */
+    public Booking findById(int bookingId) {
+        int slot = slotOf(bookingId);
+        return slot == REMOVED ? null : store.view(rowAt(slot));
+    }
+
+    /**
+     * ตรวจสอบว่ามีการจองหมายเลขนี้ในรายการหรือไม่ (O(1) ไม่ถอดรหัส)
+     *
+     * @param bookingId หมายเลขการจอง
+     * @return true ถ้ามี
+     */
+    public boolean containsId(int bookingId) {
+        return slotOf(bookingId) != REMOVED;
+    }
+
+    /**
+     * ส่งหมายเลขการจองทุกรายการในรายการให้ action (ไม่ถอดรหัส ไม่เรียงลำดับ)
+     *
+     * @param action ผู้รับหมายเลขการจอง
+     */
+    public void forEachId(IntConsumer action) {
+        ids.forEachKey(action);
+    }
+
+    /**
+     * ดึงการจองจาก snapshot ตามลำดับใน snapshot (ลำดับเดียวกับ BookingSnapshot.bookingIndexesOf)
+     * ลำดับนี้ไม่เลื่อนเมื่อมีการลบ ต่างจาก get() ที่ใช้ตำแหน่งในรายการ
+     *
+     * @param snapshotIndex ลำดับการจองใน snapshot
+     * @return flyweight ของการจอง, หรือ null ถ้าถูกยกเลิกหรือถูกเปลี่ยนไปแล้ว
+     */
+    public Booking snapshotBooking(int snapshotIndex) {
+        int row = snapshotRows[snapshotIndex];
+        int slot = slotOf(row >= 0 ? store.bookingId(row) : snapshot.bookingIdAt(snapshotIndex));
+        if (slot == REMOVED) {
+            return null;
+        }
+        // ช่องของหมายเลขนี้ต้องยังเป็นการจองเดิมจาก snapshot (ไม่ใช่แถวใหม่หลังเปลี่ยนวันที่)
+        int ref = slotAt(slot);
+        if (ref != -(snapshotIndex + 1) && (row < 0 || ref != row)) {
+            return null;
+        }
+        return store.view(rowAt(slot));
+    }
+
+    /**
+     * เพิ่มการจองต่อท้ายรายการ (คัดลอกค่าเข้า store)
+     */
+    @Override
+    public boolean add(Booking booking) {
+        append(booking);
+        return true;
+    }
+
+    /**
+     * เพิ่มการจองต่อท้ายรายการ แล้วคืน flyweight ของแถวที่เพิ่ม
+     * ผู้เรียกใช้ flyweight แทน object เดิมได้ (เช่น เก็บในดัชนี) object เดิมจึงถูก GC ได้
+     *
+     * @param booking การจองที่ต้องการเพิ่ม
+     * @return flyweight ของการจองที่เก็บแล้ว
+     * @throws IllegalArgumentException ถ้ามีการจองหมายเลขนี้ในรายการแล้ว
+     */
+    public Booking append(Booking booking) {
+        if (containsId(booking.getBookingId())) {
+            throw new IllegalArgumentException("มีการจองหมายเลข " + booking.getBookingId() + " แล้ว");
+        }
+        int row = store.append(booking);
+        liveRows++;
+        indexId(booking.getBookingId(), used);
+        setSlot(used++, row);
+        size++;
+        version++;
+        modCount++;
+        return store.view(row);
+    }
+
+    /**
+     * แทนการจองในรายการด้วยค่าใหม่ที่มีหมายเลขการจองเดิม (คงตำแหน่งในรายการ, O(1))
+     *
+     * @param booking การจองหลังเปลี่ยน
+     * @return flyweight ของแถวใหม่, หรือ null ถ้าไม่มีการจองหมายเลขนี้ในรายการ
+     */
+    public Booking replace(Booking booking) {
+        int slot = slotOf(booking.getBookingId());
+        if (slot == REMOVED) {
+            return null;
+        }
+        // แถวเดิม (ถ้าเคยถอดรหัสแล้ว) ตายแทนแถวใหม่
+        if (slotAt(slot) < 0) {
+            liveRows++;
+        }
+        int row = store.append(booking);
+        setSlot(slot, row);
+        version++;
+        return store.view(row);
+    }
+
+    /**
+     * ลบการจองลำดับที่ index
+     * แถวใน store ไม่ถูกลบทันที (คืนทีหลังใน reclaimRows) flyweight ที่มีอยู่จึงยังอ่านค่าได้
+     */
+    @Override
+    public Booking remove(int index) {
+        Booking removed = get(index);
+        removeSlot(index, removed.getBookingId());
+        return removed;
+    }
+
+    /**
+     * ลบการจอง (หาช่องจากดัชนีหมายเลข O(1) โดยไม่ถอดรหัสส่วนของ snapshot)
+     */
+    @Override
+    public boolean remove(Object booking) {
+        if (!(booking instanceof Booking)) {
+            return false;
+        }
+        int bookingId = ((Booking) booking).getBookingId();
+        int slot = slotOf(bookingId);
+        if (slot == REMOVED) {
+            return false;
+        }
+        removeSlot(slot, bookingId);
+        return true;
+    }
+
+    /**
+     * สร้างรายการแบบอ่านอย่างเดียว ณ เวลานี้ (O(จำนวนหน้า) ไม่คัดลอกการจอง)
+     * ถ้ามีช่องที่ถูกลบค้างอยู่ จะบีบรายการก่อน (O(n) ครั้งเดียวหลังการลบ)
+     * ถ้ารายการยังไม่เปลี่ยนตั้งแต่ view ล่าสุด คืน view เดิม
+     *
+     * @return view ที่อ่านได้จากทุก thread โดยไม่ต้อง lock
+     */
+    public ReadView readView() {
+        if (lastView == null || lastView.version != version) {
+            compact();
+            int pageCount = (used + PAGE_MASK) >>> PAGE_SHIFT;
+            lastView = new ReadView(store, snapshot, Arrays.copyOf(pages, pageCount), size, version);
+            // หน้าที่มีอยู่ตอนนี้ใช้ร่วมกับ view แล้ว การเขียนครั้งถัดไปต้องคัดลอกก่อน
+            viewEpoch++;
+        }
+        return lastView;
+    }
+
+    /**
+     * คืนแถวของการจองที่ถูกยกเลิกหรือถูกเปลี่ยนไปแล้ว โดยคัดลอกแถวที่ยังอยู่ในรายการไปที่เก็บใหม่
+     * ทำเฉพาะเมื่อแถวที่ตายแล้วมีมากกว่าแถวที่ยังใช้ (O(จำนวนแถวที่ยังใช้) เฉลี่ยต่อแถวที่ตายไม่เกิน O(1))
+     * ที่เก็บเดิมไม่ถูกแก้ flyweight และ view ที่สร้างไว้แล้วจึงยังอ่านค่าเดิมได้
+     * ผู้ที่ถือ flyweight ไว้นาน (เช่น ดัชนีของบ้าน) ควรเปลี่ยนเป็นตัวใหม่จาก findById เพื่อให้ที่เก็บเดิมถูก GC
+     *
+     * @return true ถ้าย้ายไปที่เก็บใหม่แล้ว, false ถ้าแถวที่ตายแล้วยังมีไม่มากพอ
+     */
+    public boolean reclaimRows() {
+        int deadRows = store.size() - liveRows;
+        if (deadRows < MIN_DEAD_ROWS || deadRows <= liveRows) {
+            return false;
+        }
+        compact();
+        BookingStore old = store;
+        BookingStore fresh = new BookingStore(houses);
+        int[] moved = new int[old.size()];
+        Arrays.fill(moved, NOT_DECODED);
+
+        // เขียนลงหน้าชุดใหม่ทั้งหมด หน้าเดิมที่ view ใช้อยู่จึงไม่ถูกแก้
+        int[][] oldPages = pages;
+        pages = new int[oldPages.length][];
+        pageEpochs = new int[oldPages.length];
+        for (int slot = 0; slot < used; slot++) {
+            int ref = oldPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+            if (ref >= 0) {
+                int row = fresh.appendFrom(old, ref);
+                moved[ref] = row;
+                ref = row;
+            }
+            setSlot(slot, ref);
+        }
+        // แถวที่ถอดรหัสจาก snapshot แล้วแต่ตายไปแล้ว กลับเป็น NOT_DECODED (snapshotBooking ได้ null จากดัชนีหมายเลข)
+        for (int i = 0; i < snapshotRows.length; i++) {
+            if (snapshotRows[i] >= 0) {
+                snapshotRows[i] = moved[snapshotRows[i]];
+            }
+        }
+        store = fresh;
+        liveRows = fresh.size();
+        lastView = null;
+        return true;
+    }
+
+    /**
+     * ดึงที่เก็บข้อมูลของรายการ
+     * @return BookingStore ที่เก็บการจองของรายการนี้
+     */
+    public BookingStore getStore() {
+        return store;
+    }
+
+    /**
+     * ค่าในช่อง
+     */
+    private int slotAt(int slot) {
+        return pages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+    }
+
+    /**
+     * เขียนค่าในช่อง (คัดลอกหน้าก่อนถ้าหน้านั้นใช้ร่วมกับ view, สร้างหน้าใหม่ถ้ายังไม่มี)
+     */
+    private void setSlot(int slot, int value) {
+        int page = slot >>> PAGE_SHIFT;
+        if (page >= pages.length) {
+            int length = Math.max(page + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, length);
+            pageEpochs = Arrays.copyOf(pageEpochs, length);
+        }
+        if (pages[page] == null) {
+            pages[page] = new int[PAGE_SIZE];
+            pageEpochs[page] = viewEpoch;
+        } else if (pageEpochs[page] != viewEpoch) {
+            pages[page] = pages[page].clone();
+            pageEpochs[page] = viewEpoch;
+        }
+        pages[page][slot & PAGE_MASK] = value;
+    }
+
+    /**
+     * ช่องของหมายเลขการจอง (REMOVED ถ้าไม่มี)
+     */
+    private int slotOf(int bookingId) {
+        return ids.get(bookingId);
+    }
+
+    /**
+     * บันทึกช่องของหมายเลขการจองในดัชนี
+     */
+    private void indexId(int bookingId, int slot) {
+        if (bookingId < 0) {
+            throw new IllegalArgumentException("หมายเลขการจองต้องไม่ติดลบ: " + bookingId);
+        }
+        ids.put(bookingId, slot);
+    }
+
+    /**
+     * แถวใน store ของช่องที่ยังไม่ถูกลบ (ถอดรหัสจาก snapshot ครั้งแรกที่อ่าน)
+     */
+    private int rowAt(int slot) {
+        int ref = slotAt(slot);
+        if (ref >= 0) {
+            return ref;
+        }
+        int snapshotIndex = -ref - 1;
+        int row = snapshotRows[snapshotIndex];
+        if (row == NOT_DECODED) {
+            row = store.append(snapshot.readBooking(snapshotIndex));
+            snapshotRows[snapshotIndex] = row;
+            liveRows++;
+        }
+        setSlot(slot, row);
+        return row;
+    }
+
+    /**
+     * ทำเครื่องหมายว่าช่องถูกลบ (บีบรายการทีหลังใน compact)
+     */
+    private void removeSlot(int slot, int bookingId) {
+        if (slotAt(slot) >= 0) {
+            liveRows--;
+        }
+        setSlot(slot, REMOVED);
+        ids.remove(bookingId);
+        size--;
+        version++;
+        modCount++;
+    }
+
+    /**
+     * บีบช่องที่ถูกลบออกจากรายการ แล้วชี้ดัชนีหมายเลขไปที่ช่องใหม่ (O(n) เฉพาะเมื่อมีการลบค้างอยู่)
+     * เขียนลงหน้าชุดใหม่ทั้งหมด หน้าเดิมที่ view ใช้อยู่จึงไม่ถูกแก้
+     */
+    private void compact() {
+        if (used == size) {
+            return;
+        }
+        int[][] oldPages = pages;
+        int oldUsed = used;
+        pages = new int[Math.max(1, (size + PAGE_MASK) >>> PAGE_SHIFT)][];
+        pageEpochs = new int[pages.length];
+        int next = 0;
+        for (int slot = 0; slot < oldUsed; slot++) {
+            int ref = oldPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+            if (ref == REMOVED) {
+                continue;
+            }
+            setSlot(next, ref);
+            ids.put(ref >= 0 ? store.bookingId(ref) : snapshot.bookingIdAt(-ref - 1), next);
+            next++;
+        }
+        used = next;
+    }
+
+    /**
+     * รายการจองแบบอ่านอย่างเดียว ณ เวลาที่สร้าง (จาก readView)
+     * ไม่เปลี่ยนตามรายการหลังจากสร้าง ยกเว้นสถานะการชำระเงินของแต่ละการจองซึ่งอ่านค่าปัจจุบัน
+     * การจองจาก snapshot ที่ยังไม่ได้ถอดรหัสถูกอ่านจากไฟล์ทุกครั้ง (ไม่เขียนกลับเข้ารายการ)
+     */
+    public static final class ReadView extends AbstractList<Booking> implements RandomAccess {
+        private final BookingStore store;
+        private final BookingSnapshot snapshot;
+        private final int[][] pages;
+        private final int size;
+        private final long version;
+
+        private ReadView(BookingStore store, BookingSnapshot snapshot, int[][] pages, int size, long version) {
+            this.store = store;
+            this.snapshot = snapshot;
+            this.pages = pages;
+            this.size = size;
+            this.version = version;
+        }
+
+        @Override
+        public Booking get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + " เกินขนาดรายการ " + size);
+            }
+            int ref = pages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+            return ref >= 0 ? store.view(ref) : snapshot.readBooking(-ref - 1);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * รุ่นของรายการที่ view นี้เห็น (view สองตัวที่รุ่นเท่ากันมีการจองชุดเดียวกัน)
+         * @return จำนวนครั้งที่รายการเปลี่ยนก่อนสร้าง view นี้
+         */
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    /**
+     * ดัชนีหมายเลขการจอง -> ช่อง แบบ open addressing (linear probing) เก็บเป็น array ของ int
+     * ไม่สร้าง object ต่อรายการ และขยายเท่าตัวเมื่อใช้เกินครึ่งตาราง
+     * การลบเลื่อนรายการถัดไปที่ probe ผ่านช่องนี้ถอยกลับ (ไม่ทิ้ง tombstone)
+     */
+    private static final class IdIndex {
+        // ค่าใน keys: ช่องว่าง (หมายเลขการจองไม่ติดลบเสมอ)
+        private static final int EMPTY = -1;
+
+        private int[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        IdIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+            allocate(capacity);
+        }
+
+        /**
+         * ช่องของหมายเลขการจอง (REMOVED ถ้าไม่มี)
+         */
+        int get(int key) {
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == EMPTY) {
+                    return REMOVED;
+                }
+            }
+        }
+
+        /**
+         * เพิ่มหรือแทนช่องของหมายเลขการจอง
+         */
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                int[] oldKeys = keys;
+                int[] oldValues = values;
+                allocate(oldKeys.length * 2);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        insert(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            insert(key, value);
+        }
+
+        /**
+         * ส่งทุกหมายเลขในดัชนีให้ action ตามลำดับในตาราง
+         */
+        void forEachKey(IntConsumer action) {
+            for (int key : keys) {
+                if (key != EMPTY) {
+                    action.accept(key);
+                }
+            }
+        }
+
+        /**
+         * ลบหมายเลขการจองออกจากดัชนี (ไม่มีอยู่ = ไม่ทำอะไร)
+         */
+        void remove(int key) {
+            int i = hash(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            // เลื่อนรายการที่ตำแหน่งเริ่ม probe อยู่ก่อนช่องว่างถอยมาแทน ให้การค้นหายังหาเจอ
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+        }
+
+        private void insert(int key, int value) {
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        /**
+         * กระจายหมายเลขที่เรียงต่อกันไปทั่วตาราง (Fibonacci hashing)
+         */
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
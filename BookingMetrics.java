@@ -0,0 +1,195 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * คลาสเก็บสถิติการทำงานของ BookingSystem
+ * ตัวนับใช้ LongAdder และเวลาที่ใช้ใช้ LatencyHistogram จึงบันทึกได้โดยไม่มี lock
+ * อ่านได้ผ่าน JMX (registerMBeans) หรือเป็นข้อความ (dump)
+ */
+public class BookingMetrics implements BookingMetricsMBean {
+    // domain ของ ObjectName ใน JMX
+    private static final String JMX_DOMAIN = "projectcs318";
+
+    // จำนวนครั้งที่ตรวจสอบวันว่าง
+    private final LongAdder availabilityChecks = new LongAdder();
+
+    // จำนวนครั้งที่จองไม่ได้เพราะวันที่ชนกับการจองอื่น
+    private final LongAdder conflicts = new LongAdder();
+
+    // จำนวน hold ที่สร้างและที่หมดเวลา
+    private final LongAdder holdsCreated = new LongAdder();
+    private final LongAdder holdsExpired = new LongAdder();
+
+    // จำนวนการชำระเงินที่สำเร็จและไม่สำเร็จ
+    private final LongAdder paymentsSucceeded = new LongAdder();
+    private final LongAdder paymentsFailed = new LongAdder();
+
+    // จำนวนการจองที่ถูกยืนยันเข้าระบบ (รวมที่ replay จาก journal)
+    private final LongAdder bookingsConfirmed = new LongAdder();
+
+    // จำนวนการจองที่ถูกยกเลิกและที่ถูกเปลี่ยนวันที่ (รวมที่ replay จาก journal)
+    private final LongAdder bookingsCancelled = new LongAdder();
+    private final LongAdder bookingsChanged = new LongAdder();
+
+    // เวลาที่ใช้ของแต่ละงาน
+    private final LatencyHistogram availabilityLatency = new LatencyHistogram();
+    private final LatencyHistogram createBookingLatency = new LatencyHistogram();
+    private final LatencyHistogram paymentLatency = new LatencyHistogram();
+
+    // === บันทึกสถิติ (เรียกจาก BookingSystem) ===
+
+    void availabilityChecked(long startNanos) {
+        availabilityChecks.increment();
+        availabilityLatency.recordSince(startNanos);
+    }
+
+    void conflict() {
+        conflicts.increment();
+    }
+
+    void bookingCreated(long startNanos) {
+        holdsCreated.increment();
+        createBookingLatency.recordSince(startNanos);
+    }
+
+    void bookingRejected(long startNanos) {
+        conflicts.increment();
+        createBookingLatency.recordSince(startNanos);
+    }
+
+    void holdsExpired(int count) {
+        holdsExpired.add(count);
+    }
+
+    void paymentCompleted(long startNanos, PaymentStatus status) {
+        if (status == PaymentStatus.CONFIRMED) {
+            paymentsSucceeded.increment();
+        } else {
+            paymentsFailed.increment();
+            if (status == PaymentStatus.UNAVAILABLE) {
+                conflicts.increment();
+            }
+        }
+        paymentLatency.recordSince(startNanos);
+    }
+
+    void bookingConfirmed() {
+        bookingsConfirmed.increment();
+    }
+
+    void bookingCancelled() {
+        bookingsCancelled.increment();
+    }
+
+    void bookingChanged() {
+        bookingsChanged.increment();
+    }
+
+    // === อ่านสถิติ ===
+
+    @Override
+    public long getAvailabilityChecks() {
+        return availabilityChecks.sum();
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public long getHoldsCreated() {
+        return holdsCreated.sum();
+    }
+
+    @Override
+    public long getHoldsExpired() {
+        return holdsExpired.sum();
+    }
+
+    @Override
+    public long getPaymentsSucceeded() {
+        return paymentsSucceeded.sum();
+    }
+
+    @Override
+    public long getPaymentsFailed() {
+        return paymentsFailed.sum();
+    }
+
+    @Override
+    public long getBookingsConfirmed() {
+        return bookingsConfirmed.sum();
+    }
+
+    @Override
+    public long getBookingsCancelled() {
+        return bookingsCancelled.sum();
+    }
+
+    @Override
+    public long getBookingsChanged() {
+        return bookingsChanged.sum();
+    }
+
+    /**
+     * @return เวลาที่ใช้ตรวจสอบวันว่าง (isHouseAvailableForDates)
+     */
+    public LatencyHistogram getAvailabilityLatency() {
+        return availabilityLatency;
+    }
+
+    /**
+     * @return เวลาที่ใช้สร้างการจอง (createBooking)
+     */
+    public LatencyHistogram getCreateBookingLatency() {
+        return createBookingLatency;
+    }
+
+    /**
+     * @return เวลาตั้งแต่ส่งชำระเงินจนได้ผล (processPaymentAsync)
+     */
+    public LatencyHistogram getPaymentLatency() {
+        return paymentLatency;
+    }
+
+    @Override
+    public String dump() {
+        return "=== สถิติระบบจองบ้านพัก ===\n" +
+            "availabilityChecks: " + getAvailabilityChecks() + "\n" +
+            "conflicts: " + getConflicts() + "\n" +
+            "holdsCreated: " + getHoldsCreated() + "\n" +
+            "holdsExpired: " + getHoldsExpired() + "\n" +
+            "paymentsSucceeded: " + getPaymentsSucceeded() + "\n" +
+            "paymentsFailed: " + getPaymentsFailed() + "\n" +
+            "bookingsConfirmed: " + getBookingsConfirmed() + "\n" +
+            "bookingsCancelled: " + getBookingsCancelled() + "\n" +
+            "bookingsChanged: " + getBookingsChanged() + "\n" +
+            "latency.availabilityCheck: " + availabilityLatency + "\n" +
+            "latency.createBooking: " + createBookingLatency + "\n" +
+            "latency.payment: " + paymentLatency + "\n";
+    }
+
+    /**
+     * ลงทะเบียนสถิติกับ MBean server ของ JVM (ดูได้จาก JConsole หรือ VisualVM)
+     *
+     * @param name ชื่อของระบบ (ใช้แยกเมื่อมีหลายระบบใน JVM เดียวกัน)
+     * @throws JMException ถ้าลงทะเบียนไม่ได้ (เช่น ชื่อซ้ำ)
+     */
+    public void registerMBeans(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(JMX_DOMAIN + ":type=BookingMetrics,name=" + name));
+        registerLatency(server, name, "availabilityCheck", availabilityLatency);
+        registerLatency(server, name, "createBooking", createBookingLatency);
+        registerLatency(server, name, "payment", paymentLatency);
+    }
+
+    private static void registerLatency(MBeanServer server, String name, String operation,
+                                        LatencyHistogram histogram) throws JMException {
+        server.registerMBean(histogram, new ObjectName(
+            JMX_DOMAIN + ":type=Latency,name=" + name + ",operation=" + operation));
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * ตัวนับของ BookingMetrics ที่เปิดให้อ่านผ่าน JMX
+ * (เวลาที่ใช้ของแต่ละงานอยู่ใน LatencyHistogramMBean แยกต่างหาก)
+ */
+public interface BookingMetricsMBean {
+    long getAvailabilityChecks();
+    long getConflicts();
+    long getHoldsCreated();
+    long getHoldsExpired();
+    long getPaymentsSucceeded();
+    long getPaymentsFailed();
+    long getBookingsConfirmed();
+    long getBookingsCancelled();
+    long getBookingsChanged();
+
+    /**
+     * @return สรุปค่าทั้งหมดเป็นข้อความ
+     */
+    String dump();
+}
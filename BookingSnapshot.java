@@ -0,0 +1,488 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * คลาส snapshot ของสถานะระบบจองในรูปแบบ binary ความกว้างคงที่
+ * เก็บบ้าน ลูกค้า การจอง หมายเลขการจองถัดไป และตำแหน่งใน journal ที่ snapshot ครอบคลุมถึง
+ *
+ * ตอนเปิดโปรแกรมจะ map ไฟล์เข้าหน่วยความจำ (memory-mapped) แล้วอ่านเฉพาะหัวไฟล์
+ * การจองแต่ละรายการถูกถอดรหัสเมื่อมีคนขอเท่านั้น (readBooking) จึงเปิดระบบได้ทันที
+ * แม้มีประวัติการจองหลายล้านรายการ
+ *
+ * โครงสร้างไฟล์ (big-endian):
+ * <pre>
+ * หัวไฟล์ 48 byte : MAGIC, VERSION, nextBookingId, houseCount (int)
+ *                   journalId, journalPosition (long)
+ *                   customerCount, bookingCount (int), stringsOffset (long)
+ * บ้าน   24 byte/หลัง : houseNumber, available, indexStart, indexCount (int), pricePerDay (double)
+ *                   เรียงตามหมายเลขบ้าน
+ * ลูกค้า 16 byte/คน  : stringOffset, nameLength, phoneLength, emailLength (int)
+ * การจอง 32 byte/รายการ : bookingId, houseNumber, customerIndex,
+ *                   checkInEpochDay, checkOutEpochDay, flags (int), priceSatang (long)
+ * ดัชนีบ้าน 4 byte/รายการ : ลำดับการจอง เรียงตาม (หมายเลขบ้าน, วันที่เข้าพัก)
+ * ข้อความ : ชื่อ เบอร์ อีเมล ของลูกค้าทุกคน (UTF-8)
+ * </pre>
+ *
+ * ทั้งไฟล์ถูก map เป็นบัฟเฟอร์เดียว จึงรองรับไฟล์ขนาดไม่เกิน 2 GB
+ *
+ * snapshot แต่ละครั้งถูกเขียนเป็นไฟล์รุ่นใหม่ (ชื่อไฟล์ตามด้วย .รุ่น เช่น bookings.snapshot.3)
+ * ไม่เขียนทับไฟล์เดิม เพราะไฟล์ที่โหลดตอนเปิดโปรแกรมยังถูก map อยู่ตลอดการทำงาน
+ * และบน Windows แทนที่หรือลบไฟล์ที่ถูก map ไม่ได้ ตอนเปิดโปรแกรมใช้รุ่นล่าสุด (latest)
+ * รุ่นเก่าถูกลบหลังเขียนรุ่นใหม่เสร็จ (ถ้ายังถูก map อยู่จะถูกลบในการเขียนครั้งถัดไป)
+ */
+public class BookingSnapshot {
+    // ตัวระบุไฟล์ snapshot ("HBSN") และเวอร์ชันของรูปแบบไฟล์
+    private static final int MAGIC = 0x4842534E;
+    private static final int VERSION = 3;
+
+    // ขนาดของแต่ละส่วน (byte)
+    private static final int HEADER_BYTES = 48;
+    private static final int HOUSE_BYTES = 24;
+    private static final int CUSTOMER_BYTES = 16;
+    private static final int BOOKING_BYTES = 32;
+    private static final int INDEX_BYTES = 4;
+
+    // บิตใน flags ของการจอง: ชำระเงินแล้ว
+    private static final int FLAG_PAID = 1;
+
+    // ไฟล์ที่ถูก map เข้าหน่วยความจำ
+    private final MappedByteBuffer data;
+
+    // ทะเบียนบ้าน ใช้หาบ้านจากหมายเลขตอนถอดรหัสการจอง
+    private final HouseRegistry houses;
+
+    // ค่าจากหัวไฟล์
+    private final int nextBookingId;
+    private final int houseCount;
+    private final long journalId;
+    private final long journalPosition;
+    private final int customerCount;
+    private final int bookingCount;
+    private final long stringsOffset;
+
+
+    // ตำแหน่งเริ่มของแต่ละส่วนในไฟล์
+    private final int customersOffset;
+    private final int bookingsOffset;
+    private final int indexOffset;
+
+    // ลูกค้าที่ถอดรหัสแล้ว (ถอดรหัสครั้งแรกที่มีการจองอ้างถึง)
+    private final Customer[] customers;
+
+    /**
+     * เปิดไฟล์ snapshot แบบ memory-mapped (อ่านเฉพาะหัวไฟล์)
+     */
+    private BookingSnapshot(MappedByteBuffer data, HouseRegistry houses) throws IOException {
+        this.data = data;
+        this.houses = houses;
+
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC
+                || data.getInt(4) != VERSION) {
+            throw new IOException("ไม่ใช่ไฟล์ snapshot ของระบบจองบ้านพัก");
+        }
+        this.nextBookingId = data.getInt(8);
+        this.houseCount = data.getInt(12);
+        this.journalId = data.getLong(16);
+        this.journalPosition = data.getLong(24);
+        this.customerCount = data.getInt(32);
+        this.bookingCount = data.getInt(36);
+        this.stringsOffset = data.getLong(40);
+
+        this.customersOffset = HEADER_BYTES + houseCount * HOUSE_BYTES;
+        this.bookingsOffset = customersOffset + customerCount * CUSTOMER_BYTES;
+        this.indexOffset = bookingsOffset + bookingCount * BOOKING_BYTES;
+        if (indexOffset + (long) bookingCount * INDEX_BYTES != stringsOffset
+                || stringsOffset > data.capacity()) {
+            throw new IOException("ไฟล์ snapshot ไม่สมบูรณ์");
+        }
+
+        this.customers = new Customer[customerCount];
+    }
+
+    /**
+     * หาไฟล์ของ snapshot รุ่นล่าสุดที่เขียนเสร็จแล้ว
+     *
+     * @param file ชื่อไฟล์ snapshot (ไม่รวมเลขรุ่น)
+     * @return ไฟล์รุ่นล่าสุด หรือ null ถ้ายังไม่เคยเขียน snapshot
+     * @throws IOException ถ้าอ่านรายชื่อไฟล์ในโฟลเดอร์ไม่ได้
+     */
+    public static Path latest(Path file) throws IOException {
+        List<Long> generations = generations(file);
+        return generations.isEmpty() ? null : generationFile(file, generations.get(generations.size() - 1));
+    }
+
+    /**
+     * เปิดไฟล์ snapshot ที่มีอยู่
+     *
+     * @param file ไฟล์ snapshot
+     * @param houses ทะเบียนบ้านของระบบ
+     * @return snapshot ที่พร้อมอ่านแบบ lazy
+     * @throws IOException ถ้าเปิดไฟล์ไม่ได้หรือรูปแบบไม่ถูกต้อง
+     */
+    public static BookingSnapshot open(Path file, HouseRegistry houses) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // mapping ยังใช้ได้หลังปิด channel
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BookingSnapshot(data, houses);
+        }
+    }
+
+    // === Getters - ค่าจากหัวไฟล์ ===
+
+    /**
+     * ดึงหมายเลขการจองถัดไป ณ เวลาที่สร้าง snapshot
+     * @return หมายเลขการจองถัดไป
+     */
+    public int getNextBookingId() {
+        return nextBookingId;
+    }
+
+    /**
+     * ดึง ID ของ journal ที่ snapshot นี้อ้างถึง
+     * @return journal ID (0 = ไม่ได้เปิด journal)
+     */
+    public long getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * ดึงตำแหน่งใน journal ที่ snapshot นี้ครอบคลุมถึงแล้ว
+     * @return ตำแหน่งในไฟล์ journal (byte)
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * ดึงจำนวนการจองใน snapshot
+     * @return จำนวนการจอง
+     */
+    public int getBookingCount() {
+        return bookingCount;
+    }
+
+    // === การอ่านแบบ lazy ===
+
+    /**
+     * คืนค่าสถานะว่างของบ้านทุกหลังในทะเบียนจาก snapshot
+     * บ้านที่ไม่มีใน snapshot (เพิ่งเพิ่มใน catalog) จะไม่ถูกเปลี่ยน
+     */
+    public void restoreHouseStates() {
+        for (int i = 0; i < houseCount; i++) {
+            int offset = HEADER_BYTES + i * HOUSE_BYTES;
+            House house = houses.find(data.getInt(offset));
+            if (house != null) {
+                house.setAvailable(data.getInt(offset + 4) != 0);
+            }
+        }
+    }
+
+    /**
+     * ดึงลำดับของการจองทั้งหมดของบ้านหลังหนึ่ง เรียงตามวันที่เข้าพัก
+     * ค้นหาบ้านด้วย binary search ในไฟล์ จึงไม่ต้องโหลดส่วนบ้านทั้งหมด
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @return ลำดับการจอง (ใช้กับ readBooking) หรือ array ว่างถ้าไม่มี
+     */
+    public int[] bookingIndexesOf(int houseNumber) {
+        int low = 0;
+        int high = houseCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = HEADER_BYTES + mid * HOUSE_BYTES;
+            int number = data.getInt(offset);
+            if (number < houseNumber) {
+                low = mid + 1;
+            } else if (number > houseNumber) {
+                high = mid - 1;
+            } else {
+                int start = data.getInt(offset + 8);
+                int count = data.getInt(offset + 12);
+                int[] indexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    indexes[i] = data.getInt(indexOffset + (start + i) * INDEX_BYTES);
+                }
+                return indexes;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * อ่านเฉพาะหมายเลขการจองลำดับที่ index (ไม่ถอดรหัสทั้งรายการ)
+     *
+     * @param index ลำดับการจองใน snapshot
+     * @return หมายเลขการจอง
+     */
+    public int bookingIdAt(int index) {
+        return data.getInt(bookingsOffset + index * BOOKING_BYTES);
+    }
+
+    /**
+     * ถอดรหัสการจองลำดับที่ index จากไฟล์
+     * ผู้เรียกควรเก็บผลไว้ใช้ซ้ำ (ดู BookingList) การเรียกซ้ำจะได้ object ใหม่
+     *
+     * @param index ลำดับการจองใน snapshot
+     * @return การจองที่ถอดรหัสแล้ว
+     * @throws IllegalStateException ถ้าบ้านของการจองไม่มีใน catalog แล้ว
+     */
+    public Booking readBooking(int index) {
+        int offset = bookingsOffset + index * BOOKING_BYTES;
+        int bookingId = data.getInt(offset);
+        int houseNumber = data.getInt(offset + 4);
+        int customerIndex = data.getInt(offset + 8);
+        LocalDate checkIn = LocalDate.ofEpochDay(data.getInt(offset + 12));
+        LocalDate checkOut = LocalDate.ofEpochDay(data.getInt(offset + 16));
+        int flags = data.getInt(offset + 20);
+
+        House house = houses.find(houseNumber);
+        if (house == null) {
+            throw new IllegalStateException("ไม่พบบ้านหมายเลข " + houseNumber + " ใน catalog");
+        }
+
+        Booking booking = new Booking(bookingId, house, customer(customerIndex), checkIn, checkOut, 
+                                      data.getLong(offset + 24) / 100.0);
+        booking.setPaid((flags & FLAG_PAID) != 0);
+        return booking;
+    }
+
+    /**
+     * ถอดรหัสลูกค้า (ครั้งแรกเท่านั้น) การจองของลูกค้าคนเดียวกันจึงใช้ object เดียวกัน
+     */
+    private synchronized Customer customer(int index) {
+        Customer customer = customers[index];
+        if (customer == null) {
+            int offset = customersOffset + index * CUSTOMER_BYTES;
+            long position = stringsOffset + data.getInt(offset);
+            int nameLength = data.getInt(offset + 4);
+            int phoneLength = data.getInt(offset + 8);
+            int emailLength = data.getInt(offset + 12);
+
+            String name = readString(position, nameLength);
+            String phone = readString(position + nameLength, phoneLength);
+            String email = readString(position + nameLength + phoneLength, emailLength);
+            customer = new Customer(name, phone, email);
+            customers[index] = customer;
+        }
+        return customer;
+    }
+
+    /**
+     * อ่านข้อความ UTF-8 จากตำแหน่งที่กำหนด
+     */
+    private String readString(long position, int length) {
+        byte[] bytes = new byte[length];
+        data.get((int) position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // === การเขียน snapshot ===
+
+    /**
+     * เขียน snapshot ใหม่ลงไฟล์ชั่วคราวแล้วย้ายเป็นไฟล์รุ่นถัดไปแบบ atomic (ไม่แทนที่ไฟล์ที่มีอยู่)
+     * ถ้าโปรแกรมหยุดกลางคัน รุ่นก่อนหน้าจะยังอยู่ครบ
+     *
+     * @param file ชื่อไฟล์ snapshot (ไม่รวมเลขรุ่น)
+     * @param houses ทะเบียนบ้านของระบบ
+     * @param bookings การจองที่ยืนยันแล้วทั้งหมด
+     * @param nextBookingId หมายเลขการจองถัดไป
+     * @param journalId ID ของ journal ที่ใช้อยู่ (0 = ไม่ได้เปิด journal)
+     * @param journalPosition ตำแหน่งใน journal ที่การจองทั้งหมดก่อนหน้าอยู่ใน bookings แล้ว
+     * @throws IOException ถ้าเขียนไฟล์ไม่ได้
+     * @throws IllegalArgumentException ถ้ามีการจองของบ้านที่ไม่อยู่ในทะเบียน
+     */
+    public static void write(Path file, HouseRegistry houses, List<Booking> bookings,
+                             int nextBookingId, long journalId, long journalPosition) throws IOException {
+        // บ้านเรียงตามหมายเลข สำหรับ binary search ตอนอ่าน
+        List<House> sortedHouses = new ArrayList<>(houses.getAll());
+        sortedHouses.sort(Comparator.comparingInt(House::getHouseNumber));
+        int[] houseNumbers = new int[sortedHouses.size()];
+        for (int h = 0; h < houseNumbers.length; h++) {
+            houseNumbers[h] = sortedHouses.get(h).getHouseNumber();
+        }
+
+        // อ่านการจองแต่ละรายการครั้งเดียวเก็บเป็น array ของ primitive
+        // (แถวที่มาจาก snapshot เดิมถูกถอดรหัสจากไฟล์ทุกครั้งที่ get จึงไม่อ่านซ้ำระหว่างเรียงหรือเขียน)
+        int count = bookings.size();
+        int[] bookingIds = new int[count];
+        int[] housePositions = new int[count];
+        int[] customerIndexOf = new int[count];
+        int[] checkIns = new int[count];
+        int[] checkOuts = new int[count];
+        int[] flags = new int[count];
+        long[] prices = new long[count];
+        int[] houseStarts = new int[houseNumbers.length + 1];
+
+        // ลูกค้าแต่ละคน (object เดียวกัน) ถูกเก็บครั้งเดียว
+        Map<Customer, Integer> customerIndexes = new IdentityHashMap<>();
+        List<byte[][]> customerStrings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Booking booking = bookings.get(i);
+            int position = Arrays.binarySearch(houseNumbers, booking.getHouse().getHouseNumber());
+            if (position < 0) {
+                throw new IllegalArgumentException(
+                    "บ้านหมายเลข " + booking.getHouse().getHouseNumber() + " ไม่อยู่ในทะเบียน");
+            }
+            Customer customer = booking.getCustomer();
+            Integer customerIndex = customerIndexes.get(customer);
+            if (customerIndex == null) {
+                customerIndex = customerStrings.size();
+                customerIndexes.put(customer, customerIndex);
+                customerStrings.add(new byte[][] {
+                    customer.getFullName().getBytes(StandardCharsets.UTF_8),
+                    customer.getPhoneNumber().getBytes(StandardCharsets.UTF_8),
+                    customer.getEmail().getBytes(StandardCharsets.UTF_8)
+                });
+            }
+            bookingIds[i] = booking.getBookingId();
+            housePositions[i] = position;
+            customerIndexOf[i] = customerIndex;
+            checkIns[i] = (int) booking.getCheckInDate().toEpochDay();
+            checkOuts[i] = (int) booking.getCheckOutDate().toEpochDay();
+            flags[i] = booking.isPaid() ? FLAG_PAID : 0;
+            prices[i] = Math.round(booking.getTotalPrice() * 100);
+            houseStarts[position + 1]++;
+        }
+
+        // ดัชนีบ้าน: แบ่งการจองตามบ้าน (counting sort) แล้วเรียงแต่ละบ้านตามวันที่เข้าพัก
+        // key = (วันที่เข้าพัก << 32) | ลำดับการจอง เรียง long ได้ตรงลำดับโดยไม่ต้องใช้ Comparator
+        for (int h = 0; h < houseNumbers.length; h++) {
+            houseStarts[h + 1] += houseStarts[h];
+        }
+        long[] order = new long[count];
+        int[] cursors = Arrays.copyOf(houseStarts, houseNumbers.length);
+        for (int i = 0; i < count; i++) {
+            order[cursors[housePositions[i]]++] = ((long) checkIns[i] << 32) | i;
+        }
+        for (int h = 0; h < houseNumbers.length; h++) {
+            Arrays.sort(order, houseStarts[h], houseStarts[h + 1]);
+        }
+
+        long stringsOffset = HEADER_BYTES
+            + (long) sortedHouses.size() * HOUSE_BYTES
+            + (long) customerStrings.size() * CUSTOMER_BYTES
+            + (long) count * (BOOKING_BYTES + INDEX_BYTES);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            // หัวไฟล์
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nextBookingId);
+            out.writeInt(sortedHouses.size());
+            out.writeLong(journalId);
+            out.writeLong(journalPosition);
+            out.writeInt(customerStrings.size());
+            out.writeInt(count);
+            out.writeLong(stringsOffset);
+
+            // บ้าน พร้อมช่วงของดัชนีบ้าน
+            for (int h = 0; h < houseNumbers.length; h++) {
+                House house = sortedHouses.get(h);
+                out.writeInt(house.getHouseNumber());
+                out.writeInt(house.isAvailable() ? 1 : 0);
+                out.writeInt(houseStarts[h]);
+                out.writeInt(houseStarts[h + 1] - houseStarts[h]);
+                out.writeDouble(house.getPricePerDay());
+            }
+
+            // ลูกค้า
+            int stringOffset = 0;
+            for (byte[][] strings : customerStrings) {
+                out.writeInt(stringOffset);
+                out.writeInt(strings[0].length);
+                out.writeInt(strings[1].length);
+                out.writeInt(strings[2].length);
+                stringOffset += strings[0].length + strings[1].length + strings[2].length;
+            }
+
+            // การจอง
+            for (int i = 0; i < count; i++) {
+                out.writeInt(bookingIds[i]);
+                out.writeInt(houseNumbers[housePositions[i]]);
+                out.writeInt(customerIndexOf[i]);
+                out.writeInt(checkIns[i]);
+                out.writeInt(checkOuts[i]);
+                out.writeInt(flags[i]);
+                out.writeLong(prices[i]);
+            }
+
+            // ดัชนีบ้าน (ลำดับการจองอยู่ใน 32 bit ล่างของ key)
+            for (long key : order) {
+                out.writeInt((int) key);
+            }
+
+            // ข้อความ
+            for (byte[][] strings : customerStrings) {
+                out.write(strings[0]);
+                out.write(strings[1]);
+                out.write(strings[2]);
+            }
+        }
+
+        // fsync ไฟล์ชั่วคราวก่อนย้าย เพื่อไม่ให้ได้ snapshot ครึ่งไฟล์หลังไฟดับ
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        List<Long> older = generations(file);
+        long generation = older.isEmpty() ? 1 : older.get(older.size() - 1) + 1;
+        Files.move(temp, generationFile(file, generation), StandardCopyOption.ATOMIC_MOVE);
+
+        for (long old : older) {
+            try {
+                Files.deleteIfExists(generationFile(file, old));
+            } catch (IOException e) {
+                // ยังถูก map อยู่ (Windows) ลบในการเขียนครั้งถัดไป
+            }
+        }
+    }
+
+    /**
+     * ไฟล์ของ snapshot รุ่นที่กำหนด
+     */
+    private static Path generationFile(Path file, long generation) {
+        return file.resolveSibling(file.getFileName() + "." + generation);
+    }
+
+    /**
+     * เลขรุ่นของไฟล์ snapshot ทั้งหมดที่มีอยู่ เรียงจากเก่าไปใหม่
+     * (ไฟล์ชั่วคราวและไฟล์อื่นที่ชื่อขึ้นต้นเหมือนกันถูกข้าม)
+     */
+    private static List<Long> generations(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName() + ".";
+        List<Long> generations = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return generations;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, 
+                entry -> entry.getFileName().toString().startsWith(prefix))) {
+            for (Path entry : entries) {
+                String suffix = entry.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() < 19 && suffix.chars().allMatch(Character::isDigit)) {
+                    generations.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+}
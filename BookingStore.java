@@ -0,0 +1,228 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * คลาสที่เก็บการจองจำนวนมากแบบกะทัดรัด (struct-of-arrays)
+ * แต่ละคอลัมน์เป็น array ของ primitive: หมายเลขการจอง หมายเลขบ้าน วันเข้าพักและวันคืนบ้าน (epoch day)
+ * ราคา (สตางค์) หมายเลขลูกค้า และสถานะการชำระเงิน รวมประมาณ 29 byte ต่อการจอง
+ * ไม่มี object ต่อการจองค้างอยู่ใน heap เลย GC จึงไม่ต้องไล่ object หลายล้านตัว
+ *
+ * Booking ที่ได้จาก view() เป็น flyweight ที่อ่านค่าจากแถวในนี้ (สร้างใหม่ได้ทุกครั้งที่ต้องใช้)
+ *
+ * แถวถูกเพิ่มต่อท้ายเท่านั้น ไม่ถูกย้ายหรือลบ flyweight ที่สร้างไว้จึงชี้แถวเดิมตลอด
+ * แถวของการจองที่ถูกยกเลิกหรือเปลี่ยนแล้วถูกคืนโดยคัดลอกแถวที่ยังใช้อยู่ไปที่เก็บใหม่ (BookingList.reclaimRows)
+ * ที่เก็บเดิมไม่ถูกแก้ flyweight เดิมจึงยังอ่านค่าเดิมได้ และที่เก็บเดิมถูก GC เมื่อไม่มี flyweight ชี้แล้ว
+ * ข้อมูลถูกแบ่งเป็นก้อนขนาดคงที่ (chunk) การขยายจึงไม่ต้องคัดลอกข้อมูลเดิม
+ * และ thread ที่อ่านแถวเก่าไม่ต้อง lock (ค่าในแถวไม่เปลี่ยนหลังเพิ่ม ยกเว้นสถานะการชำระเงินที่เป็น volatile)
+ *
+ * append() ต้องถูกเรียกทีละ thread (BookingList ถูกครอบด้วย synchronized อยู่แล้ว)
+ */
+public class BookingStore {
+    // จำนวนแถวต่อก้อน (ต้องเป็นกำลังของ 2)
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // อ่าน/เขียนสถานะการชำระเงินแบบ volatile (ตั้งได้จากทุก thread)
+    private static final VarHandle PAID = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    // ทะเบียนบ้าน (แปลงหมายเลขบ้านกลับเป็น House)
+    private final HouseRegistry houses;
+
+    // ก้อนข้อมูลการจอง (array ใหม่ถูกตั้งแบบ volatile หลังคัดลอก reference ของก้อนเดิมแล้ว)
+    private volatile Chunk[] chunks;
+
+    // ก้อนของตารางลูกค้า (index = หมายเลขลูกค้า)
+    private volatile Customer[][] customerChunks;
+
+    // หมายเลขลูกค้าของ Customer แต่ละ object (ใช้ตอนเพิ่มแถวเท่านั้น)
+    private final Map<Customer, Integer> customerIds;
+
+    // จำนวนแถวและจำนวนลูกค้า
+    private int size;
+    private int customerCount;
+
+    /**
+     * ข้อมูลการจอง CHUNK_SIZE แถว แยกเป็นคอลัมน์
+     */
+    private static final class Chunk {
+        final int[] bookingIds = new int[CHUNK_SIZE];
+        final int[] houseNumbers = new int[CHUNK_SIZE];
+        final int[] checkInDays = new int[CHUNK_SIZE];
+        final int[] checkOutDays = new int[CHUNK_SIZE];
+        final int[] customerIds = new int[CHUNK_SIZE];
+        final long[] pricesSatang = new long[CHUNK_SIZE];
+        final byte[] paid = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * Constructor สำหรับสร้างที่เก็บว่าง
+     *
+     * @param houses ทะเบียนบ้านของระบบ
+     */
+    public BookingStore(HouseRegistry houses) {
+        this.houses = houses;
+        this.chunks = new Chunk[0];
+        this.customerChunks = new Customer[0][];
+        this.customerIds = new IdentityHashMap<>();
+    }
+
+    /**
+     * เพิ่มการจองเป็นแถวใหม่ (คัดลอกค่า ไม่เก็บ object เดิม)
+     *
+     * @param booking การจองที่ต้องการเก็บ
+     * @return หมายเลขแถวของการจอง
+     */
+    public int append(Booking booking) {
+        int row = size;
+        Chunk chunk = chunkForNewRow(row);
+        int offset = row & CHUNK_MASK;
+        chunk.bookingIds[offset] = booking.getBookingId();
+        chunk.houseNumbers[offset] = booking.getHouse().getHouseNumber();
+        chunk.checkInDays[offset] = Math.toIntExact(booking.getCheckInDate().toEpochDay());
+        chunk.checkOutDays[offset] = Math.toIntExact(booking.getCheckOutDate().toEpochDay());
+        chunk.customerIds[offset] = customerId(booking.getCustomer());
+        chunk.pricesSatang[offset] = Math.round(booking.getTotalPrice() * 100);
+        PAID.setVolatile(chunk.paid, offset, (byte) (booking.isPaid() ? 1 : 0));
+        size = row + 1;
+        return row;
+    }
+
+    /**
+     * คัดลอกแถวจากที่เก็บอื่นเป็นแถวใหม่ (คัดลอกคอลัมน์ตรง ๆ ไม่สร้าง Booking หรือ LocalDate)
+     *
+     * @param source ที่เก็บต้นทาง
+     * @param sourceRow แถวในที่เก็บต้นทาง
+     * @return หมายเลขแถวใหม่ในที่เก็บนี้
+     */
+    public int appendFrom(BookingStore source, int sourceRow) {
+        int row = size;
+        Chunk chunk = chunkForNewRow(row);
+        Chunk from = source.chunk(sourceRow);
+        int fromOffset = sourceRow & CHUNK_MASK;
+        int offset = row & CHUNK_MASK;
+        chunk.bookingIds[offset] = from.bookingIds[fromOffset];
+        chunk.houseNumbers[offset] = from.houseNumbers[fromOffset];
+        chunk.checkInDays[offset] = from.checkInDays[fromOffset];
+        chunk.checkOutDays[offset] = from.checkOutDays[fromOffset];
+        chunk.customerIds[offset] = customerId(source.customer(sourceRow));
+        chunk.pricesSatang[offset] = from.pricesSatang[fromOffset];
+        PAID.setVolatile(chunk.paid, offset, (byte) PAID.getVolatile(from.paid, fromOffset));
+        size = row + 1;
+        return row;
+    }
+
+    /**
+     * สร้าง flyweight ของแถว (object เล็ก ๆ ที่อ่านค่าจากที่เก็บนี้)
+     *
+     * @param row หมายเลขแถวจาก append()
+     * @return Booking ที่อ่านค่าจากแถวนี้
+     */
+    public Booking view(int row) {
+        return new Booking(this, row);
+    }
+
+    /**
+     * จำนวนแถวทั้งหมด
+     * @return จำนวนการจองที่เคยเพิ่ม
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * ประมาณขนาดข้อมูลของที่เก็บ (ไม่รวม Customer object ซึ่งใช้ร่วมกับส่วนอื่นของระบบ)
+     * @return จำนวน byte ที่จองไว้สำหรับแถวและตารางลูกค้า
+     */
+    public long footprintBytes() {
+        long perRow = 5L * Integer.BYTES + Long.BYTES + Byte.BYTES;
+        return (long) chunks.length * CHUNK_SIZE * perRow
+            + (long) customerChunks.length * CHUNK_SIZE * 4;
+    }
+
+    // === ค่าของแถว (ใช้โดย Booking ที่เป็น flyweight) ===
+
+    int bookingId(int row) {
+        return chunk(row).bookingIds[row & CHUNK_MASK];
+    }
+
+    House house(int row) {
+        return houses.find(chunk(row).houseNumbers[row & CHUNK_MASK]);
+    }
+
+    Customer customer(int row) {
+        int id = chunk(row).customerIds[row & CHUNK_MASK];
+        return customerChunks[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+    }
+
+    LocalDate checkIn(int row) {
+        return LocalDate.ofEpochDay(chunk(row).checkInDays[row & CHUNK_MASK]);
+    }
+
+    LocalDate checkOut(int row) {
+        return LocalDate.ofEpochDay(chunk(row).checkOutDays[row & CHUNK_MASK]);
+    }
+
+    long numberOfDays(int row) {
+        Chunk chunk = chunk(row);
+        int offset = row & CHUNK_MASK;
+        long days = (long) chunk.checkOutDays[offset] - chunk.checkInDays[offset];
+        return days <= 0 ? 1 : days;
+    }
+
+    double totalPrice(int row) {
+        return chunk(row).pricesSatang[row & CHUNK_MASK] / 100.0;
+    }
+
+    boolean isPaid(int row) {
+        return (byte) PAID.getVolatile(chunk(row).paid, row & CHUNK_MASK) != 0;
+    }
+
+    void setPaid(int row, boolean paid) {
+        PAID.setVolatile(chunk(row).paid, row & CHUNK_MASK, (byte) (paid ? 1 : 0));
+    }
+
+    /**
+     * ก้อนที่จะเก็บแถวใหม่ (เพิ่มก้อนใหม่ถ้าแถวนี้เป็นแถวแรกของก้อน)
+     */
+    private Chunk chunkForNewRow(int row) {
+        if ((row & CHUNK_MASK) == 0) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Chunk();
+            chunks = grown;
+        }
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * ก้อนที่มีแถวนี้
+     */
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * หมายเลขลูกค้า (เพิ่มลูกค้าเข้าตารางถ้ายังไม่มี)
+     * Customer object เดียวกันได้หมายเลขเดียวกัน ลูกค้าที่ CustomerDirectory รวมไว้แล้วจึงเก็บครั้งเดียว
+     */
+    private int customerId(Customer customer) {
+        Integer existing = customerIds.get(customer);
+        if (existing != null) {
+            return existing;
+        }
+        int id = customerCount;
+        if ((id & CHUNK_MASK) == 0) {
+            Customer[][] grown = Arrays.copyOf(customerChunks, customerChunks.length + 1);
+            grown[customerChunks.length] = new Customer[CHUNK_SIZE];
+            customerChunks = grown;
+        }
+        customerChunks[id >>> CHUNK_SHIFT][id & CHUNK_MASK] = customer;
+        customerIds.put(customer, id);
+        customerCount = id + 1;
+        return id;
+    }
+}
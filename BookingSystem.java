@@ -1,191 +1,1710 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * คลาสระบบจัดการการจองบ้านพัก (Main System)
  * จัดการบ้านพักทั้งหมดและรายการจองทั้งหมด
  * เป็นศูนย์กลางในการประมวลผลการจองและการชำระเงิน
+ *
+ * เรียกใช้พร้อมกันจากหลาย thread ได้: การตรวจสอบวันว่างและการยืนยันการจอง
+ * ทำภายใต้ lock ของบ้านหลังนั้น (HouseCalendar) บ้านต่างหลังกันจึงไม่รอกัน
+ *
+ * createBooking กันวันที่ไว้ให้ลูกค้า (hold) ระหว่างชำระเงินเป็นเวลาจำกัด
+ * hold ที่หมดเวลาถูกปล่อยเป็นชุดโดย TimingWheel ไม่ต้องมี timer แยกต่อการจอง
+ *
+ * การชำระเงินขออนุมัติผ่าน PaymentGateway แบบไม่รอ ผลที่อนุมัติแล้วถูกยืนยันเป็นชุด
+ * โดย thread ผู้ยืนยันเพียง thread เดียว gateway ที่ช้าจึงไม่จำกัดจำนวนการจองต่อวินาที
+ *
+ * การจองที่ยืนยันแล้วค้นหาจากหมายเลขได้ใน O(1) ยกเลิก (cancelBooking) หรือเปลี่ยนวันที่ (changeBooking) ได้
+ * โดยแก้ดัชนีของบ้าน bitmap และทะเบียนลูกค้าเฉพาะส่วนที่เปลี่ยน วันที่ถูกปล่อยจึงจองใหม่ได้ทันที
+ *
+ * ถ้าเปิด journal ไว้ (openJournal) การจองที่ชำระเงินแล้วจะถูกบันทึกลงดิสก์ถาวร
+ * และถูกอ่านกลับคืนเมื่อเปิดโปรแกรมครั้งถัดไป checkpoint() เขียน snapshot ของสถานะทั้งหมด
+ * ทำให้ตอนเปิดโปรแกรม replay เฉพาะส่วนท้ายของ journal ที่เกิดหลัง snapshot
  */
-public class BookingSystem {
-    // รายการบ้านพักทั้งหมด (10 หลัง)
-    private List<House> houses;
+public class BookingSystem implements AutoCloseable {
+    // ไฟล์ catalog ของบ้านพักที่ใช้เมื่อไม่ได้ระบุ
+    public static final String DEFAULT_CATALOG = "houses.csv";
     
-    // รายการการจองทั้งหมด
-    private List<Booking> bookings;
+    // ไฟล์ journal ของการจองที่ GUI ใช้
+    public static final String DEFAULT_JOURNAL = "bookings.journal";
     
-    // จำนวนบ้านทั้งหมดในระบบ
-    private static final int TOTAL_HOUSES = 10;
+    // ไฟล์ snapshot ของสถานะระบบที่ GUI ใช้
+    public static final String DEFAULT_SNAPSHOT = "bookings.snapshot";
+    
+    // ไฟล์อัตราราคา (ฤดูกาล สุดสัปดาห์ วันหยุด) ที่ GUI ใช้ถ้ามีไฟล์
+    public static final String DEFAULT_RATES = "rates.csv";
+    
+    // จำนวนมิลลิวินาทีใน 1 วัน (ใช้คำนวณ epoch day ของวันนี้)
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    
+    // เวลาที่กันวันไว้ให้ระหว่างชำระเงิน ถ้าไม่ได้กำหนด (นาที)
+    public static final long DEFAULT_HOLD_MINUTES = 15;
+    
+    // ความละเอียดของตัวจับเวลา hold (มิลลิวินาที)
+    private static final long HOLD_TICK_MILLIS = 1000;
+    
+    // จำนวนการชำระเงินสูงสุดที่ยืนยันในชุดเดียว
+    private static final int MAX_CONFIRM_BATCH = 1024;
+    
+    // รายการพิเศษที่บอก thread ผู้ยืนยันให้หยุดหลังยืนยันชุดปัจจุบันเสร็จ
+    private static final PendingConfirmation STOP_CONFIRMING = new PendingConfirmation(null);
+    
+    // จำนวนบ้านขั้นต่ำที่จะค้นหาแบบขนาน (น้อยกว่านี้ค้นหาแบบลำดับเร็วกว่า)
+    private static final int PARALLEL_SEARCH_THRESHOLD = 1024;
+    
+    // ทะเบียนบ้านพักทั้งหมด (ค้นหาจากหมายเลขได้ใน O(1), อ่านอย่างเดียวหลังสร้างระบบ)
+    private final HouseRegistry houses;
+    
+    // รายการการจองทั้งหมด (ส่วนแรกอ่านจาก snapshot แบบ lazy)
+    private final BookingList bookingList;
+    
+    // bookingList ที่ครอบด้วย synchronized (ใช้ object นี้เป็น lock ของรายการ)
+    private final List<Booking> bookings;
+    
+    // ดัชนีช่วงวันที่ถูกจองและ lock ของแต่ละบ้าน (key = หมายเลขบ้าน)
+    private final Map<Integer, HouseCalendar> calendars;
+    
+    // ตัวคำนวณราคาการพัก
+    private final PricingEngine pricing;
+    
+    // ทะเบียนลูกค้าและดัชนีการจองของลูกค้าแต่ละคน
+    private final CustomerDirectory customers;
+    
+    // การจองจาก snapshot ถูกเพิ่มเข้าทะเบียนลูกค้าแล้วหรือยัง (เพิ่มเมื่อใช้ทะเบียนครั้งแรก)
+    private volatile boolean snapshotCustomersIndexed;
+    
+    // journal สำหรับบันทึกการจองลงดิสก์ (null = เก็บในหน่วยความจำอย่างเดียว)
+    private volatile BookingJournal journal;
+    
+    // snapshot ที่โหลดตอนเปิดระบบ (null = ไม่มี) ดัชนีของบ้านแต่ละหลังโหลดจากนี้เมื่อใช้ครั้งแรก
+    private volatile BookingSnapshot snapshot;
+    
+    // ตัวจับเวลาของ hold ที่รอชำระเงิน
+    private final TimingWheel<Booking> holdTimer;
+    
+    // เวลาที่กันวันไว้ให้ระหว่างชำระเงิน (มิลลิวินาที)
+    private volatile long holdMillis;
+    
+    // ช่องทางอนุมัติการชำระเงิน
+    private volatile PaymentGateway paymentGateway;
+    
+    // ผู้รับแจ้งเมื่อวันที่กลับมาว่าง (null = ไม่มี)
+    private volatile AvailabilityListener availabilityListener;
+    
+    // สถิติการทำงาน (ตัวนับและเวลาที่ใช้)
+    private final BookingMetrics metrics = new BookingMetrics();
+    
+    // ยอดสรุปรายได้และการเข้าพัก (ปรับขณะถือ lock ของรายการจอง ให้ตรงกับรายการเสมอ)
+    private final BookingAnalytics analytics;
+    
+    // หมายเลขการจองที่ส่งการยกเลิกหรือเปลี่ยนวันที่ลง journal แล้วแต่ยังไม่แก้ในหน่วยความจำ
+    // -> ตำแหน่งที่บันทึกลงดิสก์แล้วของ journal ตอนส่ง (record อยู่หลังตำแหน่งนี้เสมอ)
+    private final Map<Integer, Long> pendingChanges = new ConcurrentHashMap<>();
+    
+    // คิวของการชำระเงินที่อนุมัติแล้ว รอยืนยัน
+    private final BlockingQueue<PendingConfirmation> confirmations;
+    
+    // thread ที่ยืนยันการชำระเงินเป็นชุด
+    private final Thread confirmer;
+    
+    /**
+     * การชำระเงินที่อนุมัติแล้ว รอ thread ผู้ยืนยัน
+     */
+    private static final class PendingConfirmation {
+        final Booking booking;
+        
+        // ผลที่ส่งให้ผู้เรียก processPaymentAsync
+        final CompletableFuture<PaymentStatus> result = new CompletableFuture<>();
+        
+        // ค่าด้านล่างถูกตั้งโดย thread ผู้ยืนยันเท่านั้น
+        PaymentStatus status;
+        CompletableFuture<Void> durable;
+        
+        PendingConfirmation(Booking booking) {
+            this.booking = booking;
+        }
+    }
+    
+    /**
+     * ช่วงวันที่ว่างที่หาได้จาก findEarliestSlot (บ้าน วันที่เข้าพัก และวันที่คืนบ้าน)
+     * ผลเป็นข้อมูล ณ เวลาที่ค้นหา ยังไม่ได้กันวันไว้ (จองต่อด้วย createBooking)
+     */
+    public static final class AvailableSlot {
+        // เรียงตามวันที่เข้าพัก วันเดียวกันเรียงตามหมายเลขบ้าน
+        public static final Comparator<AvailableSlot> EARLIEST_FIRST =
+            Comparator.comparing(AvailableSlot::getCheckIn)
+                      .thenComparingInt(slot -> slot.getHouse().getHouseNumber());
+        
+        private final House house;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        
+        AvailableSlot(House house, LocalDate checkIn, LocalDate checkOut) {
+            this.house = house;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+        
+        public House getHouse() {
+            return house;
+        }
+        
+        public LocalDate getCheckIn() {
+            return checkIn;
+        }
+        
+        public LocalDate getCheckOut() {
+            return checkOut;
+        }
+    }
+    
+    /**
+     * บ้านที่ว่างพร้อมราคารวมของการพักที่ค้นหา จาก searchAvailableQuotes
+     * ราคาคิดครั้งเดียวตอนค้นหา ผู้เรียกใช้ต่อได้โดยไม่ต้อง quote ซ้ำ
+     */
+    public static final class HouseQuote {
+        // เรียงตามราคารวม ราคาเท่ากันเรียงตามหมายเลขบ้าน
+        public static final Comparator<HouseQuote> CHEAPEST_FIRST =
+            Comparator.comparingDouble(HouseQuote::getTotalPrice)
+                      .thenComparingInt(quote -> quote.getHouse().getHouseNumber());
+        
+        private final House house;
+        private final double totalPrice;
+        
+        HouseQuote(House house, double totalPrice) {
+            this.house = house;
+            this.totalPrice = totalPrice;
+        }
+        
+        public House getHouse() {
+            return house;
+        }
+        
+        public double getTotalPrice() {
+            return totalPrice;
+        }
+    }
+    
+    /**
+     * Constructor - สร้างระบบจองบ้านพัก
+     * โหลดรายการบ้านจากไฟล์ catalog เริ่มต้น (houses.csv)
+     * 
+     * @throws IOException ถ้าอ่านไฟล์ catalog ไม่ได้
+     */
+    public BookingSystem() throws IOException {
+        this(Paths.get(DEFAULT_CATALOG));
+    }
+    
+    /**
+     * Constructor - สร้างระบบจองบ้านพักจากไฟล์ catalog ที่กำหนด
+     * 
+     * @param catalogFile ไฟล์ catalog ของบ้านพัก
+     * @throws IOException ถ้าอ่านไฟล์ catalog ไม่ได้
+     */
+    public BookingSystem(Path catalogFile) throws IOException {
+        this(HouseRegistry.load(catalogFile));
+    }
+    
+    /**
+     * Constructor - สร้างระบบจองบ้านพักจากทะเบียนบ้านที่เตรียมไว้แล้ว
+     * 
+     * @param houses ทะเบียนบ้านพัก
+     */
+    public BookingSystem(HouseRegistry houses) {
+        this(houses, new PricingEngine(currentEpochDay()));
+    }
+    
+    /**
+     * Constructor - สร้างระบบจองบ้านพักที่ใช้ตัวคำนวณราคาร่วมกับระบบอื่น
+     * (เช่น shard ของ ShardedBookingSystem ที่ต้องใช้อัตราราคาชุดเดียวกัน)
+     * 
+     * @param houses ทะเบียนบ้านพัก
+     * @param pricing ตัวคำนวณราคา (อ่านได้จากหลาย thread)
+     */
+    public BookingSystem(HouseRegistry houses, PricingEngine pricing) {
+        this.houses = houses;
+        
+        // สร้างรายการเปล่าสำหรับเก็บการจอง (ครอบด้วย synchronized)
+        bookingList = new BookingList(houses);
+        bookings = Collections.synchronizedList(bookingList);
+        
+        // สร้าง ConcurrentHashMap เปล่าสำหรับเก็บดัชนีการจองของแต่ละบ้าน
+        calendars = new ConcurrentHashMap<>();
+        customers = new CustomerDirectory();
+        analytics = new BookingAnalytics(houses);
+        this.pricing = pricing;
+        
+        // เริ่มตัวจับเวลาของ hold
+        holdMillis = TimeUnit.MINUTES.toMillis(DEFAULT_HOLD_MINUTES);
+        holdTimer = new TimingWheel<>(HOLD_TICK_MILLIS, "booking-holds", this::releaseExpiredHolds);
+        
+        // ใช้ gateway จำลองที่อนุมัติทันทีเมื่อยอดถูกต้อง จนกว่าจะกำหนด gateway จริง
+        paymentGateway = new StubPaymentGateway(0);
+        confirmations = new LinkedBlockingQueue<>();
+        confirmer = new Thread(this::confirmLoop, "booking-confirmer");
+        confirmer.setDaemon(true);
+        confirmer.start();
+    }
+    
+    /**
+     * ดึงสถิติการทำงานของระบบ
+     * @return BookingMetrics ของระบบนี้ (ลงทะเบียนกับ JMX ได้ด้วย registerMBeans)
+     */
+    public BookingMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * ดึงยอดสรุปรายได้และการเข้าพักของการจองที่ยืนยันแล้ว (อ่านได้ใน O(1) ไม่ขวางการจอง)
+     * @return BookingAnalytics ของระบบนี้
+     */
+    public BookingAnalytics getAnalytics() {
+        return analytics;
+    }
+    
+    /**
+     * ตรวจสอบยอดสรุปโดยสร้างใหม่จากการจองทั้งหมดแล้วเทียบกับยอดที่ปรับทีละรายการ
+     * (ไล่การจองทั้งหมด ใช้ตรวจสอบเป็นครั้งคราว ไม่ใช่สำหรับ dashboard)
+     * 
+     * @return รายการยอดที่ไม่ตรงกัน (ว่าง = ตรงกันทั้งหมด)
+     */
+    public List<String> verifyAnalytics() {
+        // รวมการจองจาก snapshot ก่อน (อ่านไฟล์ ไม่ถือ lock ของรายการจองระหว่างนั้น)
+        analytics.getBookingCount();
+        List<Booking> history;
+        BookingAnalytics current;
+        synchronized (bookings) {
+            // รายการและยอด ณ จุดเดียวกัน (ยอดถูกปรับภายใต้ lock นี้)
+            history = bookingList.readView();
+            current = analytics.copy();
+        }
+        return current.differences(BookingAnalytics.rebuild(houses, history));
+    }
+    
+    /**
+     * ดึงตัวคำนวณราคา (ใช้กำหนดอัตราฤดูกาล สุดสัปดาห์ วันหยุด และราคาเฉพาะบ้าน)
+     * @return PricingEngine ของระบบนี้
+     */
+    public PricingEngine getPricing() {
+        return pricing;
+    }
+    
+    /**
+     * คำนวณราคารวมของการพักตามอัตราปัจจุบัน (O(1) ต่อบ้าน)
+     * 
+     * @param house บ้านที่ต้องการ
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return ราคารวม (บาท)
+     */
+    public double quote(House house, LocalDate checkIn, LocalDate checkOut) {
+        return pricing.quote(house, checkIn, checkOut);
+    }
+    
+    /**
+     * โหลดกฎอัตราราคาจากไฟล์ (รูปแบบดู PricingEngine)
+     * 
+     * @param ratesFile path ของไฟล์อัตรา
+     * @throws IOException ถ้าอ่านไฟล์ไม่ได้
+     * @throws IllegalArgumentException ถ้ารูปแบบบรรทัดไม่ถูกต้อง
+     */
+    public void loadRates(Path ratesFile) throws IOException {
+        pricing.loadRules(ratesFile, houses);
+    }
+    
+    /**
+     * กำหนดผู้รับแจ้งเมื่อวันที่ของบ้านกลับมาว่าง (เช่น Waitlist)
+     * 
+     * @param listener ผู้รับแจ้ง (null = เลิกแจ้ง)
+     */
+    public void setAvailabilityListener(AvailabilityListener listener) {
+        this.availabilityListener = listener;
+    }
+    
+    /**
+     * แจ้งผู้รับแจ้งว่าวันที่ของการจองนี้กลับมาว่าง (ต้องถือ lock ของบ้าน)
+     */
+    private void datesReleased(Booking booking) {
+        AvailabilityListener listener = availabilityListener;
+        if (listener != null) {
+            listener.datesReleased(booking.getHouse(), booking.getCheckInDate(), booking.getCheckOutDate());
+        }
+    }
+    
+    /**
+     * กำหนดช่องทางอนุมัติการชำระเงิน
+     * 
+     * @param paymentGateway gateway ที่ใช้กับการชำระเงินหลังจากนี้
+     */
+    public void setPaymentGateway(PaymentGateway paymentGateway) {
+        if (paymentGateway == null) {
+            throw new IllegalArgumentException("paymentGateway ต้องไม่เป็น null");
+        }
+        this.paymentGateway = paymentGateway;
+    }
+    
+    /**
+     * กำหนดเวลาที่กันวันไว้ให้ระหว่างชำระเงิน (มีผลกับการจองที่สร้างหลังจากนี้)
+     * 
+     * @param millis เวลาเป็นมิลลิวินาที
+     */
+    public void setHoldMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("เวลากันวันต้องมากกว่า 0");
+        }
+        this.holdMillis = millis;
+    }
+    
+    /**
+     * ดึงเวลาที่กันวันไว้ให้ระหว่างชำระเงิน
+     * @return เวลาเป็นมิลลิวินาที
+     */
+    public long getHoldMillis() {
+        return holdMillis;
+    }
+    
+    /**
+     * เปิด journal ของการจอง: replay การจองที่เคยบันทึกไว้เข้าระบบ
+     * แล้วบันทึกการจองที่ชำระเงินหลังจากนี้ลงไฟล์เดียวกัน
+     * ควรเรียกครั้งเดียวตอนเริ่มระบบ ก่อนรับการจองใหม่
+     * 
+     * @param journalFile ไฟล์ journal (สร้างใหม่ถ้ายังไม่มี)
+     * @throws IOException ถ้าเปิดหรืออ่านไฟล์ไม่ได้
+     * @throws IllegalStateException ถ้าเปิด journal ไว้แล้ว
+     */
+    public void openJournal(Path journalFile) throws IOException {
+        openJournal(journalFile, null);
+    }
+    
+    /**
+     * โหลด snapshot (ถ้ามีไฟล์) แล้วเปิด journal และ replay เฉพาะการจองที่เกิดหลัง snapshot
+     * snapshot ถูก map เข้าหน่วยความจำและถอดรหัสเฉพาะส่วนที่ใช้ จึงเปิดระบบได้เร็ว
+     * ควรเรียกครั้งเดียวตอนเริ่มระบบ ก่อนรับการจองใหม่
+     * 
+     * @param journalFile ไฟล์ journal (สร้างใหม่ถ้ายังไม่มี)
+     * @param snapshotFile ชื่อไฟล์ snapshot ใช้รุ่นล่าสุด (null หรือยังไม่มี = replay journal ทั้งหมด)
+     * @throws IOException ถ้าเปิดหรืออ่านไฟล์ไม่ได้
+     * @throws IllegalStateException ถ้าเปิด journal ไว้แล้ว หรือมีการจองในระบบแล้ว
+     */
+    public void openJournal(Path journalFile, Path snapshotFile) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("เปิด journal ไว้แล้ว");
+        }
+        
+        long journalId = 0;
+        long journalPosition = 0;
+        Path latestSnapshot = snapshotFile != null ? BookingSnapshot.latest(snapshotFile) : null;
+        if (latestSnapshot != null) {
+            BookingSnapshot loaded = BookingSnapshot.open(latestSnapshot, houses);
+            synchronized (bookings) {
+                bookingList.attach(loaded);
+                analytics.attach(loaded);
+            }
+            snapshot = loaded;
+            loaded.restoreHouseStates();
+            Booking.advanceCounterTo(loaded.getNextBookingId());
+            journalId = loaded.getJournalId();
+            journalPosition = loaded.getJournalPosition();
+        }
+        
+        // ระหว่าง replay ยังไม่ได้ตั้ง journal การแก้ไขด้านล่างจึงไม่ถูกบันทึกซ้ำ
+        journal = new BookingJournal(journalFile, journalId, journalPosition, houses, 
+                                     new BookingJournal.Replayer() {
+            @Override
+            public void confirmed(Booking booking) {
+                // สร้างสถานะเหมือนตอนชำระเงินสำเร็จ
+                // (การจองที่อยู่ใน snapshot แล้วมีหมายเลขอยู่ในรายการและถูกข้ามใน confirmBooking)
+                confirmBooking(booking);
+            }
+            
+            @Override
+            public void cancelled(int bookingId) {
+                Booking booking = findBookingById(bookingId);
+                if (booking != null) {
+                    HouseCalendar calendar = calendarOf(booking.getHouse());
+                    calendar.getLock().lock();
+                    try {
+                        if (removeConfirmed(booking, calendar)) {
+                            metrics.bookingCancelled();
+                        }
+                    } finally {
+                        calendar.getLock().unlock();
+                    }
+                }
+            }
+            
+            @Override
+            public void changed(Booking booking) {
+                Booking current = findBookingById(booking.getBookingId());
+                if (current != null) {
+                    HouseCalendar calendar = calendarOf(current.getHouse());
+                    calendar.getLock().lock();
+                    try {
+                        if (moveConfirmed(current, booking, calendar) != null) {
+                            metrics.bookingChanged();
+                        }
+                    } finally {
+                        calendar.getLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * เขียน snapshot ของสถานะระบบทั้งหมด (บ้าน ลูกค้า การจอง และหมายเลขการจองถัดไป)
+     * เรียกได้ขณะระบบทำงาน การจองที่เกิดระหว่างเขียนจะถูก replay จาก journal ตอนเปิดครั้งถัดไป
+     * 
+     * @param snapshotFile ชื่อไฟล์ snapshot (เขียนเป็นรุ่นใหม่ ไม่ทับไฟล์ที่โหลดไว้)
+     * @throws IOException ถ้าเขียนไฟล์ไม่ได้
+     */
+    public void checkpoint(Path snapshotFile) throws IOException {
+        // อ่านตำแหน่งใน journal ก่อนคัดลอกรายการ: การจองก่อนตำแหน่งนี้อยู่ในรายการแน่นอน
+        // ยกเว้นการยกเลิกหรือเปลี่ยนวันที่ที่บันทึกแล้วแต่ยังไม่แก้ในหน่วยความจำ จึงถอยไปก่อน record เหล่านั้น
+        // (replay record ที่อยู่ใน snapshot แล้วซ้ำได้ผลเหมือนเดิม)
+        BookingJournal current = journal;
+        long journalId = current != null ? current.getJournalId() : 0;
+        long journalPosition = current != null ? current.getDurablePosition() : 0;
+        for (long pending : pendingChanges.values()) {
+            journalPosition = Math.min(journalPosition, pending);
+        }
+        int nextBookingId = Booking.peekNextId();
+        
+        BookingSnapshot.write(snapshotFile, houses, getBookings(), 
+                              nextBookingId, journalId, journalPosition);
+        reclaimStoreRows();
+    }
+    
+    /**
+     * คืนแถวของการจองที่ถูกยกเลิกหรือถูกเปลี่ยนแล้วใน BookingStore (ถ้ามีมากพอ ดู BookingList.reclaimRows)
+     * แล้วเปลี่ยน flyweight ในดัชนีของบ้านและทะเบียนลูกค้าเป็นของที่เก็บใหม่ ให้ที่เก็บเดิมถูก GC ได้
+     * (flyweight ตัวเดิมยังอ่านค่าถูกต้อง การเปลี่ยนจึงทำทีละบ้านพร้อมกับคำขออื่นได้)
+     */
+    private void reclaimStoreRows() {
+        synchronized (bookings) {
+            if (!bookingList.reclaimRows()) {
+                return;
+            }
+        }
+        for (HouseCalendar calendar : calendars.values()) {
+            calendar.getLock().lock();
+            try {
+                for (Booking booking : calendar.bookingsBetween(LocalDate.MIN, LocalDate.MAX)) {
+                    if (!calendar.isHeld(booking)) {
+                        Booking current = findBookingById(booking.getBookingId());
+                        if (current != null) {
+                            calendar.replace(current);
+                        }
+                    }
+                }
+            } finally {
+                calendar.getLock().unlock();
+            }
+        }
+        customers.replaceBookings(booking -> findBookingById(booking.getBookingId()));
+    }
+    
+    /**
+     * ปิดระบบ: หยุดตัวจับเวลา hold ยืนยันการชำระเงินที่ค้างอยู่
+     * แล้วเขียนการจองที่ค้างลง journal ให้หมดและปิดไฟล์
+     * 
+     * @throws IOException ถ้าปิดไฟล์ไม่ได้
+     */
+    @Override
+    public void close() throws IOException {
+        holdTimer.close();
+        
+        // ยืนยันการชำระเงินที่อนุมัติแล้วให้หมดก่อนปิด journal
+        if (confirmer.isAlive()) {
+            confirmations.add(STOP_CONFIRMING);
+            try {
+                confirmer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        if (journal != null) {
+            journal.close();
+        }
+    }
+    
+    /**
+     * แสดงสถานะของบ้านพักทั้งหมด
+     * พิมพ์รายการบ้านทั้งหมด พร้อมสถานะว่างและราคา
+     */
+    public void displayAllHousesStatus() {
+        System.out.println("\n╔══════════════════════════════════════════════════════╗");
+        System.out.printf("║         สถานะบ้านพักทั้งหมด (%d หลัง)\n", houses.size());
+        System.out.println("╚══════════════════════════════════════════════════════╝\n");
+        
+        // วนลูปแสดงสถานะบ้านแต่ละหลัง
+        for (House house : houses.getAll()) {
+            house.displayStatus();
+        }
+        System.out.println();
+    }
+    
+    /**
+     * ค้นหาบ้านพักจากหมายเลข
+     * @param houseNumber หมายเลขบ้านที่ต้องการค้นหา
+     * @return object ของ House ถ้าพบ, null ถ้าไม่พบ
+     */
+    public House findHouseByNumber(int houseNumber) {
+        // ค้นหาจากทะเบียนบ้าน (O(1))
+        return houses.find(houseNumber);
+    }
+    
+    /**
+     * เพิ่มบ้านหลังใหม่เข้าระบบขณะทำงาน (ต้องบันทึก catalog ด้วย saveCatalog 
+     * ไม่เช่นนั้นการจองของบ้านหลังนี้จะอ่านกลับจาก journal ไม่ได้เมื่อเปิดโปรแกรมใหม่)
+     * 
+     * @param house บ้านที่ต้องการเพิ่ม
+     * @throws IllegalArgumentException ถ้ามีบ้านหมายเลขนี้อยู่แล้ว
+     */
+    public void addHouse(House house) {
+        houses.add(house);
+    }
+    
+    /**
+     * เพิ่มบ้านหลายหลังเข้าระบบขณะทำงานในครั้งเดียว (เหมือน addHouse แต่คัดลอกรายการบ้านครั้งเดียวต่อชุด)
+     * 
+     * @param added บ้านที่ต้องการเพิ่ม
+     * @throws IllegalArgumentException ถ้ามีบ้านหมายเลขซ้ำ (ไม่มีบ้านหลังใดของชุดถูกเพิ่ม)
+     */
+    public void addHouses(Collection<House> added) {
+        houses.addAll(added);
+    }
+    
+    /**
+     * บันทึกทะเบียนบ้านทั้งหมดลงไฟล์ catalog
+     * 
+     * @param catalogFile ไฟล์ catalog (เขียนทับแบบ atomic)
+     * @throws IOException ถ้าเขียนไฟล์ไม่ได้
+     */
+    public void saveCatalog(Path catalogFile) throws IOException {
+        houses.save(catalogFile);
+    }
+    
+    /**
+     * ดึงดัชนีการจองของบ้าน (สร้างใหม่ถ้ายังไม่มี)
+     * @param house บ้านที่ต้องการ
+     * @return HouseCalendar ของบ้านหลังนั้น
+     */
+    private HouseCalendar calendarOf(House house) {
+        return calendars.computeIfAbsent(house.getHouseNumber(), number -> loadCalendar(house));
+    }
+    
+    /**
+     * สร้างดัชนีการจองของบ้าน พร้อมโหลดการจองของบ้านหลังนี้จาก snapshot (ถ้ามี)
+     * ถอดรหัสเฉพาะการจองของบ้านหลังนี้ บ้านที่ไม่ถูกใช้จึงไม่ต้องโหลดเลย
+     * 
+     * @param house บ้านที่ต้องการ
+     * @return HouseCalendar ใหม่ของบ้านหลังนั้น
+     */
+    private HouseCalendar loadCalendar(House house) {
+        HouseCalendar calendar = new HouseCalendar();
+        BookingSnapshot base = snapshot;
+        if (base != null) {
+            for (int index : base.bookingIndexesOf(house.getHouseNumber())) {
+                // การจองที่ถูกยกเลิกหรือเปลี่ยนไปแล้วได้ null (ตัวที่เปลี่ยนแล้วอยู่ท้ายรายการ)
+                Booking booking;
+                synchronized (bookings) {
+                    booking = bookingList.snapshotBooking(index);
+                }
+                if (booking != null && calendar.add(booking)) {
+                    house.getOccupancy().mark(booking.getCheckInDate().toEpochDay(), 
+                                              booking.getCheckOutDate().toEpochDay());
+                }
+            }
+        }
+        return calendar;
+    }
+    
+    /**
+     * ตรวจสอบว่าบ้านว่างในช่วงวันที่ต้องการหรือไม่
+     * ตรวจสอบทั้งสถานะบ้าน (เปิดให้เช่าหรือไม่) และการจองที่ทับซ้อนกัน
+     * 
+     * @param house บ้านที่ต้องการตรวจสอบ
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return true ถ้าบ้านว่าง, false ถ้าบ้านไม่ว่างหรือมีการจองทับซ้อน
+     */
+    public boolean isHouseAvailableForDates(House house, LocalDate checkIn, LocalDate checkOut) {
+        long start = System.nanoTime();
+        try {
+            return checkAvailability(house, checkIn, checkOut);
+        } finally {
+            metrics.availabilityChecked(start);
+        }
+    }
+    
+    /**
+     * ตรวจสอบวันว่างของบ้าน (ส่วนของ isHouseAvailableForDates ที่ไม่รวมการเก็บสถิติ)
+     */
+    private boolean checkAvailability(House house, LocalDate checkIn, LocalDate checkOut) {
+        // ตรวจสอบสถานะบ้านก่อน
+        if (!house.isAvailable()) {
+            return false; // บ้านไม่ว่าง
+        }
+        
+        // ตรวจสอบการทับซ้อนจากดัชนีของบ้านหลังนี้เท่านั้น (O(log n))
+        HouseCalendar calendar = calendarOf(house);
+        calendar.getLock().lock();
+        try {
+            // ถ้าช่วงวันที่อยู่ใน bitmap ตรวจด้วยการ AND บิต ไม่ต้องเปรียบเทียบ LocalDate
+            OccupancyBitmap occupancy = syncOccupancy(house, calendar);
+            long fromDay = checkIn.toEpochDay();
+            long toDay = checkOut.toEpochDay();
+            if (occupancy.covers(fromDay, toDay)) {
+                return occupancy.isFree(fromDay, toDay);
+            }
+            return calendar.isFree(checkIn, checkOut); // false = วันที่ทับซ้อนกัน
+        } finally {
+            calendar.getLock().unlock();
+        }
+    }
+    
+    /**
+     * เลื่อน bitmap ของบ้านให้เริ่มที่วันนี้ และ mark การจองของวันที่เพิ่งเข้ามาท้ายช่วง
+     * ต้องเรียกขณะถือ lock ของบ้านหลังนั้น
+     * 
+     * @param house บ้านที่ต้องการ
+     * @param calendar ดัชนีการจองของบ้านหลังนั้น
+     * @return OccupancyBitmap ที่เป็นปัจจุบันแล้ว
+     */
+    private OccupancyBitmap syncOccupancy(House house, HouseCalendar calendar) {
+        OccupancyBitmap occupancy = house.getOccupancy();
+        long firstNewDay = occupancy.rollTo(currentEpochDay());
+        if (firstNewDay >= 0) {
+            LocalDate from = LocalDate.ofEpochDay(firstNewDay);
+            LocalDate to = LocalDate.ofEpochDay(occupancy.getLastDay());
+            for (Booking booking : calendar.bookingsBetween(from, to)) {
+                occupancy.mark(booking.getCheckInDate().toEpochDay(), 
+                               booking.getCheckOutDate().toEpochDay());
+            }
+        }
+        return occupancy;
+    }
+    
+    /**
+     * ดึง epoch day ของวันนี้ (UTC) แบบไม่สร้าง object
+     * @return จำนวนวันนับจาก 1970-01-01
+     */
+    public static long currentEpochDay() {
+        return Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY);
+    }
+    
+    /**
+     * ค้นหาบ้านทุกหลังที่ว่างในช่วงวันที่ต้องการและราคาไม่เกินที่กำหนด
+     * ราคาคิดตามอัตราของการพักนี้ (ฤดูกาล สุดสัปดาห์ วันหยุด) ด้วย PricingEngine ซึ่งใช้เวลา O(1) ต่อบ้าน
+     * ถ้ามีบ้านจำนวนมากจะกระจายการตรวจสอบไปหลาย thread (parallel stream)
+     * 
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @param maxPricePerDay ราคาเฉลี่ยต่อวันสูงสุดที่รับได้ (บาท)
+     * @return List ของบ้านที่ว่าง เรียงตามราคารวม (ราคาเท่ากันเรียงตามหมายเลขบ้าน)
+     */
+    public List<House> searchAvailableHouses(LocalDate checkIn, LocalDate checkOut, 
+                                             double maxPricePerDay) {
+        return searchAvailableQuotes(checkIn, checkOut, maxPricePerDay).stream()
+            .map(HouseQuote::getHouse)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * เหมือน searchAvailableHouses แต่คืนราคารวมของแต่ละบ้านมาด้วย
+     * แต่ละบ้านถูก quote ครั้งเดียว แล้วใช้ราคานั้นทั้งกรองงบ เรียงลำดับ และแสดงผล
+     * 
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @param maxPricePerDay ราคาเฉลี่ยต่อวันสูงสุดที่รับได้ (บาท)
+     * @return List ของบ้านที่ว่างพร้อมราคารวม เรียงตาม HouseQuote.CHEAPEST_FIRST
+     */
+    public List<HouseQuote> searchAvailableQuotes(LocalDate checkIn, LocalDate checkOut, 
+                                                  double maxPricePerDay) {
+        List<House> allHouses = houses.getAll();
+        Stream<House> stream = allHouses.size() >= PARALLEL_SEARCH_THRESHOLD
+            ? allHouses.parallelStream()
+            : allHouses.stream();
+        
+        double maxTotal = maxPricePerDay * Math.max(1, ChronoUnit.DAYS.between(checkIn, checkOut));
+        return stream
+            .map(house -> new HouseQuote(house, pricing.quote(house, checkIn, checkOut)))
+            // กรองราคาก่อน เพราะไม่ต้องถือ lock ของบ้าน
+            .filter(quote -> quote.getTotalPrice() <= maxTotal)
+            .filter(quote -> isHouseAvailableForDates(quote.getHouse(), checkIn, checkOut))
+            .sorted(HouseQuote.CHEAPEST_FIRST)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * หาช่วงวันที่ว่างที่เร็วที่สุดของบ้านหนึ่งหลัง สำหรับการพักตามจำนวนคืน
+     * ใช้ดัชนีช่วงวันว่างของบ้าน (GapIndex) จึงเป็น O(log n) ไม่ต้องลองวันที่ทีละวัน
+     * 
+     * @param house บ้านที่ต้องการ
+     * @param from วันที่เข้าพักที่เร็วที่สุดที่ยอมรับได้
+     * @param nights จำนวนคืนที่ต้องการพัก
+     * @return ช่วงวันที่ว่าง, หรือ null ถ้าบ้านปิดให้เช่า
+     * @throws IllegalArgumentException ถ้าจำนวนคืนน้อยกว่า 1
+     */
+    public AvailableSlot findEarliestSlot(House house, LocalDate from, int nights) {
+        if (nights < 1) {
+            throw new IllegalArgumentException("จำนวนคืนต้องอย่างน้อย 1 คืน");
+        }
+        if (!house.isAvailable()) {
+            return null;
+        }
+        HouseCalendar calendar = calendarOf(house);
+        LocalDate checkIn;
+        calendar.getLock().lock();
+        try {
+            checkIn = calendar.earliestFree(from, nights);
+        } finally {
+            calendar.getLock().unlock();
+        }
+        return checkIn == null ? null : new AvailableSlot(house, checkIn, checkIn.plusDays(nights));
+    }
+    
+    /**
+     * หาช่วงวันที่ว่างที่เร็วที่สุดจากบ้านทุกหลัง สำหรับการพักตามจำนวนคืน
+     * ถามดัชนีช่วงวันว่างของแต่ละบ้าน (O(log n) ต่อบ้าน) แล้วเลือกช่วงที่เริ่มเร็วที่สุด
+     * 
+     * @param from วันที่เข้าพักที่เร็วที่สุดที่ยอมรับได้
+     * @param nights จำนวนคืนที่ต้องการพัก
+     * @return ช่วงวันที่ว่างที่เร็วที่สุด (วันเดียวกันได้บ้านหมายเลขน้อยกว่า), หรือ null ถ้าไม่มีบ้านเปิดให้เช่า
+     * @throws IllegalArgumentException ถ้าจำนวนคืนน้อยกว่า 1
+     */
+    public AvailableSlot findEarliestSlot(LocalDate from, int nights) {
+        AvailableSlot best = null;
+        for (House house : houses.getAll()) {
+            AvailableSlot slot = findEarliestSlot(house, from, nights);
+            if (slot != null && (best == null || AvailableSlot.EARLIEST_FIRST.compare(slot, best) < 0)) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * สร้างการจองใหม่ (ยังไม่ยืนยัน - รอชำระเงิน)
+     * กันวันที่ไว้ให้ (hold) เป็นเวลา getHoldMillis() ลูกค้าอื่นจองวันเดียวกันไม่ได้ระหว่างนี้
+     * การจองจะถูกเพิ่มเข้ารายการจองก็ต่อเมื่อชำระเงินสำเร็จแล้ว
+     * ถ้าไม่ชำระภายในเวลา วันที่จะถูกปล่อยคืนอัตโนมัติ
+     * 
+     * @param house บ้านที่ต้องการจอง
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     * @return Booking object ถ้าสามารถจองได้, null ถ้าบ้านไม่ว่าง
+     * @throws IllegalArgumentException ถ้าวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
+     */
+    public Booking createBooking(House house, Customer customer, 
+                                 LocalDate checkInDate, LocalDate checkOutDate) {
+        if (!checkOutDate.isAfter(checkInDate)) {
+            throw new IllegalArgumentException("วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก");
+        }
+        long start = System.nanoTime();
+        HouseCalendar calendar = calendarOf(house);
+        Booking booking;
+        
+        // ถือ lock ของบ้าน ให้การตรวจสอบวันว่างและการกันวันเป็น atomic
+        calendar.getLock().lock();
+        try {
+            // ตรวจสอบว่าบ้านว่างในช่วงวันที่ต้องการหรือไม่
+            if (!isHouseAvailableForDates(house, checkInDate, checkOutDate)) {
+                metrics.bookingRejected(start);
+                ConsoleLog.info("ขออภัย บ้านหมายเลข %d ไม่ว่างในช่วงเวลาที่เลือก", house.getHouseNumber());
+                return null;
+            }
+            
+            // สร้าง Booking object ตามราคาปัจจุบัน และกันวันไว้ในดัชนี (ยังไม่เพิ่มเข้า list จนกว่าจะชำระเงิน)
+            booking = new Booking(house, customer, checkInDate, checkOutDate, 
+                                  pricing.quote(house, checkInDate, checkOutDate));
+            calendar.addHold(booking);
+            syncOccupancy(house, calendar).mark(checkInDate.toEpochDay(), checkOutDate.toEpochDay());
+        } finally {
+            calendar.getLock().unlock();
+        }
+        
+        holdTimer.schedule(booking, holdMillis);
+        metrics.bookingCreated(start);
+        return booking;
+    }
+    
+    /**
+     * สร้างการจองแบบกลุ่ม: บ้านหลายหลังในช่วงวันที่เดียวกัน (ยังไม่ยืนยัน - รอชำระเงินรวมด้วย processGroupPayment)
+     * กันวันของทุกบ้านพร้อมกันแบบทั้งหมดหรือไม่เลย: ถ้าบ้านหลังใดไม่ว่าง จะไม่กันวันของบ้านหลังใดเลย
+     * 
+     * ถือ lock ของทุกบ้านในกลุ่มโดยเรียงตามหมายเลขบ้านเสมอ กลุ่มที่มีบ้านซ้ำกันจึงไม่ deadlock
+     * และไม่ขวางการจองของบ้านที่ไม่อยู่ในกลุ่ม
+     * 
+     * @param group บ้านที่ต้องการจอง (ห้ามซ้ำ)
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     * @return List ของการจอง เรียงตามลำดับบ้านที่ส่งมา, หรือ null ถ้ามีบ้านที่ไม่ว่าง
+     * @throws IllegalArgumentException ถ้าไม่มีบ้าน มีบ้านซ้ำกัน หรือวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
+     */
+    public List<Booking> createGroupBooking(List<House> group, Customer customer, 
+                                            LocalDate checkInDate, LocalDate checkOutDate) {
+        if (group.isEmpty()) {
+            throw new IllegalArgumentException("ต้องมีบ้านอย่างน้อย 1 หลัง");
+        }
+        if (group.stream().map(House::getHouseNumber).distinct().count() != group.size()) {
+            throw new IllegalArgumentException("บ้านในกลุ่มซ้ำกัน");
+        }
+        if (!checkOutDate.isAfter(checkInDate)) {
+            throw new IllegalArgumentException("วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก");
+        }
+        
+        long start = System.nanoTime();
+        List<Booking> holds = new ArrayList<>(group.size());
+        List<ReentrantLock> locks = lockHouses(group);
+        try {
+            // ตรวจทุกบ้านก่อนกันวัน
+            for (House house : group) {
+                if (!isHouseAvailableForDates(house, checkInDate, checkOutDate)) {
+                    metrics.bookingRejected(start);
+                    ConsoleLog.info("ขออภัย บ้านหมายเลข %d ไม่ว่างในช่วงเวลาที่เลือก (ไม่ได้จองบ้านหลังใดของกลุ่ม)", 
+                                    house.getHouseNumber());
+                    return null;
+                }
+            }
+            for (House house : group) {
+                Booking booking = new Booking(house, customer, checkInDate, checkOutDate, 
+                                              pricing.quote(house, checkInDate, checkOutDate));
+                HouseCalendar calendar = calendarOf(house);
+                calendar.addHold(booking);
+                syncOccupancy(house, calendar).mark(checkInDate.toEpochDay(), checkOutDate.toEpochDay());
+                holds.add(booking);
+            }
+        } finally {
+            unlockAll(locks);
+        }
+        
+        for (Booking booking : holds) {
+            holdTimer.schedule(booking, holdMillis);
+            metrics.bookingCreated(start);
+        }
+        return holds;
+    }
+    
+    /**
+     * ถือ lock ของบ้านทุกหลังโดยเรียงตามหมายเลขบ้าน (ลำดับเดียวกันทุกครั้ง จึงไม่ deadlock)
+     * 
+     * @param group บ้านที่ต้องการ (ไม่ซ้ำกัน)
+     * @return lock ที่ถืออยู่ตามลำดับที่ได้มา (ปล่อยด้วย unlockAll)
+     */
+    private List<ReentrantLock> lockHouses(List<House> group) {
+        List<House> ordered = new ArrayList<>(group);
+        ordered.sort(Comparator.comparingInt(House::getHouseNumber));
+        List<ReentrantLock> locks = new ArrayList<>(ordered.size());
+        try {
+            for (House house : ordered) {
+                ReentrantLock lock = calendarOf(house).getLock();
+                lock.lock();
+                locks.add(lock);
+            }
+        } catch (RuntimeException e) {
+            unlockAll(locks);
+            throw e;
+        }
+        return locks;
+    }
+    
+    /**
+     * ปล่อย lock จาก lockHouses ในลำดับย้อนกลับ
+     */
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+    
+    /**
+     * ปล่อยวันที่ที่กันไว้ของการจองที่ยังไม่ชำระเงิน (เช่น ลูกค้ายกเลิกระหว่างชำระเงิน)
+     * 
+     * @param booking การจองที่สร้างจาก createBooking
+     * @return true ถ้าปล่อยแล้ว, false ถ้าไม่ได้กันวันไว้ (ชำระแล้วหรือหมดเวลาไปแล้ว)
+     */
+    public boolean releaseHold(Booking booking) {
+        HouseCalendar calendar = calendarOf(booking.getHouse());
+        calendar.getLock().lock();
+        try {
+            return removeHold(booking, calendar);
+        } finally {
+            calendar.getLock().unlock();
+        }
+    }
+    
+    /**
+     * ลบ hold ออกจากดัชนีและ bitmap (ต้องถือ lock ของบ้าน)
+     * 
+     * @return true ถ้าลบแล้ว, false ถ้าการจองนี้ไม่ได้เป็น hold
+     */
+    private boolean removeHold(Booking booking, HouseCalendar calendar) {
+        if (!calendar.isHeld(booking)) {
+            return false;
+        }
+        calendar.remove(booking);
+        syncOccupancy(booking.getHouse(), calendar).clear(
+            booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        datesReleased(booking);
+        return true;
+    }
+    
+    /**
+     * ปล่อย hold ที่หมดเวลาเป็นชุด (เรียกจากตัวจับเวลา)
+     * จัดกลุ่มตามบ้านเพื่อถือ lock ของแต่ละบ้านครั้งเดียว
+     * การจองที่ชำระเงินแล้วหรือปล่อยไปแล้วจะถูกข้าม
+     * 
+     * @param expired การจองที่หมดเวลา
+     */
+    private void releaseExpiredHolds(List<Booking> expired) {
+        Map<House, List<Booking>> byHouse = expired.stream()
+            .collect(Collectors.groupingBy(Booking::getHouse));
+        
+        for (Map.Entry<House, List<Booking>> entry : byHouse.entrySet()) {
+            HouseCalendar calendar = calendarOf(entry.getKey());
+            calendar.getLock().lock();
+            try {
+                int released = 0;
+                for (Booking booking : entry.getValue()) {
+                    if (removeHold(booking, calendar)) {
+                        released++;
+                    }
+                }
+                metrics.holdsExpired(released);
+            } finally {
+                calendar.getLock().unlock();
+            }
+        }
+    }
     
     /**
-     * Constructor - สร้างระบบจองบ้านพัก
-     * เริ่มต้นระบบด้วยการสร้างบ้าน 10 หลังพร้อมราคา
+     * ยืนยันการจอง (เรียกหลังชำระเงินสำเร็จแล้ว)
+     * เพิ่มการจองเข้ารายการจองในระบบ และเข้าดัชนีของบ้านที่ถูกจอง
+     * 
+     * @param booking การจองที่ต้องการยืนยัน
      */
-    public BookingSystem() {
-        // สร้าง ArrayList เปล่าสำหรับเก็บบ้าน
-        houses = new ArrayList<>();
-        
-        // สร้าง ArrayList เปล่าสำหรับเก็บการจอง
-        bookings = new ArrayList<>();
-        
-        // เรียกเมธอดสร้างบ้าน 10 หลัง
-        initializeHouses();
+    public void confirmBooking(Booking booking) {
+        // ตรวจสอบว่ามี booking
+        if (booking != null) {
+            HouseCalendar calendar = calendarOf(booking.getHouse());
+            calendar.getLock().lock();
+            try {
+                if (isConfirmed(booking.getBookingId())) {
+                    // ยืนยันไปแล้ว (เช่น replay การจองที่อยู่ใน snapshot แล้ว) ไม่เพิ่มซ้ำ
+                    return;
+                }
+                if (calendar.confirmHold(booking)) {
+                    // วันที่ถูกกันไว้ในดัชนีและ bitmap แล้วตอน createBooking
+                    storeConfirmed(booking, calendar);
+                } else if (calendar.add(booking)) {
+                    // ไม่ได้กันวันไว้: เพิ่มเข้าดัชนีก่อน ถ้าวันที่ทับซ้อนกับการจองเดิมจะไม่บันทึก
+                    // mark วันที่ถูกจองใน bitmap ของบ้านให้ตรงกับดัชนี
+                    syncOccupancy(booking.getHouse(), calendar).mark(
+                        booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+                    storeConfirmed(booking, calendar);
+                }
+            } finally {
+                calendar.getLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * ตรวจสอบว่าการจองหมายเลขนี้อยู่ในรายการจองที่ยืนยันแล้ว (O(1) จากดัชนีหมายเลข)
+     */
+    private boolean isConfirmed(int bookingId) {
+        synchronized (bookings) {
+            return bookingList.containsId(bookingId);
+        }
     }
     
     /**
-     * สร้างบ้านพัก 10 หลัง พร้อมกำหนดราคาแต่ละหลัง
-     * ราคาจะแตกต่างกันตามหมายเลขบ้าน
+     * เพิ่มการจองที่ยืนยันแล้วเข้ารายการจอง (เก็บแบบ primitive ใน BookingStore)
+     * แล้วใช้ flyweight ของแถวนั้นในดัชนีของบ้านและของลูกค้าแทน object เดิม
+     * ต้องถือ lock ของบ้าน และการจองต้องอยู่ในดัชนีของบ้านแล้ว
      */
-    private void initializeHouses() {
-        // สร้างบ้านพัก 10 หลัง (ราคาสามารถปรับได้ตามต้องการ)
-        houses.add(new House(1, 1000.0));  // บ้านหมายเลข 1: 1000 บาท/วัน
-        houses.add(new House(2, 1000.0));  // บ้านหมายเลข 2: 1000 บาท/วัน
-        houses.add(new House(3, 1200.0));  // บ้านหมายเลข 3: 1200 บาท/วัน
-        houses.add(new House(4, 1200.0));  // บ้านหมายเลข 4: 1200 บาท/วัน
-        houses.add(new House(5, 1500.0));  // บ้านหมายเลข 5: 1500 บาท/วัน
-        houses.add(new House(6, 1500.0));  // บ้านหมายเลข 6: 1500 บาท/วัน
-        houses.add(new House(7, 1800.0));  // บ้านหมายเลข 7: 1800 บาท/วัน
-        houses.add(new House(8, 1800.0));  // บ้านหมายเลข 8: 1800 บาท/วัน
-        houses.add(new House(9, 2000.0));  // บ้านหมายเลข 9: 2000 บาท/วัน
-        houses.add(new House(10, 2000.0)); // บ้านหมายเลข 10: 2000 บาท/วัน
+    private void storeConfirmed(Booking booking, HouseCalendar calendar) {
+        Booking stored;
+        synchronized (bookings) {
+            stored = bookingList.append(booking);
+            analytics.bookingAdded(stored);
+        }
+        calendar.replace(stored);
+        customers.addBooking(stored);
+        metrics.bookingConfirmed();
     }
     
     /**
-     * แสดงสถานะของบ้านพักทั้งหมด
-     * พิมพ์รายการบ้านทั้ง 10 หลัง พร้อมสถานะว่างและราคา
+     * เพิ่มการจองที่ยืนยันแล้วจากภายนอก (เช่น นำเข้าจาก CSV) โดยไม่ผ่านการชำระเงิน
+     * การจองที่วันที่ทับซ้อนกับการจองหรือ hold เดิมของบ้านจะไม่ถูกเพิ่ม
+     * ถ้าเปิด journal ไว้ การจองถูกส่งเข้า journal ด้วย (ไม่รอดิสก์ ใช้ syncJournal() เพื่อรอ)
+     * และถ้าบันทึกไม่สำเร็จจะถูกถอนออกจากระบบ
+     * 
+     * @param booking การจองที่ต้องการเพิ่ม (ถูกตั้งเป็นชำระเงินแล้ว)
+     * @return true ถ้าเพิ่มแล้ว, false ถ้าวันที่ทับซ้อน
+     * @throws IllegalArgumentException ถ้าวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
      */
-    public void displayAllHousesStatus() {
-        System.out.println("\n╔══════════════════════════════════════════════════════╗");
-        System.out.println("║         สถานะบ้านพักทั้งหมด (10 หลัง)              ║");
-        System.out.println("╚══════════════════════════════════════════════════════╝\n");
+    public boolean importBooking(Booking booking) {
+        if (!booking.getCheckOutDate().isAfter(booking.getCheckInDate())) {
+            throw new IllegalArgumentException("วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก");
+        }
+        HouseCalendar calendar = calendarOf(booking.getHouse());
+        CompletableFuture<Void> durable = null;
+        calendar.getLock().lock();
+        try {
+            if (!calendar.add(booking)) {
+                return false;
+            }
+            syncOccupancy(booking.getHouse(), calendar).mark(
+                booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+            booking.setPaid(true);
+            storeConfirmed(booking, calendar);
+            if (journal != null) {
+                durable = journal.append(booking);
+            }
+        } finally {
+            calendar.getLock().unlock();
+        }
         
-        // วนลูปแสดงสถานะบ้านแต่ละหลัง
-        for (House house : houses) {
-            house.displayStatus();
+        if (durable != null) {
+            durable.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    releaseBooking(booking);
+                }
+            });
         }
-        System.out.println();
+        return true;
     }
     
     /**
-     * ค้นหาบ้านพักจากหมายเลข
-     * @param houseNumber หมายเลขบ้านที่ต้องการค้นหา (1-10)
-     * @return object ของ House ถ้าพบ, null ถ้าไม่พบ
+     * รอให้การจองที่ส่งเข้า journal แล้วทั้งหมดถูกบันทึกลงดิสก์ (ไม่ได้เปิด journal = คืนทันที)
+     * 
+     * @throws IOException ถ้าบันทึกไม่สำเร็จ
      */
-    public House findHouseByNumber(int houseNumber) {
-        // วนลูปค้นหาบ้านที่มีหมายเลขตรงกัน
-        for (House house : houses) {
-            if (house.getHouseNumber() == houseNumber) {
-                return house; // เจอแล้ว return ทันที
+    public void syncJournal() throws IOException {
+        BookingJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.sync().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                                      : new IOException("บันทึก journal ไม่สำเร็จ", e.getCause());
+        }
+    }
+    
+    /**
+     * ถอนการจองที่ยืนยันแล้วออกจากระบบ (ใช้เมื่อบันทึกลง journal ไม่สำเร็จ)
+     * 
+     * @param booking การจองที่ต้องการถอน
+     */
+    private void releaseBooking(Booking booking) {
+        HouseCalendar calendar = calendarOf(booking.getHouse());
+        calendar.getLock().lock();
+        try {
+            removeConfirmed(booking, calendar);
+            booking.setPaid(false);
+        } finally {
+            calendar.getLock().unlock();
+        }
+    }
+    
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วจากหมายเลขการจอง (O(1) จากดัชนีหมายเลข)
+     * 
+     * @param bookingId หมายเลขการจอง
+     * @return การจอง, หรือ null ถ้าไม่มี (หรือถูกยกเลิกไปแล้ว)
+     */
+    public Booking findBookingById(int bookingId) {
+        synchronized (bookings) {
+            return bookingList.findById(bookingId);
+        }
+    }
+    
+    /**
+     * ส่งหมายเลขของการจองที่ยืนยันแล้วทุกรายการให้ action (ไม่ถอดรหัสการจองจาก snapshot)
+     * action ถูกเรียกขณะถือ lock ของรายการจอง จึงต้องไม่เรียกกลับเข้าระบบนี้
+     * 
+     * @param action ผู้รับหมายเลขการจอง
+     */
+    public void forEachBookingId(IntConsumer action) {
+        synchronized (bookings) {
+            bookingList.forEachId(action);
+        }
+    }
+    
+    /**
+     * ยกเลิกการจองที่ยืนยันแล้ว วันที่ของการจองกลับมาว่างให้จองใหม่ได้
+     * ถ้าเปิด journal ไว้ การจองยังกันวันไว้จนการยกเลิกถูกบันทึกลงดิสก์ แล้วจึงถอนออก
+     * (ถ้าบันทึกไม่สำเร็จ การจองยังอยู่เหมือนเดิม ไม่มีวันที่ว่างชั่วคราวให้ผู้อื่นจองทับ)
+     * ระหว่างรอ การยกเลิกหรือเปลี่ยนวันที่ของการจองเดียวกันจะไม่สำเร็จ
+     * (การคืนเงินอยู่นอกระบบนี้)
+     * 
+     * @param bookingId หมายเลขการจอง
+     * @return true ถ้ายกเลิกแล้ว, false ถ้าไม่พบการจอง กำลังแก้ไขอยู่ หรือบันทึกการยกเลิกไม่สำเร็จ
+     */
+    public boolean cancelBooking(int bookingId) {
+        return cancelBookingAsync(bookingId).join();
+    }
+    
+    /**
+     * ยกเลิกการจองแบบไม่รอดิสก์ (เหมือน cancelBooking)
+     * การถอนการจองหลังบันทึกเสร็จทำใน thread ที่ทำให้ future ของ journal เสร็จ ผู้เรียกไม่ต้องรอ
+     * 
+     * @param bookingId หมายเลขการจอง
+     * @return future ของ true ถ้ายกเลิกแล้ว, false ถ้าไม่พบการจอง กำลังแก้ไขอยู่ หรือบันทึกไม่สำเร็จ
+     */
+    public CompletableFuture<Boolean> cancelBookingAsync(int bookingId) {
+        Booking booking = findBookingById(bookingId);
+        if (booking == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        HouseCalendar calendar = calendarOf(booking.getHouse());
+        CompletableFuture<Void> durable;
+        calendar.getLock().lock();
+        try {
+            // อ่านใหม่ภายใต้ lock เผื่อถูกยกเลิกหรือเปลี่ยนวันที่ไประหว่างรอ (บ้านไม่เปลี่ยน)
+            booking = findBookingById(bookingId);
+            if (booking == null || pendingChanges.containsKey(bookingId)) {
+                return CompletableFuture.completedFuture(false);
             }
+            if (journal == null) {
+                if (!removeConfirmed(booking, calendar)) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                metrics.bookingCancelled();
+                return CompletableFuture.completedFuture(true);
+            }
+            // ส่ง record ขณะถือ lock ให้ลำดับใน journal ตรงกับลำดับการแก้ไขของบ้านนี้
+            pendingChanges.put(bookingId, journal.getDurablePosition());
+            durable = journal.appendCancel(bookingId);
+        } finally {
+            calendar.getLock().unlock();
         }
-        return null; // ไม่เจอ return null
+        
+        // ถอนหลังปล่อย lock แล้วเท่านั้น (thread ผู้เขียน journal อาจต้องใช้ lock ของบ้านนี้)
+        return durable.handle((ignored, error) -> {
+            calendar.getLock().lock();
+            try {
+                if (error != null) {
+                    return false;
+                }
+                // การจองถูกกันไว้ไม่ให้แก้ไขระหว่างรอ จึงต้องยังอยู่ในดัชนี
+                if (!removeConfirmed(findBookingById(bookingId), calendar)) {
+                    throw new IllegalStateException("การจองหมายเลข " + bookingId + " หายไประหว่างรอบันทึกการยกเลิก");
+                }
+            } finally {
+                pendingChanges.remove(bookingId);
+                calendar.getLock().unlock();
+            }
+            metrics.bookingCancelled();
+            return true;
+        });
     }
     
     /**
-     * ตรวจสอบว่าบ้านว่างในช่วงวันที่ต้องการหรือไม่
-     * ตรวจสอบทั้งสถานะบ้านและการจองที่ทับซ้อนกัน
+     * เปลี่ยนวันที่ของการจองที่ยืนยันแล้ว (บ้านเดิม หมายเลขการจองเดิม)
+     * วันที่เดิมที่ไม่ได้ใช้แล้วกลับมาว่าง และราคาถูกคิดใหม่ตามอัตราปัจจุบัน
+     * (ส่วนต่างของราคาเก็บหรือคืนนอกระบบนี้)
+     * ถ้าเปิด journal ไว้ ทั้งวันที่เดิมและวันที่ใหม่ถูกกันไว้จนการเปลี่ยนถูกบันทึกลงดิสก์
+     * แล้วจึงย้ายการจอง (ถ้าบันทึกไม่สำเร็จ การจองยังอยู่ที่วันที่เดิม และวันที่ใหม่กลับมาว่าง)
      * 
-     * @param house บ้านที่ต้องการตรวจสอบ
-     * @param checkIn วันที่เข้าพัก
-     * @param checkOut วันที่คืนบ้าน
-     * @return true ถ้าบ้านว่าง, false ถ้าบ้านไม่ว่างหรือมีการจองทับซ้อน
+     * @param bookingId หมายเลขการจอง
+     * @param checkIn วันที่เข้าพักใหม่
+     * @param checkOut วันที่คืนบ้านใหม่
+     * @return การจองหลังเปลี่ยน, หรือ null ถ้าไม่พบการจอง กำลังแก้ไขอยู่ 
+     *         บ้านไม่ว่างในวันที่ใหม่ หรือบันทึกไม่สำเร็จ
+     * @throws IllegalArgumentException ถ้าวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
      */
-    public boolean isHouseAvailableForDates(House house, LocalDate checkIn, LocalDate checkOut) {
-        // ตรวจสอบสถานะบ้านก่อน
-        if (!house.isAvailable()) {
-            return false; // บ้านไม่ว่าง
+    public Booking changeBooking(int bookingId, LocalDate checkIn, LocalDate checkOut) {
+        return changeBookingAsync(bookingId, checkIn, checkOut).join();
+    }
+    
+    /**
+     * เปลี่ยนวันที่ของการจองแบบไม่รอดิสก์ (เหมือน changeBooking)
+     * การย้ายการจองหลังบันทึกเสร็จทำใน thread ที่ทำให้ future ของ journal เสร็จ ผู้เรียกไม่ต้องรอ
+     * 
+     * @param bookingId หมายเลขการจอง
+     * @param checkIn วันที่เข้าพักใหม่
+     * @param checkOut วันที่คืนบ้านใหม่
+     * @return future ของการจองหลังเปลี่ยน (null ในกรณีเดียวกับ changeBooking)
+     * @throws IllegalArgumentException ถ้าวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
+     */
+    public CompletableFuture<Booking> changeBookingAsync(int bookingId, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก");
+        }
+        Booking found = findBookingById(bookingId);
+        if (found == null) {
+            return CompletableFuture.completedFuture(null);
         }
         
-        // ตรวจสอบว่ามีการจองที่ทับซ้อนกับวันที่ต้องการหรือไม่
-        for (Booking booking : bookings) {
-            // ตรวจสอบเฉพาะการจองของบ้านหลังเดียวกัน
-            if (booking.getHouse().getHouseNumber() == house.getHouseNumber()) {
-                // ตรวจสอบว่าวันที่ทับซ้อนกันหรือไม่
-                // วันที่ไม่ทับซ้อนเมื่อ: checkOut มาก่อน booking.checkIn หรือ checkIn มาหลัง booking.checkOut
-                if (!(checkOut.isBefore(booking.getCheckInDate()) || 
-                      checkIn.isAfter(booking.getCheckOutDate()))) {
-                    return false; // วันที่ทับซ้อนกัน
+        House house = found.getHouse();
+        HouseCalendar calendar = calendarOf(house);
+        CompletableFuture<Void> durable;
+        Booking current;
+        Booking updated;
+        Booking reserved;
+        calendar.getLock().lock();
+        try {
+            current = findBookingById(bookingId);
+            if (current == null || pendingChanges.containsKey(bookingId) || !house.isAvailable()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            updated = new Booking(bookingId, house, current.getCustomer(), checkIn, checkOut, 
+                                  pricing.quote(house, checkIn, checkOut));
+            updated.setPaid(current.isPaid());
+            if (journal == null) {
+                Booking changed = moveConfirmed(current, updated, calendar);
+                if (changed == null) {
+                    metrics.conflict();
+                } else {
+                    metrics.bookingChanged();
                 }
+                return CompletableFuture.completedFuture(changed);
+            }
+            reserved = reserveChange(current, updated, calendar);
+            if (reserved == null) {
+                metrics.conflict();
+                return CompletableFuture.completedFuture(null);
             }
+            pendingChanges.put(bookingId, journal.getDurablePosition());
+            durable = journal.appendChange(updated);
+        } finally {
+            calendar.getLock().unlock();
         }
-        return true; // บ้านว่างและไม่มีการจองทับซ้อน
+        
+        return durable.handle((ignored, error) -> {
+            Booking changed;
+            calendar.getLock().lock();
+            try {
+                releaseChange(current, reserved, calendar);
+                if (error != null) {
+                    datesReleased(reserved);
+                    return null;
+                }
+                // วันที่ใหม่เพิ่งถูกกันไว้ให้การจองนี้ จึงต้องย้ายได้เสมอ
+                changed = moveConfirmed(current, updated, calendar);
+                if (changed == null) {
+                    throw new IllegalStateException("ย้ายการจองหมายเลข " + bookingId + " ไปวันที่ที่กันไว้ไม่สำเร็จ");
+                }
+            } finally {
+                pendingChanges.remove(bookingId);
+                calendar.getLock().unlock();
+            }
+            metrics.bookingChanged();
+            return changed;
+        });
     }
     
     /**
-     * สร้างการจองใหม่ (ยังไม่ยืนยัน - รอชำระเงิน)
-     * สร้าง Booking object แต่ยังไม่เพิ่มเข้ารายการจอง
-     * การจองจะถูกยืนยันก็ต่อเมื่อชำระเงินสำเร็จแล้ว
+     * กันวันที่ใหม่ของการเปลี่ยนวันที่ไว้ระหว่างรอ journal ด้วย hold ที่ไม่มีตัวจับเวลา
+     * (hold ไม่ปรากฏในผลค้นหาการจอง) ถ้าวันที่ใหม่ติดหรือทับกับวันที่เดิม
+     * hold ครอบทั้งสองช่วงแทนการจองเดิม เพราะดัชนีของบ้านเก็บช่วงที่ทับกันไม่ได้
+     * ต้องถือ lock ของบ้าน
      * 
-     * @param house บ้านที่ต้องการจอง
-     * @param customer ข้อมูลลูกค้า
-     * @param checkInDate วันที่เข้าพัก
-     * @param checkOutDate วันที่คืนบ้าน
-     * @return Booking object ถ้าสามารถจองได้, null ถ้าบ้านไม่ว่าง
+     * @return hold ที่กันไว้, หรือ null ถ้าวันที่ใหม่ไม่ว่าง (ดัชนีเหมือนเดิม)
      */
-    public Booking createBooking(House house, Customer customer, 
-                                 LocalDate checkInDate, LocalDate checkOutDate) {
-        // ตรวจสอบว่าบ้านว่างในช่วงวันที่ต้องการหรือไม่
-        if (!isHouseAvailableForDates(house, checkInDate, checkOutDate)) {
-            System.out.println("ขออภัย บ้านหมายเลข " + house.getHouseNumber() + 
-                             " ไม่ว่างในช่วงเวลาที่เลือก");
+    private Booking reserveChange(Booking current, Booking updated, HouseCalendar calendar) {
+        OccupancyBitmap occupancy = syncOccupancy(current.getHouse(), calendar);
+        LocalDate from = updated.getCheckInDate();
+        LocalDate to = updated.getCheckOutDate();
+        boolean joined = !from.isAfter(current.getCheckOutDate().plusDays(1)) 
+                      && !current.getCheckInDate().isAfter(to.plusDays(1));
+        if (joined) {
+            from = from.isBefore(current.getCheckInDate()) ? from : current.getCheckInDate();
+            to = to.isAfter(current.getCheckOutDate()) ? to : current.getCheckOutDate();
+            calendar.remove(current);
+        }
+        Booking reserved = new Booking(current.getHouse(), current.getCustomer(), from, to, 0);
+        if (!calendar.addHold(reserved)) {
+            if (joined && !calendar.add(current)) {
+                throw new IllegalStateException("คืนการจองหมายเลข " + current.getBookingId() + " เข้าดัชนีไม่สำเร็จ");
+            }
             return null;
         }
-        
-        // สร้าง Booking object แต่ยังไม่เพิ่มเข้า list (รอชำระเงินก่อน)
-        Booking booking = new Booking(house, customer, checkInDate, checkOutDate);
-        return booking;
+        occupancy.mark(from.toEpochDay(), to.toEpochDay());
+        return reserved;
     }
     
     /**
-     * ยืนยันการจอง (เรียกหลังชำระเงินสำเร็จแล้ว)
-     * เพิ่มการจองเข้ารายการจองในระบบ
+     * ถอน hold จาก {@link #reserveChange} และคืนการจองเดิมเข้าดัชนีถ้า hold ครอบไว้
+     * ดัชนีและ bitmap กลับเป็นเหมือนก่อนกันวัน ต้องถือ lock ของบ้าน
+     */
+    private void releaseChange(Booking current, Booking reserved, HouseCalendar calendar) {
+        OccupancyBitmap occupancy = syncOccupancy(current.getHouse(), calendar);
+        calendar.remove(reserved);
+        occupancy.clear(reserved.getCheckInDate().toEpochDay(), reserved.getCheckOutDate().toEpochDay());
+        boolean covered = !reserved.getCheckInDate().isAfter(current.getCheckInDate()) 
+                       && !reserved.getCheckOutDate().isBefore(current.getCheckOutDate());
+        if (covered) {
+            if (!calendar.add(current)) {
+                throw new IllegalStateException("คืนการจองหมายเลข " + current.getBookingId() + " เข้าดัชนีไม่สำเร็จ");
+            }
+            occupancy.mark(current.getCheckInDate().toEpochDay(), current.getCheckOutDate().toEpochDay());
+        }
+    }
+    
+    /**
+     * ถอนการจองที่ยืนยันแล้วออกจากดัชนีของบ้าน bitmap รายการจอง และทะเบียนลูกค้า
+     * ต้องถือ lock ของบ้าน
      * 
-     * @param booking การจองที่ต้องการยืนยัน
+     * @return true ถ้าถอนแล้ว, false ถ้าการจองนี้ไม่อยู่ในดัชนีของบ้าน
      */
-    public void confirmBooking(Booking booking) {
-        // ตรวจสอบว่ามี booking และยังไม่ได้อยู่ใน list แล้ว
-        if (booking != null && !bookings.contains(booking)) {
-            bookings.add(booking); // เพิ่มเข้ารายการจอง
+    private boolean removeConfirmed(Booking booking, HouseCalendar calendar) {
+        if (!calendar.remove(booking)) {
+            return false;
+        }
+        syncOccupancy(booking.getHouse(), calendar).clear(
+            booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        synchronized (bookings) {
+            bookingList.remove(booking);
+            analytics.bookingRemoved(booking);
+        }
+        customers.removeBooking(booking);
+        datesReleased(booking);
+        return true;
+    }
+    
+    /**
+     * ย้ายการจองที่ยืนยันแล้วไปวันที่ใหม่ แก้เฉพาะช่วงวันที่เดิมและใหม่ในดัชนีและ bitmap
+     * ถ้าวันที่ใหม่ทับซ้อนกับการจองอื่น ดัชนีกลับเป็นเหมือนเดิม
+     * ต้องถือ lock ของบ้าน
+     * 
+     * @param current การจองในระบบ
+     * @param updated การจองหมายเลขเดียวกันที่มีวันที่ใหม่
+     * @return flyweight ของการจองหลังเปลี่ยน, หรือ null ถ้าวันที่ใหม่ไม่ว่าง
+     */
+    private Booking moveConfirmed(Booking current, Booking updated, HouseCalendar calendar) {
+        OccupancyBitmap occupancy = syncOccupancy(current.getHouse(), calendar);
+        if (!calendar.remove(current)) {
+            return null;
+        }
+        occupancy.clear(current.getCheckInDate().toEpochDay(), current.getCheckOutDate().toEpochDay());
+        if (!calendar.add(updated)) {
+            calendar.add(current);
+            occupancy.mark(current.getCheckInDate().toEpochDay(), current.getCheckOutDate().toEpochDay());
+            return null;
         }
+        occupancy.mark(updated.getCheckInDate().toEpochDay(), updated.getCheckOutDate().toEpochDay());
+        
+        Booking stored;
+        synchronized (bookings) {
+            stored = bookingList.replace(updated);
+            analytics.bookingRemoved(current);
+            analytics.bookingAdded(stored);
+        }
+        calendar.replace(stored);
+        customers.removeBooking(current);
+        customers.addBooking(stored);
+        datesReleased(current);
+        return stored;
     }
     
     /**
-     * ประมวลผลการชำระเงิน
-     * ตรวจสอบจำนวนเงินและยืนยันการจองถ้าชำระถูกต้อง
+     * ประมวลผลการชำระเงิน (รอจนได้ผล)
+     * ส่งไปขออนุมัติที่ gateway แล้วยืนยันการจองถ้าได้รับอนุมัติ
      * 
      * @param booking การจองที่ต้องการชำระเงิน
      * @param paymentAmount จำนวนเงินที่ชำระ
-     * @return true ถ้าชำระเงินสำเร็จ, false ถ้าจำนวนเงินไม่ถูกต้อง
+     * @return true ถ้าชำระเงินสำเร็จ (และบันทึกลง journal แล้วถ้าเปิดไว้), 
+     *         false ถ้าจำนวนเงินไม่ถูกต้อง บ้านถูกจองไปแล้ว หรือบันทึกไม่สำเร็จ
      */
     public boolean processPayment(Booking booking, double paymentAmount) {
         // ตรวจสอบว่ามีการจองหรือไม่
         if (booking == null) {
-            System.out.println("ไม่พบข้อมูลการจอง");
+            ConsoleLog.info("ไม่พบข้อมูลการจอง");
             return false;
         }
         
-        // ตรวจสอบว่าจำนวนเงินตรงกับราคารวมหรือไม่
-        if (paymentAmount == booking.getTotalPrice()) {
-            // ชำระเงินถูกต้อง
-            booking.setPaid(true); // ตั้งสถานะเป็นชำระแล้ว
-            
-            // อัพเดทสถานะบ้านเป็นไม่ว่าง
-            booking.getHouse().setAvailable(false);
+        // ข้อความผลการชำระเงินถูกพิมพ์โดย thread ของ ConsoleLog ไม่ขวางผู้เรียก
+        PaymentStatus status = processPaymentAsync(booking, paymentAmount).join();
+        switch (status) {
+            case CONFIRMED:
+                ConsoleLog.info("%n✓ ชำระเงินสำเร็จ!");
+                return true;
+            case DECLINED:
+                ConsoleLog.info("%n✗ การชำระเงินไม่ได้รับอนุมัติ%nต้องชำระ: %.2f บาท แต่ได้รับ: %.2f บาท", 
+                                booking.getTotalPrice(), paymentAmount);
+                return false;
+            case UNAVAILABLE:
+                ConsoleLog.info("%n✗ บ้านหมายเลข %d ถูกจองในช่วงเวลานี้ไปแล้ว", 
+                                booking.getHouse().getHouseNumber());
+                return false;
+            default:
+                ConsoleLog.info("%n✗ ชำระเงินหรือบันทึกการจองไม่สำเร็จ");
+                return false;
+        }
+    }
+    
+    /**
+     * ประมวลผลการชำระเงินรวมของการจองแบบกลุ่ม (รอจนได้ผล)
+     * 
+     * @param group การจองจาก createGroupBooking
+     * @param paymentAmount จำนวนเงินรวมที่ชำระ (ผลรวมราคาของทุกการจองในกลุ่ม)
+     * @return true ถ้ายืนยันทุกการจองของกลุ่มแล้ว, false ถ้าไม่ได้ยืนยันการจองใดเลย
+     */
+    public boolean processGroupPayment(List<Booking> group, double paymentAmount) {
+        PaymentStatus status = processGroupPaymentAsync(group, paymentAmount).join();
+        switch (status) {
+            case CONFIRMED:
+                ConsoleLog.info("%n✓ ชำระเงินสำเร็จ! ยืนยันการจอง %d หลัง", group.size());
+                return true;
+            case DECLINED:
+                ConsoleLog.info("%n✗ การชำระเงินไม่ได้รับอนุมัติ%nต้องชำระ: %.2f บาท แต่ได้รับ: %.2f บาท", 
+                                group.stream().mapToDouble(Booking::getTotalPrice).sum(), paymentAmount);
+                return false;
+            case UNAVAILABLE:
+                ConsoleLog.info("%n✗ บ้านบางหลังของกลุ่มถูกจองในช่วงเวลานี้ไปแล้ว (ไม่ได้จองบ้านหลังใดของกลุ่ม)");
+                return false;
+            default:
+                ConsoleLog.info("%n✗ ชำระเงินหรือบันทึกการจองไม่สำเร็จ");
+                return false;
+        }
+    }
+    
+    /**
+     * ประมวลผลการชำระเงินรวมของการจองแบบกลุ่มแบบไม่รอ
+     * ขออนุมัติครั้งเดียวที่ gateway (PaymentGateway.authorizeGroup) แล้วยืนยันทุกการจองพร้อมกัน
+     * ภายใต้ lock ของทุกบ้านในกลุ่ม (เรียงตามหมายเลขบ้าน) และบันทึกลง journal เป็น record เดียว
+     * ถ้าบ้านหลังใดถูกจองไปแล้ว (hold หมดเวลา) หรือบันทึกไม่สำเร็จ จะไม่มีการจองใดของกลุ่มถูกยืนยัน
+     * 
+     * @param group การจองจาก createGroupBooking
+     * @param paymentAmount จำนวนเงินรวมที่ชำระ
+     * @return future ที่ได้ผลเมื่อยืนยันและบันทึกลง journal แล้ว (หรือเมื่อไม่สำเร็จ)
+     */
+    public CompletableFuture<PaymentStatus> processGroupPaymentAsync(List<Booking> group, double paymentAmount) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> authorization;
+        try {
+            authorization = paymentGateway.authorizeGroup(group, paymentAmount);
+        } catch (RuntimeException e) {
+            authorization = CompletableFuture.failedFuture(e);
+        }
+        
+        return authorization.handle((approved, error) -> {
+            if (error != null) {
+                return CompletableFuture.completedFuture(PaymentStatus.FAILED);
+            }
+            if (!approved) {
+                return CompletableFuture.completedFuture(PaymentStatus.DECLINED);
+            }
+            // ระบบถูกปิดไปแล้ว ไม่ยืนยัน (เหมือนการชำระเงินรายการเดียว)
+            if (!confirmer.isAlive()) {
+                return CompletableFuture.completedFuture(PaymentStatus.FAILED);
+            }
+            return confirmGroup(group);
+        }).thenCompose(result -> result)
+          .whenComplete((status, error) -> metrics.paymentCompleted(start, status));
+    }
+    
+    /**
+     * ยืนยันการจองทั้งกลุ่มที่ได้รับอนุมัติแล้ว (ทั้งหมดหรือไม่เลย)
+     * รอ journal หลังปล่อย lock แล้ว ถ้าบันทึกไม่สำเร็จถอนทุกการจองของกลุ่มออก
+     */
+    private CompletableFuture<PaymentStatus> confirmGroup(List<Booking> group) {
+        List<House> groupHouses = new ArrayList<>(group.size());
+        for (Booking booking : group) {
+            groupHouses.add(booking.getHouse());
+        }
+        
+        CompletableFuture<Void> durable = null;
+        List<ReentrantLock> locks = lockHouses(groupHouses);
+        try {
+            // ตรวจทุกบ้านก่อน: hold ที่หมดเวลาไปแล้วยังยืนยันได้ถ้าวันที่ยังว่าง
+            for (Booking booking : group) {
+                if (!calendarOf(booking.getHouse()).isHeld(booking)
+                        && !isHouseAvailableForDates(booking.getHouse(), 
+                                                     booking.getCheckInDate(), booking.getCheckOutDate())) {
+                    // ยืนยันไม่ได้ทั้งกลุ่ม ปล่อยวันที่ที่ยังกันไว้ให้ลูกค้าอื่น
+                    for (Booking other : group) {
+                        removeHold(other, calendarOf(other.getHouse()));
+                    }
+                    return CompletableFuture.completedFuture(PaymentStatus.UNAVAILABLE);
+                }
+            }
+            for (Booking booking : group) {
+                booking.setPaid(true);
+                confirmBooking(booking);
+            }
+            // ส่ง record ขณะถือ lock ให้ลำดับใน journal ตรงกับลำดับการยืนยันของบ้านเหล่านี้
+            if (journal != null) {
+                durable = journal.appendGroup(group);
+            }
+        } finally {
+            unlockAll(locks);
+        }
+        
+        if (durable == null) {
+            return CompletableFuture.completedFuture(PaymentStatus.CONFIRMED);
+        }
+        return durable.handle((ignored, error) -> {
+            if (error != null) {
+                for (Booking booking : group) {
+                    releaseBooking(booking);
+                }
+                return PaymentStatus.FAILED;
+            }
+            return PaymentStatus.CONFIRMED;
+        });
+    }
+    
+    /**
+     * ประมวลผลการชำระเงินแบบไม่รอ
+     * ขออนุมัติที่ gateway แล้วส่งการจองที่อนุมัติแล้วเข้าคิวยืนยัน
+     * การยืนยันถูกทำเป็นชุดโดย thread เดียว (ถือ lock ของแต่ละบ้านครั้งเดียวต่อชุด)
+     * 
+     * @param booking การจองที่ต้องการชำระเงิน
+     * @param paymentAmount จำนวนเงินที่ชำระ
+     * @return future ที่ได้ผลเมื่อยืนยันและบันทึกลง journal แล้ว (หรือเมื่อไม่สำเร็จ)
+     */
+    public CompletableFuture<PaymentStatus> processPaymentAsync(Booking booking, double paymentAmount) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> authorization;
+        try {
+            authorization = paymentGateway.authorize(booking, paymentAmount);
+        } catch (RuntimeException e) {
+            authorization = CompletableFuture.failedFuture(e);
+        }
+        
+        return authorization.handle((approved, error) -> {
+            if (error != null) {
+                return CompletableFuture.completedFuture(PaymentStatus.FAILED);
+            }
+            if (!approved) {
+                return CompletableFuture.completedFuture(PaymentStatus.DECLINED);
+            }
+            PendingConfirmation pending = new PendingConfirmation(booking);
+            confirmations.add(pending);
+            // ระบบถูกปิดไปแล้ว ไม่มี thread มายืนยัน
+            if (!confirmer.isAlive() && confirmations.remove(pending)) {
+                pending.result.complete(PaymentStatus.FAILED);
+            }
+            return pending.result;
+        }).thenCompose(result -> result)
+          .whenComplete((status, error) -> metrics.paymentCompleted(start, status));
+    }
+    
+    /**
+     * วนลูปของ thread ผู้ยืนยัน: รวบรวมการชำระเงินที่อนุมัติแล้วเป็นชุด
+     * แล้วยืนยันทีละบ้าน (ถือ lock ของบ้านครั้งเดียวต่อชุด)
+     */
+    private void confirmLoop() {
+        List<PendingConfirmation> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(confirmations.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            confirmations.drainTo(batch, MAX_CONFIRM_BATCH - 1);
+            stopping = batch.remove(STOP_CONFIRMING);
             
-            // ยืนยันการจอง - เพิ่มเข้ารายการจอง
-            confirmBooking(booking);
+            // จัดกลุ่มตามบ้าน โดยคงลำดับที่ได้รับอนุมัติ
+            Map<House, List<PendingConfirmation>> byHouse = batch.stream()
+                .collect(Collectors.groupingBy(pending -> pending.booking.getHouse(), 
+                                               LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<House, List<PendingConfirmation>> entry : byHouse.entrySet()) {
+                ReentrantLock lock = calendarOf(entry.getKey()).getLock();
+                lock.lock();
+                try {
+                    for (PendingConfirmation pending : entry.getValue()) {
+                        confirmPaid(pending);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
             
-            System.out.println("\n✓ ชำระเงินสำเร็จ!");
-            return true;
-        } else {
-            // จำนวนเงินไม่ถูกต้อง
-            System.out.println("\n✗ จำนวนเงินไม่ถูกต้อง");
-            System.out.printf("ต้องชำระ: %.2f บาท แต่ได้รับ: %.2f บาท\n", 
-                            booking.getTotalPrice(), paymentAmount);
-            return false;
+            // ส่งผลหลังปล่อย lock (การรอ journal ไม่ขวางชุดถัดไป)
+            for (PendingConfirmation pending : batch) {
+                completeWhenDurable(pending);
+            }
+            batch.clear();
+        }
+        
+        // การชำระเงินที่เข้าคิวมาหลังสั่งปิด จะไม่ถูกยืนยัน
+        for (PendingConfirmation pending : confirmations) {
+            pending.result.complete(PaymentStatus.FAILED);
+        }
+    }
+    
+    /**
+     * ยืนยันการจองที่ได้รับอนุมัติแล้ว (ต้องถือ lock ของบ้าน)
+     * 
+     * @param pending การชำระเงินที่อนุมัติแล้ว
+     */
+    private void confirmPaid(PendingConfirmation pending) {
+        Booking booking = pending.booking;
+        
+        // ถ้า hold หมดเวลาไปแล้ว ตรวจสอบวันว่างอีกครั้ง เผื่อมีลูกค้าอื่นจองวันเดียวกันไปก่อน
+        if (!calendarOf(booking.getHouse()).isHeld(booking)
+                && !isHouseAvailableForDates(booking.getHouse(), 
+                                             booking.getCheckInDate(), booking.getCheckOutDate())) {
+            pending.status = PaymentStatus.UNAVAILABLE;
+            return;
+        }
+        
+        // ชำระเงินถูกต้อง
+        booking.setPaid(true); // ตั้งสถานะเป็นชำระแล้ว
+        
+        // ยืนยันการจอง - เพิ่มเข้ารายการจอง
+        confirmBooking(booking);
+        pending.status = PaymentStatus.CONFIRMED;
+        
+        // ส่ง record เข้าคิวของ journal ขณะยังถือ lock เพื่อให้ลำดับใน journal ตรงกับลำดับการยืนยัน
+        if (journal != null) {
+            pending.durable = journal.append(booking);
+        }
+    }
+    
+    /**
+     * ส่งผลการชำระเงินเมื่อบันทึกลง journal แล้ว
+     * ถ้าบันทึกไม่สำเร็จ ยกเลิกการยืนยัน เพราะการจองนี้จะหายไปเมื่อเปิดโปรแกรมใหม่
+     */
+    private void completeWhenDurable(PendingConfirmation pending) {
+        if (pending.durable == null) {
+            pending.result.complete(pending.status);
+            return;
         }
+        pending.durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                releaseBooking(pending.booking);
+                pending.result.complete(PaymentStatus.FAILED);
+            } else {
+                pending.result.complete(PaymentStatus.CONFIRMED);
+            }
+        });
     }
     
     /**
@@ -204,43 +1723,171 @@ public class BookingSystem {
         System.out.println("║         รายการจองทั้งหมด                            ║");
         System.out.println("╚══════════════════════════════════════════════════════╝\n");
         
-        // วนลูปแสดงรายละเอียดการจองแต่ละรายการ
-        for (Booking booking : bookings) {
+        // วนลูปแสดงรายละเอียดการจองแต่ละรายการ (จากสำเนา ไม่ขวางการจองใหม่)
+        for (Booking booking : getBookings()) {
             booking.displayBookingDetails();
         }
     }
     
+    /**
+     * ค้นหาลูกค้าจากเบอร์โทรหรืออีเมล ถ้าไม่พบสร้างลูกค้าใหม่ในทะเบียน
+     * ลูกค้าที่เคยจองแล้วได้ Customer object เดิม (ใช้แทน new Customer ตอนรับการจอง)
+     * 
+     * @param fullName ชื่อ-นามสกุล
+     * @param phoneNumber เบอร์โทรศัพท์
+     * @param email อีเมล
+     * @return Customer ในทะเบียน
+     */
+    public Customer findOrCreateCustomer(String fullName, String phoneNumber, String email) {
+        indexSnapshotCustomers();
+        return customers.resolve(fullName, phoneNumber, email);
+    }
+    
+    /**
+     * ค้นหาลูกค้าจากเบอร์โทรหรืออีเมล
+     * 
+     * @param phoneOrEmail เบอร์โทรหรืออีเมล (ถ้ามี @ ถือเป็นอีเมล)
+     * @return Customer ในทะเบียน, หรือ null ถ้าไม่พบ
+     */
+    public Customer findCustomer(String phoneOrEmail) {
+        indexSnapshotCustomers();
+        return customers.find(phoneOrEmail);
+    }
+    
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วทั้งหมดของลูกค้า จากดัชนีของลูกค้า (ไม่ต้องไล่ทุกการจอง)
+     * 
+     * @param phoneOrEmail เบอร์โทรหรืออีเมล (ถ้ามี @ ถือเป็นอีเมล)
+     * @return List ใหม่ของการจองของลูกค้า (ว่างถ้าไม่พบลูกค้า)
+     */
+    public List<Booking> findBookingsByCustomer(String phoneOrEmail) {
+        Customer customer = findCustomer(phoneOrEmail);
+        return customer != null ? customers.bookingsOf(customer) : new ArrayList<>();
+    }
+    
+    /**
+     * เพิ่มการจองจาก snapshot เข้าทะเบียนลูกค้า (ครั้งเดียว เมื่อใช้ทะเบียนครั้งแรก)
+     * ทำแบบ lazy เพื่อไม่ต้องถอดรหัสการจองทั้งหมดตอนเปิดระบบ
+     * การจองที่ยืนยันหลังเปิดระบบถูกเพิ่มเข้าทะเบียนตอนยืนยันอยู่แล้ว
+     */
+    private void indexSnapshotCustomers() {
+        BookingSnapshot base = snapshot;
+        if (base == null || snapshotCustomersIndexed) {
+            return;
+        }
+        synchronized (customers) {
+            if (!snapshotCustomersIndexed) {
+                for (int i = 0; i < base.getBookingCount(); i++) {
+                    Booking booking;
+                    synchronized (bookings) {
+                        booking = bookingList.snapshotBooking(i);
+                    }
+                    // การจองที่ถูกยกเลิกหรือเปลี่ยนแล้ว ถูกแก้ในทะเบียนตอนยกเลิก/เปลี่ยนอยู่แล้ว
+                    if (booking != null) {
+                        customers.addBooking(booking);
+                    }
+                }
+                snapshotCustomersIndexed = true;
+            }
+        }
+    }
+    
     /**
      * แปลงวันที่จาก String เป็น LocalDate
-     * รองรับรูปแบบ dd/MM/yyyy (เช่น 15/12/2025)
+     * รองรับรูปแบบ dd/MM/yyyy (เช่น 15/12/2025) และต้องเป็นวันที่มีจริง (ดู DateCodec)
      * 
      * @param dateStr วันที่ในรูปแบบ String (dd/MM/yyyy)
      * @return LocalDate object
      * @throws DateTimeParseException ถ้ารูปแบบวันที่ไม่ถูกต้อง
      */
     public static LocalDate parseDate(String dateStr) throws DateTimeParseException {
-        // กำหนดรูปแบบวันที่เป็น dd/MM/yyyy
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        // แปลง String เป็น LocalDate
-        return LocalDate.parse(dateStr, formatter);
+        // แปลงด้วย DateCodec (ไม่ต้องสร้าง DateTimeFormatter ทุกครั้ง)
+        return DateCodec.parse(dateStr);
     }
     
     // === Getters - เมธอดสำหรับดึงข้อมูล ===
     
     /**
      * ดึงรายการบ้านทั้งหมด
-     * @return List ของบ้านทั้งหมด
+     * @return List ของบ้านทั้งหมด ณ เวลาที่เรียก (แก้ไขไม่ได้ ไม่เปลี่ยนเมื่อเพิ่มบ้านภายหลัง)
      */
     public List<House> getHouses() {
-        return houses;
+        return houses.getAll();
     }
     
     /**
-     * ดึงรายการจองทั้งหมด
-     * @return List ของการจองทั้งหมด
+     * ดึงรายการจองทั้งหมด ณ เวลาที่เรียก (อ่านอย่างเดียว)
+     * ถือ lock ของรายการเพียงช่วงสร้าง view (ไม่คัดลอกการจอง) การวนอ่านนาน ๆ เช่นรายงานหรือส่งออก
+     * จึงไม่ขวางการยืนยันการจอง และไม่เห็นการเปลี่ยนแปลงที่เกิดระหว่างอ่าน
+     * 
+     * @return List แบบอ่านอย่างเดียวของการจองที่ยืนยันแล้ว (BookingList.ReadView)
      */
     public List<Booking> getBookings() {
-        return bookings;
+        synchronized (bookings) {
+            return bookingList.readView();
+        }
+    }
+    
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วตามบ้านและช่วงวันที่
+     * ถ้าระบุบ้าน ค้นจากดัชนีของบ้านหลังนั้นโดยตรง ไม่ต้องไล่ทุกการจอง
+     * 
+     * @param houseNumber หมายเลขบ้าน (null = ทุกหลัง)
+     * @param from วันแรกของช่วง (null = ไม่จำกัด)
+     * @param to วันสุดท้ายของช่วง นับรวม (null = ไม่จำกัด)
+     * @return List ใหม่ของการจองที่มีวันพักอยู่ในช่วง (ไม่รวมการจองที่ยังรอชำระเงิน)
+     */
+    public List<Booking> findBookings(Integer houseNumber, LocalDate from, LocalDate to) {
+        return findBookings(null, houseNumber, from, to);
+    }
+    
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วตามลูกค้า บ้าน และช่วงวันที่
+     * ถ้าระบุลูกค้า ค้นจากดัชนีของลูกค้าคนนั้นโดยตรง (ใช้เวลาตามจำนวนการจองของลูกค้า)
+     * 
+     * @param phoneOrEmail เบอร์โทรหรืออีเมลของลูกค้า (null = ทุกคน)
+     * @param houseNumber หมายเลขบ้าน (null = ทุกหลัง)
+     * @param from วันแรกของช่วง (null = ไม่จำกัด)
+     * @param to วันสุดท้ายของช่วง นับรวม (null = ไม่จำกัด)
+     * @return List ใหม่ของการจองที่ตรงเงื่อนไข (ไม่รวมการจองที่ยังรอชำระเงิน)
+     */
+    public List<Booking> findBookings(String phoneOrEmail, Integer houseNumber, 
+                                      LocalDate from, LocalDate to) {
+        if (phoneOrEmail != null) {
+            LocalDate first = from != null ? from : LocalDate.MIN;
+            LocalDate last = to != null ? to : LocalDate.MAX;
+            List<Booking> result = findBookingsByCustomer(phoneOrEmail);
+            result.removeIf(booking -> 
+                (houseNumber != null && booking.getHouse().getHouseNumber() != houseNumber)
+                || booking.getCheckOutDate().isBefore(first) || booking.getCheckInDate().isAfter(last));
+            return result;
+        }
+        
+        LocalDate first = from != null ? from : LocalDate.MIN;
+        LocalDate last = to != null ? to : LocalDate.MAX;
+        
+        if (houseNumber == null) {
+            List<Booking> result = new ArrayList<>();
+            for (Booking booking : getBookings()) {
+                if (!booking.getCheckOutDate().isBefore(first) && !booking.getCheckInDate().isAfter(last)) {
+                    result.add(booking);
+                }
+            }
+            return result;
+        }
+        
+        House house = findHouseByNumber(houseNumber);
+        if (house == null) {
+            return new ArrayList<>();
+        }
+        HouseCalendar calendar = calendarOf(house);
+        calendar.getLock().lock();
+        try {
+            List<Booking> result = calendar.bookingsBetween(first, last);
+            result.removeIf(calendar::isHeld);
+            return result;
+        } finally {
+            calendar.getLock().unlock();
+        }
     }
 }
@@ -0,0 +1,114 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * โมเดลของตารางรายการจอง (JTable) แสดงทีละหน้า
+ * เก็บเฉพาะการจองของหน้าปัจจุบัน และจัดรูปแบบข้อความของช่องเมื่อ JTable ขอเท่านั้น
+ * (JTable ขอเฉพาะช่องที่มองเห็นบนจอ) จำนวนการจองทั้งหมดจึงไม่มีผลกับเวลาแสดงผล
+ *
+ * ใช้จาก Event Dispatch Thread เท่านั้น ส่วนการค้นหาและเรียงลำดับทำนอก EDT (sort)
+ */
+public class BookingTableModel extends AbstractTableModel {
+    // จำนวนการจองต่อหน้า
+    public static final int PAGE_SIZE = 100;
+
+    // ชื่อคอลัมน์
+    private static final String[] COLUMNS = {
+        "หมายเลขการจอง", "บ้าน", "ชื่อผู้จอง", "เบอร์โทร",
+        "เข้าพัก", "คืนบ้าน", "จำนวนวัน", "ราคารวม (บาท)", "สถานะ"
+    };
+
+    // ลำดับการเรียงของแต่ละคอลัมน์ (ลำดับเดียวกับ COLUMNS)
+    private static final List<Comparator<Booking>> ORDERS = List.of(
+        Comparator.comparingInt(Booking::getBookingId),
+        Comparator.comparingInt(booking -> booking.getHouse().getHouseNumber()),
+        Comparator.comparing(booking -> booking.getCustomer().getFullName()),
+        Comparator.comparing(booking -> booking.getCustomer().getPhoneNumber()),
+        Comparator.comparing(Booking::getCheckInDate),
+        Comparator.comparing(Booking::getCheckOutDate),
+        Comparator.comparingLong(Booking::getNumberOfDays),
+        Comparator.comparingDouble(Booking::getTotalPrice),
+        Comparator.comparing(Booking::isPaid)
+    );
+
+    // การจองของหน้าปัจจุบัน
+    private List<Booking> rows;
+
+    /**
+     * Constructor สำหรับสร้างตารางว่าง
+     */
+    public BookingTableModel() {
+        this.rows = List.of();
+    }
+
+    /**
+     * เรียงการจองตามคอลัมน์ที่เลือก (ใช้นอก EDT ก่อนแบ่งหน้า)
+     * ค่าเท่ากันเรียงตามหมายเลขการจอง
+     *
+     * @param bookings รายการที่ต้องการเรียง (ถูกเรียงในตัว)
+     * @param column ลำดับคอลัมน์
+     * @param ascending true = น้อยไปมาก, false = มากไปน้อย
+     */
+    public static void sort(List<Booking> bookings, int column, boolean ascending) {
+        Comparator<Booking> order = ORDERS.get(column);
+        if (!ascending) {
+            order = order.reversed();
+        }
+        bookings.sort(order.thenComparing(ORDERS.get(0)));
+    }
+
+    /**
+     * แสดงการจองชุดใหม่ (หนึ่งหน้า)
+     *
+     * @param page การจองของหน้า (ไม่เกิน PAGE_SIZE รายการ)
+     */
+    public void setPage(List<Booking> page) {
+        this.rows = page;
+        fireTableDataChanged();
+    }
+
+    /**
+     * ดึงการจองของแถวในหน้าปัจจุบัน
+     *
+     * @param rowIndex ลำดับแถวในตาราง
+     * @return การจองของแถวนั้น
+     */
+    public Booking getBookingAt(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    /**
+     * จัดรูปแบบข้อความของช่อง (เรียกเฉพาะช่องที่มองเห็น)
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Booking booking = rows.get(rowIndex);
+        switch (columnIndex) {
+            case 0: return booking.getBookingId();
+            case 1: return booking.getHouse().getHouseNumber();
+            case 2: return booking.getCustomer().getFullName();
+            case 3: return booking.getCustomer().getPhoneNumber();
+            case 4: return DateCodec.format(booking.getCheckInDate());
+            case 5: return DateCodec.format(booking.getCheckOutDate());
+            case 6: return booking.getNumberOfDays();
+            case 7: return String.format("%,.2f", booking.getTotalPrice());
+            default: return booking.isPaid() ? "ชำระแล้ว" : "ยังไม่ชำระ";
+        }
+    }
+}
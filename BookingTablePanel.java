@@ -0,0 +1,346 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * หน้าจอรายการจอง (เมนู 3): ตารางแบ่งหน้า พร้อมกรองตามลูกค้า บ้าน และช่วงวันที่ และเรียงตามคอลัมน์
+ * เลือกแถวแล้วยกเลิกหรือเปลี่ยนวันที่ของการจองได้
+ *
+ * การค้นหาและเรียงลำดับทำใน SwingWorker นอก Event Dispatch Thread
+ * ผลลัพธ์ที่เรียงแล้วถูกเก็บไว้ การเปลี่ยนหน้าจึงแค่ตัดช่วงของรายการ ไม่ต้องค้นหาใหม่
+ * หน้าจอจึงเปิดได้ทันทีไม่ว่าจะมีการจองมากแค่ไหน
+ */
+public class BookingTablePanel extends JPanel {
+    // ระบบจองบ้านพัก
+    private final BookingSystem bookingSystem;
+
+    // โมเดลของตาราง (การจองของหน้าปัจจุบัน) และตาราง
+    private final BookingTableModel model;
+    private final JTable table;
+
+    // ช่องกรอกเงื่อนไขการกรอง
+    private final JTextField customerField;
+    private final JTextField houseField;
+    private final JTextField fromField;
+    private final JTextField toField;
+
+    // ปุ่มเปลี่ยนหน้าและข้อความสถานะ
+    private final JButton prevButton;
+    private final JButton nextButton;
+    private final JLabel statusLabel;
+
+    // ผลการค้นหาที่เรียงแล้วทั้งหมด (ใช้บน EDT เท่านั้น)
+    private List<Booking> results;
+
+    // หน้าปัจจุบัน (เริ่มที่ 0)
+    private int pageIndex;
+
+    // คอลัมน์ที่ใช้เรียงและทิศทาง
+    private int sortColumn;
+    private boolean ascending;
+
+    // ลำดับของการโหลด ใช้ทิ้งผลของการโหลดเก่าที่เสร็จช้ากว่าการโหลดใหม่
+    private int loadGeneration;
+
+    /**
+     * Constructor - สร้างหน้าจอรายการจอง (ยังไม่โหลดข้อมูล ดู reload())
+     *
+     * @param bookingSystem ระบบจองบ้านพัก
+     */
+    public BookingTablePanel(BookingSystem bookingSystem) {
+        super(new BorderLayout(5, 5));
+        this.bookingSystem = bookingSystem;
+        this.model = new BookingTableModel();
+        this.results = List.of();
+        this.ascending = true;
+
+        // === แถบกรองข้อมูล ===
+        customerField = new JTextField(10);
+        houseField = new JTextField(5);
+        fromField = new JTextField(8);
+        toField = new JTextField(8);
+        JButton searchButton = new JButton("ค้นหา");
+        searchButton.addActionListener(e -> reload());
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("เบอร์โทร/อีเมล:"));
+        filterPanel.add(customerField);
+        filterPanel.add(new JLabel("บ้านหมายเลข:"));
+        filterPanel.add(houseField);
+        filterPanel.add(new JLabel("ตั้งแต่ (dd/MM/yyyy):"));
+        filterPanel.add(fromField);
+        filterPanel.add(new JLabel("ถึง:"));
+        filterPanel.add(toField);
+        filterPanel.add(searchButton);
+        add(filterPanel, BorderLayout.NORTH);
+
+        // === ตาราง: คลิกหัวคอลัมน์เพื่อเรียง (คลิกซ้ำเพื่อสลับทิศทาง) ===
+        table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    sortBy(column);
+                }
+            }
+        });
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // === แถบเปลี่ยนหน้า ===
+        prevButton = new JButton("◀ ก่อนหน้า");
+        nextButton = new JButton("ถัดไป ▶");
+        statusLabel = new JLabel();
+        prevButton.addActionListener(e -> showPage(pageIndex - 1));
+        nextButton.addActionListener(e -> showPage(pageIndex + 1));
+
+        // === ปุ่มจัดการการจองที่เลือก ===
+        JButton cancelButton = new JButton("ยกเลิกการจอง");
+        JButton changeButton = new JButton("เปลี่ยนวันที่");
+        cancelButton.addActionListener(e -> cancelSelected());
+        changeButton.addActionListener(e -> changeSelected());
+
+        JPanel pagePanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        pagePanel.add(cancelButton);
+        pagePanel.add(changeButton);
+        pagePanel.add(prevButton);
+        pagePanel.add(statusLabel);
+        pagePanel.add(nextButton);
+        add(pagePanel, BorderLayout.SOUTH);
+
+        updateStatus();
+    }
+
+    /**
+     * เรียงตามคอลัมน์ที่คลิก แล้วโหลดใหม่
+     */
+    private void sortBy(int column) {
+        ascending = column == sortColumn ? !ascending : true;
+        sortColumn = column;
+        reload();
+    }
+
+    /**
+     * ค้นหาและเรียงการจองตามเงื่อนไขปัจจุบันนอก EDT แล้วแสดงหน้าแรก
+     */
+    public void reload() {
+        // อ่านเงื่อนไขการกรองบน EDT
+        String customer = customerField.getText().trim();
+        String phoneOrEmail = customer.isEmpty() ? null : customer;
+        Integer houseNumber;
+        LocalDate from;
+        LocalDate to;
+        try {
+            String house = houseField.getText().trim();
+            houseNumber = house.isEmpty() ? null : Integer.valueOf(house);
+            from = parseOptionalDate(fromField.getText());
+            to = parseOptionalDate(toField.getText());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this,
+                "เงื่อนไขไม่ถูกต้อง\nหมายเลขบ้านต้องเป็นตัวเลข และวันที่ใช้รูปแบบ วว/ดด/ปปปป",
+                "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        int generation = ++loadGeneration;
+        int column = sortColumn;
+        boolean order = ascending;
+        statusLabel.setText("กำลังโหลด...");
+        prevButton.setEnabled(false);
+        nextButton.setEnabled(false);
+
+        new SwingWorker<List<Booking>, Void>() {
+            @Override
+            protected List<Booking> doInBackground() {
+                List<Booking> found = bookingSystem.findBookings(phoneOrEmail, houseNumber, from, to);
+                BookingTableModel.sort(found, column, order);
+                return found;
+            }
+
+            @Override
+            protected void done() {
+                if (generation != loadGeneration) {
+                    return; // มีการโหลดใหม่กว่าแล้ว
+                }
+                try {
+                    results = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    results = List.of();
+                    JOptionPane.showMessageDialog(BookingTablePanel.this,
+                        "โหลดรายการจองไม่สำเร็จ", "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                }
+                showPage(0);
+            }
+        }.execute();
+    }
+
+    /**
+     * ยกเลิกการจองของแถวที่เลือก (ถามยืนยันก่อน) แล้วโหลดรายการใหม่
+     */
+    private void cancelSelected() {
+        Booking booking = selectedBooking();
+        if (booking == null) {
+            return;
+        }
+        int bookingId = booking.getBookingId();
+        int answer = JOptionPane.showConfirmDialog(this,
+            String.format("ยกเลิกการจองหมายเลข %d (บ้านหมายเลข %d %s - %s)?", bookingId,
+                booking.getHouse().getHouseNumber(),
+                DateCodec.format(booking.getCheckInDate()), DateCodec.format(booking.getCheckOutDate())),
+            "ยืนยันการยกเลิก", JOptionPane.YES_NO_OPTION);
+        if (answer != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        // cancelBooking รอ journal ลงดิสก์ จึงเรียกนอก EDT
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return bookingSystem.cancelBooking(bookingId);
+            }
+
+            @Override
+            protected void done() {
+                boolean cancelled;
+                try {
+                    cancelled = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    cancelled = false;
+                }
+                JOptionPane.showMessageDialog(BookingTablePanel.this,
+                    cancelled ? "ยกเลิกการจองหมายเลข " + bookingId + " แล้ว"
+                              : "ยกเลิกการจองหมายเลข " + bookingId + " ไม่สำเร็จ",
+                    "ยกเลิกการจอง", cancelled ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE);
+                reload();
+            }
+        }.execute();
+    }
+
+    /**
+     * เปลี่ยนวันที่ของการจองของแถวที่เลือก (ราคาคิดใหม่ตามอัตราของวันที่ใหม่) แล้วโหลดรายการใหม่
+     */
+    private void changeSelected() {
+        Booking booking = selectedBooking();
+        if (booking == null) {
+            return;
+        }
+        int bookingId = booking.getBookingId();
+        String checkInText = JOptionPane.showInputDialog(this,
+            "วันที่เข้าพักใหม่ (dd/MM/yyyy):", DateCodec.format(booking.getCheckInDate()));
+        if (checkInText == null) {
+            return;
+        }
+        String checkOutText = JOptionPane.showInputDialog(this,
+            "วันที่คืนบ้านใหม่ (dd/MM/yyyy):", DateCodec.format(booking.getCheckOutDate()));
+        if (checkOutText == null) {
+            return;
+        }
+
+        LocalDate checkIn;
+        LocalDate checkOut;
+        try {
+            checkIn = BookingSystem.parseDate(checkInText.trim());
+            checkOut = BookingSystem.parseDate(checkOutText.trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "รูปแบบวันที่ไม่ถูกต้อง กรุณาใช้ วว/ดด/ปปปป",
+                "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            JOptionPane.showMessageDialog(this, "วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก",
+                "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        new SwingWorker<Booking, Void>() {
+            @Override
+            protected Booking doInBackground() {
+                return bookingSystem.changeBooking(bookingId, checkIn, checkOut);
+            }
+
+            @Override
+            protected void done() {
+                Booking changed;
+                try {
+                    changed = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    changed = null;
+                }
+                if (changed != null) {
+                    JOptionPane.showMessageDialog(BookingTablePanel.this,
+                        String.format("เปลี่ยนการจองหมายเลข %d เป็น %s - %s แล้ว%nราคารวมใหม่: %,.2f บาท",
+                            bookingId, DateCodec.format(checkIn), DateCodec.format(checkOut),
+                            changed.getTotalPrice()),
+                        "เปลี่ยนวันที่", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(BookingTablePanel.this,
+                        "เปลี่ยนวันที่ไม่สำเร็จ บ้านอาจไม่ว่างในวันที่ใหม่",
+                        "เปลี่ยนวันที่", JOptionPane.ERROR_MESSAGE);
+                }
+                reload();
+            }
+        }.execute();
+    }
+
+    /**
+     * การจองของแถวที่เลือก (แจ้งผู้ใช้ถ้ายังไม่ได้เลือก)
+     *
+     * @return การจอง, หรือ null ถ้าไม่ได้เลือกแถว
+     */
+    private Booking selectedBooking() {
+        int row = table.getSelectedRow();
+        if (row < 0) {
+            JOptionPane.showMessageDialog(this, "กรุณาเลือกการจองในตารางก่อน",
+                "ยังไม่ได้เลือก", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        return model.getBookingAt(table.convertRowIndexToModel(row));
+    }
+
+    /**
+     * แสดงหน้าที่ต้องการจากผลการค้นหาที่เรียงแล้ว
+     */
+    private void showPage(int page) {
+        pageIndex = Math.max(0, Math.min(page, pageCount() - 1));
+        int start = pageIndex * BookingTableModel.PAGE_SIZE;
+        int end = Math.min(start + BookingTableModel.PAGE_SIZE, results.size());
+        model.setPage(results.subList(start, end));
+        updateStatus();
+    }
+
+    /**
+     * จำนวนหน้าทั้งหมด (อย่างน้อย 1 หน้า)
+     */
+    private int pageCount() {
+        return Math.max(1, (results.size() + BookingTableModel.PAGE_SIZE - 1) / BookingTableModel.PAGE_SIZE);
+    }
+
+    /**
+     * อัพเดทข้อความสถานะและปุ่มเปลี่ยนหน้า
+     */
+    private void updateStatus() {
+        statusLabel.setText(String.format("หน้า %d/%d (ทั้งหมด %,d รายการ) เรียงตาม %s %s",
+            pageIndex + 1, pageCount(), results.size(),
+            model.getColumnName(sortColumn), ascending ? "▲" : "▼"));
+        prevButton.setEnabled(pageIndex > 0);
+        nextButton.setEnabled(pageIndex < pageCount() - 1);
+    }
+
+    /**
+     * แปลงวันที่ที่อาจว่างไว้
+     *
+     * @return วันที่, หรือ null ถ้าไม่ได้กรอก
+     */
+    private static LocalDate parseOptionalDate(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? null : BookingSystem.parseDate(trimmed);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * คลาสพิมพ์ข้อความลง console นอก thread ที่ทำงานจริง
+ * ผู้เรียกแค่ใส่รูปแบบข้อความและค่าเข้าคิว การจัดรูปแบบและการพิมพ์ (ซึ่ง synchronized)
+ * ทำโดย thread เบื้องหลัง thread เดียว
+ *
+ * ถ้าคิวเต็ม ข้อความใหม่จะถูกทิ้ง (นับไว้ใน getDropped()) เพื่อไม่ให้ผู้เรียกต้องรอ
+ */
+public final class ConsoleLog {
+    // จำนวนข้อความสูงสุดที่รอพิมพ์
+    private static final int CAPACITY = 8192;
+
+    // คิวของข้อความที่รอพิมพ์
+    private static final BlockingQueue<Object[]> QUEUE = new ArrayBlockingQueue<>(CAPACITY);
+
+    // จำนวนข้อความที่ถูกทิ้งเพราะคิวเต็ม
+    private static final LongAdder DROPPED = new LongAdder();
+
+    static {
+        Thread printer = new Thread(ConsoleLog::printLoop, "console-log");
+        printer.setDaemon(true);
+        printer.start();
+    }
+
+    private ConsoleLog() {
+    }
+
+    /**
+     * ส่งข้อความไปพิมพ์ (ไม่รอ)
+     *
+     * @param format รูปแบบข้อความแบบ String.format
+     * @param args ค่าในข้อความ (ควรเป็นค่าที่ไม่เปลี่ยนแปลง เพราะถูกจัดรูปแบบภายหลัง)
+     */
+    public static void info(String format, Object... args) {
+        Object[] entry = new Object[args.length + 1];
+        entry[0] = format;
+        System.arraycopy(args, 0, entry, 1, args.length);
+        if (!QUEUE.offer(entry)) {
+            DROPPED.increment();
+        }
+    }
+
+    /**
+     * @return จำนวนข้อความที่ถูกทิ้งเพราะคิวเต็ม
+     */
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * วนลูปของ thread เบื้องหลัง: จัดรูปแบบและพิมพ์ข้อความตามลำดับ
+     */
+    private static void printLoop() {
+        while (true) {
+            Object[] entry;
+            try {
+                entry = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Object[] args = new Object[entry.length - 1];
+            System.arraycopy(entry, 1, args, 0, args.length);
+            System.out.println(String.format((String) entry[0], args));
+        }
+    }
+}
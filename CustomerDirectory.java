@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * คลาสทะเบียนลูกค้า ค้นหาลูกค้าจากเบอร์โทรหรืออีเมลที่ normalize แล้ว
+ * ลูกค้าที่เคยจองแล้วจะได้ Customer object เดิมกลับมา ไม่สร้างซ้ำทุกครั้งที่จอง
+ *
+ * เก็บดัชนีรองจากลูกค้าไปยังการจองที่ยืนยันแล้วของลูกค้าคนนั้น
+ * การค้นหาการจองของลูกค้าหนึ่งคนจึงใช้เวลาตามจำนวนการจองของคนนั้น ไม่ต้องไล่ทุกการจองในระบบ
+ *
+ * การจองที่ Customer ไม่ใช่ object ในทะเบียน (เช่น อ่านจาก journal) ถูกผูกกับลูกค้าในทะเบียน
+ * ที่มีเบอร์โทรหรืออีเมลเดียวกัน
+ *
+ * ทุกเมธอด synchronized (เป็น lock ชั้นในสุด เรียกได้ขณะถือ lock ของบ้าน)
+ */
+public class CustomerDirectory {
+    // ลูกค้าตามเบอร์โทรที่ normalize แล้ว
+    private final Map<String, Customer> byPhone;
+
+    // ลูกค้าตามอีเมลที่ normalize แล้ว
+    private final Map<String, Customer> byEmail;
+
+    // การจองที่ยืนยันแล้วของลูกค้าแต่ละคน (key = Customer ในทะเบียน)
+    private final Map<Customer, List<Booking>> bookingsByCustomer;
+
+    // จำนวนลูกค้าในทะเบียน
+    private int customerCount;
+
+    /**
+     * Constructor สำหรับสร้างทะเบียนว่าง
+     */
+    public CustomerDirectory() {
+        this.byPhone = new HashMap<>();
+        this.byEmail = new HashMap<>();
+        this.bookingsByCustomer = new HashMap<>();
+    }
+
+    /**
+     * ค้นหาลูกค้าจากเบอร์โทรหรืออีเมล ถ้าไม่พบสร้างลูกค้าใหม่และเพิ่มเข้าทะเบียน
+     * ค้นจากเบอร์โทรก่อน แล้วจึงค้นจากอีเมล ถ้าพบจะใช้ข้อมูลเดิม (ชื่อที่กรอกใหม่ไม่ถูกบันทึก)
+     *
+     * @param fullName ชื่อ-นามสกุล
+     * @param phoneNumber เบอร์โทรศัพท์
+     * @param email อีเมล
+     * @return Customer ในทะเบียน
+     */
+    public synchronized Customer resolve(String fullName, String phoneNumber, String email) {
+        Customer existing = find(phoneNumber, email);
+        if (existing != null) {
+            return existing;
+        }
+        Customer customer = new Customer(fullName, phoneNumber, email);
+        register(customer);
+        return customer;
+    }
+
+    /**
+     * ค้นหาลูกค้าจากเบอร์โทรหรืออีเมล
+     *
+     * @param phoneOrEmail เบอร์โทรหรืออีเมล (ถ้ามี @ ถือเป็นอีเมล)
+     * @return Customer ในทะเบียน, หรือ null ถ้าไม่พบ
+     */
+    public synchronized Customer find(String phoneOrEmail) {
+        if (phoneOrEmail == null) {
+            return null;
+        }
+        return phoneOrEmail.indexOf('@') >= 0 ? find(null, phoneOrEmail) : find(phoneOrEmail, null);
+    }
+
+    /**
+     * เพิ่มการจองที่ยืนยันแล้วเข้าดัชนีของลูกค้า
+     *
+     * @param booking การจองที่ยืนยันแล้ว
+     */
+    public synchronized void addBooking(Booking booking) {
+        bookingsByCustomer.computeIfAbsent(canonical(booking.getCustomer()), customer -> new ArrayList<>())
+                          .add(booking);
+    }
+
+    /**
+     * ลบการจองออกจากดัชนีของลูกค้า
+     *
+     * @param booking การจองที่ถูกถอน
+     */
+    public synchronized void removeBooking(Booking booking) {
+        List<Booking> list = bookingsByCustomer.get(lookup(booking.getCustomer()));
+        if (list != null) {
+            list.remove(booking);
+        }
+    }
+
+    /**
+     * แทนการจองทุกรายการในดัชนีด้วยผลของ current (เช่น flyweight ตัวใหม่ของการจองเดียวกัน)
+     * current ถูกเรียกขณะถือ lock ของทะเบียนนี้ จึงใช้ได้เฉพาะ lock ที่อยู่ชั้นในกว่า (lock ของรายการจอง)
+     *
+     * @param current แปลงการจองเป็น object ที่ต้องการเก็บแทน (null = เก็บตัวเดิม)
+     */
+    public synchronized void replaceBookings(UnaryOperator<Booking> current) {
+        for (List<Booking> list : bookingsByCustomer.values()) {
+            for (int i = 0; i < list.size(); i++) {
+                Booking replacement = current.apply(list.get(i));
+                if (replacement != null) {
+                    list.set(i, replacement);
+                }
+            }
+        }
+    }
+
+    /**
+     * ดึงการจองที่ยืนยันแล้วของลูกค้า
+     *
+     * @param customer ลูกค้า (Customer ในทะเบียน หรือ Customer ที่มีเบอร์โทร/อีเมลเดียวกัน)
+     * @return List ใหม่ของการจองของลูกค้า (ว่างถ้าไม่มี)
+     */
+    public synchronized List<Booking> bookingsOf(Customer customer) {
+        List<Booking> list = bookingsByCustomer.get(lookup(customer));
+        return list != null ? new ArrayList<>(list) : new ArrayList<>();
+    }
+
+    /**
+     * จำนวนลูกค้าในทะเบียน
+     * @return จำนวนลูกค้า
+     */
+    public synchronized int size() {
+        return customerCount;
+    }
+
+    /**
+     * แปลงเบอร์โทรให้อยู่รูปแบบเดียวกัน: เก็บเฉพาะตัวเลข และเปลี่ยนรหัสประเทศ 66 เป็น 0
+     * (เช่น "+66 81-234-5678" และ "081 234 5678" ได้ "0812345678")
+     *
+     * @param phoneNumber เบอร์โทรที่กรอก
+     * @return เบอร์โทรที่ normalize แล้ว, หรือ null ถ้าไม่มีตัวเลข
+     */
+    public static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == 0) {
+            return null;
+        }
+        if (digits.length() == 11 && digits.charAt(0) == '6' && digits.charAt(1) == '6') {
+            digits.replace(0, 2, "0");
+        }
+        return digits.toString();
+    }
+
+    /**
+     * แปลงอีเมลให้อยู่รูปแบบเดียวกัน: ตัดช่องว่างหัวท้ายและเป็นตัวพิมพ์เล็ก
+     *
+     * @param email อีเมลที่กรอก
+     * @return อีเมลที่ normalize แล้ว, หรือ null ถ้าว่าง
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * ค้นหาลูกค้าจากเบอร์โทรก่อน แล้วจึงอีเมล (ต้องถือ lock ของทะเบียน)
+     */
+    private Customer find(String phoneNumber, String email) {
+        String phone = normalizePhone(phoneNumber);
+        Customer customer = phone != null ? byPhone.get(phone) : null;
+        if (customer == null) {
+            String mail = normalizeEmail(email);
+            customer = mail != null ? byEmail.get(mail) : null;
+        }
+        return customer;
+    }
+
+    /**
+     * เพิ่มลูกค้าเข้าดัชนีเบอร์โทรและอีเมล (ไม่ทับลูกค้าเดิมที่ใช้ key เดียวกัน)
+     */
+    private void register(Customer customer) {
+        customerCount++;
+        String phone = normalizePhone(customer.getPhoneNumber());
+        if (phone != null) {
+            byPhone.putIfAbsent(phone, customer);
+        }
+        String mail = normalizeEmail(customer.getEmail());
+        if (mail != null) {
+            byEmail.putIfAbsent(mail, customer);
+        }
+    }
+
+    /**
+     * หาลูกค้าในทะเบียนที่ตรงกับ Customer นี้ (ต้องถือ lock ของทะเบียน)
+     *
+     * @return Customer ในทะเบียน, หรือ customer เองถ้าไม่พบ
+     */
+    private Customer lookup(Customer customer) {
+        Customer existing = find(customer.getPhoneNumber(), customer.getEmail());
+        return existing != null ? existing : customer;
+    }
+
+    /**
+     * หาลูกค้าในทะเบียนที่ตรงกับ Customer นี้ ถ้าไม่พบเพิ่ม Customer นี้เข้าทะเบียน
+     * (ต้องถือ lock ของทะเบียน)
+     */
+    private Customer canonical(Customer customer) {
+        Customer existing = find(customer.getPhoneNumber(), customer.getEmail());
+        if (existing != null) {
+            return existing;
+        }
+        register(customer);
+        return customer;
+    }
+}
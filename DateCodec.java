@@ -0,0 +1,156 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * คลาสแปลงวันที่รูปแบบ dd/MM/yyyy กับ epoch day โดยไม่สร้าง object ระหว่างทาง
+ * ใช้แทน DateTimeFormatter ในงานที่แปลงวันที่จำนวนมาก (นำเข้า/ส่งออก CSV, ตาราง, ข้อความ)
+ *
+ * แปลงแบบเข้มงวด: วันและเดือนต้องเป็นเลข 2 หลัก ปีเป็นเลข 4 หลัก (0001-9999)
+ * และวันต้องมีจริงในเดือนนั้น (เช่น 31/02/2026 ไม่ผ่าน)
+ * จะสร้าง exception เฉพาะเมื่อข้อความไม่ถูกต้องเท่านั้น
+ */
+public final class DateCodec {
+    // ความยาวของข้อความ dd/MM/yyyy
+    public static final int LENGTH = 10;
+
+    // จำนวนวันจาก 0000-03-01 ถึง 1970-01-01 (จุดเริ่มของการคำนวณแบบปีเริ่มเดือนมีนาคม)
+    private static final long DAYS_0000_03_01_TO_1970 = 719_468;
+
+    // จำนวนวันใน 400 ปี (หนึ่งรอบของปฏิทินเกรกอเรียน)
+    private static final long DAYS_PER_ERA = 146_097;
+
+    private DateCodec() {
+    }
+
+    /**
+     * แปลงข้อความ dd/MM/yyyy เป็น LocalDate
+     *
+     * @param text ข้อความวันที่
+     * @return LocalDate ของวันนั้น
+     * @throws DateTimeParseException ถ้ารูปแบบหรือวันที่ไม่ถูกต้อง
+     */
+    public static LocalDate parse(CharSequence text) {
+        return LocalDate.ofEpochDay(parseEpochDay(text, 0, text.length()));
+    }
+
+    /**
+     * แปลงข้อความ dd/MM/yyyy ในช่วง [start, end) เป็น epoch day (ไม่สร้าง object)
+     *
+     * @param text ข้อความที่มีวันที่
+     * @param start ตำแหน่งแรกของวันที่
+     * @param end ตำแหน่งหลังตัวอักษรสุดท้ายของวันที่
+     * @return จำนวนวันนับจาก 1970-01-01
+     * @throws DateTimeParseException ถ้ารูปแบบหรือวันที่ไม่ถูกต้อง
+     */
+    public static long parseEpochDay(CharSequence text, int start, int end) {
+        if (end - start != LENGTH || text.charAt(start + 2) != '/' || text.charAt(start + 5) != '/') {
+            throw invalid(text, start, end, "ต้องอยู่ในรูปแบบ dd/MM/yyyy");
+        }
+        int day = digits(text, start, 2);
+        int month = digits(text, start + 3, 2);
+        int year = digits(text, start + 6, 4);
+        if (day < 0 || month < 0 || year < 0) {
+            throw invalid(text, start, end, "ต้องเป็นตัวเลข");
+        }
+        if (year == 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw invalid(text, start, end, "ไม่มีวันที่นี้");
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * แปลง LocalDate เป็นข้อความ dd/MM/yyyy
+     *
+     * @param date วันที่
+     * @return ข้อความวันที่
+     */
+    public static String format(LocalDate date) {
+        return appendTo(new StringBuilder(LENGTH), date.toEpochDay()).toString();
+    }
+
+    /**
+     * ต่อท้ายวันที่รูปแบบ dd/MM/yyyy ลงใน StringBuilder (ไม่สร้าง object ถ้า StringBuilder มีที่ว่างพอ)
+     *
+     * @param out ปลายทาง
+     * @param epochDay จำนวนวันนับจาก 1970-01-01 (ปี 0001-9999)
+     * @return out (ใช้ต่อกันได้)
+     */
+    public static StringBuilder appendTo(StringBuilder out, long epochDay) {
+        // แปลงกลับเป็นปี/เดือน/วัน โดยนับปีเริ่มเดือนมีนาคม วันอธิกสุรทินจึงอยู่ท้ายปี
+        long z = epochDay + DAYS_0000_03_01_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_ERA);
+        long dayOfEra = z - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153; // 0 = มีนาคม
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        appendPadded(out, day, 2).append('/');
+        appendPadded(out, month, 2).append('/');
+        return appendPadded(out, year, 4);
+    }
+
+    /**
+     * epoch day ของวันที่ (ตรวจสอบค่าแล้ว)
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = y / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_03_01_TO_1970;
+    }
+
+    /**
+     * จำนวนวันในเดือน
+     */
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * อ่านตัวเลขฐานสิบ count หลัก
+     *
+     * @return ค่าที่อ่านได้, หรือ -1 ถ้ามีตัวอักษรที่ไม่ใช่ตัวเลข
+     */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * ต่อท้ายตัวเลขโดยเติม 0 ข้างหน้าให้ครบจำนวนหลัก
+     */
+    private static StringBuilder appendPadded(StringBuilder out, int value, int width) {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+        return out;
+    }
+
+    /**
+     * exception ของข้อความวันที่ที่ไม่ถูกต้อง
+     */
+    private static DateTimeParseException invalid(CharSequence text, int start, int end, String reason) {
+        String date = text.subSequence(start, end).toString();
+        return new DateTimeParseException("วันที่ '" + date + "' " + reason, date, 0);
+    }
+}
@@ -0,0 +1,266 @@
+import java.time.LocalDate;
+
+/**
+ * คลาสดัชนีช่วงวันว่าง (gap) ของบ้านหนึ่งหลัง ใช้หาช่วงว่างแรกที่ยาวพอสำหรับการพัก N คืน
+ * เก็บช่วงวันว่างระหว่างการจองเป็น treap เรียงตามวันแรกของช่วง (epoch day)
+ * แต่ละ node จำความยาวของช่วงว่างที่ยาวที่สุดใน subtree ของตัวเอง
+ * จึงข้าม subtree ที่ไม่มีช่วงว่างยาวพอได้ทั้งก้อน การค้นหาจึงเป็น O(log n) แทนการไล่ทีละวัน
+ *
+ * เริ่มต้นมีช่วงว่างเดียวตั้งแต่ LocalDate.MIN ถึง LocalDate.MAX
+ * การจองแต่ละรายการตัดช่วงว่างที่ครอบมันอยู่ออกเป็นสองช่วง และการยกเลิกรวมช่วงกลับ
+ * (วันที่เข้าพักถึงวันคืนบ้านนับรวมเป็นวันที่ไม่ว่าง เหมือน HouseCalendar)
+ *
+ * ไม่ได้ synchronized ในตัวเอง ผู้เรียกต้องถือ lock ของบ้านหลังนี้ขณะอ่านหรือแก้ไข
+ */
+public class GapIndex {
+    // วันแรกและวันสุดท้ายที่ดัชนีครอบคลุม (epoch day)
+    private static final long FIRST_DAY = LocalDate.MIN.toEpochDay();
+    private static final long LAST_DAY = LocalDate.MAX.toEpochDay();
+
+    // root ของ treap (null = ไม่มีวันว่างเลย)
+    private Node root;
+
+    // จำนวนช่วงว่าง
+    private int size;
+
+    /**
+     * ช่วงวันว่างหนึ่งช่วง (start ถึง end นับรวม)
+     */
+    private static final class Node {
+        final long start;
+        final long end;
+        final long priority;
+
+        // ความยาวของช่วงว่างที่ยาวที่สุดใน subtree นี้ (วัน)
+        long maxLength;
+
+        Node left;
+        Node right;
+
+        Node(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.priority = mix(start);
+            this.maxLength = length();
+        }
+
+        long length() {
+            return end - start + 1;
+        }
+
+        void update() {
+            long max = length();
+            if (left != null && left.maxLength > max) {
+                max = left.maxLength;
+            }
+            if (right != null && right.maxLength > max) {
+                max = right.maxLength;
+            }
+            maxLength = max;
+        }
+    }
+
+    /**
+     * Constructor สำหรับสร้างดัชนีที่ทุกวันว่าง
+     */
+    public GapIndex() {
+        insert(new Node(FIRST_DAY, LAST_DAY));
+    }
+
+    /**
+     * ลำดับความสำคัญของ node ใน treap (กระจายค่าจากวันแรกของช่วง ให้ต้นไม้สมดุลโดยเฉลี่ย)
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * ทำเครื่องหมายว่าช่วงวันที่ถูกจอง (ช่วงนี้ต้องว่างทั้งหมดอยู่ก่อน)
+     *
+     * @param fromDay epoch day แรก (วันที่เข้าพัก)
+     * @param toDay epoch day สุดท้าย (วันคืนบ้าน นับรวม)
+     * @throws IllegalArgumentException ถ้าวันแรกอยู่หลังวันสุดท้าย
+     * @throws IllegalStateException ถ้าช่วงนี้ไม่ว่างทั้งหมด
+     */
+    public void occupy(long fromDay, long toDay) {
+        checkRange(fromDay, toDay);
+        Node gap = floor(fromDay);
+        if (gap == null || gap.end < toDay) {
+            throw new IllegalStateException("ช่วงวันที่ไม่ว่างในดัชนีช่วงว่าง");
+        }
+        remove(gap.start);
+        if (gap.start < fromDay) {
+            insert(new Node(gap.start, fromDay - 1));
+        }
+        if (toDay < gap.end) {
+            insert(new Node(toDay + 1, gap.end));
+        }
+    }
+
+    /**
+     * ทำเครื่องหมายว่าช่วงวันที่กลับมาว่าง (ช่วงนี้ต้องเคยถูก occupy ทั้งช่วง)
+     * รวมกับช่วงว่างที่ติดกันทั้งด้านหน้าและด้านหลัง
+     *
+     * @param fromDay epoch day แรก (วันที่เข้าพัก)
+     * @param toDay epoch day สุดท้าย (วันคืนบ้าน นับรวม)
+     * @throws IllegalArgumentException ถ้าวันแรกอยู่หลังวันสุดท้าย
+     */
+    public void release(long fromDay, long toDay) {
+        checkRange(fromDay, toDay);
+        long start = fromDay;
+        long end = toDay;
+        Node before = fromDay > FIRST_DAY ? floor(fromDay - 1) : null;
+        if (before != null && before.end == fromDay - 1) {
+            start = before.start;
+            remove(before.start);
+        }
+        Node after = toDay < LAST_DAY ? floor(toDay + 1) : null;
+        if (after != null && after.start == toDay + 1) {
+            end = after.end;
+            remove(after.start);
+        }
+        insert(new Node(start, end));
+    }
+
+    /**
+     * หาวันแรกที่ไม่ก่อน fromDay ซึ่งว่างต่อเนื่องกันอย่างน้อย days วัน
+     *
+     * @param fromDay epoch day ที่เร็วที่สุดที่ยอมรับได้
+     * @param days จำนวนวันที่ต้องว่างต่อเนื่อง (อย่างน้อย 1)
+     * @return epoch day แรกของช่วง, หรือ Long.MIN_VALUE ถ้าไม่มีช่วงที่ยาวพอ
+     */
+    public long earliestFit(long fromDay, long days) {
+        // ช่วงว่างที่คร่อม fromDay อยู่ เริ่มได้ทันทีที่ fromDay
+        Node current = floor(fromDay);
+        if (current != null && current.end >= fromDay && current.end - fromDay + 1 >= days) {
+            return fromDay;
+        }
+        Node next = firstFitAfter(root, fromDay, days);
+        return next != null ? next.start : Long.MIN_VALUE;
+    }
+
+    /**
+     * ดึงจำนวนช่วงว่างในดัชนี
+     * @return จำนวนช่วงว่าง (การจองที่ไม่ติดกัน n รายการมีช่วงว่าง n + 1 ช่วง)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * ช่วงกลับด้านจะตัดหรือรวมช่วงว่างผิด และทำให้ดัชนีของบ้านเสียถาวร จึงไม่ยอมรับตั้งแต่ต้น
+     */
+    private static void checkRange(long fromDay, long toDay) {
+        if (fromDay > toDay) {
+            throw new IllegalArgumentException("วันแรกของช่วงต้องไม่อยู่หลังวันสุดท้าย");
+        }
+    }
+
+    // === treap ===
+
+    /**
+     * ช่วงว่างแรกที่เริ่มหลัง day และยาวอย่างน้อย days วัน
+     * ข้าม subtree ที่ maxLength สั้นกว่าที่ต้องการ จึงเดินลงไม่เกินสองเส้นทางของต้นไม้
+     */
+    private static Node firstFitAfter(Node node, long day, long days) {
+        if (node == null || node.maxLength < days) {
+            return null;
+        }
+        if (node.start <= day) {
+            return firstFitAfter(node.right, day, days);
+        }
+        Node found = firstFitAfter(node.left, day, days);
+        if (found != null) {
+            return found;
+        }
+        if (node.length() >= days) {
+            return node;
+        }
+        return firstFitAfter(node.right, day, days);
+    }
+
+    /**
+     * ช่วงว่างที่เริ่มช้าที่สุดแต่ไม่หลัง day
+     */
+    private Node floor(long day) {
+        Node node = root;
+        Node result = null;
+        while (node != null) {
+            if (node.start <= day) {
+                result = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    private void insert(Node node) {
+        Node[] parts = split(root, node.start);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    private void remove(long start) {
+        root = remove(root, start);
+        size--;
+    }
+
+    private static Node remove(Node node, long start) {
+        if (node.start == start) {
+            return merge(node.left, node.right);
+        }
+        if (start < node.start) {
+            node.left = remove(node.left, start);
+        } else {
+            node.right = remove(node.right, start);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * แยกต้นไม้เป็นส่วนที่ start น้อยกว่า key และส่วนที่เหลือ
+     */
+    private static Node[] split(Node node, long key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.start < key) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * รวมต้นไม้สองต้น (ทุก node ของ left มี start น้อยกว่าทุก node ของ right)
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+}
@@ -3,15 +3,18 @@
  * เก็บข้อมูลของบ้านแต่ละหลัง รวมถึงหมายเลขบ้าน สถานะว่าง และราคา
  */
 public class House {
-    // หมายเลขบ้าน (1-10)
+    // หมายเลขบ้าน (ตามไฟล์ catalog)
     private int houseNumber;
     
-    // สถานะว่าง: true = ว่าง, false = ไม่ว่าง/ถูกจอง
-    private boolean isAvailable;
+    // สถานะว่าง: true = ว่าง, false = ไม่ว่าง/ถูกจอง (volatile เพื่อให้ทุก thread เห็นค่าล่าสุด)
+    private volatile boolean isAvailable;
     
     // ราคาต่อวัน (บาท)
     private double pricePerDay;
     
+    // ปฏิทินวันที่ถูกจองแบบ bitmap (ดูแลโดย BookingSystem ภายใต้ lock ของบ้านหลังนี้)
+    private final OccupancyBitmap occupancy;
+    
     /**
      * Constructor สำหรับสร้างบ้านพัก
      * @param houseNumber หมายเลขบ้าน (เช่น 1, 2, 3, ...)
@@ -21,6 +24,9 @@ public class House {
         this.houseNumber = houseNumber;
         this.pricePerDay = pricePerDay;
         this.isAvailable = true; // เริ่มต้นบ้านว่างทั้งหมด
+        
+        // ปฏิทินเริ่มครอบคลุมตั้งแต่วันนี้เป็นต้นไป
+        this.occupancy = new OccupancyBitmap(BookingSystem.currentEpochDay());
     }
     
     // === Getters - เมธอดสำหรับดึงข้อมูล ===
@@ -34,8 +40,9 @@ public class House {
     }
     
     /**
-     * ตรวจสอบสถานะว่างของบ้าน
-     * @return true ถ้าบ้านว่าง, false ถ้าบ้านไม่ว่าง
+     * ตรวจสอบว่าบ้านเปิดให้เช่าอยู่หรือไม่ (ปิดเช่น ระหว่างซ่อมบำรุง)
+     * การจองไม่เปลี่ยนค่านี้ วันว่างของบ้านดูจาก BookingSystem.isHouseAvailableForDates
+     * @return true ถ้าเปิดให้เช่า, false ถ้าปิด
      */
     public boolean isAvailable() {
         return isAvailable;
@@ -49,11 +56,19 @@ public class House {
         return pricePerDay;
     }
     
+    /**
+     * ดึงปฏิทินวันที่ถูกจองแบบ bitmap
+     * @return OccupancyBitmap ของบ้านหลังนี้
+     */
+    public OccupancyBitmap getOccupancy() {
+        return occupancy;
+    }
+    
     // === Setters - เมธอดสำหรับตั้งค่าข้อมูล ===
     
     /**
-     * ตั้งค่าสถานะว่างของบ้าน
-     * @param available true = บ้านว่าง, false = บ้านไม่ว่าง
+     * ตั้งค่าสถานะเปิดให้เช่าของบ้าน
+     * @param available true = เปิดให้เช่า, false = ปิด (จองไม่ได้ทุกวัน)
      */
     public void setAvailable(boolean available) {
         isAvailable = available;
@@ -65,7 +80,7 @@ public class House {
      */
     public void displayStatus() {
         // แปลงสถานะเป็นภาษาไทย
-        String status = isAvailable ? "ว่าง" : "ไม่ว่าง";
+        String status = isAvailable ? "เปิดให้เช่า" : "ปิดให้เช่า";
         
         // แสดงข้อมูลในรูปแบบที่อ่านง่าย
         System.out.printf("บ้านหมายเลข %d - สถานะ: %s - ราคา: %.2f บาท/วัน\n", 
@@ -79,6 +94,6 @@ public class House {
     @Override
     public String toString() {
         return String.format("บ้านหมายเลข %d [%s]", 
-                           houseNumber, isAvailable ? "ว่าง" : "ไม่ว่าง");
+                           houseNumber, isAvailable ? "เปิดให้เช่า" : "ปิดให้เช่า");
     }
 }
@@ -0,0 +1,184 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * คลาสสำหรับเก็บดัชนีช่วงวันที่ถูกจองของบ้านแต่ละหลัง (Interval Index)
+ * เก็บการจองที่ยืนยันแล้วเรียงตามวันที่เข้าพัก ทำให้ตรวจสอบการทับซ้อนได้ใน O(log n)
+ * การจองที่รอชำระเงิน (hold) อยู่ในดัชนีด้วย จึงกันวันที่ไว้ไม่ให้ลูกค้าอื่นจองซ้ำ
+ *
+ * ช่วงวันที่ในดัชนีจะไม่ทับซ้อนกันเสมอ (นับวันเข้าพักและวันคืนบ้านรวมด้วย)
+ * จึงมีการจองเพียงรายการเดียวที่อาจทับซ้อนกับช่วงวันที่ที่ถาม
+ *
+ * ช่วงวันว่างระหว่างการจองอยู่ใน GapIndex ด้วย จึงหาช่วงว่างแรกที่ยาวพอได้ใน O(log n)
+ *
+ * ดัชนีไม่ได้ synchronized ในตัวเอง ผู้เรียกต้องถือ lock ของบ้านหลังนี้ (getLock())
+ * ขณะอ่านหรือแก้ไข บ้านต่างหลังกันจึงไม่แย่ง lock กัน
+ */
+public class HouseCalendar {
+    // การจองที่ยืนยันแล้วและที่กันวันไว้ เรียงตามวันที่เข้าพัก
+    private TreeMap<LocalDate, Booking> bookingsByCheckIn;
+
+    // ช่วงวันว่างระหว่างการจองในดัชนี (ปรับทุกครั้งที่เพิ่มหรือลบการจอง)
+    private final GapIndex gaps;
+
+    // การจองในดัชนีที่ยังรอชำระเงิน (hold)
+    private final HashSet<Booking> holds;
+
+    // lock ของบ้านหลังนี้ ใช้ทำให้การตรวจสอบและยืนยันการจองเป็น atomic
+    private final ReentrantLock lock;
+
+    /**
+     * Constructor สำหรับสร้างดัชนีว่างของบ้านหนึ่งหลัง
+     */
+    public HouseCalendar() {
+        this.bookingsByCheckIn = new TreeMap<>();
+        this.gaps = new GapIndex();
+        this.holds = new HashSet<>();
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * ดึง lock ของบ้านหลังนี้
+     * @return lock ที่ต้องถือขณะอ่านหรือแก้ไขดัชนี
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * ตรวจสอบว่าช่วงวันที่ต้องการไม่ทับซ้อนกับการจองในดัชนี
+     *
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return true ถ้าไม่มีการจองทับซ้อน, false ถ้ามี
+     */
+    public boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+        // การจองที่เข้าพักล่าสุดไม่เกิน checkOut คือรายการเดียวที่อาจทับซ้อน
+        Map.Entry<LocalDate, Booking> candidate = bookingsByCheckIn.floorEntry(checkOut);
+        return candidate == null || candidate.getValue().getCheckOutDate().isBefore(checkIn);
+    }
+
+    /**
+     * เพิ่มการจองเข้าดัชนี
+     *
+     * @param booking การจองที่ยืนยันแล้ว
+     * @return true ถ้าเพิ่มสำเร็จ, false ถ้าวันที่ทับซ้อนกับการจองเดิม
+     */
+    public boolean add(Booking booking) {
+        if (!isFree(booking.getCheckInDate(), booking.getCheckOutDate())) {
+            return false;
+        }
+        gaps.occupy(booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        bookingsByCheckIn.put(booking.getCheckInDate(), booking);
+        return true;
+    }
+
+    /**
+     * ลบการจองออกจากดัชนี
+     *
+     * @param booking การจองที่ต้องการลบ
+     * @return true ถ้าพบและลบแล้ว, false ถ้าไม่มีการจองนี้ในดัชนี
+     */
+    public boolean remove(Booking booking) {
+        holds.remove(booking);
+        if (!bookingsByCheckIn.remove(booking.getCheckInDate(), booking)) {
+            return false;
+        }
+        gaps.release(booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        return true;
+    }
+
+    /**
+     * หาวันที่เข้าพักที่เร็วที่สุดซึ่งพักต่อเนื่องได้ตามจำนวนคืน (O(log n) จาก GapIndex)
+     * พัก n คืนใช้วันที่เข้าพักถึงวันคืนบ้าน n + 1 วัน (ต้องว่างทุกวัน เหมือน isFree)
+     *
+     * @param from วันที่เข้าพักที่เร็วที่สุดที่ยอมรับได้
+     * @param nights จำนวนคืนที่ต้องการพัก (อย่างน้อย 1)
+     * @return วันที่เข้าพัก, หรือ null ถ้าไม่มีช่วงว่างที่ยาวพอ
+     */
+    public LocalDate earliestFree(LocalDate from, int nights) {
+        long day = gaps.earliestFit(from.toEpochDay(), nights + 1L);
+        return day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * แทน object ของการจองในดัชนีด้วย object ที่เท่ากัน (หมายเลขการจองเดียวกัน)
+     * ใช้เก็บ flyweight จาก BookingStore แทน Booking ตัวเต็มหลังยืนยันการจอง
+     *
+     * @param booking การจองที่มีวันเข้าพักและหมายเลขเดียวกับการจองในดัชนี
+     */
+    public void replace(Booking booking) {
+        bookingsByCheckIn.computeIfPresent(booking.getCheckInDate(), 
+            (checkIn, existing) -> existing.equals(booking) ? booking : existing);
+    }
+
+    /**
+     * เพิ่มการจองที่รอชำระเงินเข้าดัชนี เพื่อกันวันที่ไว้
+     *
+     * @param booking การจองที่ยังไม่ชำระเงิน
+     * @return true ถ้ากันวันสำเร็จ, false ถ้าวันที่ทับซ้อนกับการจองเดิม
+     */
+    public boolean addHold(Booking booking) {
+        if (!add(booking)) {
+            return false;
+        }
+        holds.add(booking);
+        return true;
+    }
+
+    /**
+     * ตรวจสอบว่าการจองนี้ยังกันวันไว้อยู่ (ยังไม่หมดเวลาและยังไม่ยืนยัน)
+     *
+     * @param booking การจองที่ต้องการตรวจสอบ
+     * @return true ถ้ายังเป็น hold อยู่ในดัชนี
+     */
+    public boolean isHeld(Booking booking) {
+        return holds.contains(booking);
+    }
+
+    /**
+     * เปลี่ยน hold เป็นการจองที่ยืนยันแล้ว (วันที่ยังอยู่ในดัชนีเหมือนเดิม)
+     *
+     * @param booking การจองที่ชำระเงินแล้ว
+     * @return true ถ้าการจองนี้เป็น hold อยู่, false ถ้าไม่ใช่ (เช่น หมดเวลาไปแล้ว)
+     */
+    public boolean confirmHold(Booking booking) {
+        return holds.remove(booking);
+    }
+
+    /**
+     * ดึงการจองทั้งหมดที่มีวันใดวันหนึ่งอยู่ในช่วงวันที่ที่กำหนด
+     *
+     * @param from วันแรกของช่วง
+     * @param to วันสุดท้ายของช่วง (นับรวม)
+     * @return List ของการจองที่ทับซ้อนกับช่วง เรียงตามวันที่เข้าพัก
+     */
+    public List<Booking> bookingsBetween(LocalDate from, LocalDate to) {
+        // เริ่มจากการจองที่อาจคร่อมวันแรกของช่วงอยู่
+        LocalDate start = bookingsByCheckIn.floorKey(from);
+        if (start == null) {
+            start = from;
+        }
+
+        List<Booking> result = new ArrayList<>();
+        for (Booking booking : bookingsByCheckIn.subMap(start, true, to, true).values()) {
+            if (!booking.getCheckOutDate().isBefore(from)) {
+                result.add(booking);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * ดึงจำนวนการจองในดัชนี
+     * @return จำนวนการจองของบ้านหลังนี้
+     */
+    public int size() {
+        return bookingsByCheckIn.size();
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * คลาสทะเบียนบ้านพักทั้งหมดในระบบ
+ * ค้นหาบ้านจากหมายเลขได้ใน O(1) ด้วย HashMap และโหลดรายการบ้านจากไฟล์ catalog
+ *
+ * รูปแบบไฟล์ catalog: หนึ่งบรรทัดต่อหนึ่งหลัง "หมายเลขบ้าน,ราคาต่อวัน"
+ * บรรทัดว่างและบรรทัดที่ขึ้นต้นด้วย # จะถูกข้าม
+ *
+ * เพิ่มบ้านได้ขณะระบบทำงาน (เช่น นำเข้าจาก CSV): ค้นหาได้จากทุก thread โดยไม่ต้อง lock
+ * และ getAll() คืนรายการที่ไม่เปลี่ยนแปลง (สร้างรายการใหม่ทุกครั้งที่เพิ่มบ้าน)
+ * การเพิ่มบ้านหลายหลังควรใช้ addAll ซึ่งสร้างรายการใหม่ครั้งเดียวต่อชุด (add ทีละหลังคัดลอกรายการทุกครั้ง)
+ */
+public class HouseRegistry {
+    // ดัชนีบ้านจากหมายเลขบ้าน
+    private final Map<Integer, House> housesByNumber;
+
+    // รายการบ้านเรียงตามลำดับในไฟล์ catalog (ไม่เปลี่ยนแปลง ถูกแทนทั้งรายการตอนเพิ่มบ้าน)
+    private volatile List<House> houses;
+
+    /**
+     * Constructor สำหรับสร้างทะเบียนบ้านว่าง
+     */
+    public HouseRegistry() {
+        this.housesByNumber = new ConcurrentHashMap<>();
+        this.houses = Collections.emptyList();
+    }
+
+    /**
+     * โหลดทะเบียนบ้านจากไฟล์ catalog
+     *
+     * @param catalogFile ไฟล์ catalog ของบ้านพัก
+     * @return ทะเบียนบ้านที่โหลดแล้ว
+     * @throws IOException ถ้าอ่านไฟล์ไม่ได้
+     * @throws IllegalArgumentException ถ้ารูปแบบบรรทัดไม่ถูกต้องหรือหมายเลขบ้านซ้ำ
+     */
+    public static HouseRegistry load(Path catalogFile) throws IOException {
+        List<House> loaded = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(catalogFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                // ข้ามบรรทัดว่างและบรรทัดความเห็น
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException(
+                        catalogFile + " บรรทัด " + lineNumber + ": ต้องมี 2 ช่อง (หมายเลขบ้าน,ราคาต่อวัน)");
+                }
+
+                try {
+                    int houseNumber = Integer.parseInt(fields[0].trim());
+                    double pricePerDay = Double.parseDouble(fields[1].trim());
+                    loaded.add(new House(houseNumber, pricePerDay));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(
+                        catalogFile + " บรรทัด " + lineNumber + ": ตัวเลขไม่ถูกต้อง", e);
+                }
+            }
+        }
+
+        HouseRegistry registry = new HouseRegistry();
+        registry.addAll(loaded);
+        return registry;
+    }
+
+    /**
+     * เพิ่มบ้านเข้าทะเบียน
+     *
+     * @param house บ้านที่ต้องการเพิ่ม
+     * @throws IllegalArgumentException ถ้ามีบ้านหมายเลขนี้อยู่แล้ว
+     */
+    public void add(House house) {
+        addAll(Collections.singletonList(house));
+    }
+
+    /**
+     * เพิ่มบ้านหลายหลังเข้าทะเบียน (คัดลอกรายการเดิมครั้งเดียวต่อชุด)
+     * ถ้ามีหมายเลขซ้ำ ไม่มีบ้านหลังใดของชุดถูกเพิ่ม
+     *
+     * @param added บ้านที่ต้องการเพิ่ม ตามลำดับ
+     * @throws IllegalArgumentException ถ้ามีบ้านหมายเลขเดียวกันในทะเบียนหรือในชุดเดียวกัน
+     */
+    public synchronized void addAll(Collection<House> added) {
+        Set<Integer> numbers = new HashSet<>();
+        for (House house : added) {
+            if (housesByNumber.containsKey(house.getHouseNumber()) || !numbers.add(house.getHouseNumber())) {
+                throw new IllegalArgumentException("บ้านหมายเลข " + house.getHouseNumber() + " ซ้ำ");
+            }
+        }
+        List<House> grown = new ArrayList<>(houses.size() + added.size());
+        grown.addAll(houses);
+        for (House house : added) {
+            housesByNumber.put(house.getHouseNumber(), house);
+            grown.add(house);
+        }
+        houses = Collections.unmodifiableList(grown);
+    }
+
+    /**
+     * เขียนทะเบียนบ้านลงไฟล์ catalog (รูปแบบเดียวกับ load เขียนทับแบบ atomic)
+     *
+     * @param catalogFile ไฟล์ catalog
+     * @throws IOException ถ้าเขียนไฟล์ไม่ได้
+     */
+    public void save(Path catalogFile) throws IOException {
+        Path temp = catalogFile.resolveSibling(catalogFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# รายการบ้านพักทั้งหมด (catalog)");
+            writer.newLine();
+            writer.write("# รูปแบบ: หมายเลขบ้าน,ราคาต่อวัน (บาท)");
+            writer.newLine();
+            for (House house : houses) {
+                writer.write(house.getHouseNumber() + "," + house.getPricePerDay());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, catalogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * ค้นหาบ้านจากหมายเลข (O(1))
+     * @param houseNumber หมายเลขบ้าน
+     * @return object ของ House ถ้าพบ, null ถ้าไม่พบ
+     */
+    public House find(int houseNumber) {
+        return housesByNumber.get(houseNumber);
+    }
+
+    /**
+     * ดึงรายการบ้านทั้งหมด
+     * @return List ของบ้านตามลำดับในไฟล์ catalog (แก้ไขไม่ได้)
+     */
+    public List<House> getAll() {
+        return houses;
+    }
+
+    /**
+     * ดึงจำนวนบ้านในทะเบียน
+     * @return จำนวนบ้าน
+     */
+    public int size() {
+        return houses.size();
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * คลาส histogram ของเวลาที่ใช้ (latency) แบบ log-linear
+ * แบ่งช่วงเวลาเป็นกำลังของ 2 และแบ่งแต่ละช่วงย่อยอีก 8 ช่อง
+ * ค่าเปอร์เซ็นไทล์จึงคลาดเคลื่อนไม่เกินประมาณ 12.5% โดยใช้หน่วยความจำคงที่
+ *
+ * การบันทึกเป็นการบวกเลขแบบ atomic ไม่มี lock เรียกพร้อมกันจากหลาย thread ได้
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+    // จำนวนช่องย่อยต่อช่วงกำลังของ 2 (2^SUB_BITS)
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // จำนวนช่องทั้งหมด (ครอบคลุมค่าได้ถึง Long.MAX_VALUE nanosecond)
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    // จำนวนครั้งในแต่ละช่อง
+    private final AtomicLongArray counts;
+
+    // จำนวนครั้งและผลรวมเวลาทั้งหมด (nanosecond)
+    private final LongAdder total;
+    private final LongAdder sumNanos;
+
+    // เวลาที่มากที่สุด (nanosecond)
+    private final LongAccumulator maxNanos;
+
+    /**
+     * Constructor สำหรับสร้าง histogram ว่าง
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.total = new LongAdder();
+        this.sumNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * บันทึกเวลาที่ใช้หนึ่งครั้ง
+     *
+     * @param nanos เวลาที่ใช้ (nanosecond, ค่าติดลบนับเป็น 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        total.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * บันทึกเวลาตั้งแต่ startNanos (ค่าจาก System.nanoTime) จนถึงตอนนี้
+     *
+     * @param startNanos เวลาเริ่มต้น
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * หาช่องของค่า: ค่าน้อยกว่า 8 ใช้ช่องตรงตัว ค่าอื่นใช้กำลังของ 2 และบิตถัดไป 3 บิต
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * ค่าสูงสุดของช่อง (ใช้เป็นค่าตัวแทนของเปอร์เซ็นไทล์)
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower + width - 1;
+    }
+
+    /**
+     * หาค่าที่เปอร์เซ็นไทล์ที่กำหนด
+     *
+     * @param quantile สัดส่วน 0.0 ถึง 1.0 (เช่น 0.99)
+     * @return เวลา (nanosecond), หรือ 0 ถ้ายังไม่มีข้อมูล
+     */
+    public long percentileNanos(double quantile) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getCount() {
+        return total.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = total.sum();
+        return count == 0 ? 0 : sumNanos.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentileNanos(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentileNanos(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return percentileNanos(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    /**
+     * สรุปเป็นข้อความหนึ่งบรรทัด (หน่วยไมโครวินาที)
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%.1f p99=%.1f p999=%.1f max=%.1f (µs)",
+            getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+}
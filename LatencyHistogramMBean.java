@@ -0,0 +1,11 @@
+/**
+ * ค่าที่ LatencyHistogram เปิดให้อ่านผ่าน JMX (หน่วยไมโครวินาที)
+ */
+public interface LatencyHistogramMBean {
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
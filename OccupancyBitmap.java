@@ -0,0 +1,158 @@
+import java.util.Arrays;
+
+/**
+ * คลาสปฏิทินการเข้าพักแบบ bitmap ของบ้านหนึ่งหลัง
+ * เก็บวันที่ถูกจองเป็นบิตใน long[] (1 บิต = 1 วัน นับแบบ epoch day)
+ * ครอบคลุมช่วงเวลาล่วงหน้าแบบเลื่อนได้ (rolling horizon) เริ่มจาก baseDay
+ *
+ * การตรวจสอบช่วงวันที่จึงเป็นแค่การ AND ทีละ 64 วัน แทนการเปรียบเทียบ LocalDate
+ * วันที่อยู่นอกช่วงที่ครอบคลุมต้องตรวจจาก HouseCalendar แทน (ดู covers())
+ *
+ * ไม่ได้ synchronized ในตัวเอง ผู้เรียกต้องถือ lock ของบ้านหลังนี้ขณะอ่านหรือแก้ไข
+ */
+public class OccupancyBitmap {
+    // จำนวนวันที่ครอบคลุม (ต้องหารด้วย 64 ลงตัว)
+    public static final int HORIZON_DAYS = 1024;
+
+    // epoch day ของบิตแรก (หารด้วย 64 ลงตัวเสมอ)
+    private long baseDay;
+
+    // บิตของแต่ละวัน: 1 = ถูกจอง, 0 = ว่าง
+    private long[] words;
+
+    /**
+     * Constructor สำหรับสร้างปฏิทินว่าง
+     * @param startDay epoch day ที่ต้องการให้ครอบคลุมเป็นวันแรก (ปัดลงให้หาร 64 ลงตัว)
+     */
+    public OccupancyBitmap(long startDay) {
+        this.baseDay = alignDown(startDay);
+        this.words = new long[HORIZON_DAYS / 64];
+    }
+
+    /**
+     * ปัดวันลงให้หารด้วย 64 ลงตัว
+     */
+    private static long alignDown(long day) {
+        return Math.floorDiv(day, 64) * 64;
+    }
+
+    /**
+     * ดึง epoch day แรกที่ครอบคลุม
+     * @return epoch day ของบิตแรก
+     */
+    public long getBaseDay() {
+        return baseDay;
+    }
+
+    /**
+     * ดึง epoch day สุดท้ายที่ครอบคลุม
+     * @return epoch day ของบิตสุดท้าย
+     */
+    public long getLastDay() {
+        return baseDay + HORIZON_DAYS - 1;
+    }
+
+    /**
+     * ตรวจสอบว่าช่วงวันที่อยู่ในช่วงที่ bitmap ครอบคลุมทั้งหมดหรือไม่
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day สุดท้าย (นับรวม)
+     * @return true ถ้าครอบคลุมทั้งช่วง
+     */
+    public boolean covers(long fromDay, long toDay) {
+        return fromDay >= baseDay && toDay <= getLastDay();
+    }
+
+    /**
+     * ตรวจสอบว่าทุกวันในช่วงว่าง (ต้องเป็นช่วงที่ covers() เป็น true)
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day สุดท้าย (นับรวม)
+     * @return true ถ้าไม่มีวันใดถูกจอง
+     */
+    public boolean isFree(long fromDay, long toDay) {
+        int first = (int) ((fromDay - baseDay) >>> 6);
+        int last = (int) ((toDay - baseDay) >>> 6);
+        for (int i = first; i <= last; i++) {
+            if ((words[i] & wordMask(i, first, last, fromDay, toDay)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ทำเครื่องหมายว่าช่วงวันที่ถูกจอง (ส่วนที่อยู่นอกช่วงครอบคลุมจะถูกข้าม)
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day สุดท้าย (นับรวม)
+     */
+    public void mark(long fromDay, long toDay) {
+        update(fromDay, toDay, true);
+    }
+
+    /**
+     * ล้างเครื่องหมายการจองของช่วงวันที่ (ส่วนที่อยู่นอกช่วงครอบคลุมจะถูกข้าม)
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day สุดท้าย (นับรวม)
+     */
+    public void clear(long fromDay, long toDay) {
+        update(fromDay, toDay, false);
+    }
+
+    /**
+     * ตั้งหรือล้างบิตของช่วงวันที่ โดยตัดให้อยู่ในช่วงครอบคลุมก่อน
+     */
+    private void update(long fromDay, long toDay, boolean booked) {
+        long from = Math.max(fromDay, baseDay);
+        long to = Math.min(toDay, getLastDay());
+        if (from > to) {
+            return; // ไม่อยู่ในช่วงครอบคลุมเลย
+        }
+
+        int first = (int) ((from - baseDay) >>> 6);
+        int last = (int) ((to - baseDay) >>> 6);
+        for (int i = first; i <= last; i++) {
+            long mask = wordMask(i, first, last, from, to);
+            words[i] = booked ? (words[i] | mask) : (words[i] & ~mask);
+        }
+    }
+
+    /**
+     * สร้าง mask ของบิตในคำที่ i ที่อยู่ในช่วง [fromDay, toDay]
+     */
+    private long wordMask(int i, int first, int last, long fromDay, long toDay) {
+        long mask = -1L;
+        if (i == first) {
+            mask &= -1L << ((fromDay - baseDay) & 63);
+        }
+        if (i == last) {
+            mask &= -1L >>> (63 - ((toDay - baseDay) & 63));
+        }
+        return mask;
+    }
+
+    /**
+     * เลื่อนช่วงครอบคลุมไปข้างหน้าให้เริ่มที่ newStartDay (ปัดลงให้หาร 64 ลงตัว)
+     * วันที่เพิ่งเข้ามาท้ายช่วงจะว่างทั้งหมด ผู้เรียกต้อง mark การจองของช่วงนั้นใหม่
+     *
+     * @param newStartDay epoch day ที่ต้องการให้เป็นวันแรก
+     * @return epoch day แรกที่เพิ่งเข้ามาในช่วงครอบคลุม, หรือ -1 ถ้าไม่ได้เลื่อน
+     */
+    public long rollTo(long newStartDay) {
+        long newBase = alignDown(newStartDay);
+        if (newBase <= baseDay) {
+            return -1; // ไม่ต้องเลื่อน
+        }
+
+        long oldLastDay = getLastDay();
+        int shift = (int) Math.min((newBase - baseDay) >>> 6, words.length);
+        System.arraycopy(words, shift, words, 0, words.length - shift);
+        Arrays.fill(words, words.length - shift, words.length, 0L);
+        baseDay = newBase;
+
+        // วันแรกที่ยังไม่มีข้อมูล คือวันถัดจากช่วงเดิม (หรือวันแรกของช่วงใหม่ถ้าเลื่อนเกินทั้งช่วง)
+        return Math.max(oldLastDay + 1, baseDay);
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ช่องทางอนุมัติการชำระเงิน (เช่น ผู้ให้บริการรับชำระเงินภายนอก)
+ * การอนุมัติอาจใช้เวลานาน จึงคืนผลเป็น CompletableFuture แทนการรอใน thread ของผู้เรียก
+ */
+public interface PaymentGateway {
+
+    /**
+     * ขออนุมัติการชำระเงินของการจอง
+     *
+     * @param booking การจองที่ต้องการชำระเงิน
+     * @param amount จำนวนเงินที่ลูกค้าชำระ
+     * @return future ที่ได้ true ถ้าอนุมัติ, false ถ้าปฏิเสธ
+     *         (จบแบบ exceptionally ถ้าติดต่อ gateway ไม่ได้)
+     */
+    CompletableFuture<Boolean> authorize(Booking booking, double amount);
+
+    /**
+     * ยกเลิกการอนุมัติที่ได้มาแล้ว (คืนวงเงินที่กันไว้ให้ลูกค้า)
+     * ใช้เมื่อการชำระแบบกลุ่มได้รับอนุมัติเพียงบางส่วน
+     * ค่าเริ่มต้นไม่ทำอะไร สำหรับ gateway ที่การอนุมัติไม่ได้กันวงเงินไว้
+     *
+     * @param booking การจองที่เคยได้รับอนุมัติ
+     * @param amount จำนวนเงินที่เคยได้รับอนุมัติ
+     * @return future ที่จบเมื่อยกเลิกเสร็จ (จบแบบ exceptionally ถ้าติดต่อ gateway ไม่ได้)
+     */
+    default CompletableFuture<Void> voidAuthorization(Booking booking, double amount) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * ขออนุมัติการชำระเงินครั้งเดียวสำหรับการจองแบบกลุ่ม (หลายบ้าน ยอดรวมกัน)
+     * ค่าเริ่มต้นแบ่งยอดรวมตามสัดส่วนราคาของแต่ละการจอง (เป็นสตางค์ ปัดเศษแบบสะสม
+     * ผลรวมเท่ายอดรวมพอดี) แล้วขออนุมัติทีละการจองผ่าน authorize
+     * กลุ่มได้รับอนุมัติเมื่อทุกการจองได้รับอนุมัติ ยอดรวมที่ถูกต้องจึงได้ราคาของแต่ละการจองพอดี
+     * ถ้าบางส่วนถูกปฏิเสธหรือผิดพลาด ส่วนที่อนุมัติไปแล้วจะถูกยกเลิกผ่าน voidAuthorization
+     * ก่อนคืนผล (ปฏิเสธ หรือ exceptionally ตามข้อผิดพลาดแรก)
+     *
+     * @param bookings การจองทั้งหมดของกลุ่ม
+     * @param amount จำนวนเงินรวมที่ลูกค้าชำระ
+     * @return future ที่ได้ true ถ้าอนุมัติ, false ถ้าปฏิเสธ
+     *         (จบแบบ exceptionally ถ้าติดต่อ gateway ไม่ได้)
+     */
+    default CompletableFuture<Boolean> authorizeGroup(List<Booking> bookings, double amount) {
+        long totalSatang = 0;
+        for (Booking booking : bookings) {
+            totalSatang += Math.round(booking.getTotalPrice() * 100);
+        }
+        long amountSatang = Math.round(amount * 100);
+
+        double[] shares = new double[bookings.size()];
+        List<CompletableFuture<Boolean>> parts = new ArrayList<>(bookings.size());
+        long priceSoFar = 0;
+        long allocated = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            priceSoFar += Math.round(booking.getTotalPrice() * 100);
+            // ยอดสะสมถึงการจองนี้ การจองสุดท้ายได้ส่วนที่เหลือทั้งหมด
+            long upTo;
+            if (i == bookings.size() - 1) {
+                upTo = amountSatang;
+            } else if (totalSatang == 0) {
+                upTo = 0;
+            } else {
+                upTo = Math.round((double) amountSatang * priceSoFar / totalSatang);
+            }
+            shares[i] = (upTo - allocated) / 100.0;
+            CompletableFuture<Boolean> part;
+            try {
+                part = authorize(booking, shares[i]);
+            } catch (RuntimeException e) {
+                part = CompletableFuture.failedFuture(e);
+            }
+            parts.add(part);
+            allocated = upTo;
+        }
+
+        // รอทุกส่วนจบ (รวมส่วนที่ผิดพลาด) ก่อนตัดสิน เพื่อรู้ว่าต้องยกเลิกส่วนใดบ้าง
+        CompletableFuture<?>[] settled = new CompletableFuture<?>[parts.size()];
+        for (int i = 0; i < parts.size(); i++) {
+            settled[i] = parts.get(i).handle((approved, error) -> null);
+        }
+        return CompletableFuture.allOf(settled).thenCompose(ignored -> {
+            Throwable failure = null;
+            boolean allApproved = true;
+            for (CompletableFuture<Boolean> part : parts) {
+                if (part.isCompletedExceptionally()) {
+                    if (failure == null) {
+                        failure = part.handle((approved, error) -> error).join();
+                    }
+                    allApproved = false;
+                } else if (!part.join()) {
+                    allApproved = false;
+                }
+            }
+            if (allApproved) {
+                return CompletableFuture.completedFuture(true);
+            }
+
+            List<CompletableFuture<Void>> voids = new ArrayList<>();
+            for (int i = 0; i < parts.size(); i++) {
+                CompletableFuture<Boolean> part = parts.get(i);
+                if (!part.isCompletedExceptionally() && part.join()) {
+                    voids.add(voidAuthorization(bookings.get(i), shares[i]));
+                }
+            }
+            Throwable partFailure = failure;
+            return CompletableFuture.allOf(voids.toArray(new CompletableFuture<?>[0]))
+                .thenApply(voided -> {
+                    if (partFailure != null) {
+                        throw partFailure instanceof CompletionException
+                            ? (CompletionException) partFailure
+                            : new CompletionException(partFailure);
+                    }
+                    return false;
+                });
+        });
+    }
+}
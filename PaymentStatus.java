@@ -0,0 +1,16 @@
+/**
+ * ผลของการชำระเงินผ่าน BookingSystem.processPaymentAsync
+ */
+public enum PaymentStatus {
+    // ชำระเงินและยืนยันการจองแล้ว (บันทึกลง journal แล้วถ้าเปิดไว้)
+    CONFIRMED,
+
+    // gateway ปฏิเสธการชำระเงิน (เช่น จำนวนเงินไม่ถูกต้อง)
+    DECLINED,
+
+    // hold หมดเวลาและบ้านถูกจองในช่วงเวลานี้ไปแล้ว
+    UNAVAILABLE,
+
+    // ติดต่อ gateway ไม่ได้ หรือบันทึกการจองลง journal ไม่สำเร็จ
+    FAILED
+}
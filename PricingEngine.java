@@ -0,0 +1,361 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * คลาสคำนวณราคาการพัก ตามราคาปกติของบ้าน อัตราช่วงฤดูกาล อัตราวันหยุดสุดสัปดาห์ และวันหยุดนักขัตฤกษ์
+ *
+ * ราคาถูกคำนวณล่วงหน้าเป็นปฏิทินผลรวมสะสม (RateCalendar) ราคารวมของการพักจึงหาได้ใน O(1)
+ * ไม่ว่าจะพักกี่คืน หรือค้นหาราคาของบ้านหลายพันหลัง
+ * - บ้านที่ใช้อัตราส่วนกลาง (ฤดูกาล/สุดสัปดาห์/วันหยุด คูณราคาปกติ) ใช้ปฏิทินตัวคูณร่วมกันหนึ่งชุด
+ * - บ้านที่มีราคาเฉพาะ (setHouseRate) มีปฏิทินราคาของตัวเอง
+ * เมื่อเปลี่ยนอัตรา จะคิดราคาใหม่เฉพาะวันในช่วงที่เปลี่ยน (ดู RateCalendar.rebuild)
+ *
+ * ปฏิทินครอบคลุม HORIZON_DAYS วันนับจากวันที่สร้าง การพักนอกช่วงนี้ถูกคิดราคาทีละคืนแทน (ช้ากว่าแต่ถูกต้อง)
+ *
+ * ราคาต่อคืน: คืนที่อยู่ในหลายช่วงฤดูกาลใช้ช่วงที่เพิ่มล่าสุด
+ * คืนวันหยุดนักขัตฤกษ์ใช้ตัวคูณของวันหยุดแทนตัวคูณสุดสัปดาห์ (คืนวันศุกร์และวันเสาร์)
+ * แล้วคูณกับตัวคูณฤดูกาล
+ *
+ * รูปแบบไฟล์อัตรา (loadRules): หนึ่งกฎต่อบรรทัด บรรทัดว่างและบรรทัดที่ขึ้นต้นด้วย # จะถูกข้าม
+ * <pre>
+ * weekend,1.2                                  ตัวคูณคืนวันศุกร์และวันเสาร์
+ * season,01/12/2026,31/01/2027,1.5             ตัวคูณของช่วงวันที่ (นับรวมวันสุดท้าย)
+ * holiday,31/12/2026,2.0                       ตัวคูณของวันหยุด
+ * house,5,20/12/2026,05/01/2027,3500           ราคาต่อคืนเฉพาะบ้านหลังนี้ (บาท)
+ * </pre>
+ *
+ * อ่านราคา (quote) ได้จากทุก thread โดยไม่ต้อง lock การเปลี่ยนอัตราทำทีละ thread (synchronized)
+ */
+public class PricingEngine {
+    // จำนวนวันที่ปฏิทินราคาครอบคลุม (เท่ากับช่วงของ OccupancyBitmap)
+    public static final int HORIZON_DAYS = OccupancyBitmap.HORIZON_DAYS;
+
+    // ตัวคูณเก็บเป็นจำนวนเต็มหน่วย 1/10000 (1.0 = 10000)
+    private static final long FACTOR_SCALE = 10_000;
+
+    // epoch day แรกของปฏิทิน
+    private final long baseDay;
+
+    // ตัวคูณคืนวันศุกร์และวันเสาร์
+    private long weekendFactor;
+
+    // ช่วงฤดูกาล (ช่วงที่เพิ่มทีหลังมีผลเหนือช่วงก่อน)
+    private final List<Rate> seasons;
+
+    // ตัวคูณของวันหยุด (key = epoch day)
+    private final Map<Long, Long> holidays;
+
+    // ตัวคูณต่อคืนของบ้านที่ใช้อัตราส่วนกลาง (หน่วย 1/10000)
+    private final RateCalendar factors;
+
+    // ราคาเฉพาะบ้าน (key = หมายเลขบ้าน)
+    private final Map<Integer, HouseRates> houseRates;
+
+    /**
+     * ช่วงวันที่พร้อมค่า (ตัวคูณ หรือราคาเป็นสตางค์)
+     */
+    private static final class Rate {
+        final long fromDay;
+        final long toDay;
+        final long value;
+
+        Rate(long fromDay, long toDay, long value) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.value = value;
+        }
+
+        boolean contains(long day) {
+            return day >= fromDay && day <= toDay;
+        }
+    }
+
+    /**
+     * ราคาเฉพาะของบ้านหนึ่งหลัง พร้อมปฏิทินราคา (สตางค์ต่อคืน)
+     */
+    private static final class HouseRates {
+        final House house;
+        final List<Rate> rates = new ArrayList<>();
+        RateCalendar calendar;
+
+        HouseRates(House house) {
+            this.house = house;
+        }
+    }
+
+    /**
+     * Constructor สำหรับสร้างตัวคำนวณราคา (ยังไม่มีอัตราพิเศษ: ทุกคืนราคาปกติของบ้าน)
+     *
+     * @param baseDay epoch day แรกที่ปฏิทินครอบคลุม (ปกติคือวันนี้)
+     */
+    public PricingEngine(long baseDay) {
+        this.baseDay = baseDay;
+        this.weekendFactor = FACTOR_SCALE;
+        this.seasons = new ArrayList<>();
+        this.holidays = new HashMap<>();
+        this.houseRates = new ConcurrentHashMap<>();
+        this.factors = new RateCalendar(baseDay, HORIZON_DAYS, day -> FACTOR_SCALE);
+    }
+
+    /**
+     * คำนวณราคารวมของการพัก (O(1) ถ้าอยู่ในช่วงของปฏิทิน)
+     * คืนที่คิดราคาคือวันเข้าพักถึงวันก่อนวันคืนบ้าน (อย่างน้อย 1 คืน เหมือน Booking.getNumberOfDays)
+     *
+     * @param house บ้านที่ต้องการ
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return ราคารวม (บาท)
+     */
+    public double quote(House house, LocalDate checkIn, LocalDate checkOut) {
+        long fromDay = checkIn.toEpochDay();
+        long toDay = Math.max(checkOut.toEpochDay(), fromDay + 1);
+
+        HouseRates own = houseRates.get(house.getHouseNumber());
+        long satang;
+        if (own != null) {
+            RateCalendar calendar = own.calendar;
+            satang = calendar.covers(fromDay, toDay) ? calendar.sum(fromDay, toDay)
+                                                     : slowHouseTotal(own, fromDay, toDay);
+        } else {
+            long factorSum = factors.covers(fromDay, toDay) ? factors.sum(fromDay, toDay)
+                                                            : slowFactorTotal(fromDay, toDay);
+            satang = applyFactor(toSatang(house.getPricePerDay()), factorSum);
+        }
+        return satang / 100.0;
+    }
+
+    /**
+     * กำหนดตัวคูณคืนวันศุกร์และวันเสาร์ (คิดราคาใหม่ทั้งปฏิทิน เพราะมีผลทุกสัปดาห์)
+     *
+     * @param multiplier ตัวคูณ (เช่น 1.2 = แพงขึ้น 20%)
+     */
+    public synchronized void setWeekendMultiplier(double multiplier) {
+        weekendFactor = toFactor(multiplier);
+        rebuild(baseDay, baseDay + HORIZON_DAYS - 1);
+    }
+
+    /**
+     * เพิ่มช่วงฤดูกาล (คิดราคาใหม่เฉพาะวันในช่วง)
+     *
+     * @param from วันแรกของช่วง
+     * @param to วันสุดท้ายของช่วง (นับรวม)
+     * @param multiplier ตัวคูณของช่วงนี้
+     */
+    public synchronized void addSeason(LocalDate from, LocalDate to, double multiplier) {
+        checkRange(from, to);
+        seasons.add(new Rate(from.toEpochDay(), to.toEpochDay(), toFactor(multiplier)));
+        rebuild(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * กำหนดวันหยุด (คิดราคาใหม่เฉพาะวันนั้น)
+     *
+     * @param date วันหยุด
+     * @param multiplier ตัวคูณของคืนวันหยุด
+     */
+    public synchronized void addHoliday(LocalDate date, double multiplier) {
+        holidays.put(date.toEpochDay(), toFactor(multiplier));
+        rebuild(date.toEpochDay(), date.toEpochDay());
+    }
+
+    /**
+     * กำหนดราคาต่อคืนเฉพาะบ้านหนึ่งหลังในช่วงวันที่ (ไม่ใช้ตัวคูณส่วนกลางในช่วงนี้)
+     * บ้านที่มีราคาเฉพาะจะได้ปฏิทินราคาของตัวเอง (สร้างครั้งแรกทั้งปฏิทิน หลังจากนั้นคิดใหม่เฉพาะช่วง)
+     *
+     * @param house บ้านที่ต้องการ
+     * @param from วันแรกของช่วง
+     * @param to วันสุดท้ายของช่วง (นับรวม)
+     * @param pricePerNight ราคาต่อคืน (บาท)
+     */
+    public synchronized void setHouseRate(House house, LocalDate from, LocalDate to, double pricePerNight) {
+        checkRange(from, to);
+        if (pricePerNight < 0) {
+            throw new IllegalArgumentException("ราคาต้องไม่ติดลบ");
+        }
+        HouseRates own = houseRates.get(house.getHouseNumber());
+        if (own == null) {
+            own = new HouseRates(house);
+            own.rates.add(new Rate(from.toEpochDay(), to.toEpochDay(), toSatang(pricePerNight)));
+            HouseRates created = own;
+            own.calendar = new RateCalendar(baseDay, HORIZON_DAYS, day -> houseRate(created, day));
+            houseRates.put(house.getHouseNumber(), own);
+        } else {
+            own.rates.add(new Rate(from.toEpochDay(), to.toEpochDay(), toSatang(pricePerNight)));
+            HouseRates existing = own;
+            own.calendar.rebuild(from.toEpochDay(), to.toEpochDay(), day -> houseRate(existing, day));
+        }
+    }
+
+    /**
+     * โหลดกฎราคาจากไฟล์ (รูปแบบดูที่คำอธิบายคลาส) เพิ่มต่อจากกฎที่มีอยู่
+     *
+     * @param ratesFile ไฟล์อัตราราคา
+     * @param houses ทะเบียนบ้าน (ใช้กับกฎ house)
+     * @throws IOException ถ้าอ่านไฟล์ไม่ได้
+     * @throws IllegalArgumentException ถ้ารูปแบบบรรทัดไม่ถูกต้อง
+     */
+    public void loadRules(Path ratesFile, HouseRegistry houses) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(ratesFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                // ข้ามบรรทัดว่างและบรรทัดความเห็น
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                try {
+                    applyRule(fields, houses);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new IllegalArgumentException(
+                        ratesFile + " บรรทัด " + lineNumber + ": ตัวเลขหรือวันที่ไม่ถูกต้อง", e);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                        ratesFile + " บรรทัด " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * ใช้กฎราคาหนึ่งบรรทัดจากไฟล์
+     */
+    private void applyRule(String[] fields, HouseRegistry houses) {
+        String kind = fields[0].toLowerCase();
+        if (kind.equals("weekend") && fields.length == 2) {
+            setWeekendMultiplier(Double.parseDouble(fields[1]));
+        } else if (kind.equals("season") && fields.length == 4) {
+            addSeason(BookingSystem.parseDate(fields[1]), BookingSystem.parseDate(fields[2]),
+                      Double.parseDouble(fields[3]));
+        } else if (kind.equals("holiday") && fields.length == 3) {
+            addHoliday(BookingSystem.parseDate(fields[1]), Double.parseDouble(fields[2]));
+        } else if (kind.equals("house") && fields.length == 5) {
+            House house = houses.find(Integer.parseInt(fields[1]));
+            if (house == null) {
+                throw new IllegalArgumentException("ไม่พบบ้านหมายเลข " + fields[1]);
+            }
+            setHouseRate(house, BookingSystem.parseDate(fields[2]), BookingSystem.parseDate(fields[3]),
+                         Double.parseDouble(fields[4]));
+        } else {
+            throw new IllegalArgumentException("กฎไม่ถูกต้อง: " + String.join(",", fields));
+        }
+    }
+
+    /**
+     * คิดราคาใหม่ของช่วงวันที่ในทุกปฏิทิน (ต้องถือ lock ของ object นี้)
+     */
+    private void rebuild(long fromDay, long toDay) {
+        factors.rebuild(fromDay, toDay, this::factorOf);
+        for (HouseRates own : houseRates.values()) {
+            own.calendar.rebuild(fromDay, toDay, day -> houseRate(own, day));
+        }
+    }
+
+    /**
+     * ตัวคูณของคืนหนึ่ง (หน่วย 1/10000): ฤดูกาล x (วันหยุด หรือ สุดสัปดาห์)
+     */
+    private long factorOf(long day) {
+        long season = FACTOR_SCALE;
+        for (int i = seasons.size() - 1; i >= 0; i--) {
+            if (seasons.get(i).contains(day)) {
+                season = seasons.get(i).value;
+                break;
+            }
+        }
+        Long holiday = holidays.get(day);
+        long dayFactor = holiday != null ? holiday : (isWeekendNight(day) ? weekendFactor : FACTOR_SCALE);
+        return season * dayFactor / FACTOR_SCALE;
+    }
+
+    /**
+     * ราคาต่อคืนของบ้านที่มีราคาเฉพาะ (สตางค์)
+     */
+    private long houseRate(HouseRates own, long day) {
+        for (int i = own.rates.size() - 1; i >= 0; i--) {
+            if (own.rates.get(i).contains(day)) {
+                return own.rates.get(i).value;
+            }
+        }
+        return applyFactor(toSatang(own.house.getPricePerDay()), factorOf(day));
+    }
+
+    /**
+     * ผลรวมตัวคูณทีละคืน (สำหรับการพักนอกช่วงของปฏิทิน)
+     */
+    private synchronized long slowFactorTotal(long fromDay, long toDay) {
+        long total = 0;
+        for (long day = fromDay; day < toDay; day++) {
+            total += factorOf(day);
+        }
+        return total;
+    }
+
+    /**
+     * ราคารวมทีละคืนของบ้านที่มีราคาเฉพาะ (สำหรับการพักนอกช่วงของปฏิทิน)
+     */
+    private synchronized long slowHouseTotal(HouseRates own, long fromDay, long toDay) {
+        long total = 0;
+        for (long day = fromDay; day < toDay; day++) {
+            total += houseRate(own, day);
+        }
+        return total;
+    }
+
+    /**
+     * คืนวันศุกร์หรือวันเสาร์ (1970-01-01 เป็นวันพฤหัสบดี)
+     */
+    private static boolean isWeekendNight(long day) {
+        int dayOfWeek = (int) Math.floorMod(day + 3, 7L); // 0 = จันทร์ ... 6 = อาทิตย์
+        return dayOfWeek == 4 || dayOfWeek == 5;
+    }
+
+    /**
+     * ราคา (สตางค์) x ผลรวมตัวคูณ ปัดเป็นสตางค์
+     */
+    private static long applyFactor(long satang, long factorSum) {
+        return Math.floorDiv(satang * factorSum + FACTOR_SCALE / 2, FACTOR_SCALE);
+    }
+
+    /**
+     * แปลงตัวคูณเป็นหน่วย 1/10000
+     */
+    private static long toFactor(double multiplier) {
+        if (multiplier < 0) {
+            throw new IllegalArgumentException("ตัวคูณต้องไม่ติดลบ");
+        }
+        return Math.round(multiplier * FACTOR_SCALE);
+    }
+
+    /**
+     * แปลงบาทเป็นสตางค์
+     */
+    private static long toSatang(double baht) {
+        return Math.round(baht * 100);
+    }
+
+    /**
+     * ตรวจสอบว่าวันแรกไม่อยู่หลังวันสุดท้าย
+     */
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("วันสุดท้ายต้องไม่ก่อนวันแรก");
+        }
+    }
+}
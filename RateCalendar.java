@@ -0,0 +1,90 @@
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * คลาสปฏิทินราคาแบบผลรวมสะสม (prefix sum) ของช่วงวันที่คงที่
+ * prefix[i] คือผลรวมราคาของวัน baseDay ถึง baseDay + i - 1
+ * ราคารวมของการพักช่วงใดก็ได้จึงเป็นการลบค่าสองช่อง (O(1)) ไม่ต้องคิดราคาทีละคืน
+ *
+ * หน่วยของราคาเป็นจำนวนเต็ม (long) ตามที่ผู้สร้างกำหนด (ดู PricingEngine) จึงไม่มีความคลาดเคลื่อนสะสม
+ *
+ * อ่านได้จากทุก thread โดยไม่ต้อง lock: การแก้ไขสร้าง array ใหม่แล้วตั้งแบบ volatile (copy-on-write)
+ * ผู้แก้ไขต้องเรียกทีละ thread (PricingEngine ทำภายใต้ lock ของตัวเอง)
+ */
+public class RateCalendar {
+    // epoch day ของวันแรกที่ครอบคลุม
+    private final long baseDay;
+
+    // ผลรวมสะสมของราคา (ยาว days + 1 ช่อง)
+    private volatile long[] prefix;
+
+    /**
+     * Constructor สำหรับสร้างปฏิทินราคาและคำนวณราคาทุกวัน
+     *
+     * @param baseDay epoch day ของวันแรก
+     * @param days จำนวนวันที่ครอบคลุม
+     * @param rateOfDay ราคาของแต่ละวัน (รับ epoch day)
+     */
+    public RateCalendar(long baseDay, int days, LongUnaryOperator rateOfDay) {
+        this.baseDay = baseDay;
+        long[] sums = new long[days + 1];
+        for (int i = 0; i < days; i++) {
+            sums[i + 1] = sums[i] + rateOfDay.applyAsLong(baseDay + i);
+        }
+        this.prefix = sums;
+    }
+
+    /**
+     * ตรวจสอบว่าช่วงวันที่อยู่ในช่วงที่ปฏิทินครอบคลุม
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day หลังวันสุดท้าย (ไม่นับรวม)
+     * @return true ถ้าครอบคลุมทั้งช่วง
+     */
+    public boolean covers(long fromDay, long toDay) {
+        return fromDay >= baseDay && toDay <= baseDay + prefix.length - 1 && fromDay <= toDay;
+    }
+
+    /**
+     * ผลรวมราคาของช่วงวันที่ (O(1)) ต้องอยู่ในช่วงที่ครอบคลุม (ดู covers())
+     *
+     * @param fromDay epoch day แรก
+     * @param toDay epoch day หลังวันสุดท้าย (ไม่นับรวม)
+     * @return ผลรวมราคาของวัน fromDay ถึง toDay - 1
+     */
+    public long sum(long fromDay, long toDay) {
+        long[] sums = prefix;
+        return sums[(int) (toDay - baseDay)] - sums[(int) (fromDay - baseDay)];
+    }
+
+    /**
+     * คำนวณราคาใหม่เฉพาะวันในช่วงที่เปลี่ยน (ส่วนที่อยู่นอกปฏิทินถูกข้าม)
+     * วันหลังช่วงไม่ต้องคิดราคาใหม่ แค่เลื่อนผลรวมสะสมด้วยผลต่างของทั้งช่วง
+     *
+     * @param fromDay epoch day แรกที่ราคาเปลี่ยน
+     * @param toDay epoch day สุดท้ายที่ราคาเปลี่ยน (นับรวม)
+     * @param rateOfDay ราคาใหม่ของแต่ละวัน
+     * @return จำนวนวันที่ถูกคิดราคาใหม่
+     */
+    public int rebuild(long fromDay, long toDay, LongUnaryOperator rateOfDay) {
+        long[] sums = Arrays.copyOf(prefix, prefix.length);
+        int first = (int) Math.max(0, fromDay - baseDay);
+        int last = (int) Math.min(sums.length - 2, toDay - baseDay);
+        if (first > last) {
+            return 0;
+        }
+
+        long oldTotal = sums[last + 1];
+        for (int i = first; i <= last; i++) {
+            sums[i + 1] = sums[i] + rateOfDay.applyAsLong(baseDay + i);
+        }
+        long delta = sums[last + 1] - oldTotal;
+        if (delta != 0) {
+            for (int i = last + 2; i < sums.length; i++) {
+                sums[i] += delta;
+            }
+        }
+        prefix = sums;
+        return last - first + 1;
+    }
+}
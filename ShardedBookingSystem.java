@@ -0,0 +1,595 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * ระบบจองบ้านพักแบบแบ่ง shard: แบ่งบ้านเป็น N กลุ่มตามหมายเลขบ้าน (houseNumber mod N)
+ * แต่ละกลุ่มมี BookingSystem ของตัวเอง และมี thread หนึ่งตัว (actor) ที่รับคำขอจากคิวทีละชุด
+ * คำขอของบ้านคนละ shard จึงทำงานขนานกันโดยไม่แย่ง lock กัน
+ * (ภายใน shard ยังมี lock ต่อบ้าน เพราะ thread ยืนยันการชำระเงิน ตัวจับเวลา hold
+ * และ thread ผู้เขียน journal ของ shard แก้สถานะของ shard ด้วย)
+ *
+ * ทุกเมธอดคืน CompletableFuture: คำขอของบ้านหลังเดียวถูกส่งไป shard ของบ้านนั้นโดยตรง
+ * คำขอจากหมายเลขการจองหา shard จากดัชนีหมายเลขการจอง -> shard ส่วนคำขอที่ไม่รู้บ้าน
+ * (ค้นหาบ้านว่าง ค้นหาการจอง) ถูกส่งไปทุก shard แล้วรวมผล (scatter-gather)
+ * shard ไม่รอดิสก์: คำขอที่ต้องบันทึกลง journal คืนจาก thread ของ shard ทันทีหลังส่ง record
+ * แล้ว future ได้ผลเมื่อบันทึกเสร็จ
+ *
+ * ทุก shard ใช้ PricingEngine ตัวเดียวกัน ราคาจึงเหมือนระบบเดียว
+ * หมายเลขการจองไม่ซ้ำกันข้าม shard (ตัวนับใน Booking ใช้ร่วมกันทั้งโปรแกรม)
+ * ลูกค้าถูกเก็บในทะเบียนของแต่ละ shard แยกกัน (ค้นหาการจองของลูกค้าจึงต้องถามทุก shard)
+ */
+public class ShardedBookingSystem implements AutoCloseable {
+    // ตัวหยุด thread ของ shard (ส่งเข้าคิวตอนปิดระบบ)
+    private static final Runnable STOP = () -> { };
+
+    // จำนวนคำขอสูงสุดที่ shard ดึงจากคิวต่อรอบ
+    private static final int MAX_BATCH = 256;
+
+    // ทะเบียนบ้านทั้งหมด (ใช้หาบ้านจากหมายเลขโดยไม่ต้องถาม shard)
+    private final HouseRegistry houses;
+
+    // ตัวคำนวณราคาที่ใช้ร่วมกันทุก shard
+    private final PricingEngine pricing;
+
+    // shard ตามลำดับ (shard ที่ i ดูแลบ้านที่ houseNumber mod N == i)
+    private final Shard[] shards;
+
+    // หมายเลขการจองที่ยืนยันแล้ว -> shard ที่เก็บการจองนั้น
+    private final Map<Integer, Shard> owners = new ConcurrentHashMap<>();
+
+    /**
+     * คำขอที่ทำใน thread ของ shard
+     *
+     * @param <T> ชนิดของผล
+     */
+    @FunctionalInterface
+    private interface Request<T> {
+        T apply(BookingSystem system) throws IOException;
+    }
+
+    /**
+     * Constructor - แบ่งบ้านจากไฟล์ catalog เป็น shardCount กลุ่ม
+     *
+     * @param catalogFile ไฟล์ catalog ของบ้านพัก
+     * @param shardCount จำนวน shard
+     * @throws IOException ถ้าอ่านไฟล์ catalog ไม่ได้
+     */
+    public ShardedBookingSystem(Path catalogFile, int shardCount) throws IOException {
+        this(HouseRegistry.load(catalogFile), shardCount);
+    }
+
+    /**
+     * Constructor - แบ่งบ้านในทะเบียนเป็น shardCount กลุ่ม และเริ่ม thread ของทุก shard
+     *
+     * @param houses ทะเบียนบ้านพักทั้งหมด
+     * @param shardCount จำนวน shard
+     * @throws IllegalArgumentException ถ้าจำนวน shard น้อยกว่า 1
+     */
+    public ShardedBookingSystem(HouseRegistry houses, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("จำนวน shard ต้องมากกว่า 0");
+        }
+        this.houses = houses;
+        this.pricing = new PricingEngine(BookingSystem.currentEpochDay());
+
+        List<List<House>> partitions = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (House house : houses.getAll()) {
+            partitions.get(indexOf(house.getHouseNumber(), shardCount)).add(house);
+        }
+
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            HouseRegistry partition = new HouseRegistry();
+            partition.addAll(partitions.get(i));
+            shards[i] = new Shard(i, new BookingSystem(partition, pricing));
+        }
+    }
+
+    /**
+     * @return จำนวน shard
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * หา shard ที่ดูแลบ้าน
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @return ลำดับของ shard (0 ถึง getShardCount() - 1)
+     */
+    public int shardOf(int houseNumber) {
+        return indexOf(houseNumber, shards.length);
+    }
+
+    /**
+     * ลำดับของ shard จากหมายเลขบ้าน (หมายเลขติดลบก็ได้ shard ที่ถูกต้อง)
+     */
+    private static int indexOf(int houseNumber, int shardCount) {
+        return Math.floorMod(houseNumber, shardCount);
+    }
+
+    /**
+     * ค้นหาบ้านจากหมายเลข (O(1) อ่านจากทะเบียนโดยตรง ไม่ผ่าน shard)
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @return object ของ House ถ้าพบ, null ถ้าไม่พบ
+     */
+    public House findHouseByNumber(int houseNumber) {
+        return houses.find(houseNumber);
+    }
+
+    /**
+     * @return รายการบ้านทั้งหมด (แก้ไขไม่ได้)
+     */
+    public List<House> getHouses() {
+        return houses.getAll();
+    }
+
+    /**
+     * ดึงตัวคำนวณราคาที่ใช้ร่วมกันทุก shard
+     * @return PricingEngine ของระบบนี้
+     */
+    public PricingEngine getPricing() {
+        return pricing;
+    }
+
+    /**
+     * โหลดกฎอัตราราคาจากไฟล์ (ครั้งเดียว มีผลกับทุก shard)
+     *
+     * @param ratesFile path ของไฟล์อัตรา
+     * @throws IOException ถ้าอ่านไฟล์ไม่ได้
+     */
+    public void loadRates(Path ratesFile) throws IOException {
+        pricing.loadRules(ratesFile, houses);
+    }
+
+    /**
+     * ดึงสถิติการทำงานของ shard หนึ่ง
+     *
+     * @param shard ลำดับของ shard
+     * @return BookingMetrics ของ shard นั้น
+     */
+    public BookingMetrics getMetrics(int shard) {
+        return shards[shard].system.getMetrics();
+    }
+
+    /**
+     * ดึงยอดสรุปรายได้และการเข้าพักของ shard หนึ่ง (อ่านได้จากทุก thread)
+     *
+     * @param shard ลำดับของ shard
+     * @return BookingAnalytics ของ shard นั้น
+     */
+    public BookingAnalytics getAnalytics(int shard) {
+        return shards[shard].system.getAnalytics();
+    }
+
+    /**
+     * กำหนดช่องทางอนุมัติการชำระเงินของทุก shard
+     *
+     * @param paymentGateway gateway ที่ใช้กับการชำระเงินหลังจากนี้
+     */
+    public void setPaymentGateway(PaymentGateway paymentGateway) {
+        for (Shard shard : shards) {
+            shard.system.setPaymentGateway(paymentGateway);
+        }
+    }
+
+    /**
+     * กำหนดเวลาที่กันวันไว้ให้ระหว่างชำระเงินของทุก shard
+     *
+     * @param millis เวลาเป็นมิลลิวินาที
+     */
+    public void setHoldMillis(long millis) {
+        for (Shard shard : shards) {
+            shard.system.setHoldMillis(millis);
+        }
+    }
+
+    /**
+     * โหลด snapshot และเปิด journal ของทุก shard ในโฟลเดอร์ที่กำหนด
+     * แล้วลงทะเบียนหมายเลขการจองที่โหลดมาในดัชนีหมายเลขการจอง
+     * แต่ละ shard ใช้ไฟล์ของตัวเอง (shard-i-of-N.journal และ shard-i-of-N.snapshot.รุ่น)
+     * ไฟล์ผูกกับจำนวน shard: เปิดด้วยจำนวน shard อื่นจะได้ไฟล์ชุดใหม่
+     *
+     * @param directory โฟลเดอร์ของไฟล์ (สร้างใหม่ถ้ายังไม่มี)
+     * @return future ที่ได้ผลเมื่อทุก shard เปิด journal เสร็จ
+     * @throws IOException ถ้าสร้างโฟลเดอร์ไม่ได้
+     */
+    public CompletableFuture<Void> openJournals(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<CompletableFuture<Void>> opened = new ArrayList<>();
+        for (Shard shard : shards) {
+            opened.add(shard.ask(system -> {
+                system.openJournal(journalFile(directory, shard.index), snapshotFile(directory, shard.index));
+                system.forEachBookingId(bookingId -> owners.put(bookingId, shard));
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(opened.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * เขียน snapshot ของทุก shard (แต่ละ shard เขียนใน thread ของตัวเอง)
+     *
+     * @param directory โฟลเดอร์เดียวกับที่ใช้ใน openJournals
+     * @return future ที่ได้ผลเมื่อทุก shard เขียนเสร็จ
+     */
+    public CompletableFuture<Void> checkpoint(Path directory) {
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (Shard shard : shards) {
+            written.add(shard.ask(system -> {
+                system.checkpoint(snapshotFile(directory, shard.index));
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private Path journalFile(Path directory, int shard) {
+        return directory.resolve("shard-" + shard + "-of-" + shards.length + ".journal");
+    }
+
+    private Path snapshotFile(Path directory, int shard) {
+        return directory.resolve("shard-" + shard + "-of-" + shards.length + ".snapshot");
+    }
+
+    /**
+     * ตรวจสอบว่าบ้านว่างในช่วงวันที่ (ถาม shard ของบ้าน)
+     *
+     * @param house บ้านที่ต้องการตรวจสอบ
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return future ของ true ถ้าว่าง
+     */
+    public CompletableFuture<Boolean> isHouseAvailableForDates(House house, LocalDate checkIn,
+                                                               LocalDate checkOut) {
+        return shardFor(house).ask(system -> system.isHouseAvailableForDates(house, checkIn, checkOut));
+    }
+
+    /**
+     * หาช่วงวันที่ว่างที่เร็วที่สุดของบ้านหนึ่งหลัง (ถาม shard ของบ้าน)
+     *
+     * @param house บ้านที่ต้องการ
+     * @param from วันที่เข้าพักที่เร็วที่สุดที่ยอมรับได้
+     * @param nights จำนวนคืนที่ต้องการพัก
+     * @return future ของช่วงวันที่ว่าง (null ถ้าบ้านปิดให้เช่า)
+     */
+    public CompletableFuture<BookingSystem.AvailableSlot> findEarliestSlot(House house, LocalDate from,
+                                                                           int nights) {
+        return shardFor(house).ask(system -> system.findEarliestSlot(house, from, nights));
+    }
+
+    /**
+     * หาช่วงวันที่ว่างที่เร็วที่สุดจากบ้านทุกหลัง (ถามทุก shard แล้วเลือกช่วงที่เริ่มเร็วที่สุด)
+     *
+     * @param from วันที่เข้าพักที่เร็วที่สุดที่ยอมรับได้
+     * @param nights จำนวนคืนที่ต้องการพัก
+     * @return future ของช่วงวันที่ว่าง (null ถ้าไม่มีบ้านเปิดให้เช่า)
+     */
+    public CompletableFuture<BookingSystem.AvailableSlot> findEarliestSlot(LocalDate from, int nights) {
+        return gather(system -> {
+            BookingSystem.AvailableSlot slot = system.findEarliestSlot(from, nights);
+            return slot == null ? Collections.<BookingSystem.AvailableSlot>emptyList()
+                                : Collections.singletonList(slot);
+        }).thenApply(found -> found.stream()
+                                   .min(BookingSystem.AvailableSlot.EARLIEST_FIRST)
+                                   .orElse(null));
+    }
+
+    /**
+     * สร้างการจองใหม่ (ยังไม่ยืนยัน - รอชำระเงิน) ใน shard ของบ้าน
+     * ลูกค้าถูกลงทะเบียนในทะเบียนลูกค้าของ shard นั้น (ลูกค้าเดิมได้ Customer object เดิมของ shard)
+     *
+     * @param house บ้านที่ต้องการจอง
+     * @param customer ข้อมูลลูกค้า
+     * @param checkInDate วันที่เข้าพัก
+     * @param checkOutDate วันที่คืนบ้าน
+     * @return future ของการจอง (null ถ้าบ้านไม่ว่าง)
+     */
+    public CompletableFuture<Booking> createBooking(House house, Customer customer,
+                                                    LocalDate checkInDate, LocalDate checkOutDate) {
+        return shardFor(house).ask(system -> system.createBooking(house,
+            system.findOrCreateCustomer(customer.getFullName(), customer.getPhoneNumber(), customer.getEmail()),
+            checkInDate, checkOutDate));
+    }
+
+    /**
+     * ปล่อยวันที่ที่กันไว้ของการจองที่ยังไม่ชำระเงิน
+     *
+     * @param booking การจองที่สร้างจาก createBooking
+     * @return future ของ true ถ้าปล่อยแล้ว
+     */
+    public CompletableFuture<Boolean> releaseHold(Booking booking) {
+        return shardFor(booking.getHouse()).ask(system -> system.releaseHold(booking));
+    }
+
+    /**
+     * ชำระเงินของการจอง: shard ส่งเข้าคิวยืนยันของตัวเองแล้วรับคำขอถัดไปทันที
+     * (ไม่รอ gateway หรือ journal ใน thread ของ shard)
+     *
+     * @param booking การจองที่ต้องการชำระเงิน
+     * @param paymentAmount จำนวนเงินที่ชำระ
+     * @return future ที่ได้ผลเมื่อยืนยันและบันทึกลง journal แล้ว (หรือเมื่อไม่สำเร็จ)
+     */
+    public CompletableFuture<PaymentStatus> processPayment(Booking booking, double paymentAmount) {
+        Shard shard = shardFor(booking.getHouse());
+        return shard.ask(system -> system.processPaymentAsync(booking, paymentAmount))
+            .thenCompose(status -> status)
+            .thenApply(status -> {
+                if (status == PaymentStatus.CONFIRMED) {
+                    owners.put(booking.getBookingId(), shard);
+                }
+                return status;
+            });
+    }
+
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วจากหมายเลขการจอง (ถามเฉพาะ shard ที่เก็บการจองนี้)
+     *
+     * @param bookingId หมายเลขการจอง
+     * @return future ของการจอง (null ถ้าไม่พบ)
+     */
+    public CompletableFuture<Booking> findBookingById(int bookingId) {
+        Shard owner = owners.get(bookingId);
+        return owner == null ? CompletableFuture.completedFuture(null)
+                             : owner.ask(system -> system.findBookingById(bookingId));
+    }
+
+    /**
+     * ยกเลิกการจองที่ยืนยันแล้วใน shard ที่เก็บการจองนี้
+     * thread ของ shard ส่ง record แล้วรับคำขอถัดไปทันที การจองถูกถอนเมื่อบันทึกลง journal เสร็จ
+     *
+     * @param bookingId หมายเลขการจอง
+     * @return future ของ true ถ้ายกเลิกแล้ว, false ถ้าไม่พบ กำลังแก้ไขอยู่ หรือบันทึกไม่สำเร็จ
+     */
+    public CompletableFuture<Boolean> cancelBooking(int bookingId) {
+        Shard owner = owners.get(bookingId);
+        if (owner == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return owner.ask(system -> system.cancelBookingAsync(bookingId))
+            .thenCompose(cancelled -> cancelled)
+            .thenApply(cancelled -> {
+                if (cancelled) {
+                    owners.remove(bookingId, owner);
+                }
+                return cancelled;
+            });
+    }
+
+    /**
+     * เปลี่ยนวันเข้าพักของการจองที่ยืนยันแล้ว (บ้านเดิม จึงทำใน shard เดียว)
+     * thread ของ shard ไม่รอ journal เหมือน cancelBooking
+     *
+     * @param bookingId หมายเลขการจอง
+     * @param checkIn วันที่เข้าพักใหม่
+     * @param checkOut วันที่คืนบ้านใหม่
+     * @return future ของการจองหลังเปลี่ยน (null ถ้าไม่พบ กำลังแก้ไขอยู่ ช่วงวันใหม่ไม่ว่าง หรือบันทึกไม่สำเร็จ)
+     */
+    public CompletableFuture<Booking> changeBooking(int bookingId, LocalDate checkIn, LocalDate checkOut) {
+        Shard owner = owners.get(bookingId);
+        if (owner == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return owner.ask(system -> system.changeBookingAsync(bookingId, checkIn, checkOut))
+            .thenCompose(changed -> changed);
+    }
+
+    /**
+     * ค้นหาบ้านที่ว่างในช่วงวันที่และราคาไม่เกินงบ (ถามทุก shard แล้วรวมผล)
+     *
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @param maxPricePerDay ราคาเฉลี่ยต่อวันสูงสุดที่รับได้ (บาท)
+     * @return future ของ List บ้านที่ว่าง เรียงตามราคารวม (ราคาเท่ากันเรียงตามหมายเลขบ้าน)
+     */
+    public CompletableFuture<List<House>> searchAvailableHouses(LocalDate checkIn, LocalDate checkOut,
+                                                               double maxPricePerDay) {
+        return searchAvailableQuotes(checkIn, checkOut, maxPricePerDay)
+            .thenApply(found -> found.stream()
+                .map(BookingSystem.HouseQuote::getHouse)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * เหมือน searchAvailableHouses แต่คืนราคารวมที่แต่ละ shard คิดไว้แล้วมาด้วย
+     * การรวมผลเรียงตามราคานั้น ไม่ quote ซ้ำ
+     *
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @param maxPricePerDay ราคาเฉลี่ยต่อวันสูงสุดที่รับได้ (บาท)
+     * @return future ของ List บ้านที่ว่างพร้อมราคารวม เรียงตาม HouseQuote.CHEAPEST_FIRST
+     */
+    public CompletableFuture<List<BookingSystem.HouseQuote>> searchAvailableQuotes(
+            LocalDate checkIn, LocalDate checkOut, double maxPricePerDay) {
+        return gather(system -> system.searchAvailableQuotes(checkIn, checkOut, maxPricePerDay))
+            .thenApply(found -> {
+                found.sort(BookingSystem.HouseQuote.CHEAPEST_FIRST);
+                return found;
+            });
+    }
+
+    /**
+     * ค้นหาการจองที่ยืนยันแล้วตามลูกค้า บ้าน และช่วงวันที่
+     * ถ้าระบุบ้าน ถามเฉพาะ shard ของบ้านนั้น ไม่เช่นนั้นถามทุก shard
+     *
+     * @param phoneOrEmail เบอร์โทรหรืออีเมลของลูกค้า (null = ทุกคน)
+     * @param houseNumber หมายเลขบ้าน (null = ทุกหลัง)
+     * @param from วันแรกของช่วง (null = ไม่จำกัด)
+     * @param to วันสุดท้ายของช่วง นับรวม (null = ไม่จำกัด)
+     * @return future ของ List การจองที่ตรงเงื่อนไข (เรียงตาม shard ไม่ใช่ตามเวลาที่จอง)
+     */
+    public CompletableFuture<List<Booking>> findBookings(String phoneOrEmail, Integer houseNumber,
+                                                        LocalDate from, LocalDate to) {
+        Request<List<Booking>> request = system -> system.findBookings(phoneOrEmail, houseNumber, from, to);
+        if (houseNumber != null) {
+            return shards[shardOf(houseNumber)].ask(request);
+        }
+        return gather(request);
+    }
+
+    /**
+     * ดึงรายการจองทั้งหมดจากทุก shard
+     * @return future ของสำเนา List การจองทั้งหมด
+     */
+    public CompletableFuture<List<Booking>> getBookings() {
+        return gather(BookingSystem::getBookings);
+    }
+
+    /**
+     * ส่งคำขอไปทุก shard แล้วต่อผลเป็น List เดียว (ตามลำดับ shard)
+     */
+    private <T> CompletableFuture<List<T>> gather(Request<List<T>> request) {
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.ask(request));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<T> merged = new ArrayList<>();
+            for (CompletableFuture<List<T>> part : parts) {
+                merged.addAll(part.join());
+            }
+            return merged;
+        });
+    }
+
+    private Shard shardFor(House house) {
+        return shards[shardOf(house.getHouseNumber())];
+    }
+
+    /**
+     * ปิดระบบ: ให้ทุก shard ทำคำขอที่อยู่ในคิวให้หมด แล้วปิด BookingSystem ของ shard
+     *
+     * @throws IOException ถ้าปิด journal ของ shard ใดไม่ได้ (ยังปิด shard ที่เหลือจนครบ)
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Shard shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * shard หนึ่งกลุ่ม: BookingSystem ของบ้านกลุ่มนี้ และ thread เดียวที่ทำคำขอตามลำดับในคิว
+     * lock ต่อบ้านใน BookingSystem ยังอยู่ (ใช้ร่วมกับ thread ยืนยันการชำระเงิน ตัวจับเวลา hold
+     * และ thread ผู้เขียน journal ของ shard) แต่ไม่มี shard อื่นมาแย่ง
+     */
+    private static final class Shard {
+        // ลำดับของ shard
+        final int index;
+
+        // ระบบจองของบ้านในกลุ่มนี้
+        final BookingSystem system;
+
+        // คิวคำขอ (ใส่ได้จากทุก thread, thread ของ shard เท่านั้นที่ดึงออก)
+        private final BlockingQueue<Runnable> mailbox = new LinkedBlockingQueue<>();
+
+        // thread เจ้าของ shard
+        private final Thread thread;
+
+        Shard(int index, BookingSystem system) {
+            this.index = index;
+            this.system = system;
+            this.thread = new Thread(this::run, "booking-shard-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        /**
+         * ส่งคำขอเข้าคิวของ shard
+         *
+         * @return future ที่ได้ผลเมื่อ thread ของ shard ทำคำขอเสร็จ
+         *         (ล้มเหลวด้วย IllegalStateException ถ้า shard ปิดไปแล้ว)
+         */
+        <T> CompletableFuture<T> ask(Request<T> request) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable task = () -> {
+                try {
+                    result.complete(request.apply(system));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            };
+            mailbox.add(task);
+            // shard ถูกปิดไปแล้ว ไม่มี thread มาทำคำขอนี้
+            if (!thread.isAlive() && mailbox.remove(task)) {
+                result.completeExceptionally(new IllegalStateException("shard " + index + " ถูกปิดแล้ว"));
+            }
+            return result;
+        }
+
+        /**
+         * วนลูปของ thread เจ้าของ shard: ดึงคำขอเป็นชุดแล้วทำตามลำดับ
+         */
+        private void run() {
+            List<Runnable> batch = new ArrayList<>();
+            boolean stopping = false;
+            while (!stopping) {
+                try {
+                    batch.add(mailbox.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                mailbox.drainTo(batch, MAX_BATCH - 1);
+                for (Runnable task : batch) {
+                    if (task == STOP) {
+                        stopping = true;
+                    } else {
+                        task.run();
+                    }
+                }
+                batch.clear();
+            }
+
+            // คำขอที่เข้าคิวมาหลังตัวหยุด ทำให้เสร็จก่อนปิด เพื่อไม่ให้ผู้เรียกรอผลค้าง
+            Runnable task;
+            while ((task = mailbox.poll()) != null) {
+                if (task != STOP) {
+                    task.run();
+                }
+            }
+        }
+
+        /**
+         * หยุด thread ของ shard (หลังทำคำขอที่อยู่ในคิวก่อนหน้าแล้ว) แล้วปิด BookingSystem
+         */
+        void close() throws IOException {
+            if (thread.isAlive()) {
+                mailbox.add(STOP);
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            system.close();
+        }
+    }
+}
@@ -1,28 +1,53 @@
+import javax.management.JMException;
 import javax.swing.*;
 import javax.swing.text.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GUI แบบเรียบง่าย สำหรับระบบจองบ้านพัก
  * ใช้ Java Swing สร้างหน้าต่างโปรแกรมแบบ Graphical User Interface
- * มีเมนูให้เลือก: ดูบ้าน, จองบ้าน, ดูรายการจอง, ออกจากโปรแกรม
+ * มีเมนูให้เลือก: ดูบ้าน, จองบ้าน, ดูรายการจอง, ค้นหาบ้านว่าง, นำเข้า/ส่งออก CSV, ออกจากโปรแกรม
  */
 public class SimpleBookingGUI extends JFrame {
+    // ระยะเวลาระหว่างการเขียน snapshot อัตโนมัติ (นาที)
+    private static final long CHECKPOINT_INTERVAL_MINUTES = 10;
+    
     // ระบบจัดการการจองบ้านพัก (Backend)
     private BookingSystem bookingSystem;
     
     // พื้นที่แสดงข้อความในหน้าต่าง (สามารถจัดกลางข้อความได้)
     private JTextPane textPane;
     
+    // ตารางรายการจอง (เมนู 3)
+    private BookingTablePanel bookingTable;
+    
+    // พื้นที่ตรงกลางที่สลับระหว่างข้อความกับตารางรายการจอง
+    private JPanel contentPanel;
+    private CardLayout contentLayout;
+    
+    // ชื่อของหน้าใน contentPanel
+    private static final String TEXT_CARD = "text";
+    private static final String BOOKINGS_CARD = "bookings";
+    
     /**
      * Constructor - สร้างหน้าต่าง GUI
+     * 
+     * @param bookingSystem ระบบจองบ้านพักที่โหลดรายการบ้านแล้ว
      */
-    public SimpleBookingGUI() {
-        // สร้างระบบจองบ้านพัก
-        bookingSystem = new BookingSystem();
+    public SimpleBookingGUI(BookingSystem bookingSystem) {
+        this.bookingSystem = bookingSystem;
         
         // ตั้งค่าหน้าต่าง GUI
         setupUI();
@@ -53,28 +78,46 @@ public class SimpleBookingGUI extends JFrame {
         
         // ใส่ textPane ใน ScrollPane เพื่อให้เลื่อนดูได้
         JScrollPane scrollPane = new JScrollPane(textPane);
-        add(scrollPane, BorderLayout.CENTER); // วางตรงกลาง
+        
+        // สร้างตารางรายการจอง
+        bookingTable = new BookingTablePanel(bookingSystem);
+        
+        // วางข้อความและตารางซ้อนกันตรงกลาง แสดงทีละอย่าง
+        contentLayout = new CardLayout();
+        contentPanel = new JPanel(contentLayout);
+        contentPanel.add(scrollPane, TEXT_CARD);
+        contentPanel.add(bookingTable, BOOKINGS_CARD);
+        add(contentPanel, BorderLayout.CENTER); // วางตรงกลาง
         
         // สร้าง Panel สำหรับปุ่มเมนู
         JPanel buttonPanel = new JPanel();
-        buttonPanel.setLayout(new GridLayout(4, 1, 5, 5)); // 4 แถว, 1 คอลัมน์, ระยะห่าง 5px
+        buttonPanel.setLayout(new GridLayout(7, 1, 5, 5)); // 7 แถว, 1 คอลัมน์, ระยะห่าง 5px
         
-        // สร้างปุ่มเมนูทั้ง 4 ปุ่ม
+        // สร้างปุ่มเมนูทั้ง 7 ปุ่ม
         JButton viewHousesBtn = new JButton("1. ดูสถานะบ้านพัก");
         JButton bookBtn = new JButton("2. จองบ้านพัก");
         JButton viewBookingsBtn = new JButton("3. ดูรายการจอง");
-        JButton exitBtn = new JButton("4. ออกจากโปรแกรม");
+        JButton searchBtn = new JButton("4. ค้นหาบ้านว่าง");
+        JButton importBtn = new JButton("5. นำเข้า CSV");
+        JButton exportBtn = new JButton("6. ส่งออก CSV");
+        JButton exitBtn = new JButton("7. ออกจากโปรแกรม");
         
         // ผูกฟังก์ชันกับปุ่ม (Event Listener)
         viewHousesBtn.addActionListener(e -> viewHouses());     // เมื่อกดปุ่ม 1
         bookBtn.addActionListener(e -> makeBooking());          // เมื่อกดปุ่ม 2
         viewBookingsBtn.addActionListener(e -> viewBookings()); // เมื่อกดปุ่ม 3
-        exitBtn.addActionListener(e -> System.exit(0));         // เมื่อกดปุ่ม 4 - ออกจากโปรแกรม
+        searchBtn.addActionListener(e -> searchHouses());       // เมื่อกดปุ่ม 4
+        importBtn.addActionListener(e -> importCsv());          // เมื่อกดปุ่ม 5
+        exportBtn.addActionListener(e -> exportCsv());          // เมื่อกดปุ่ม 6
+        exitBtn.addActionListener(e -> System.exit(0));         // เมื่อกดปุ่ม 7 - ออกจากโปรแกรม
         
         // เพิ่มปุ่มลงใน Panel
         buttonPanel.add(viewHousesBtn);
         buttonPanel.add(bookBtn);
         buttonPanel.add(viewBookingsBtn);
+        buttonPanel.add(searchBtn);
+        buttonPanel.add(importBtn);
+        buttonPanel.add(exportBtn);
         buttonPanel.add(exitBtn);
         
         // วาง Panel ปุ่มทางด้านขวา
@@ -89,6 +132,7 @@ public class SimpleBookingGUI extends JFrame {
      * @param text ข้อความที่ต้องการแสดง
      */
     private void setText(String text) {
+        contentLayout.show(contentPanel, TEXT_CARD);
         textPane.setText(text);
         
         // จัดกลางทุกย่อหน้า
@@ -113,20 +157,22 @@ public class SimpleBookingGUI extends JFrame {
     
     /**
      * แสดงสถานะบ้านพักทั้งหมด (เมนู 1)
-     * ดึงข้อมูลบ้านทั้ง 10 หลังและแสดงสถานะว่าง/ไม่ว่าง พร้อมราคา
+     * ดึงข้อมูลบ้านทั้งหมดและแสดงสถานะว่าง/ไม่ว่างของคืนนี้ พร้อมราคา
      */
     private void viewHouses() {
+        // ดึงรายการบ้านทั้งหมดจากระบบ
+        List<House> houses = bookingSystem.getHouses();
+        
         StringBuilder sb = new StringBuilder();
         sb.append("═══════════════════════════════════════════════════════\n");
-        sb.append("สถานะบ้านพักทั้งหมด (10 หลัง)\n");
+        sb.append(String.format("สถานะบ้านพักทั้งหมด (%d หลัง)\n", houses.size()));
         sb.append("═══════════════════════════════════════════════════════\n\n");
         
-        // ดึงรายการบ้านทั้งหมดจากระบบ
-        List<House> houses = bookingSystem.getHouses();
-        
-        // วนลูปแสดงข้อมูลบ้านแต่ละหลัง
+        // วนลูปแสดงข้อมูลบ้านแต่ละหลัง (สถานะคือว่างคืนนี้หรือไม่ จากปฏิทินการจองของบ้าน)
+        LocalDate today = LocalDate.now();
         for (House house : houses) {
-            String status = house.isAvailable() ? "ว่าง" : "ไม่ว่าง";
+            String status = bookingSystem.isHouseAvailableForDates(house, today, today.plusDays(1))
+                ? "ว่าง" : "ไม่ว่าง";
             sb.append(String.format("บ้านหมายเลข %2d - สถานะ: %-8s - ราคา: %.2f บาท/วัน\n",
                 house.getHouseNumber(), status, house.getPricePerDay()));
         }
@@ -144,7 +190,7 @@ public class SimpleBookingGUI extends JFrame {
         
         // ถามหมายเลขบ้านที่ต้องการจอง
         String houseNumStr = JOptionPane.showInputDialog(this,
-            "พิมพ์หมายเลขบ้านที่ต้องการจอง (1-10):",
+            "พิมพ์หมายเลขบ้านที่ต้องการจอง:",
             "เลือกบ้าน",
             JOptionPane.QUESTION_MESSAGE);
         
@@ -155,13 +201,7 @@ public class SimpleBookingGUI extends JFrame {
             // แปลง String เป็นตัวเลข
             int houseNum = Integer.parseInt(houseNumStr);
             
-            // ตรวจสอบว่าเลข 1-10 เท่านั้น
-            if (houseNum < 1 || houseNum > 10) {
-                JOptionPane.showMessageDialog(this, "กรุณาเลือก 1-10 เท่านั้น", "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            
-            // ค้นหาบ้านจากหมายเลข
+            // ค้นหาบ้านจากหมายเลข (ไม่พบ = ไม่มีใน catalog)
             House house = bookingSystem.findHouseByNumber(houseNum);
             if (house == null) {
                 JOptionPane.showMessageDialog(this, "ไม่พบบ้านหมายเลข " + houseNum, "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
@@ -219,12 +259,29 @@ public class SimpleBookingGUI extends JFrame {
                 
                 // ตรวจสอบว่าบ้านว่างในช่วงเวลาที่เลือกหรือไม่
                 if (!bookingSystem.isHouseAvailableForDates(house, checkIn, checkOut)) {
-                    JOptionPane.showMessageDialog(this, "ขออภัย บ้านไม่ว่างในช่วงเวลาที่เลือก", "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
-                    return;
+                    // เสนอช่วงวันที่ว่างที่เร็วที่สุดของบ้านหลังนี้ (จำนวนคืนเท่าเดิม) แทนให้ลูกค้าเดาวันใหม่เอง
+                    BookingSystem.AvailableSlot slot = bookingSystem.findEarliestSlot(
+                        house, checkIn, (int) ChronoUnit.DAYS.between(checkIn, checkOut));
+                    if (slot == null) {
+                        JOptionPane.showMessageDialog(this, "ขออภัย บ้านไม่ว่างในช่วงเวลาที่เลือก", "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    int choice = JOptionPane.showConfirmDialog(this, 
+                        "ขออภัย บ้านไม่ว่างในช่วงเวลาที่เลือก\n\n" +
+                        "ช่วงที่ว่างเร็วที่สุด: " + DateCodec.format(slot.getCheckIn()) + 
+                        " ถึง " + DateCodec.format(slot.getCheckOut()) + "\n" +
+                        "ต้องการจองช่วงนี้แทนหรือไม่?",
+                        "บ้านไม่ว่าง", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+                    if (choice != JOptionPane.YES_OPTION) {
+                        return;
+                    }
+                    checkIn = slot.getCheckIn();
+                    checkOut = slot.getCheckOut();
                 }
                 
-                // สร้าง object ลูกค้า
-                Customer customer = new Customer(nameField.getText(), phoneField.getText(), emailField.getText());
+                // ค้นหาลูกค้าเดิมจากเบอร์โทร/อีเมล หรือสร้างลูกค้าใหม่
+                Customer customer = bookingSystem.findOrCreateCustomer(
+                    nameField.getText(), phoneField.getText(), emailField.getText());
                 
                 // สร้างการจอง (ยังไม่ยืนยัน - รอชำระเงิน)
                 Booking booking = bookingSystem.createBooking(house, customer, checkIn, checkOut);
@@ -252,32 +309,31 @@ public class SimpleBookingGUI extends JFrame {
      * มีระบบวนลูปให้กรอกจำนวนเงินซ้ำได้ถ้ากรอกผิด
      * การจองจะถูกบันทึกก็ต่อเมื่อชำระเงินสำเร็จเท่านั้น
      * 
+     * การอนุมัติการชำระเงินอาจใช้เวลานาน จึงส่งไปประมวลผลแบบไม่รอ
+     * และแสดงผลเมื่อได้ผลกลับมา (showPaymentResult) หน้าต่างจึงไม่ค้างระหว่างรอ
+     * 
      * @param booking การจองที่ต้องการชำระเงิน
      */
     private void processPayment(Booking booking) {
-        // กำหนดรูปแบบวันที่เป็น dd/MM/yyyy
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        // ตัวแปรเช็คว่าชำระเงินสำเร็จหรือยัง
-        boolean paymentSuccess = false;
-        
-        // วนลูปจนกว่าจะชำระเงินสำเร็จหรือกด Cancel
-        while (!paymentSuccess) {
+        // วนลูปจนกว่าจะกรอกจำนวนเงินเป็นตัวเลขหรือกด Cancel
+        while (true) {
             // สร้างข้อความแสดงข้อมูลการจองและยอดชำระ
             String info = String.format(
                 "ข้อมูลการจอง:\n\n" +
                 "บ้านหมายเลข: %d\n" +
                 "วันที่: %s ถึง %s\n" +
                 "จำนวนวัน: %d วัน\n" +
-                "ราคาต่อวัน: %.2f บาท\n\n" +
+                "ราคาเฉลี่ยต่อวัน: %.2f บาท\n\n" +
                 "ยอดชำระทั้งหมด: %.2f บาท\n\n" +
+                "กันบ้านไว้ให้ %d นาที\n" +
                 "กรุณาพิมพ์จำนวนเงินที่ชำระ:",
                 booking.getHouse().getHouseNumber(),
-                booking.getCheckInDate().format(formatter),
-                booking.getCheckOutDate().format(formatter),
+                DateCodec.format(booking.getCheckInDate()),
+                DateCodec.format(booking.getCheckOutDate()),
                 booking.getNumberOfDays(),
-                booking.getHouse().getPricePerDay(),
-                booking.getTotalPrice()
+                booking.getTotalPrice() / booking.getNumberOfDays(),
+                booking.getTotalPrice(),
+                TimeUnit.MILLISECONDS.toMinutes(bookingSystem.getHoldMillis())
             );
             
             // แสดง Dialog ให้กรอกจำนวนเงิน
@@ -285,6 +341,7 @@ public class SimpleBookingGUI extends JFrame {
             
             // ถ้ากด Cancel ให้ออกจากลูปและยกเลิกการจอง
             if (paymentStr == null) {
+                bookingSystem.releaseHold(booking); // ปล่อยวันที่ที่กันไว้ให้ลูกค้าอื่น
                 return; // การจองจะไม่ถูกบันทึก
             }
             
@@ -292,47 +349,11 @@ public class SimpleBookingGUI extends JFrame {
                 // แปลง String เป็นตัวเลข double
                 double payment = Double.parseDouble(paymentStr);
                 
-                // ส่งไปตรวจสอบและประมวลผลการชำระเงิน
-                if (bookingSystem.processPayment(booking, payment)) {
-                    // === ชำระเงินสำเร็จ ===
-                    
-                    // สร้างข้อความยืนยันการจอง
-                    String confirmation = String.format(
-                        "จองสำเร็จ!\n\n" +
-                        "หมายเลขการจอง: %d\n" +
-                        "บ้านหมายเลข: %d\n" +
-                        "ชื่อผู้จอง: %s\n" +
-                        "วันที่: %s ถึง %s\n" +
-                        "จำนวนวัน: %d วัน\n" +
-                        "ยอดชำระ: %.2f บาท",
-                        booking.getBookingId(),
-                        booking.getHouse().getHouseNumber(),
-                        booking.getCustomer().getFullName(),
-                        booking.getCheckInDate().format(formatter),
-                        booking.getCheckOutDate().format(formatter),
-                        booking.getNumberOfDays(),
-                        booking.getTotalPrice()
-                    );
-                    
-                    // แสดง Dialog ยืนยันการจอง
-                    JOptionPane.showMessageDialog(this, confirmation, "การจองเสร็จสมบูรณ์", JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // รีเฟรชสถานะบ้าน
-                    viewHouses();
-                    
-                    // ตั้งค่าให้ออกจากลูป
-                    paymentSuccess = true;
-                    
-                } else {
-                    // === จำนวนเงินไม่ถูกต้อง ===
-                    
-                    // แสดงข้อความผิดพลาดและให้กรอกใหม่
-                    JOptionPane.showMessageDialog(this,
-                        String.format("จำนวนเงินไม่ถูกต้อง!\nต้องชำระ: %.2f บาท\n\nกรุณากรอกจำนวนเงินอีกครั้ง", booking.getTotalPrice()),
-                        "ข้อผิดพลาด",
-                        JOptionPane.ERROR_MESSAGE);
-                    // จะวนลูปกลับไปให้กรอกใหม่อัตโนมัติ
-                }
+                // ส่งไปประมวลผลการชำระเงิน แล้วแสดงผลใน EDT เมื่อได้ผล
+                setText("กำลังตรวจสอบการชำระเงิน...\n");
+                bookingSystem.processPaymentAsync(booking, payment).thenAccept(status -> 
+                    SwingUtilities.invokeLater(() -> showPaymentResult(booking, status)));
+                return;
                 
             } catch (NumberFormatException ex) {
                 // === กรอกไม่ใช่ตัวเลข ===
@@ -347,53 +368,233 @@ public class SimpleBookingGUI extends JFrame {
         }
     }
     
+    /**
+     * แสดงผลการชำระเงิน (เรียกใน EDT เมื่อได้ผลจากระบบ)
+     * ถ้าจำนวนเงินไม่ถูกต้องหรือชำระไม่สำเร็จ ให้กรอกจำนวนเงินใหม่
+     * 
+     * @param booking การจองที่ชำระเงิน
+     * @param status ผลการชำระเงิน
+     */
+    private void showPaymentResult(Booking booking, PaymentStatus status) {
+        switch (status) {
+            case CONFIRMED:
+                // === ชำระเงินสำเร็จ ===
+                
+                // สร้างข้อความยืนยันการจอง
+                String confirmation = String.format(
+                    "จองสำเร็จ!\n\n" +
+                    "หมายเลขการจอง: %d\n" +
+                    "บ้านหมายเลข: %d\n" +
+                    "ชื่อผู้จอง: %s\n" +
+                    "วันที่: %s ถึง %s\n" +
+                    "จำนวนวัน: %d วัน\n" +
+                    "ยอดชำระ: %.2f บาท",
+                    booking.getBookingId(),
+                    booking.getHouse().getHouseNumber(),
+                    booking.getCustomer().getFullName(),
+                    DateCodec.format(booking.getCheckInDate()),
+                    DateCodec.format(booking.getCheckOutDate()),
+                    booking.getNumberOfDays(),
+                    booking.getTotalPrice()
+                );
+                
+                // แสดง Dialog ยืนยันการจอง
+                JOptionPane.showMessageDialog(this, confirmation, "การจองเสร็จสมบูรณ์", JOptionPane.INFORMATION_MESSAGE);
+                
+                // รีเฟรชสถานะบ้าน
+                viewHouses();
+                break;
+                
+            case UNAVAILABLE:
+                // === ยอดถูกต้องแต่หมดเวลากันบ้าน และมีลูกค้าอื่นจองวันเดียวกันไปแล้ว ===
+                JOptionPane.showMessageDialog(this,
+                    "ขออภัย หมดเวลากันบ้านและบ้านถูกจองในช่วงเวลาที่เลือกไปแล้ว\nกรุณาเลือกบ้านอื่นหรือเปลี่ยนวันที่",
+                    "ข้อผิดพลาด",
+                    JOptionPane.ERROR_MESSAGE);
+                viewHouses();
+                break; // การจองจะไม่ถูกบันทึก
+                
+            case DECLINED:
+                // === จำนวนเงินไม่ถูกต้อง ===
+                
+                // แสดงข้อความผิดพลาดและให้กรอกใหม่
+                JOptionPane.showMessageDialog(this,
+                    String.format("จำนวนเงินไม่ถูกต้อง!\nต้องชำระ: %.2f บาท\n\nกรุณากรอกจำนวนเงินอีกครั้ง", booking.getTotalPrice()),
+                    "ข้อผิดพลาด",
+                    JOptionPane.ERROR_MESSAGE);
+                processPayment(booking);
+                break;
+                
+            default:
+                // === ติดต่อ gateway หรือบันทึกการจองไม่สำเร็จ ===
+                JOptionPane.showMessageDialog(this,
+                    "ชำระเงินไม่สำเร็จ กรุณาลองใหม่อีกครั้ง",
+                    "ข้อผิดพลาด",
+                    JOptionPane.ERROR_MESSAGE);
+                processPayment(booking);
+                break;
+        }
+    }
+    
     /**
      * ดูรายการจองทั้งหมด (เมนู 3)
-     * แสดงรายละเอียดการจองทั้งหมดที่มีในระบบ
+     * แสดงตารางรายการจองแบบแบ่งหน้า ข้อมูลถูกโหลดนอก EDT หน้าต่างจึงไม่ค้าง
      */
     private void viewBookings() {
-        // ดึงรายการจองทั้งหมดจากระบบ
-        List<Booking> bookings = bookingSystem.getBookings();
-        
-        // ถ้ายังไม่มีการจอง
-        if (bookings.isEmpty()) {
-            setText(
-                "═══════════════════════════════════════════════════════\n" +
-                "รายการจองทั้งหมด\n" +
-                "═══════════════════════════════════════════════════════\n\n" +
-                "ยังไม่มีรายการจอง\n"
-            );
+        contentLayout.show(contentPanel, BOOKINGS_CARD);
+        bookingTable.reload();
+    }
+    
+    /**
+     * ค้นหาบ้านว่างตามช่วงวันที่และราคาสูงสุด (เมนู 4)
+     * แสดงบ้านที่ว่างทั้งหมดเรียงจากราคาถูกไปแพง
+     */
+    private void searchHouses() {
+        // === สร้างฟอร์มกรอกเงื่อนไขการค้นหา ===
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5)); // 3 แถว, 2 คอลัมน์
+        
+        JTextField checkInField = new JTextField("15/12/2025");
+        JTextField checkOutField = new JTextField("18/12/2025");
+        JTextField maxPriceField = new JTextField("2000");
+        
+        panel.add(new JLabel("วันที่เข้าพัก (วว/ดด/ปปปป):"));
+        panel.add(checkInField);
+        panel.add(new JLabel("วันที่คืนบ้าน (วว/ดด/ปปปป):"));
+        panel.add(checkOutField);
+        panel.add(new JLabel("ราคาสูงสุดต่อวัน (บาท):"));
+        panel.add(maxPriceField);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "ค้นหาบ้านว่าง",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        
+        // ถ้ากด Cancel ให้ออกจากฟังก์ชัน
+        if (result != JOptionPane.OK_OPTION) return;
+        
+        LocalDate checkIn;
+        LocalDate checkOut;
+        double maxPrice;
+        try {
+            checkIn = BookingSystem.parseDate(checkInField.getText());
+            checkOut = BookingSystem.parseDate(checkOutField.getText());
+            maxPrice = Double.parseDouble(maxPriceField.getText());
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this,
+                "ข้อมูลไม่ถูกต้อง\nกรุณาใช้รูปแบบวันที่ วว/ดด/ปปปป และใส่ราคาเป็นตัวเลข",
+                "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        // สร้าง StringBuilder เพื่อรวมข้อความ
+        // ตรวจสอบว่าวันคืนบ้านต้องมาหลังวันเข้าพัก
+        if (!checkOut.isAfter(checkIn)) {
+            JOptionPane.showMessageDialog(this, "วันที่คืนบ้านต้องหลังจากวันที่เข้าพัก", "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // ค้นหาบ้านที่ว่างทั้งหมด (เรียงตามราคา)
+        List<BookingSystem.HouseQuote> found = bookingSystem.searchAvailableQuotes(checkIn, checkOut, maxPrice);
+        
         StringBuilder sb = new StringBuilder();
         sb.append("═══════════════════════════════════════════════════════\n");
-        sb.append("รายการจองทั้งหมด\n");
+        sb.append(String.format("บ้านว่าง %s ถึง %s (ไม่เกิน %.2f บาท/วัน)\n",
+            checkInField.getText(), checkOutField.getText(), maxPrice));
         sb.append("═══════════════════════════════════════════════════════\n\n");
         
-        // กำหนดรูปแบบวันที่
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        // วนลูปแสดงรายละเอียดการจองแต่ละรายการ
-        for (Booking booking : bookings) {
-            sb.append(String.format("หมายเลขการจอง: %d\n", booking.getBookingId()));
-            sb.append(String.format("บ้านหมายเลข: %d\n", booking.getHouse().getHouseNumber()));
-            sb.append(String.format("ชื่อผู้จอง: %s\n", booking.getCustomer().getFullName()));
-            sb.append(String.format("เบอร์โทร: %s\n", booking.getCustomer().getPhoneNumber()));
-            sb.append(String.format("วันที่: %s ถึง %s\n", 
-                booking.getCheckInDate().format(formatter),
-                booking.getCheckOutDate().format(formatter)));
-            sb.append(String.format("จำนวนวัน: %d วัน\n", booking.getNumberOfDays()));
-            sb.append(String.format("ราคารวม: %.2f บาท\n", booking.getTotalPrice()));
-            sb.append(String.format("สถานะ: %s\n", booking.isPaid() ? "ชำระแล้ว" : "ยังไม่ชำระ"));
-            sb.append("───────────────────────────────────────────────────────\n");
+        if (found.isEmpty()) {
+            sb.append("ไม่พบบ้านว่างตามเงื่อนไข\n");
+        }
+        for (BookingSystem.HouseQuote quote : found) {
+            House house = quote.getHouse();
+            sb.append(String.format("บ้านหมายเลข %2d - ราคารวม: %,.2f บาท (ปกติ %.2f บาท/วัน)\n",
+                house.getHouseNumber(), quote.getTotalPrice(), house.getPricePerDay()));
         }
         
-        // แสดงข้อความทั้งหมด
         setText(sb.toString());
     }
     
+    /**
+     * นำเข้าบ้าน ลูกค้า และการจองจากไฟล์ CSV (เมนู 5)
+     * อ่านไฟล์ใน SwingWorker นอก EDT หน้าต่างจึงไม่ค้างระหว่างนำเข้าไฟล์ใหญ่
+     * ถ้ามีบ้านใหม่ บันทึก catalog ด้วย เพื่อให้เปิดโปรแกรมครั้งถัดไปอ่านการจองของบ้านเหล่านั้นได้
+     */
+    private void importCsv() {
+        JFileChooser chooser = new JFileChooser(".");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        setText("กำลังนำเข้า " + file.getFileName() + " ...");
+        
+        new SwingWorker<BookingCsv.Report, Void>() {
+            @Override
+            protected BookingCsv.Report doInBackground() throws IOException {
+                BookingCsv.Report report = new BookingCsv(bookingSystem).importFrom(file);
+                if (report.getHousesAdded() > 0) {
+                    bookingSystem.saveCatalog(Paths.get(BookingSystem.DEFAULT_CATALOG));
+                }
+                return report;
+            }
+            
+            @Override
+            protected void done() {
+                BookingCsv.Report report;
+                try {
+                    report = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    setText("นำเข้าไม่สำเร็จ");
+                    JOptionPane.showMessageDialog(SimpleBookingGUI.this,
+                        "นำเข้า " + file.getFileName() + " ไม่สำเร็จ\n" + e.getCause().getMessage(),
+                        "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                
+                StringBuilder sb = new StringBuilder();
+                sb.append("═══════════════════════════════════════════════════════\n");
+                sb.append("นำเข้า ").append(file.getFileName()).append(" เรียบร้อย\n");
+                sb.append("═══════════════════════════════════════════════════════\n\n");
+                sb.append(String.format("บ้านใหม่: %,d หลัง\n", report.getHousesAdded()));
+                sb.append(String.format("ลูกค้า: %,d รายการ\n", report.getCustomers()));
+                sb.append(String.format("การจอง: %,d รายการ\n", report.getBookingsImported()));
+                sb.append(String.format("ข้ามไป: %,d รายการ\n\n", report.getRejected()));
+                for (String error : report.getErrors()) {
+                    sb.append(error).append('\n');
+                }
+                setText(sb.toString());
+            }
+        }.execute();
+    }
+    
+    /**
+     * ส่งออกบ้าน ลูกค้า และการจองทั้งหมดเป็นไฟล์ CSV (เมนู 6) ทำใน SwingWorker นอก EDT
+     */
+    private void exportCsv() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setSelectedFile(new File("bookings.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        setText("กำลังส่งออก " + file.getFileName() + " ...");
+        
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                return new BookingCsv(bookingSystem).exportTo(file);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    setText(String.format("ส่งออกการจอง %,d รายการไปที่ %s เรียบร้อย\n", get(), file));
+                } catch (InterruptedException | ExecutionException e) {
+                    setText("ส่งออกไม่สำเร็จ");
+                    JOptionPane.showMessageDialog(SimpleBookingGUI.this,
+                        "ส่งออก " + file.getFileName() + " ไม่สำเร็จ\n" + e.getCause().getMessage(),
+                        "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+    
     /**
      * ฟังก์ชัน main - จุดเริ่มต้นของโปรแกรม
      * สร้างและแสดงหน้าต่าง GUI
@@ -412,8 +613,80 @@ public class SimpleBookingGUI extends JFrame {
         // ใช้ SwingUtilities.invokeLater เพื่อรันใน Event Dispatch Thread (EDT)
         // เป็น Best Practice สำหรับ Swing GUI
         SwingUtilities.invokeLater(() -> {
+            // สร้างระบบจองบ้านพักจากไฟล์ catalog
+            BookingSystem bookingSystem;
+            try {
+                bookingSystem = new BookingSystem();
+            } catch (IOException | IllegalArgumentException e) {
+                // ถ้าโหลด catalog ไม่ได้ แจ้งผู้ใช้และปิดโปรแกรม
+                JOptionPane.showMessageDialog(null,
+                    "ไม่สามารถโหลดรายการบ้านจาก " + BookingSystem.DEFAULT_CATALOG + "\n" + e.getMessage(),
+                    "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+                return;
+            }
+            
+            // โหลดอัตราราคาพิเศษ (ถ้ามีไฟล์) ถ้าไม่มีทุกคืนใช้ราคาปกติของบ้าน
+            Path ratesFile = Paths.get(BookingSystem.DEFAULT_RATES);
+            if (Files.exists(ratesFile)) {
+                try {
+                    bookingSystem.loadRates(ratesFile);
+                } catch (IOException | IllegalArgumentException e) {
+                    JOptionPane.showMessageDialog(null,
+                        "ไม่สามารถโหลดอัตราราคาจาก " + BookingSystem.DEFAULT_RATES + "\n" + e.getMessage(),
+                        "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                    return;
+                }
+            }
+            
+            // โหลด snapshot และเปิด journal: โหลดการจองเดิมกลับมา และบันทึกการจองใหม่ลงดิสก์
+            Path snapshotFile = Paths.get(BookingSystem.DEFAULT_SNAPSHOT);
+            try {
+                bookingSystem.openJournal(Paths.get(BookingSystem.DEFAULT_JOURNAL), snapshotFile);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(null,
+                    "ไม่สามารถเปิดไฟล์การจอง " + BookingSystem.DEFAULT_JOURNAL + "\n" + e.getMessage(),
+                    "ข้อผิดพลาด", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+                return;
+            }
+            
+            // เปิดสถิติการทำงานให้ดูผ่าน JMX (JConsole / VisualVM)
+            try {
+                bookingSystem.getMetrics().registerMBeans("main");
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+            
+            // เขียน snapshot เป็นระยะ เพื่อให้เปิดโปรแกรมครั้งถัดไปไม่ต้อง replay journal ยาว
+            ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booking-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checkpointer.scheduleWithFixedDelay(() -> {
+                try {
+                    bookingSystem.checkpoint(snapshotFile);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, CHECKPOINT_INTERVAL_MINUTES, CHECKPOINT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+            
+            // เขียน snapshot และปิด journal ให้เรียบร้อยเมื่อออกจากโปรแกรม
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                checkpointer.shutdownNow();
+                System.out.print(bookingSystem.getMetrics().dump());
+                try {
+                    bookingSystem.checkpoint(snapshotFile);
+                    bookingSystem.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+            
             // สร้าง object ของ GUI
-            SimpleBookingGUI gui = new SimpleBookingGUI();
+            SimpleBookingGUI gui = new SimpleBookingGUI(bookingSystem);
             
             // แสดงหน้าต่าง
             gui.setVisible(true);
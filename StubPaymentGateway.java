@@ -0,0 +1,67 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gateway จำลองสำหรับใช้ในเครื่องและทดสอบ
+ * อนุมัติเมื่อจำนวนเงินตรงกับราคารวม (เทียบเป็นสตางค์) หลังหน่วงเวลาตามที่กำหนด
+ * การชำระแบบกลุ่มเทียบกับผลรวมของราคาทุกการจองในกลุ่ม
+ */
+public class StubPaymentGateway implements PaymentGateway {
+    // เวลาหน่วงก่อนได้ผล (มิลลิวินาที)
+    private final long latencyMillis;
+
+    // executor ที่ส่งผลหลังหน่วงเวลา (ไม่ใช้ thread ต่อการชำระเงิน)
+    private final Executor delayed;
+
+    /**
+     * Constructor สำหรับสร้าง gateway จำลอง
+     *
+     * @param latencyMillis เวลาหน่วงก่อนได้ผล (0 = ได้ผลทันที)
+     */
+    public StubPaymentGateway(long latencyMillis) {
+        if (latencyMillis < 0) {
+            throw new IllegalArgumentException("latencyMillis ต้องไม่ติดลบ");
+        }
+        this.latencyMillis = latencyMillis;
+        this.delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * ดึงเวลาหน่วงของ gateway
+     * @return เวลาหน่วง (มิลลิวินาที)
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> authorize(Booking booking, double amount) {
+        boolean approved = toSatang(amount) == toSatang(booking.getTotalPrice());
+        if (latencyMillis == 0) {
+            return CompletableFuture.completedFuture(approved);
+        }
+        return CompletableFuture.supplyAsync(() -> approved, delayed);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> authorizeGroup(List<Booking> bookings, double amount) {
+        long total = 0;
+        for (Booking booking : bookings) {
+            total += toSatang(booking.getTotalPrice());
+        }
+        boolean approved = toSatang(amount) == total;
+        if (latencyMillis == 0) {
+            return CompletableFuture.completedFuture(approved);
+        }
+        return CompletableFuture.supplyAsync(() -> approved, delayed);
+    }
+
+    /**
+     * แปลงจำนวนเงินเป็นสตางค์ เพื่อเทียบโดยไม่มีปัญหาความคลาดเคลื่อนของ double
+     */
+    private static long toSatang(double baht) {
+        return Math.round(baht * 100);
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * คลาสตัวจับเวลาแบบ timing wheel (hashed wheel) สำหรับงานที่หมดอายุจำนวนมาก
+ * แบ่งเวลาเป็นช่อง (tick) วนเป็นวงกลม รายการที่หมดอายุใน tick เดียวกันอยู่ในช่องเดียวกัน
+ * เมื่อเวลาเดินถึงช่องนั้น รายการที่หมดอายุทั้งหมดถูกส่งให้ตัวจัดการพร้อมกันเป็นชุดเดียว
+ *
+ * การเพิ่มรายการเป็น O(1) และไม่ต้องมี timer แยกต่อรายการ
+ * ไม่มีการยกเลิกรายการ: ตัวจัดการต้องข้ามรายการที่ไม่ต้องหมดอายุแล้วเอง (เช่น ชำระเงินแล้ว)
+ *
+ * ช่องต่าง ๆ ถูกแก้ไขโดย thread ของตัวจับเวลาเท่านั้น
+ * thread อื่นส่งรายการใหม่ผ่านคิว pending ซึ่งถูกย้ายเข้าช่องทุก tick
+ *
+ * @param <T> ชนิดของรายการ
+ */
+public class TimingWheel<T> implements AutoCloseable {
+    // จำนวนช่องในวง (ต้องเป็นกำลังของ 2)
+    private static final int WHEEL_SIZE = 512;
+
+    // ความยาวของหนึ่งช่อง (nanosecond)
+    private final long tickNanos;
+
+    // ช่องของวง แต่ละช่องเก็บรายการที่หมดอายุใน tick นั้น (หรือรอบถัดไปของวง)
+    private final ArrayDeque<Entry<T>>[] buckets;
+
+    // รายการใหม่ที่ยังไม่ได้ย้ายเข้าช่อง
+    private final ConcurrentLinkedQueue<Entry<T>> pending;
+
+    // ตัวจัดการรายการที่หมดอายุ (ได้รับเป็นชุด)
+    private final Consumer<List<T>> expiredHandler;
+
+    // เวลาเริ่มต้นของวง (System.nanoTime)
+    private final long startNanos;
+
+    // thread ที่หมุนวงทุก tick
+    private final ScheduledExecutorService ticker;
+
+    // tick ถัดไปที่ต้องประมวลผล (thread ของตัวจับเวลาเท่านั้น)
+    private long currentTick;
+
+    /**
+     * รายการหนึ่งรายการในวง
+     */
+    private static final class Entry<T> {
+        final T item;
+        final long deadlineTick;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Constructor สำหรับสร้างและเริ่มหมุนวง
+     *
+     * @param tickMillis ความละเอียดของเวลา (รายการอาจหมดอายุช้ากว่ากำหนดได้ไม่เกินหนึ่ง tick)
+     * @param threadName ชื่อ thread ของตัวจับเวลา
+     * @param expiredHandler ตัวจัดการรายการที่หมดอายุ (เรียกจาก thread ของตัวจับเวลา)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, String threadName, Consumer<List<T>> expiredHandler) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis ต้องมากกว่า 0");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new ArrayDeque[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.expiredHandler = expiredHandler;
+        this.startNanos = System.nanoTime();
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * เพิ่มรายการที่จะหมดอายุหลังเวลาที่กำหนด (เรียกได้จากทุก thread)
+     *
+     * @param item รายการ
+     * @param delayMillis เวลาจนหมดอายุ (มิลลิวินาที)
+     */
+    public void schedule(T item, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        // ปัดขึ้นเป็น tick เพื่อไม่ให้หมดอายุก่อนเวลา
+        pending.add(new Entry<>(item, (deadline + tickNanos - 1) / tickNanos));
+    }
+
+    /**
+     * หมุนวงจนถึงเวลาปัจจุบัน แล้วส่งรายการที่หมดอายุทั้งหมดให้ตัวจัดการ
+     * (ถ้า thread ถูกหน่วง จะประมวลผลทุก tick ที่ค้างในรอบเดียว)
+     */
+    private void advance() {
+        long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+        List<T> expired = new ArrayList<>();
+
+        while (currentTick <= nowTick) {
+            transferPending();
+
+            // ช่องนี้อาจมีรายการของรอบถัดไปของวงปนอยู่ เก็บไว้ก่อน
+            Iterator<Entry<T>> entries = buckets[(int) (currentTick & (WHEEL_SIZE - 1))].iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.deadlineTick <= currentTick) {
+                    expired.add(entry.item);
+                    entries.remove();
+                }
+            }
+            currentTick++;
+        }
+
+        if (!expired.isEmpty()) {
+            try {
+                expiredHandler.accept(expired);
+            } catch (RuntimeException e) {
+                // ไม่ให้ข้อผิดพลาดหยุดการหมุนวง (scheduleAtFixedRate จะยกเลิกงานถ้ามี exception)
+                ConsoleLog.info("%s: %s", Thread.currentThread().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * ย้ายรายการใหม่เข้าช่องตาม tick ที่หมดอายุ
+     */
+    private void transferPending() {
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            // รายการที่หมดอายุไปแล้วใส่ช่องปัจจุบัน เพื่อให้หมดอายุใน tick นี้
+            long tick = Math.max(entry.deadlineTick, currentTick);
+            buckets[(int) (tick & (WHEEL_SIZE - 1))].add(entry);
+        }
+    }
+
+    /**
+     * หยุดหมุนวง (รายการที่ยังไม่หมดอายุจะไม่ถูกส่งให้ตัวจัดการ)
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+}
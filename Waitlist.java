@@ -0,0 +1,336 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * คลาสรายชื่อรอ (waitlist) ของบ้านและช่วงวันที่ที่ถูกจองเต็มแล้ว
+ * เมื่อวันที่กลับมาว่าง (ยกเลิก เปลี่ยนวันที่ ปล่อย hold หรือ hold หมดเวลา) BookingSystem แจ้งผ่าน
+ * AvailabilityListener แล้วผู้รอที่ช่วงวันที่ทับกับวันที่ว่างใหม่ได้รับ hold อัตโนมัติ
+ * ผ่าน createBooking ตามลำดับที่เข้าคิว (FIFO) ไม่ต้องวนอ่านรายการจองเลย
+ *
+ * ผู้รอของแต่ละบ้านเก็บใน TreeMap เรียงตามวันที่เข้าพัก การหาผู้รอที่ทับกับช่วงวันว่าง
+ * จึงดูเฉพาะผู้รอที่เข้าพักระหว่าง (วันแรกที่ว่าง - ระยะพักที่ยาวที่สุด) ถึงวันสุดท้ายที่ว่าง
+ * ไม่ต้องไล่ผู้รอทั้งหมด
+ *
+ * ดัชนีถูกแก้ไขโดย thread ของรายชื่อรอเท่านั้น (รับงานจากคิว เหมือน shard ของ ShardedBookingSystem)
+ * การแจ้งจาก BookingSystem (ขณะถือ lock ของบ้าน) จึงแค่ใส่งานเข้าคิวแล้วคืนทันที
+ * hold ที่เสนอให้ผู้รอหมดเวลาได้ตามปกติ และถูกเสนอต่อให้ผู้รอคนถัดไป
+ */
+public class Waitlist implements AutoCloseable {
+    // งานพิเศษที่บอก thread ของรายชื่อรอให้หยุด
+    private static final Runnable STOP = () -> { };
+
+    // ระบบที่ใช้สร้าง hold ให้ผู้รอ
+    private final BookingSystem bookingSystem;
+
+    // ผู้รอของแต่ละบ้าน (key = หมายเลขบ้าน, thread ของรายชื่อรอเท่านั้น)
+    private final Map<Integer, HouseWaiters> waiters = new HashMap<>();
+
+    // งานที่รอ thread ของรายชื่อรอ (เข้าคิว ออกจากคิว และวันที่ที่กลับมาว่าง)
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+    // thread ที่จับคู่ผู้รอกับวันที่ว่าง
+    private final Thread worker;
+
+    // ลำดับการเข้าคิว
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    // จำนวนผู้รอที่ยังไม่ได้รับ hold
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // ถูกปิดแล้ว (งานที่เข้าคิวหลังจากนี้อาจไม่ถูกทำ)
+    private volatile boolean closed;
+
+    /**
+     * คำขอรอหนึ่งรายการ
+     * getOffer() ได้ผลเป็นการจองที่กันวันไว้ให้แล้ว (ชำระเงินต่อด้วย processPayment ภายใน getHoldMillis())
+     */
+    public static final class Request {
+        private final int id;
+        private final House house;
+        private final Customer customer;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final CompletableFuture<Booking> offer = new CompletableFuture<>();
+
+        Request(int id, House house, Customer customer, LocalDate checkIn, LocalDate checkOut) {
+            this.id = id;
+            this.house = house;
+            this.customer = customer;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public House getHouse() {
+            return house;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public LocalDate getCheckIn() {
+            return checkIn;
+        }
+
+        public LocalDate getCheckOut() {
+            return checkOut;
+        }
+
+        /**
+         * @return future ของการจองที่กันวันไว้ให้ (ถูกยกเลิกถ้าออกจากคิวหรือปิดรายชื่อรอ)
+         */
+        public CompletableFuture<Booking> getOffer() {
+            return offer;
+        }
+    }
+
+    /**
+     * ผู้รอของบ้านหนึ่งหลัง เรียงตามวันที่เข้าพัก
+     */
+    private static final class HouseWaiters {
+        final TreeMap<LocalDate, List<Request>> byCheckIn = new TreeMap<>();
+
+        // จำนวนคำขอที่ยังอยู่ในคิวต่อระยะพัก (key = จำนวนวัน) คีย์สุดท้ายคือระยะพักที่ยาวที่สุด
+        // ใช้จำกัดช่วงที่ต้องค้น และลดลงเมื่อคำขอที่ยาวที่สุดออกจากคิว
+        final TreeMap<Long, Integer> spanCounts = new TreeMap<>();
+
+        void add(Request request) {
+            byCheckIn.computeIfAbsent(request.checkIn, day -> new ArrayList<>()).add(request);
+            spanCounts.merge(spanDays(request), 1, Integer::sum);
+        }
+
+        boolean remove(Request request) {
+            List<Request> sameDay = byCheckIn.get(request.checkIn);
+            if (sameDay == null || !sameDay.remove(request)) {
+                return false;
+            }
+            if (sameDay.isEmpty()) {
+                byCheckIn.remove(request.checkIn);
+            }
+            spanCounts.computeIfPresent(spanDays(request), (span, count) -> count == 1 ? null : count - 1);
+            return true;
+        }
+
+        long maxSpanDays() {
+            return spanCounts.isEmpty() ? 0 : spanCounts.lastKey();
+        }
+
+        private static long spanDays(Request request) {
+            return request.checkOut.toEpochDay() - request.checkIn.toEpochDay();
+        }
+
+        /**
+         * ผู้รอที่ช่วงวันที่ทับกับช่วงที่กำหนด เรียงตามลำดับการเข้าคิว
+         */
+        List<Request> overlapping(LocalDate from, LocalDate to) {
+            List<Request> found = new ArrayList<>();
+            for (List<Request> sameDay : byCheckIn.subMap(from.minusDays(maxSpanDays()), true, to, true).values()) {
+                for (Request request : sameDay) {
+                    if (!request.checkOut.isBefore(from)) {
+                        found.add(request);
+                    }
+                }
+            }
+            found.sort(Comparator.comparingInt(Request::getId));
+            return found;
+        }
+    }
+
+    /**
+     * งานเข้าคิวของผู้รอหนึ่งคน (แยกเป็นคลาสให้ close() หาคำขอจากงานที่ค้างในคิวได้)
+     */
+    private final class Join implements Runnable {
+        final Request request;
+
+        Join(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public void run() {
+            waitersOf(request.house).add(request);
+            offer(request.house, request.checkIn, request.checkOut);
+        }
+    }
+
+    /**
+     * Constructor - สร้างรายชื่อรอและเริ่มรับแจ้งวันที่ว่างจากระบบ
+     * (ระบบมีผู้รับแจ้งได้รายเดียว รายชื่อรอนี้แทนผู้รับแจ้งเดิม)
+     *
+     * @param bookingSystem ระบบจองที่ใช้กันวันให้ผู้รอ
+     */
+    public Waitlist(BookingSystem bookingSystem) {
+        this.bookingSystem = bookingSystem;
+        worker = new Thread(this::run, "booking-waitlist");
+        worker.setDaemon(true);
+        worker.start();
+        bookingSystem.setAvailabilityListener(
+            (house, checkIn, checkOut) -> tasks.add(() -> offer(house, checkIn, checkOut)));
+    }
+
+    /**
+     * เข้าคิวรอบ้านและช่วงวันที่ที่ต้องการ
+     * ถ้าวันที่ว่างอยู่แล้วตอนเข้าคิว ได้รับ hold ทันที (ไม่ต้องรอการแจ้งครั้งถัดไป)
+     * ถ้ารายชื่อรอถูกปิดแล้ว getOffer() จบแบบ cancelled
+     *
+     * @param house บ้านที่ต้องการ
+     * @param customer ลูกค้าที่รอ
+     * @param checkIn วันที่เข้าพัก
+     * @param checkOut วันที่คืนบ้าน
+     * @return คำขอรอ (ใช้ getOffer() รอผล หรือ leave() เพื่อออกจากคิว)
+     * @throws IllegalArgumentException ถ้าวันที่คืนบ้านไม่อยู่หลังวันที่เข้าพัก
+     */
+    public Request join(House house, Customer customer, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("วันที่คืนบ้านต้องอยู่หลังวันที่เข้าพัก");
+        }
+        Request request = new Request(nextId.getAndIncrement(), house, customer, checkIn, checkOut);
+        waiting.incrementAndGet();
+        tasks.add(new Join(request));
+        if (closed) {
+            // close() อาจเก็บงานที่ค้างไปก่อนงานนี้เข้าคิว ยกเลิกเองไม่ให้ getOffer() ค้าง
+            // (ถ้า thread ของรายชื่อรอเสนอ hold ไปแล้ว การยกเลิกไม่มีผล)
+            cancel(request);
+        }
+        return request;
+    }
+
+    /**
+     * ออกจากคิว (ถ้ายังไม่ได้รับ hold)
+     *
+     * @param request คำขอจาก join
+     * @return true ถ้าออกจากคิวแล้ว, false ถ้าได้รับ hold ไปแล้วหรือออกไปก่อนแล้ว
+     */
+    public boolean leave(Request request) {
+        if (!cancel(request)) {
+            return false;
+        }
+        tasks.add(() -> waitersOf(request.house).remove(request));
+        return true;
+    }
+
+    /**
+     * ยกเลิกคำขอ (นับออกจากจำนวนผู้รอครั้งเดียว ไม่ว่าใครยกเลิกก่อน)
+     * ใช้ completeExceptionally แทน cancel เพราะ cancel คืน true แม้ถูกยกเลิกไปก่อนแล้ว
+     */
+    private boolean cancel(Request request) {
+        if (!request.offer.completeExceptionally(new CancellationException())) {
+            return false;
+        }
+        waiting.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * ดึงจำนวนผู้รอที่ยังไม่ได้รับ hold
+     * @return จำนวนผู้รอ
+     */
+    public int size() {
+        return waiting.get();
+    }
+
+    /**
+     * เลิกรับแจ้งจากระบบและหยุด thread ของรายชื่อรอ
+     * ผู้รอที่ยังไม่ได้รับ hold ถูกยกเลิก (getOffer() จบแบบ cancelled)
+     */
+    @Override
+    public void close() {
+        closed = true;
+        bookingSystem.setAvailabilityListener(null);
+        tasks.add(STOP);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            // ถูก interrupt ระหว่างรอ: thread ของรายชื่อรอยังใช้ดัชนีอยู่ ไม่แตะต่อ
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // งานที่เข้าคิวหลัง STOP ไม่มี thread ทำแล้ว ยกเลิกผู้รอจากงานเหล่านั้นโดยตรง
+        List<Runnable> remaining = new ArrayList<>();
+        tasks.drainTo(remaining);
+        for (Runnable task : remaining) {
+            if (task instanceof Join) {
+                cancel(((Join) task).request);
+            }
+        }
+        for (HouseWaiters houseWaiters : waiters.values()) {
+            for (List<Request> sameDay : houseWaiters.byCheckIn.values()) {
+                for (Request request : sameDay) {
+                    cancel(request);
+                }
+            }
+        }
+        waiters.clear();
+    }
+
+    private void run() {
+        while (true) {
+            Runnable task;
+            try {
+                task = tasks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // งานที่ล้มเหลวไม่หยุดรายชื่อรอ (ผู้รอยังอยู่ในคิว)
+                ConsoleLog.info("รายชื่อรอ: %s", e);
+            }
+        }
+    }
+
+    private HouseWaiters waitersOf(House house) {
+        return waiters.computeIfAbsent(house.getHouseNumber(), number -> new HouseWaiters());
+    }
+
+    /**
+     * เสนอวันที่ที่กลับมาว่างให้ผู้รอที่ทับกับช่วงนั้นตามลำดับการเข้าคิว
+     * ผู้รอที่วันที่ยังไม่ว่างทั้งช่วง (ทับกับการจองอื่นด้วย) ยังอยู่ในคิวต่อ
+     */
+    private void offer(House house, LocalDate from, LocalDate to) {
+        HouseWaiters houseWaiters = waiters.get(house.getHouseNumber());
+        if (houseWaiters == null) {
+            return;
+        }
+        for (Request request : houseWaiters.overlapping(from, to)) {
+            if (request.offer.isDone()) {
+                // ออกจากคิวไปแล้ว (งานลบอยู่ในคิวถัดไป)
+                houseWaiters.remove(request);
+                continue;
+            }
+            if (!bookingSystem.isHouseAvailableForDates(house, request.checkIn, request.checkOut)) {
+                continue;
+            }
+            Booking hold = bookingSystem.createBooking(house, request.customer, request.checkIn, request.checkOut);
+            if (hold == null) {
+                continue;
+            }
+            houseWaiters.remove(request);
+            if (request.offer.complete(hold)) {
+                waiting.decrementAndGet();
+            } else {
+                // ออกจากคิวระหว่างกันวัน ปล่อยวันที่ให้ผู้รอคนถัดไป
+                bookingSystem.releaseHold(hold);
+            }
+        }
+    }
+}
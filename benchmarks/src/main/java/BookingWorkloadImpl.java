@@ -0,0 +1,254 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import bench.BookingWorkload;
+
+/**
+ * ตัว implement BookingWorkload ที่เรียกคลาสของระบบจองบ้านพักโดยตรง
+ * ต้องอยู่ใน default package เดียวกับระบบ (ดูคำอธิบายใน BookingWorkload)
+ */
+public class BookingWorkloadImpl implements BookingWorkload {
+    // ระยะห่างของช่องวันที่ใช้จองบ้านหลังเดียวกัน (การจองยาวไม่เกิน 7 วันจึงไม่ทับซ้อน)
+    private static final int SLOT_DAYS = 8;
+
+    // ระบบที่ใช้วัด
+    private BookingSystem bookingSystem;
+
+    // ระบบแบบแบ่ง shard ที่ใช้วัด (สร้างจาก setUpSharded แทน bookingSystem)
+    private ShardedBookingSystem sharded;
+
+    // จำนวนบ้าน
+    private int fleetSize;
+
+    // วันนี้ (วันที่ 0 ของ fromDay)
+    private LocalDate today;
+
+    // ลำดับช่องวันถัดไปของ pay() (ใช้ร่วมกันทุก thread)
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    @Override
+    public void setUp(int fleetSize, int historySize) {
+        // ระบบพิมพ์ข้อความลง console ทุกครั้งที่จอง ทิ้งข้อความไว้เพื่อไม่ให้ผลของ JMH รก
+        // (ยังวัดต้นทุนการสร้างข้อความ แต่ไม่รวมการเขียนออก terminal)
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<House> fleet = new ArrayList<>(fleetSize);
+        for (int number = 1; number <= fleetSize; number++) {
+            fleet.add(new House(number, 1000 + (number % 20) * 100));
+        }
+        HouseRegistry houses = new HouseRegistry();
+        houses.addAll(fleet);
+        this.bookingSystem = new BookingSystem(houses);
+        this.fleetSize = fleetSize;
+        this.today = LocalDate.now();
+
+        configurePricing(bookingSystem.getPricing(), houses);
+
+        // การจองเดิม: ช่องวันที่ slot ของบ้านแต่ละหลัง เริ่มจากอดีตไปอนาคต
+        long slots = (historySize + fleetSize - 1) / fleetSize;
+        LocalDate firstDay = today.minusDays(slots * SLOT_DAYS / 2);
+        for (int i = 0; i < historySize; i++) {
+            House house = bookingSystem.findHouseByNumber(1 + i % fleetSize);
+            LocalDate checkIn = firstDay.plusDays((long) (i / fleetSize) * SLOT_DAYS);
+            Booking booking = new Booking(house, 
+                new Customer("ลูกค้า " + i, "08" + (10000000 + i), "customer" + i + "@example.com"), 
+                checkIn, checkIn.plusDays(1 + i % 7));
+            booking.setPaid(true);
+            bookingSystem.confirmBooking(booking);
+        }
+
+        // pay() เริ่มที่ช่องวันถัดจากการจองเดิมทั้งหมด
+        this.nextSlot.set(slots * fleetSize);
+    }
+
+    /**
+     * อัตราราคาแบบที่ใช้จริง: สุดสัปดาห์ ฤดูกาลท่องเที่ยว วันหยุด และราคาเฉพาะบ้านบางหลัง
+     */
+    private void configurePricing(PricingEngine pricing, HouseRegistry houses) {
+        pricing.setWeekendMultiplier(1.2);
+        pricing.addSeason(today.plusDays(30), today.plusDays(120), 1.5);
+        pricing.addHoliday(today.plusDays(60), 2.0);
+        for (int number = 1; number <= fleetSize; number += 50) {
+            pricing.setHouseRate(houses.find(number), today.plusDays(200), today.plusDays(260), 4000);
+        }
+    }
+
+    @Override
+    public void setUpSharded(int fleetSize, int historySize, int shards) {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<House> fleet = new ArrayList<>(fleetSize);
+        for (int number = 1; number <= fleetSize; number++) {
+            fleet.add(new House(number, 1000 + (number % 20) * 100));
+        }
+        HouseRegistry houses = new HouseRegistry();
+        houses.addAll(fleet);
+        this.sharded = new ShardedBookingSystem(houses, shards);
+        this.fleetSize = fleetSize;
+        this.today = LocalDate.now();
+        configurePricing(sharded.getPricing(), houses);
+
+        // การจองเดิม: จองและชำระผ่าน router ทีละช่องวันตั้งแต่วันนี้ (shard ต่าง ๆ ทำขนานกัน)
+        List<CompletableFuture<PaymentStatus>> confirmed = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            House house = houses.find(1 + i % fleetSize);
+            LocalDate checkIn = today.plusDays((long) (i / fleetSize) * SLOT_DAYS);
+            confirmed.add(sharded.createBooking(house, 
+                    new Customer("ลูกค้า " + i, "08" + (10000000 + i), "customer" + i + "@example.com"), 
+                    checkIn, checkIn.plusDays(1 + i % 7))
+                .thenCompose(booking -> sharded.processPayment(booking, booking.getTotalPrice())));
+        }
+        CompletableFuture.allOf(confirmed.toArray(new CompletableFuture<?>[0])).join();
+
+        this.nextSlot.set((long) (historySize + fleetSize - 1) / fleetSize * fleetSize);
+    }
+
+    @Override
+    public boolean paySharded() {
+        long slot = nextSlot.getAndIncrement();
+        House house = sharded.findHouseByNumber(1 + (int) (slot % fleetSize));
+        LocalDate checkIn = today.plusDays((slot / fleetSize) * SLOT_DAYS);
+
+        Booking booking = sharded.createBooking(house, 
+            new Customer("ลูกค้าใหม่", "0899999999", "new@example.com"), checkIn, checkIn.plusDays(2)).join();
+        if (booking == null) {
+            return false;
+        }
+        return sharded.processPayment(booking, booking.getTotalPrice()).join() == PaymentStatus.CONFIRMED;
+    }
+
+    @Override
+    public boolean isAvailableSharded(int houseNumber, int fromDay, int nights) {
+        LocalDate checkIn = today.plusDays(fromDay);
+        return sharded.isHouseAvailableForDates(
+            sharded.findHouseByNumber(houseNumber), checkIn, checkIn.plusDays(nights)).join();
+    }
+
+    @Override
+    public int getFleetSize() {
+        return fleetSize;
+    }
+
+    @Override
+    public boolean isAvailable(int houseNumber, int fromDay, int nights) {
+        LocalDate checkIn = today.plusDays(fromDay);
+        return bookingSystem.isHouseAvailableForDates(
+            bookingSystem.findHouseByNumber(houseNumber), checkIn, checkIn.plusDays(nights));
+    }
+
+    @Override
+    public double quote(int houseNumber, int fromDay, int nights) {
+        LocalDate checkIn = today.plusDays(fromDay);
+        return bookingSystem.quote(
+            bookingSystem.findHouseByNumber(houseNumber), checkIn, checkIn.plusDays(nights));
+    }
+
+    @Override
+    public Object findHouse(int houseNumber) {
+        return bookingSystem.findHouseByNumber(houseNumber);
+    }
+
+    @Override
+    public Object createBooking(int houseNumber, int fromDay, int nights) {
+        LocalDate checkIn = today.plusDays(fromDay);
+        Booking booking = bookingSystem.createBooking(bookingSystem.findHouseByNumber(houseNumber), 
+            new Customer("ลูกค้าใหม่", "0899999999", "new@example.com"), checkIn, checkIn.plusDays(nights));
+        // createBooking กันวันไว้ ปล่อยคืนทันทีเพื่อไม่ให้ hold สะสมจนบ้านเต็มระหว่างวัด
+        if (booking != null) {
+            bookingSystem.releaseHold(booking);
+        }
+        return booking;
+    }
+
+    @Override
+    public boolean pay() {
+        // ช่องวันถัดไป: วนบ้านทุกหลังก่อนขยับไปช่วงวันถัดไป จึงไม่ชนการจองเดิม
+        long slot = nextSlot.getAndIncrement();
+        House house = bookingSystem.findHouseByNumber(1 + (int) (slot % fleetSize));
+        LocalDate checkIn = today.plusDays((slot / fleetSize) * SLOT_DAYS);
+
+        Booking booking = bookingSystem.createBooking(house, 
+            new Customer("ลูกค้าใหม่", "0899999999", "new@example.com"), checkIn, checkIn.plusDays(2));
+        if (booking == null) {
+            return false; // thread อื่นเพิ่งจองบ้านหลังเดียวกัน (เกิดได้เมื่อบ้านน้อยกว่าจำนวน thread)
+        }
+        return bookingSystem.processPayment(booking, booking.getTotalPrice());
+    }
+
+    @Override
+    public Object viewBookings() {
+        // ขั้นตอนเดียวกับ BookingTablePanel.reload() และ showPage(0)
+        List<Booking> found = bookingSystem.findBookings(null, null, null);
+        BookingTableModel.sort(found, 0, true);
+        BookingTableModel model = new BookingTableModel();
+        model.setPage(found.subList(0, Math.min(BookingTableModel.PAGE_SIZE, found.size())));
+
+        Object last = null;
+        for (int row = 0; row < model.getRowCount(); row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                last = model.getValueAt(row, column);
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public long historyFootprint(int count, boolean compact) {
+        HouseRegistry houses = new HouseRegistry();
+        for (int number = 1; number <= 100; number++) {
+            houses.add(new House(number, 1500));
+        }
+        Customer[] customers = new Customer[Math.max(1, count / 5)];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("ลูกค้า " + i, "08" + (10000000 + i), "customer" + i + "@example.com");
+        }
+        LocalDate firstDay = LocalDate.of(2020, 1, 1);
+
+        long before = usedHeapAfterGc();
+        List<Booking> history = compact ? new BookingList(houses) : new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate checkIn = firstDay.plusDays(i / 100 * 8);
+            Booking booking = new Booking(houses.find(1 + i % 100), customers[i % customers.length], 
+                                          checkIn, checkIn.plusDays(1 + i % 7));
+            booking.setPaid(true);
+            history.add(booking);
+        }
+        long after = usedHeapAfterGc();
+
+        // ให้รายการและลูกค้ายังถูกอ้างถึงจนวัดเสร็จ
+        if (history.size() != count || customers.length == 0) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    /**
+     * heap ที่ใช้อยู่หลังเรียก GC หลายรอบ
+     */
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void tearDown() {
+        try {
+            if (bookingSystem != null) {
+                bookingSystem.close();
+            }
+            if (sharded != null) {
+                sharded.close();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ตัวสร้างโหลดจำลอง: ลูกค้าจำนวนมากแย่งจองบ้านยอดนิยมในช่วงวันยอดนิยมพร้อมกันจากหลาย thread
+ * แต่ละครั้งเรียก createBooking แล้ว processPaymentAsync (ถ้าการชำระเงินถูกปฏิเสธ ปล่อยวันที่ที่กันไว้คืน)
+ * จบแล้วรายงาน throughput, latency (p50/p99/p999), อัตราการชน และตรวจว่าไม่มีบ้านหลังใดถูกจองซ้อนกัน
+ *
+ * การใช้งาน (ค่าทั้งหมดไม่บังคับ):
+ *   java -Dload.threads=8 -Dload.rate=20000 -Dload.seconds=10 -Dload.houses=1000 -Dload.skew=1.1 \
+ *        -cp target/benchmarks.jar LoadGenerator
+ *
+ * ค่าที่กำหนดได้:
+ *   load.threads      จำนวน thread ลูกค้า (8)
+ *   load.rate         จำนวนลูกค้าที่มาถึงต่อวินาทีรวมทุก thread (0 = แต่ละ thread ส่งคำขอถัดไปทันทีที่เสร็จ)
+ *   load.seconds      ระยะเวลาที่สร้างโหลด (10)
+ *   load.houses       จำนวนบ้าน (1000)
+ *   load.customers    จำนวนลูกค้าที่ต่างกัน (10000)
+ *   load.skew         ความนิยมของบ้านแบบ Zipf (0 = ทุกหลังเท่ากัน, 1 ขึ้นไป = บ้านไม่กี่หลังถูกแย่งจอง) (1.0)
+ *   load.horizon      วันเข้าพักสุ่มภายในกี่วันจากวันนี้ (365)
+ *   load.hotStart     วันแรกของช่วงวันยอดนิยม นับจากวันนี้ (60)
+ *   load.hotDays      ความยาวของช่วงวันยอดนิยม (7)
+ *   load.hotFraction  สัดส่วนของลูกค้าที่ต้องการเข้าพักในช่วงวันยอดนิยม (0.3)
+ *   load.minNights    จำนวนคืนน้อยสุด (1)
+ *   load.maxNights    จำนวนคืนมากสุด (7)
+ *   load.declineRate  สัดส่วนการชำระเงินที่ gateway ปฏิเสธ (0.05)
+ *   load.gatewayMillis เวลาหน่วงของ gateway (0)
+ *   load.seed         seed ของการสุ่มบ้าน วันที่ และลูกค้า (ลำดับคำขอของแต่ละ thread ซ้ำได้เมื่อใช้ค่าเดิม)
+ *
+ * เมื่อกำหนด load.rate เวลาที่ลูกค้ามาถึงสุ่มแบบ Poisson และ latency นับจากเวลาที่ควรมาถึง
+ * (ไม่ใช่เวลาที่ thread ว่างส่งคำขอ) เวลาที่รอคิวเมื่อระบบรับไม่ทันจึงถูกนับรวมด้วย
+ */
+public class LoadGenerator {
+    // จำนวนการจองซ้อนที่พิมพ์รายละเอียดสูงสุด
+    private static final int MAX_REPORTED_VIOLATIONS = 10;
+
+    // ค่าที่กำหนด
+    private final int threads;
+    private final double rate;
+    private final long seconds;
+    private final int houseCount;
+    private final double skew;
+    private final int horizon;
+    private final int hotStart;
+    private final int hotDays;
+    private final double hotFraction;
+    private final int minNights;
+    private final int maxNights;
+    private final double declineRate;
+    private final long seed;
+
+    // ระบบที่ถูกทดสอบ
+    private final BookingSystem bookingSystem;
+
+    // บ้านเรียงตามความนิยม และผลรวมสะสมของน้ำหนักแบบ Zipf (ใช้สุ่มด้วย binary search)
+    private final House[] houses;
+    private final double[] popularity;
+
+    // ลูกค้าที่ลงทะเบียนไว้แล้ว
+    private final Customer[] customers;
+
+    // วันนี้ (วันที่ 0 ของ horizon)
+    private final LocalDate today;
+
+    // เวลาที่ใช้ของแต่ละขั้นและทั้งหมด
+    private final LatencyHistogram createLatency = new LatencyHistogram();
+    private final LatencyHistogram paymentLatency = new LatencyHistogram();
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+    // ผลของแต่ละความพยายามจอง
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder lostRace = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * สร้างระบบใหม่ตามค่าที่กำหนดใน system property (load.*)
+     */
+    LoadGenerator() {
+        threads = Integer.getInteger("load.threads", 8);
+        rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+        seconds = Long.getLong("load.seconds", 10);
+        houseCount = Integer.getInteger("load.houses", 1000);
+        skew = Double.parseDouble(System.getProperty("load.skew", "1.0"));
+        horizon = Integer.getInteger("load.horizon", 365);
+        hotStart = Integer.getInteger("load.hotStart", 60);
+        hotDays = Integer.getInteger("load.hotDays", 7);
+        hotFraction = Double.parseDouble(System.getProperty("load.hotFraction", "0.3"));
+        minNights = Integer.getInteger("load.minNights", 1);
+        maxNights = Integer.getInteger("load.maxNights", 7);
+        declineRate = Double.parseDouble(System.getProperty("load.declineRate", "0.05"));
+        seed = Long.getLong("load.seed", System.nanoTime());
+        long gatewayMillis = Long.getLong("load.gatewayMillis", 0);
+        int customerCount = Integer.getInteger("load.customers", 10000);
+
+        List<House> fleet = new ArrayList<>(houseCount);
+        for (int number = 1; number <= houseCount; number++) {
+            fleet.add(new House(number, 1000 + (number % 20) * 100));
+        }
+        HouseRegistry registry = new HouseRegistry();
+        registry.addAll(fleet);
+        bookingSystem = new BookingSystem(registry);
+        bookingSystem.setPaymentGateway(new FlakyGateway(new StubPaymentGateway(gatewayMillis), declineRate));
+        today = LocalDate.now();
+
+        // บ้านหมายเลข 1 นิยมที่สุด น้ำหนักของอันดับ k คือ 1 / k^skew
+        houses = registry.getAll().toArray(new House[0]);
+        popularity = new double[houses.length];
+        double sum = 0;
+        for (int rank = 0; rank < houses.length; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            popularity[rank] = sum;
+        }
+        for (int rank = 0; rank < houses.length; rank++) {
+            popularity[rank] /= sum;
+        }
+
+        customers = new Customer[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            customers[i] = bookingSystem.findOrCreateCustomer(
+                "ลูกค้า " + i, "08" + (10000000 + i), "customer" + i + "@example.com");
+        }
+    }
+
+    /**
+     * gateway ที่ปฏิเสธการชำระเงินแบบสุ่มตามสัดส่วนที่กำหนด (ที่เหลือส่งต่อให้ gateway จริง)
+     */
+    private static final class FlakyGateway implements PaymentGateway {
+        private final PaymentGateway delegate;
+        private final double declineRate;
+
+        FlakyGateway(PaymentGateway delegate, double declineRate) {
+            this.delegate = delegate;
+            this.declineRate = declineRate;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> authorize(Booking booking, double amount) {
+            if (declineRate > 0 && ThreadLocalRandom.current().nextDouble() < declineRate) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return delegate.authorize(booking, amount);
+        }
+
+        @Override
+        public CompletableFuture<Void> voidAuthorization(Booking booking, double amount) {
+            return delegate.voidAuthorization(booking, amount);
+        }
+    }
+
+    /**
+     * สร้างโหลดจากทุก thread จนครบเวลา
+     *
+     * @return เวลาที่ใช้จริง (nanosecond)
+     */
+    long run() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.SECONDS.toNanos(seconds);
+        // ระยะห่างเฉลี่ยระหว่างลูกค้าของแต่ละ thread (0 = ไม่จำกัดอัตรา)
+        double meanGapNanos = rate > 0 ? threads * 1e9 / rate : 0;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(seed + t);
+            Thread worker = new Thread(() -> customerLoop(random, startNanos, deadline, meanGapNanos),
+                                       "load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * วนลูปของ thread ลูกค้าหนึ่ง thread
+     */
+    private void customerLoop(SplittableRandom random, long startNanos, long deadline, double meanGapNanos) {
+        long intended = startNanos;
+        while (true) {
+            if (meanGapNanos > 0) {
+                // เวลาที่ลูกค้าคนถัดไปมาถึง (ระยะห่างแบบ exponential = การมาถึงแบบ Poisson)
+                intended += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                if (intended >= deadline) {
+                    return;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intended = System.nanoTime();
+                if (intended >= deadline) {
+                    return;
+                }
+            }
+            attempt(random, intended);
+        }
+    }
+
+    /**
+     * ลูกค้าหนึ่งคน: เลือกบ้านและวันที่ จอง แล้วชำระเงิน
+     *
+     * @param intended เวลาที่ลูกค้ามาถึง (จุดเริ่มของ latency ทั้งหมด)
+     */
+    private void attempt(SplittableRandom random, long intended) {
+        House house = houses[pickHouse(random)];
+        int offset = random.nextDouble() < hotFraction
+            ? hotStart + random.nextInt(Math.max(1, hotDays))
+            : random.nextInt(Math.max(1, horizon));
+        LocalDate checkIn = today.plusDays(offset);
+        LocalDate checkOut = checkIn.plusDays(minNights + random.nextInt(maxNights - minNights + 1));
+        Customer customer = customers[random.nextInt(customers.length)];
+        attempts.increment();
+
+        long createStart = System.nanoTime();
+        Booking booking = bookingSystem.createBooking(house, customer, checkIn, checkOut);
+        createLatency.recordSince(createStart);
+        if (booking == null) {
+            rejected.increment();
+            endToEndLatency.recordSince(intended);
+            return;
+        }
+
+        long paymentStart = System.nanoTime();
+        PaymentStatus status = bookingSystem.processPaymentAsync(booking, booking.getTotalPrice()).join();
+        paymentLatency.recordSince(paymentStart);
+        switch (status) {
+            case CONFIRMED:
+                confirmed.increment();
+                break;
+            case DECLINED:
+                declined.increment();
+                // ลูกค้าเลิกจอง ไม่รอให้ hold หมดเวลา
+                bookingSystem.releaseHold(booking);
+                break;
+            case UNAVAILABLE:
+                lostRace.increment();
+                break;
+            default:
+                failed.increment();
+                break;
+        }
+        endToEndLatency.recordSince(intended);
+    }
+
+    /**
+     * สุ่มลำดับบ้านตามความนิยม (binary search บนผลรวมสะสม)
+     */
+    private int pickHouse(SplittableRandom random) {
+        double target = random.nextDouble();
+        int low = 0;
+        int high = popularity.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (popularity[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * ตรวจว่าไม่มีบ้านหลังใดมีการจองที่ยืนยันแล้วทับซ้อนกัน (วันคืนบ้านนับเป็นวันที่ไม่ว่าง)
+     * และจำนวนการจองในระบบเท่ากับจำนวนการชำระเงินที่สำเร็จ
+     *
+     * @return รายการข้อผิดพลาดที่พบ (ว่าง = ถูกต้อง)
+     */
+    List<String> verify() {
+        List<String> violations = new ArrayList<>();
+        for (House house : houses) {
+            List<Booking> booked = bookingSystem.findBookings(house.getHouseNumber(), null, null);
+            booked.sort(Comparator.comparing(Booking::getCheckInDate));
+            for (int i = 1; i < booked.size(); i++) {
+                Booking previous = booked.get(i - 1);
+                Booking next = booked.get(i);
+                if (!next.getCheckInDate().isAfter(previous.getCheckOutDate())) {
+                    violations.add(String.format("บ้าน %d: การจอง #%d (%s ถึง %s) ทับ #%d (%s ถึง %s)",
+                        house.getHouseNumber(), previous.getBookingId(), previous.getCheckInDate(),
+                        previous.getCheckOutDate(), next.getBookingId(), next.getCheckInDate(),
+                        next.getCheckOutDate()));
+                }
+            }
+        }
+        long stored = bookingSystem.getBookings().size();
+        if (stored != confirmed.sum()) {
+            violations.add("ชำระเงินสำเร็จ " + confirmed.sum() + " ครั้ง แต่มีการจองในระบบ " + stored + " รายการ");
+        }
+        return violations;
+    }
+
+    /**
+     * พิมพ์รายงานผล
+     */
+    void report(PrintStream out, long elapsedNanos, List<String> violations) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        long total = attempts.sum();
+        long conflicts = rejected.sum() + lostRace.sum();
+
+        out.printf("thread=%d rate=%s seconds=%d houses=%d skew=%.2f hot=%d+%d(%.0f%%) nights=%d-%d decline=%.1f%% seed=%d%n",
+            threads, rate > 0 ? String.format("%.0f/s", rate) : "ไม่จำกัด", seconds, houseCount, skew,
+            hotStart, hotDays, hotFraction * 100, minNights, maxNights, declineRate * 100, seed);
+        out.printf("ลูกค้า %,d คน ใน %.1f วินาที: %,.0f คน/วินาที, ยืนยัน %,.0f การจอง/วินาที%n",
+            total, elapsedSeconds, total / elapsedSeconds, confirmed.sum() / elapsedSeconds);
+        out.printf("ยืนยัน %,d  ไม่ว่างตอนจอง %,d  แพ้ตอนยืนยัน %,d  ถูกปฏิเสธ %,d  ล้มเหลว %,d%n",
+            confirmed.sum(), rejected.sum(), lostRace.sum(), declined.sum(), failed.sum());
+        out.printf("อัตราการชน %.2f%%%n", total == 0 ? 0 : 100.0 * conflicts / total);
+        out.println("createBooking  " + createLatency);
+        out.println("payment        " + paymentLatency);
+        out.println("ทั้งหมด         " + endToEndLatency);
+
+        if (violations.isEmpty()) {
+            out.println("ตรวจการจองซ้อน: ไม่พบ");
+        } else {
+            out.println("ตรวจการจองซ้อน: พบ " + violations.size() + " รายการ");
+            violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(line -> out.println("  " + line));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // ระบบพิมพ์ข้อความลง console ทุกครั้งที่จองไม่สำเร็จ ทิ้งข้อความไว้ให้เหลือแต่รายงาน
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        LoadGenerator generator = new LoadGenerator();
+        long elapsed = generator.run();
+        List<String> violations = generator.verify();
+        generator.report(out, elapsed, violations);
+        generator.bookingSystem.close();
+
+        if (!violations.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
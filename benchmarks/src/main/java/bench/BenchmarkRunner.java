@@ -0,0 +1,47 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ตัวรัน benchmark ทั้งชุดซ้ำตามจำนวน thread ที่กำหนด
+ * ผลของแต่ละจำนวน thread ถูกบันทึกเป็นไฟล์ JSON ของ JMH แยกกัน ใช้เทียบผลระหว่างเวอร์ชันได้
+ *
+ * การใช้งาน:
+ *   java -Dbench.threads=1,4,8 -Dbench.results=results -jar target/benchmarks.jar [ตัวเลือกของ JMH]
+ *
+ * ตัวเลือกของ JMH ใช้ได้ตามปกติ เช่น ชื่อ benchmark (regex) หรือ -p fleetSize=1000
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        // ตัวเลือกจาก command line ของ JMH (ใช้เป็นค่าตั้งต้นของทุกรอบ)
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        String[] threadCounts = System.getProperty("bench.threads", "1,4,8").split(",");
+        Path resultsDir = Paths.get(System.getProperty("bench.results", "results"));
+        Files.createDirectories(resultsDir);
+
+        for (String threadCount : threadCounts) {
+            int threads = Integer.parseInt(threadCount.trim());
+            Path resultFile = resultsDir.resolve("jmh-threads-" + threads + ".json");
+
+            Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString())
+                .build();
+            new Runner(options).run();
+
+            System.out.println("บันทึกผล " + threads + " thread ที่ " + resultFile);
+        }
+    }
+}
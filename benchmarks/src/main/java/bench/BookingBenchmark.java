@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * benchmark ของเส้นทางหลักในการจอง: ค้นหาบ้าน ตรวจวันว่าง สร้างการจอง และชำระเงิน
+ * บ้านและวันที่สุ่มใหม่ทุกครั้ง (วันเข้าพักภายใน 900 วันจากวันนี้ พัก 1-7 วัน)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBenchmark {
+
+    @Benchmark
+    public Object findHouseByNumber(BookingState state) {
+        return state.workload.findHouse(randomHouse(state));
+    }
+
+    @Benchmark
+    public boolean isHouseAvailableForDates(BookingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.workload.isAvailable(randomHouse(state), random.nextInt(900), 1 + random.nextInt(7));
+    }
+
+    @Benchmark
+    public double quote(BookingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.workload.quote(randomHouse(state), random.nextInt(900), random.nextInt(30));
+    }
+
+    @Benchmark
+    public Object createBooking(BookingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.workload.createBooking(randomHouse(state), random.nextInt(900), 1 + random.nextInt(7));
+    }
+
+    @Benchmark
+    public boolean processPayment(BookingState state) {
+        return state.workload.pay();
+    }
+
+    /**
+     * สุ่มหมายเลขบ้าน (1 ถึงจำนวนบ้าน)
+     */
+    private static int randomHouse(BookingState state) {
+        return 1 + ThreadLocalRandom.current().nextInt(state.workload.getFleetSize());
+    }
+}
@@ -0,0 +1,44 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * สถานะร่วมของ benchmark: ระบบจองบ้านพักหนึ่งระบบต่อการวัด ใช้ร่วมกันทุก thread
+ * ขนาดของข้อมูลกำหนดด้วย @Param (เปลี่ยนได้จาก command line ด้วย -p fleetSize=... )
+ */
+@State(Scope.Benchmark)
+public class BookingState {
+    // จำนวนบ้านในระบบ
+    @Param({"10", "1000", "10000"})
+    public int fleetSize;
+
+    // จำนวนการจองที่ชำระแล้วก่อนเริ่มวัด
+    @Param({"0", "10000", "100000"})
+    public int historySize;
+
+    // ระบบที่ใช้วัด
+    public BookingWorkload workload;
+
+    /**
+     * สร้างระบบใหม่ก่อนวัดแต่ละรอบ
+     * (benchmark ที่เพิ่มการจองจะไม่ทำให้รอบถัดไปมีข้อมูลมากขึ้นเรื่อย ๆ)
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = BookingWorkload.create();
+        workload.setUp(fleetSize, historySize);
+    }
+
+    /**
+     * ปิดระบบหลังวัดแต่ละรอบ
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.tearDown();
+    }
+}
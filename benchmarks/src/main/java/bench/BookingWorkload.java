@@ -0,0 +1,134 @@
+package bench;
+
+/**
+ * ตัวกลางระหว่าง benchmark กับระบบจองบ้านพัก
+ * คลาสของระบบอยู่ใน default package ซึ่ง import จาก package อื่นไม่ได้
+ * (และ JMH ไม่ยอมให้ benchmark อยู่ใน default package)
+ * จึงเรียกผ่าน interface นี้ โดยมี BookingWorkloadImpl ใน default package เป็นตัว implement
+ */
+public interface BookingWorkload {
+
+    /**
+     * สร้าง workload ใหม่ (โหลด BookingWorkloadImpl ด้วย reflection ครั้งเดียวตอน setup)
+     *
+     * @return workload ที่ยังไม่ได้เตรียมข้อมูล
+     */
+    static BookingWorkload create() {
+        try {
+            return (BookingWorkload) Class.forName("BookingWorkloadImpl")
+                                          .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("ไม่พบ BookingWorkloadImpl", e);
+        }
+    }
+
+    /**
+     * สร้างระบบใหม่ที่มีบ้าน fleetSize หลัง และการจองที่ชำระแล้ว historySize รายการ
+     * การจองในประวัติกระจายไปทุกบ้าน ทั้งในอดีตและอนาคต โดยไม่ทับซ้อนกัน
+     *
+     * @param fleetSize จำนวนบ้าน
+     * @param historySize จำนวนการจองเดิม
+     */
+    void setUp(int fleetSize, int historySize);
+
+    /**
+     * @return จำนวนบ้านในระบบ
+     */
+    int getFleetSize();
+
+    /**
+     * เรียก BookingSystem.isHouseAvailableForDates
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @param fromDay วันเข้าพัก (นับจากวันนี้)
+     * @param nights จำนวนวันเพิ่มจากวันเข้าพัก
+     * @return ผลจากระบบ
+     */
+    boolean isAvailable(int houseNumber, int fromDay, int nights);
+
+    /**
+     * เรียก BookingSystem.quote (ราคารวมของการพักตามอัตราฤดูกาล สุดสัปดาห์ และวันหยุด)
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @param fromDay วันเข้าพัก (นับจากวันนี้)
+     * @param nights จำนวนวันเพิ่มจากวันเข้าพัก
+     * @return ราคารวม (บาท)
+     */
+    double quote(int houseNumber, int fromDay, int nights);
+
+    /**
+     * เรียก BookingSystem.findHouseByNumber
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @return บ้านที่พบ (หรือ null)
+     */
+    Object findHouse(int houseNumber);
+
+    /**
+     * เรียก BookingSystem.createBooking (ยังไม่ชำระเงิน) แล้วปล่อยวันที่ที่กันไว้คืนทันที
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @param fromDay วันเข้าพัก (นับจากวันนี้)
+     * @param nights จำนวนวันเพิ่มจากวันเข้าพัก
+     * @return การจองที่สร้าง (หรือ null ถ้าบ้านไม่ว่าง)
+     */
+    Object createBooking(int houseNumber, int fromDay, int nights);
+
+    /**
+     * สร้างการจองในช่องวันถัดไปที่ยังไม่ถูกใช้ แล้วเรียก BookingSystem.processPayment
+     * ทุกครั้งใช้ช่องวันใหม่ จึงวัดเส้นทางที่ชำระเงินสำเร็จ
+     *
+     * @return ผลการชำระเงิน (false ถ้าชนกับ thread อื่นที่จองบ้านหลังเดียวกันพร้อมกัน)
+     */
+    boolean pay();
+
+    /**
+     * โหลดหน้าแรกของตารางรายการจอง (เมนู 3): ค้นหา เรียงตามหมายเลขการจอง
+     * แล้วจัดรูปแบบทุกช่องของหน้าแรกเหมือนที่ JTable แสดงบนจอ
+     *
+     * @return ค่าของช่องสุดท้ายที่จัดรูปแบบ
+     */
+    Object viewBookings();
+
+    /**
+     * วัดหน่วยความจำ heap ที่ใช้เก็บประวัติการจอง (หลัง GC)
+     * ลูกค้าถูกสร้างไว้ก่อนวัด (ลูกค้าหนึ่งคนมีหลายการจอง) จึงวัดเฉพาะต้นทุนต่อการจอง
+     *
+     * @param count จำนวนการจอง
+     * @param compact true = เก็บใน BookingList (BookingStore), false = ArrayList ของ Booking object
+     * @return จำนวน byte ที่เพิ่มขึ้นโดยประมาณ
+     */
+    long historyFootprint(int count, boolean compact);
+
+    /**
+     * สร้างระบบแบบแบ่ง shard (ShardedBookingSystem) แทน BookingSystem
+     * บ้านและการจองเดิมเหมือน setUp (การจองเดิมถูกจองและชำระผ่าน router)
+     *
+     * @param fleetSize จำนวนบ้าน
+     * @param historySize จำนวนการจองเดิม
+     * @param shards จำนวน shard
+     */
+    void setUpSharded(int fleetSize, int historySize, int shards);
+
+    /**
+     * เหมือน pay() แต่จองและชำระเงินผ่าน ShardedBookingSystem (รอผล)
+     *
+     * @return true ถ้ายืนยันการจองแล้ว
+     */
+    boolean paySharded();
+
+    /**
+     * เหมือน isAvailable แต่ถาม shard ของบ้านผ่าน ShardedBookingSystem (รอผล)
+     *
+     * @param houseNumber หมายเลขบ้าน
+     * @param fromDay วันเข้าพัก (นับจากวันนี้)
+     * @param nights จำนวนวันเพิ่มจากวันเข้าพัก
+     * @return ผลจากระบบ
+     */
+    boolean isAvailableSharded(int houseNumber, int fromDay, int nights);
+
+    /**
+     * ปิดระบบที่สร้างไว้
+     */
+    void tearDown();
+}
@@ -0,0 +1,28 @@
+package bench;
+
+/**
+ * รายงานหน่วยความจำที่ใช้เก็บประวัติการจอง: Booking object ทีละรายการ เทียบกับ BookingStore
+ * (JMH วัดเวลา ไม่ได้วัดหน่วยความจำที่ค้างอยู่ จึงแยกเป็นตัวรันต่างหาก)
+ *
+ * การใช้งาน:
+ *   java -cp target/benchmarks.jar bench.FootprintReport [จำนวนการจอง ...]
+ */
+public class FootprintReport {
+
+    public static void main(String[] args) {
+        String[] counts = args.length > 0 ? args : new String[] {"100000", "1000000"};
+        BookingWorkload workload = BookingWorkload.create();
+
+        System.out.printf("%12s %18s %18s %10s%n", "การจอง", "Booking (byte/รายการ)", "Store (byte/รายการ)", "ลดลง");
+        for (String countText : counts) {
+            int count = Integer.parseInt(countText.trim());
+            // รอบแรกของแต่ละแบบเป็น warm-up (โหลดคลาส) แล้ววัดรอบที่สอง
+            workload.historyFootprint(count / 10, false);
+            workload.historyFootprint(count / 10, true);
+            double objects = (double) workload.historyFootprint(count, false) / count;
+            double compact = (double) workload.historyFootprint(count, true) / count;
+            System.out.printf("%,12d %18.1f %18.1f %9.0f%%%n", count, objects, compact, 
+                              100 * (1 - compact / objects));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * benchmark ของ ShardedBookingSystem: จองและชำระเงินผ่าน router
+ * วัดเป็น throughput เพื่อดูว่าเพิ่มขึ้นตามจำนวน shard และจำนวน thread หรือไม่
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedBookingBenchmark {
+
+    @Benchmark
+    public boolean processPayment(ShardedBookingState state) {
+        return state.workload.paySharded();
+    }
+
+    @Benchmark
+    public boolean isHouseAvailableForDates(ShardedBookingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.workload.isAvailableSharded(1 + random.nextInt(state.workload.getFleetSize()), 
+                                                 random.nextInt(900), random.nextInt(7));
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * สถานะร่วมของ benchmark แบบแบ่ง shard: ระบบ ShardedBookingSystem หนึ่งระบบต่อการวัด
+ * จำนวน shard กำหนดด้วย @Param (เช่น -p shards=1,4,8 เทียบกับจำนวน thread ของ BenchmarkRunner)
+ */
+@State(Scope.Benchmark)
+public class ShardedBookingState {
+    // จำนวนบ้านในระบบ
+    @Param({"1000", "10000"})
+    public int fleetSize;
+
+    // จำนวนการจองที่ชำระแล้วก่อนเริ่มวัด
+    @Param({"0", "10000"})
+    public int historySize;
+
+    // จำนวน shard
+    @Param({"1", "4", "8"})
+    public int shards;
+
+    // ระบบที่ใช้วัด
+    public BookingWorkload workload;
+
+    /**
+     * สร้างระบบใหม่ก่อนวัดแต่ละรอบ
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = BookingWorkload.create();
+        workload.setUpSharded(fleetSize, historySize, shards);
+    }
+
+    /**
+     * ปิดระบบหลังวัดแต่ละรอบ
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.tearDown();
+    }
+}
@@ -0,0 +1,28 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * benchmark ของการเปิดหน้ารายการจอง (เมนู 3 ใน SimpleBookingGUI)
+ * วัดการค้นหา เรียง และจัดรูปแบบหน้าแรกของตาราง เวลาเพิ่มตามจำนวนการจอง จึงวัดเป็นมิลลิวินาที
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewBookingsBenchmark {
+
+    @Benchmark
+    public Object viewBookings(BookingState state) {
+        return state.workload.viewBookings();
+    }
+}